@@ -0,0 +1,7 @@
+package org.woofdb.core.exceptions;
+
+public class ConstraintViolationException extends RuntimeException {
+    public ConstraintViolationException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.woofdb.core.exceptions;
+
+public class InvalidTransactionStateException extends RuntimeException {
+    public InvalidTransactionStateException(final String message) {
+        super(message);
+    }
+}
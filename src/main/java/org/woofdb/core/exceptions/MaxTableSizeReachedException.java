@@ -1,7 +0,0 @@
-package org.woofdb.core.exceptions;
-
-public class MaxTableSizeReachedException extends Exception {
-    public MaxTableSizeReachedException(final String message) {
-        super(message);
-    }
-}
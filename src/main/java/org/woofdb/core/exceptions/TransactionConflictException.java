@@ -0,0 +1,7 @@
+package org.woofdb.core.exceptions;
+
+public class TransactionConflictException extends RuntimeException {
+    public TransactionConflictException(final String message) {
+        super(message);
+    }
+}
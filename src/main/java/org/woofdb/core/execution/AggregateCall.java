@@ -0,0 +1,7 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.expression.AggregateFunction;
+
+// an aggregate function bound to a column index, -1 for COUNT(*)
+public record AggregateCall(AggregateFunction function, int columnIndex) {
+}
@@ -0,0 +1,353 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.expression.AggregateFunction;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VarcharVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * State of one aggregate function for every group, kept in primitive arrays indexed by group id. Batches are
+ * accumulated with the group of every selected row, rows with group -1 were spilled and are skipped.
+ */
+abstract class Aggregator {
+    protected int capacity;
+
+    static Aggregator of(final AggregateCall call, final DataType type) {
+        return switch (call.function()) {
+            case COUNT -> new Count(call.columnIndex());
+            case SUM -> switch (numeric(call, type)) {
+                case INT -> new IntSum(call.columnIndex());
+                default -> new DoubleSum(call.columnIndex(), false);
+            };
+            case AVG -> {
+                numeric(call, type);
+                yield new DoubleSum(call.columnIndex(), true);
+            }
+            case MIN, MAX -> type == DataType.VARCHAR
+                    ? new VarcharExtreme(call.columnIndex(), call.function() == AggregateFunction.MAX)
+                    : new NumericExtreme(call.columnIndex(), type, call.function() == AggregateFunction.MAX);
+        };
+    }
+
+    // makes room for groups up to the given count
+    final void ensureCapacity(final int groups) {
+        if (groups > capacity) {
+            grow(Math.max(groups, Math.max(16, capacity * 2)));
+        }
+    }
+
+    abstract void grow(int newCapacity);
+
+    abstract void accumulate(VectorBatch batch, int[] groups);
+
+    abstract Object result(int group);
+
+    // folds the state of a group of another aggregator of the same call into a group of this one
+    abstract void merge(Aggregator other, int otherGroup, int group);
+
+    private static DataType numeric(final AggregateCall call, final DataType type) {
+        if (type == null || type == DataType.VARCHAR) {
+            throw new SyntaxError(call.function() + " needs a numeric column");
+        }
+        return type;
+    }
+
+    private static final class Count extends Aggregator {
+        private final int columnIndex;
+        private long[] counts = new long[0];
+
+        Count(final int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        void grow(final int newCapacity) {
+            counts = Arrays.copyOf(counts, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        void accumulate(final VectorBatch batch, final int[] groups) {
+            int count = batch.getSelectedCount();
+            if (columnIndex < 0) {
+                for (int i = 0; i < count; i ++) {
+                    if (groups[i] >= 0) {
+                        counts[groups[i]]++;
+                    }
+                }
+                return;
+            }
+            ColumnVector vector = batch.getColumn(columnIndex);
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < count; i ++) {
+                if (groups[i] >= 0 && !vector.isNull(selection[i])) {
+                    counts[groups[i]]++;
+                }
+            }
+        }
+
+        @Override
+        Object result(final int group) {
+            return counts[group];
+        }
+
+        @Override
+        void merge(final Aggregator other, final int otherGroup, final int group) {
+            counts[group] += ((Count) other).counts[otherGroup];
+        }
+    }
+
+    // SUM of an INT column, a long does not overflow where the int column would
+    private static final class IntSum extends Aggregator {
+        private final int columnIndex;
+        private long[] sums = new long[0];
+        private long[] counts = new long[0];
+
+        IntSum(final int columnIndex) {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        void grow(final int newCapacity) {
+            sums = Arrays.copyOf(sums, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        void accumulate(final VectorBatch batch, final int[] groups) {
+            IntVector ints = (IntVector) batch.getColumn(columnIndex);
+            int[] values = ints.getValues();
+            int[] selection = batch.getSelection();
+            int count = batch.getSelectedCount();
+            for (int i = 0; i < count; i ++) {
+                int group = groups[i];
+                int position = selection[i];
+                if (group >= 0 && !ints.isNull(position)) {
+                    sums[group] += values[position];
+                    counts[group]++;
+                }
+            }
+        }
+
+        @Override
+        Object result(final int group) {
+            return counts[group] == 0 ? null : sums[group];
+        }
+
+        @Override
+        void merge(final Aggregator other, final int otherGroup, final int group) {
+            IntSum sum = (IntSum) other;
+            sums[group] += sum.sums[otherGroup];
+            counts[group] += sum.counts[otherGroup];
+        }
+    }
+
+    // SUM of a FLOAT or DOUBLE column, or AVG of any numeric column
+    private static final class DoubleSum extends Aggregator {
+        private final int columnIndex;
+        private final boolean average;
+        private double[] sums = new double[0];
+        private long[] counts = new long[0];
+
+        DoubleSum(final int columnIndex, final boolean average) {
+            this.columnIndex = columnIndex;
+            this.average = average;
+        }
+
+        @Override
+        void grow(final int newCapacity) {
+            sums = Arrays.copyOf(sums, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        void accumulate(final VectorBatch batch, final int[] groups) {
+            int[] selection = batch.getSelection();
+            int count = batch.getSelectedCount();
+            switch (batch.getColumn(columnIndex)) {
+                case IntVector ints -> {
+                    int[] values = ints.getValues();
+                    for (int i = 0; i < count; i ++) {
+                        int group = groups[i];
+                        int position = selection[i];
+                        if (group >= 0 && !ints.isNull(position)) {
+                            sums[group] += values[position];
+                            counts[group]++;
+                        }
+                    }
+                }
+                case FloatVector floats -> {
+                    float[] values = floats.getValues();
+                    for (int i = 0; i < count; i ++) {
+                        int group = groups[i];
+                        int position = selection[i];
+                        if (group >= 0 && !floats.isNull(position)) {
+                            sums[group] += values[position];
+                            counts[group]++;
+                        }
+                    }
+                }
+                case DoubleVector doubles -> {
+                    double[] values = doubles.getValues();
+                    for (int i = 0; i < count; i ++) {
+                        int group = groups[i];
+                        int position = selection[i];
+                        if (group >= 0 && !doubles.isNull(position)) {
+                            sums[group] += values[position];
+                            counts[group]++;
+                        }
+                    }
+                }
+                case VarcharVector ignored -> throw new IllegalStateException("VARCHAR column in a numeric aggregate");
+            }
+        }
+
+        @Override
+        Object result(final int group) {
+            if (counts[group] == 0) {
+                return null;
+            }
+            return average ? sums[group] / counts[group] : sums[group];
+        }
+
+        @Override
+        void merge(final Aggregator other, final int otherGroup, final int group) {
+            DoubleSum sum = (DoubleSum) other;
+            sums[group] += sum.sums[otherGroup];
+            counts[group] += sum.counts[otherGroup];
+        }
+    }
+
+    // MIN or MAX of a numeric column, compared the way the filters compare
+    private static final class NumericExtreme extends Aggregator {
+        private final int columnIndex;
+        private final DataType type;
+        private final boolean max;
+        private double[] values = new double[0];
+        private boolean[] present = new boolean[0];
+
+        NumericExtreme(final int columnIndex, final DataType type, final boolean max) {
+            this.columnIndex = columnIndex;
+            this.type = type;
+            this.max = max;
+        }
+
+        @Override
+        void grow(final int newCapacity) {
+            values = Arrays.copyOf(values, newCapacity);
+            present = Arrays.copyOf(present, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        void accumulate(final VectorBatch batch, final int[] groups) {
+            int[] selection = batch.getSelection();
+            int count = batch.getSelectedCount();
+            ColumnVector vector = batch.getColumn(columnIndex);
+            for (int i = 0; i < count; i ++) {
+                int group = groups[i];
+                int position = selection[i];
+                if (group < 0 || vector.isNull(position)) {
+                    continue;
+                }
+                // int and float values are exact in a double
+                double value = switch (vector) {
+                    case IntVector ints -> ints.get(position);
+                    case FloatVector floats -> floats.get(position);
+                    case DoubleVector doubles -> doubles.get(position);
+                    case VarcharVector ignored -> throw new IllegalStateException("VARCHAR column in a numeric aggregate");
+                };
+                offer(group, value);
+            }
+        }
+
+        @Override
+        void merge(final Aggregator other, final int otherGroup, final int group) {
+            NumericExtreme extreme = (NumericExtreme) other;
+            if (extreme.present[otherGroup]) {
+                offer(group, extreme.values[otherGroup]);
+            }
+        }
+
+        private void offer(final int group, final double value) {
+            if (!present[group] || (max ? Double.compare(value, values[group]) > 0 : Double.compare(value, values[group]) < 0)) {
+                values[group] = value;
+                present[group] = true;
+            }
+        }
+
+        @Override
+        Object result(final int group) {
+            if (!present[group]) {
+                return null;
+            }
+            return switch (type) {
+                case INT -> (int) values[group];
+                case FLOAT -> (float) values[group];
+                default -> values[group];
+            };
+        }
+    }
+
+    // MIN or MAX of a VARCHAR column, the current extreme is kept as UTF-8 and only replaced when beaten
+    private static final class VarcharExtreme extends Aggregator {
+        private final int columnIndex;
+        private final boolean max;
+        private byte[][] values = new byte[0][];
+
+        VarcharExtreme(final int columnIndex, final boolean max) {
+            this.columnIndex = columnIndex;
+            this.max = max;
+        }
+
+        @Override
+        void grow(final int newCapacity) {
+            values = Arrays.copyOf(values, newCapacity);
+            capacity = newCapacity;
+        }
+
+        @Override
+        void accumulate(final VectorBatch batch, final int[] groups) {
+            VarcharVector strings = (VarcharVector) batch.getColumn(columnIndex);
+            int[] selection = batch.getSelection();
+            int count = batch.getSelectedCount();
+            for (int i = 0; i < count; i ++) {
+                int group = groups[i];
+                int position = selection[i];
+                if (group < 0 || strings.isNull(position)) {
+                    continue;
+                }
+                byte[] current = values[group];
+                if (current == null || (max ? strings.compare(position, current) > 0 : strings.compare(position, current) < 0)) {
+                    byte[] value = new byte[strings.length(position)];
+                    strings.copyTo(position, value, 0);
+                    values[group] = value;
+                }
+            }
+        }
+
+        @Override
+        Object result(final int group) {
+            return values[group] == null ? null : new String(values[group], StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void merge(final Aggregator other, final int otherGroup, final int group) {
+            byte[] value = ((VarcharExtreme) other).values[otherGroup];
+            byte[] current = values[group];
+            if (value != null && (current == null || (max ? Arrays.compareUnsigned(value, current) > 0 : Arrays.compareUnsigned(value, current) < 0))) {
+                values[group] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.VectorBatch;
+
+public record AndFilter(Filter left, Filter right) implements Filter {
+
+    @Override
+    public boolean matches(final Row row) {
+        return left.matches(row) && right.matches(row);
+    }
+
+    // the right side only sees the rows the left side kept
+    @Override
+    public void filter(final VectorBatch batch) {
+        left.filter(batch);
+        if (batch.getSelectedCount() > 0) {
+            right.filter(batch);
+        }
+    }
+
+    @Override
+    public void markColumns(final boolean[] columns) {
+        left.markColumns(columns);
+        right.markColumns(columns);
+    }
+}
@@ -0,0 +1,11 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.io.IOException;
+
+// produces the rows of a query one batch at a time, the returned batch may be reused by the next call
+public interface BatchSource {
+    // the next batch with at least one selected row, null once the source is exhausted
+    VectorBatch nextBatch() throws IOException;
+}
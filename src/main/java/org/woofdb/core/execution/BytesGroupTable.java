@@ -0,0 +1,238 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VarcharVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Open addressing table for composite and VARCHAR group keys. The key columns of a row are encoded into one byte
+ * string, a null flag per column followed by the value, and the keys of all groups are packed into a single growing
+ * array. Slots keep the group id, the full hash of every group is kept to skip most byte comparisons.
+ */
+final class BytesGroupTable implements GroupTable {
+    private final int[] keyColumns;
+    private final DataType[] keyTypes;
+    private final int maxGroups;
+    private int[] slotGroups; // group + 1, 0 marks an empty slot
+    private int mask;
+    private long[] groupHashes;
+    private int[] groupOffsets;
+    private int[] groupLengths;
+    private byte[] keys;
+    private int keysSize;
+    private int size;
+    private byte[] scratch = new byte[64];
+    private int scratchLength;
+
+    BytesGroupTable(final int[] keyColumns, final DataType[] keyTypes, final int maxGroups) {
+        this.keyColumns = keyColumns;
+        this.keyTypes = keyTypes;
+        this.maxGroups = maxGroups;
+        this.slotGroups = new int[64];
+        this.mask = 63;
+        this.groupHashes = new long[32];
+        this.groupOffsets = new int[32];
+        this.groupLengths = new int[32];
+        this.keys = new byte[1024];
+    }
+
+    @Override
+    public void findGroups(final VectorBatch batch, final int[] groups) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        for (int i = 0; i < count; i ++) {
+            encode(batch, selection[i]);
+            groups[i] = find(hashScratch(), maxGroups);
+        }
+    }
+
+    @Override
+    public int findOrAdd(final Object[] key) {
+        scratchLength = 0;
+        for (int i = 0; i < keyColumns.length; i ++) {
+            ensureScratch(9);
+            if (key[i] == null) {
+                scratch[scratchLength++] = 0;
+                continue;
+            }
+            scratch[scratchLength++] = 1;
+            switch (keyTypes[i]) {
+                case INT -> writeInt((Integer) key[i]);
+                case FLOAT -> {
+                    float value = (Float) key[i];
+                    writeInt(Float.floatToIntBits(value == 0 ? 0f : value));
+                }
+                case DOUBLE -> {
+                    double value = (Double) key[i];
+                    long bits = Double.doubleToLongBits(value == 0 ? 0d : value);
+                    writeInt((int) (bits >>> 32));
+                    writeInt((int) bits);
+                }
+                case VARCHAR -> {
+                    byte[] bytes = ((String) key[i]).getBytes(StandardCharsets.UTF_8);
+                    writeInt(bytes.length);
+                    ensureScratch(bytes.length);
+                    System.arraycopy(bytes, 0, scratch, scratchLength, bytes.length);
+                    scratchLength += bytes.length;
+                }
+            }
+        }
+        return find(hashScratch(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long hash(final VectorBatch batch, final int position) {
+        encode(batch, position);
+        return hashScratch();
+    }
+
+    @Override
+    public Object[] key(final int group) {
+        Object[] key = new Object[keyColumns.length];
+        int offset = groupOffsets[group];
+        for (int i = 0; i < keyColumns.length; i ++) {
+            if (keys[offset++] == 0) {
+                continue;
+            }
+            switch (keyTypes[i]) {
+                case INT -> {
+                    key[i] = readInt(keys, offset);
+                    offset += 4;
+                }
+                case FLOAT -> {
+                    key[i] = Float.intBitsToFloat(readInt(keys, offset));
+                    offset += 4;
+                }
+                case DOUBLE -> {
+                    key[i] = Double.longBitsToDouble(((long) readInt(keys, offset) << 32) | (readInt(keys, offset + 4) & 0xFFFFFFFFL));
+                    offset += 8;
+                }
+                case VARCHAR -> {
+                    int length = readInt(keys, offset);
+                    key[i] = new String(keys, offset + 4, length, StandardCharsets.UTF_8);
+                    offset += 4 + length;
+                }
+            }
+        }
+        return key;
+    }
+
+    private int find(final long hash, final int limit) {
+        int slot = (int) hash & mask;
+        while (slotGroups[slot] != 0) {
+            int group = slotGroups[slot] - 1;
+            if (groupHashes[group] == hash && Arrays.equals(keys, groupOffsets[group], groupOffsets[group] + groupLengths[group], scratch, 0, scratchLength)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= limit) {
+            return -1;
+        }
+        int group = newGroup(hash);
+        slotGroups[slot] = group + 1;
+        if (size * 2 > slotGroups.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    private int newGroup(final long hash) {
+        if (size == groupHashes.length) {
+            groupHashes = Arrays.copyOf(groupHashes, size * 2);
+            groupOffsets = Arrays.copyOf(groupOffsets, size * 2);
+            groupLengths = Arrays.copyOf(groupLengths, size * 2);
+        }
+        if (keysSize + scratchLength > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keysSize + scratchLength));
+        }
+        System.arraycopy(scratch, 0, keys, keysSize, scratchLength);
+        groupHashes[size] = hash;
+        groupOffsets[size] = keysSize;
+        groupLengths[size] = scratchLength;
+        keysSize += scratchLength;
+        return size++;
+    }
+
+    private void rehash() {
+        slotGroups = new int[slotGroups.length * 2];
+        mask = slotGroups.length - 1;
+        for (int group = 0; group < size; group ++) {
+            int slot = (int) groupHashes[group] & mask;
+            while (slotGroups[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotGroups[slot] = group + 1;
+        }
+    }
+
+    private void encode(final VectorBatch batch, final int position) {
+        scratchLength = 0;
+        for (int columnIndex : keyColumns) {
+            ColumnVector vector = batch.getColumn(columnIndex);
+            ensureScratch(9);
+            if (vector.isNull(position)) {
+                scratch[scratchLength++] = 0;
+                continue;
+            }
+            scratch[scratchLength++] = 1;
+            switch (vector) {
+                case IntVector ints -> writeInt(ints.get(position));
+                case FloatVector floats -> {
+                    float value = floats.get(position);
+                    writeInt(Float.floatToIntBits(value == 0 ? 0f : value));
+                }
+                case DoubleVector doubles -> {
+                    double value = doubles.get(position);
+                    long bits = Double.doubleToLongBits(value == 0 ? 0d : value);
+                    writeInt((int) (bits >>> 32));
+                    writeInt((int) bits);
+                }
+                case VarcharVector strings -> {
+                    int length = strings.length(position);
+                    writeInt(length);
+                    ensureScratch(length);
+                    scratchLength = strings.copyTo(position, scratch, scratchLength);
+                }
+            }
+        }
+    }
+
+    private long hashScratch() {
+        long hash = 1;
+        for (int i = 0; i < scratchLength; i ++) {
+            hash = hash * 31 + scratch[i];
+        }
+        return GroupTable.mix(hash);
+    }
+
+    private void ensureScratch(final int length) {
+        if (scratchLength + length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+        }
+    }
+
+    private void writeInt(final int value) {
+        ensureScratch(4);
+        scratch[scratchLength++] = (byte) (value >>> 24);
+        scratch[scratchLength++] = (byte) (value >>> 16);
+        scratch[scratchLength++] = (byte) (value >>> 8);
+        scratch[scratchLength++] = (byte) value;
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,117 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VarcharVector;
+import org.woofdb.core.models.vector.VectorBatch;
+import org.woofdb.core.storage.KeyRange;
+
+import java.nio.charset.StandardCharsets;
+
+// a "column operator literal" condition with the column resolved to its index and the literal parsed to the column type
+public record Comparison(int columnIndex, Operation operation, Object value) implements Filter {
+
+    public Comparison {
+        switch (operation) {
+            case EQUALS, NOT_EQUALS, GT, GTE, LT, LTE -> {
+            }
+            default -> throw new SyntaxError("Unsupported operator " + operation.getLiteralValue() + " in WHERE clause");
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean matches(final Row row) {
+        Object rowValue = row.getValue(columnIndex);
+        return rowValue != null && test(((Comparable<Object>) rowValue).compareTo(value));
+    }
+
+    // one tight loop per column type
+    @Override
+    public void filter(final VectorBatch batch) {
+        ColumnVector vector = batch.getColumn(columnIndex);
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int kept = 0;
+        switch (vector) {
+            case IntVector ints -> {
+                int literal = (Integer) value;
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    if (!ints.isNull(position) && test(Integer.compare(ints.get(position), literal))) {
+                        selection[kept++] = position;
+                    }
+                }
+            }
+            case FloatVector floats -> {
+                float literal = (Float) value;
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    if (!floats.isNull(position) && test(Float.compare(floats.get(position), literal))) {
+                        selection[kept++] = position;
+                    }
+                }
+            }
+            case DoubleVector doubles -> {
+                double literal = (Double) value;
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    if (!doubles.isNull(position) && test(Double.compare(doubles.get(position), literal))) {
+                        selection[kept++] = position;
+                    }
+                }
+            }
+            case VarcharVector strings -> {
+                byte[] literal = ((String) value).getBytes(StandardCharsets.UTF_8);
+                boolean equality = operation == Operation.EQUALS || operation == Operation.NOT_EQUALS;
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    if (strings.isNull(position)) {
+                        continue;
+                    }
+                    int comparison = equality
+                            ? (strings.valueEquals(position, literal) ? 0 : 1)
+                            : strings.compare(position, literal);
+                    if (test(comparison)) {
+                        selection[kept++] = position;
+                    }
+                }
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+
+    @Override
+    public void markColumns(final boolean[] columns) {
+        columns[columnIndex] = true;
+    }
+
+    // key range selected by the comparison, null when it cannot be answered with a range scan
+    public KeyRange keyRange() {
+        return switch (operation) {
+            case EQUALS -> new KeyRange(value, true, value, true);
+            case GT -> new KeyRange(value, false, null, true);
+            case GTE -> new KeyRange(value, true, null, true);
+            case LT -> new KeyRange(null, true, value, false);
+            case LTE -> new KeyRange(null, true, value, true);
+            default -> null;
+        };
+    }
+
+    private boolean test(final int comparison) {
+        return switch (operation) {
+            case EQUALS -> comparison == 0;
+            case NOT_EQUALS -> comparison != 0;
+            case GT -> comparison > 0;
+            case GTE -> comparison >= 0;
+            case LT -> comparison < 0;
+            case LTE -> comparison <= 0;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.VectorBatch;
+
+// a bound condition whose batch evaluation runs through generated code, rows still go through the interpreted tree
+public record CompiledFilter(Filter source, CompiledQuery query) implements Filter {
+
+    @Override
+    public boolean matches(final Row row) {
+        return source.matches(row);
+    }
+
+    @Override
+    public void filter(final VectorBatch batch) {
+        query.filter(batch);
+    }
+
+    @Override
+    public void markColumns(final boolean[] columns) {
+        source.markColumns(columns);
+    }
+}
@@ -0,0 +1,13 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+
+// a filter and projection turned into one generated class by the QueryCompiler
+public interface CompiledQuery {
+
+    // narrows the selection vector of the batch, a query without condition keeps every row
+    void filter(VectorBatch batch);
+
+    // appends the projected columns of the selected rows in the format of the SelectExecutor
+    void print(VectorBatch batch, StringBuilder output);
+}
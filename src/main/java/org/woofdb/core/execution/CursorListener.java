@@ -0,0 +1,10 @@
+package org.woofdb.core.execution;
+
+import java.io.IOException;
+
+// told the number of rows read once a cursor is exhausted or closed, whichever comes first
+@FunctionalInterface
+interface CursorListener {
+
+    void finished(long rowCount) throws IOException;
+}
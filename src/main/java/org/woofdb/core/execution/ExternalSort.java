@@ -0,0 +1,267 @@
+package org.woofdb.core.execution;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Sorts rows of values for ORDER BY. With a LIMIT of at most {@value #MAX_HEAP_ROWS} rows only the best rows are
+ * kept, in a bounded heap whose root is the worst of them. Otherwise rows are buffered until the memory budget is
+ * used up, then sorted and written to a run file, and the runs are merged {@value #MAX_FAN_IN} at a time until a
+ * single k-way merge over all of them produces the output.
+ * <p>
+ * Rows hold Integer, Long, Float, Double or String values and nulls, nulls sort as the largest values.
+ */
+public final class ExternalSort implements Closeable {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    static final int MAX_HEAP_ROWS = 100_000;
+    private static final int MAX_FAN_IN = 64;
+
+    private final Comparator<Object[]> order;
+    private final long limit;
+    private final long memoryBudget;
+    // the best rows so far with the worst on top, only for a small LIMIT
+    private final PriorityQueue<Object[]> heap;
+    private List<Object[]> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    // sorted runs in memory, taken over from partial sorts
+    private final List<List<Object[]>> memoryRuns = new ArrayList<>();
+    private final List<Path> runs = new ArrayList<>();
+
+    // a negative limit sorts every row
+    public ExternalSort(final Comparator<Object[]> order, final long limit, final long memoryBudget) {
+        this.order = order;
+        this.limit = limit;
+        this.memoryBudget = memoryBudget;
+        this.heap = limit >= 0 && limit <= MAX_HEAP_ROWS ? new PriorityQueue<>(order.reversed()) : null;
+    }
+
+    // orders rows by the values at the given positions
+    public static Comparator<Object[]> comparator(final int[] positions, final boolean[] descending) {
+        return (left, right) -> {
+            for (int i = 0; i < positions.length; i ++) {
+                int comparison = compareValues(left[positions[i]], right[positions[i]]);
+                if (comparison != 0) {
+                    return descending[i] ? -comparison : comparison;
+                }
+            }
+            return 0;
+        };
+    }
+
+    public void add(final Object[] row) throws IOException {
+        if (heap != null) {
+            if (heap.size() < limit) {
+                heap.add(row);
+            }
+            else if (limit > 0 && order.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+            return;
+        }
+        buffer.add(row);
+        bufferedBytes += RowFiles.estimateSize(row);
+        if (bufferedBytes >= memoryBudget) {
+            spill();
+        }
+    }
+
+    // takes over the rows of a partial sort over other rows of the same input, its runs are merged with these
+    public void merge(final ExternalSort other) throws IOException {
+        List<Object[]> run = other.sortedBuffer();
+        if (heap != null) {
+            for (Object[] row : run) {
+                add(row);
+            }
+        }
+        else if (!run.isEmpty()) {
+            memoryRuns.add(run);
+        }
+        memoryRuns.addAll(other.memoryRuns);
+        runs.addAll(other.runs);
+        other.memoryRuns.clear();
+        other.runs.clear();
+    }
+
+    // emits the rows in order, at most limit of them
+    public void finish(final Consumer<Object[]> output) throws IOException {
+        try (RowCursor rows = rows()) {
+            Object[] row;
+            while ((row = rows.next()) != null) {
+                output.accept(row);
+            }
+        }
+    }
+
+    // the rows of finish one at a time, closing the cursor closes the sort
+    RowCursor rows() throws IOException {
+        RowCursor rows;
+        try {
+            rows = sorted();
+        }
+        catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        return new RowCursor() {
+            @Override
+            public Object[] next() throws IOException {
+                return rows.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    rows.close();
+                }
+                finally {
+                    ExternalSort.this.close();
+                }
+            }
+        };
+    }
+
+    // removes the run files, also when the sort is abandoned halfway
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        memoryRuns.clear();
+        buffer = new ArrayList<>();
+        bufferedBytes = 0;
+    }
+
+    // the rows in order once every row is added, at most limit of them; the run files stay until the sort is closed
+    RowCursor sorted() throws IOException {
+        List<Object[]> run = sortedBuffer();
+        if (!run.isEmpty()) {
+            memoryRuns.add(run);
+        }
+        while (runs.size() > MAX_FAN_IN) {
+            // merge the oldest runs into one until a single merge can read all of them at once
+            List<Path> merged = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+            Path target = RowFiles.createTempFile("sort");
+            runs.add(target);
+            try (RowCursor rows = merge(List.of(), merged); DataOutputStream out = RowFiles.newOutput(target)) {
+                Object[] row;
+                while ((row = rows.next()) != null) {
+                    RowFiles.write(out, row);
+                }
+            }
+            for (Path path : merged) {
+                Files.deleteIfExists(path);
+            }
+            runs.removeAll(merged);
+        }
+        return merge(memoryRuns, runs);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(final Object left, final Object right) {
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : 1) : -1;
+        }
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private List<Object[]> sortedBuffer() {
+        List<Object[]> sorted;
+        if (heap != null) {
+            sorted = new ArrayList<>(heap);
+            heap.clear();
+        }
+        else {
+            sorted = buffer;
+            buffer = new ArrayList<>();
+            bufferedBytes = 0;
+        }
+        sorted.sort(order);
+        return sorted;
+    }
+
+    private void spill() throws IOException {
+        List<Object[]> sorted = sortedBuffer();
+        Path run = RowFiles.createTempFile("sort");
+        runs.add(run);
+        // rows past the limit of a single run can never be emitted
+        int count = limit < 0 ? sorted.size() : (int) Math.min(sorted.size(), limit);
+        try (DataOutputStream out = RowFiles.newOutput(run)) {
+            for (int i = 0; i < count; i ++) {
+                RowFiles.write(out, sorted.get(i));
+            }
+        }
+    }
+
+    // k-way merge of sorted runs, stops after limit rows
+    private RowCursor merge(final List<List<Object[]>> memory, final List<Path> files) throws IOException {
+        List<RowCursor> inputs = new ArrayList<>();
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>((left, right) -> order.compare(left.row, right.row));
+        try {
+            for (List<Object[]> run : memory) {
+                Iterator<Object[]> rows = run.iterator();
+                new Cursor(() -> rows.hasNext() ? rows.next() : null).advanceInto(cursors);
+            }
+            for (Path file : files) {
+                RowCursor input = RowFiles.open(file);
+                inputs.add(input);
+                new Cursor(input).advanceInto(cursors);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            for (RowCursor input : inputs) {
+                input.close();
+            }
+            throw e;
+        }
+        return new RowCursor() {
+            private long emitted;
+
+            @Override
+            public Object[] next() throws IOException {
+                if (cursors.isEmpty() || (limit >= 0 && emitted >= limit)) {
+                    return null;
+                }
+                Cursor cursor = cursors.poll();
+                Object[] row = cursor.row;
+                emitted ++;
+                cursor.advanceInto(cursors);
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (RowCursor input : inputs) {
+                    input.close();
+                }
+            }
+        };
+    }
+
+    // the current row of a run
+    private static final class Cursor {
+        private final RowCursor rows;
+        private Object[] row;
+
+        Cursor(final RowCursor rows) {
+            this.rows = rows;
+        }
+
+        void advanceInto(final PriorityQueue<Cursor> cursors) throws IOException {
+            row = rows.next();
+            if (row != null) {
+                cursors.add(this);
+            }
+        }
+    }
+}
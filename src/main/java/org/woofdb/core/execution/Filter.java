@@ -0,0 +1,20 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.VectorBatch;
+
+/**
+ * A WHERE condition bound to a table: column names are resolved to indexes and literals parsed to the column types
+ * once per query. Conditions combine with AND and OR, both evaluate their right side only for the rows the left side
+ * did not already decide.
+ */
+public sealed interface Filter permits Comparison, AndFilter, OrFilter, CompiledFilter {
+
+    boolean matches(Row row);
+
+    // narrows the selection vector of the batch to the selected rows matching the condition
+    void filter(VectorBatch batch);
+
+    // flags the columns the condition reads, they have to be materialized before filtering
+    void markColumns(boolean[] columns);
+}
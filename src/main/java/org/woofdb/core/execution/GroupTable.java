@@ -0,0 +1,27 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+
+// maps the group keys of rows to dense group ids, ids are handed out in order of first appearance
+interface GroupTable {
+
+    // fills groups[i] with the group of the row at selection[i], -1 for a row whose group is new while the table
+    // already holds its maximum number of groups
+    void findGroups(VectorBatch batch, int[] groups);
+
+    // group of the given key values, added whatever the maximum number of groups, for merging partial aggregations
+    int findOrAdd(Object[] key);
+
+    int size();
+
+    // hash of the key of the row at the position, spilled rows are partitioned by it
+    long hash(VectorBatch batch, int position);
+
+    // values of the key columns of the group
+    Object[] key(int group);
+
+    static long mix(final long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+}
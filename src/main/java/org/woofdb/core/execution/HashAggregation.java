@@ -0,0 +1,356 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VarcharVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hash aggregation over batches. Groups are found in a primitive open addressing table, a {@link LongGroupTable} for
+ * a single numeric key and a {@link BytesGroupTable} otherwise, and every aggregate keeps its state in arrays
+ * indexed by group.
+ * <p>
+ * The number of groups held in memory is bounded by the memory budget. Once the table is full, rows of groups it
+ * already holds are still aggregated in memory while rows of new groups are written to one of
+ * {@value #PARTITIONS} spill files chosen by the hash of their key. A group therefore lives either entirely in
+ * memory or entirely in one partition, and every partition is aggregated on its own after the input is exhausted,
+ * spilling again with a different hash when it is still too large.
+ */
+public final class HashAggregation implements Closeable {
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    private static final int PARTITIONS = 16;
+    // past this depth a partition is aggregated in memory whatever its size, keys sharing a hash cannot be split
+    private static final int MAX_DEPTH = 6;
+
+    private final List<Column> columns;
+    private final int[] keyColumns;
+    private final List<AggregateCall> calls;
+    private final long memoryBudget;
+    private final int depth;
+    private final GroupTable table;
+    private final Aggregator[] aggregators;
+    private final boolean[] inputColumns;
+    private int[] groups = new int[VectorBatch.DEFAULT_CAPACITY];
+    private Path[] spillFiles;
+    private DataOutputStream[] spills;
+
+    public HashAggregation(final List<Column> columns, final int[] keyColumns, final List<AggregateCall> calls, final long memoryBudget) {
+        this(columns, keyColumns, calls, memoryBudget, 0);
+    }
+
+    private HashAggregation(final List<Column> columns, final int[] keyColumns, final List<AggregateCall> calls, final long memoryBudget, final int depth) {
+        this.columns = columns;
+        this.keyColumns = keyColumns;
+        this.calls = calls;
+        this.memoryBudget = memoryBudget;
+        this.depth = depth;
+        this.aggregators = new Aggregator[calls.size()];
+        this.inputColumns = new boolean[columns.size()];
+        long bytesPerGroup = 32;
+        for (int columnIndex : keyColumns) {
+            inputColumns[columnIndex] = true;
+            bytesPerGroup += columns.get(columnIndex).getDataType() == DataType.VARCHAR ? 32 : 8;
+        }
+        for (int i = 0; i < calls.size(); i ++) {
+            AggregateCall call = calls.get(i);
+            DataType type = call.columnIndex() < 0 ? null : columns.get(call.columnIndex()).getDataType();
+            aggregators[i] = Aggregator.of(call, type);
+            if (call.columnIndex() >= 0) {
+                inputColumns[call.columnIndex()] = true;
+            }
+            bytesPerGroup += 16;
+        }
+        int maxGroups = depth >= MAX_DEPTH ? Integer.MAX_VALUE : (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / bytesPerGroup));
+        if (keyColumns.length == 0) {
+            // a single group that exists even without input rows
+            this.table = null;
+            for (Aggregator aggregator : aggregators) {
+                aggregator.ensureCapacity(1);
+            }
+        }
+        else if (keyColumns.length == 1 && columns.get(keyColumns[0]).getDataType() != DataType.VARCHAR) {
+            this.table = new LongGroupTable(keyColumns[0], columns.get(keyColumns[0]).getDataType(), maxGroups);
+        }
+        else {
+            DataType[] keyTypes = new DataType[keyColumns.length];
+            for (int i = 0; i < keyColumns.length; i ++) {
+                keyTypes[i] = columns.get(keyColumns[i]).getDataType();
+            }
+            this.table = new BytesGroupTable(keyColumns, keyTypes, maxGroups);
+        }
+    }
+
+    // the columns the aggregation reads, they have to be materialized in the batches passed to add
+    public boolean[] getInputColumns() {
+        return inputColumns.clone();
+    }
+
+    public void add(final VectorBatch batch) throws IOException {
+        int count = batch.getSelectedCount();
+        if (groups.length < count) {
+            groups = new int[batch.getCapacity()];
+        }
+        if (table == null) {
+            Arrays.fill(groups, 0, count, 0);
+        }
+        else {
+            table.findGroups(batch, groups);
+            for (Aggregator aggregator : aggregators) {
+                aggregator.ensureCapacity(table.size());
+            }
+        }
+        for (Aggregator aggregator : aggregators) {
+            aggregator.accumulate(batch, groups);
+        }
+        if (table != null) {
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < count; i ++) {
+                if (groups[i] < 0) {
+                    spill(batch, selection[i]);
+                }
+            }
+        }
+    }
+
+    // folds a partial aggregation over other rows of the same input into this one: its groups in memory are merged
+    // state by state, beyond the group limit, and its spilled rows are aggregated again here
+    public void merge(final HashAggregation other) throws IOException {
+        int groupCount = other.table == null ? 1 : other.table.size();
+        for (int group = 0; group < groupCount; group ++) {
+            int target = table == null ? 0 : table.findOrAdd(other.table.key(group));
+            for (int i = 0; i < aggregators.length; i ++) {
+                aggregators[i].ensureCapacity(target + 1);
+                aggregators[i].merge(other.aggregators[i], group, target);
+            }
+        }
+        if (other.spills == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < PARTITIONS; i ++) {
+                if (other.spills[i] != null) {
+                    other.spills[i].close();
+                    load(other.spillFiles[i]);
+                }
+            }
+        }
+        finally {
+            other.close();
+        }
+    }
+
+    // emits every group as its key values followed by the aggregate results, the in memory groups first
+    public void finish(final Consumer<Object[]> output) throws IOException {
+        try (RowCursor rows = groups()) {
+            Object[] row;
+            while ((row = rows.next()) != null) {
+                output.accept(row);
+            }
+        }
+    }
+
+    // the groups of finish one at a time, a spilled partition is aggregated once the groups before it are read;
+    // closing the cursor removes the spill files
+    RowCursor groups() throws IOException {
+        if (spills != null) {
+            for (DataOutputStream spill : spills) {
+                if (spill != null) {
+                    spill.close();
+                }
+            }
+        }
+        int groupCount = table == null ? 1 : table.size();
+        return new RowCursor() {
+            private int group;
+            private int partition;
+            private HashAggregation partitionAggregation;
+            private RowCursor partitionRows;
+
+            @Override
+            public Object[] next() throws IOException {
+                if (group < groupCount) {
+                    return row(group ++);
+                }
+                while (spillFiles != null) {
+                    if (partitionRows != null) {
+                        Object[] row = partitionRows.next();
+                        if (row != null) {
+                            return row;
+                        }
+                        closePartition();
+                    }
+                    if (partition == PARTITIONS) {
+                        return null;
+                    }
+                    Path spillFile = spillFiles[partition ++];
+                    if (spillFile != null) {
+                        partitionAggregation = new HashAggregation(columns, keyColumns, calls, memoryBudget, depth + 1);
+                        partitionAggregation.load(spillFile);
+                        partitionRows = partitionAggregation.groups();
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    closePartition();
+                }
+                finally {
+                    HashAggregation.this.close();
+                }
+            }
+
+            private void closePartition() throws IOException {
+                if (partitionRows != null) {
+                    partitionRows.close();
+                    partitionRows = null;
+                    partitionAggregation = null;
+                }
+            }
+        };
+    }
+
+    private Object[] row(final int group) {
+        Object[] row = new Object[keyColumns.length + aggregators.length];
+        if (table != null) {
+            System.arraycopy(table.key(group), 0, row, 0, keyColumns.length);
+        }
+        for (int i = 0; i < aggregators.length; i ++) {
+            row[keyColumns.length + i] = aggregators[i].result(group);
+        }
+        return row;
+    }
+
+    // removes the spill files, also when the aggregation is abandoned halfway
+    @Override
+    public void close() throws IOException {
+        if (spills == null) {
+            return;
+        }
+        for (int i = 0; i < PARTITIONS; i ++) {
+            if (spills[i] != null) {
+                spills[i].close();
+                Files.deleteIfExists(spillFiles[i]);
+            }
+        }
+        spills = null;
+        spillFiles = null;
+    }
+
+    private void spill(final VectorBatch batch, final int position) throws IOException {
+        if (spills == null) {
+            spills = new DataOutputStream[PARTITIONS];
+            spillFiles = new Path[PARTITIONS];
+        }
+        // the next four of the top bits at every depth, so the groups of a partition spread over all partitions
+        // below it; the table of the partition picks its slots with the low bits of the same hash
+        long hash = GroupTable.mix(table.hash(batch, position));
+        int partition = (int) (hash >>> (60 - 4 * depth)) & (PARTITIONS - 1);
+        DataOutputStream out = spills[partition];
+        if (out == null) {
+            spillFiles[partition] = Files.createTempFile("woofdb-aggregation", ".spill");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFiles[partition]), 64 * 1024));
+            spills[partition] = out;
+        }
+        for (int columnIndex = 0; columnIndex < inputColumns.length; columnIndex ++) {
+            if (!inputColumns[columnIndex]) {
+                continue;
+            }
+            ColumnVector vector = batch.getColumn(columnIndex);
+            if (vector.isNull(position)) {
+                out.writeBoolean(false);
+                continue;
+            }
+            out.writeBoolean(true);
+            switch (vector) {
+                case IntVector ints -> out.writeInt(ints.get(position));
+                case FloatVector floats -> out.writeFloat(floats.get(position));
+                case DoubleVector doubles -> out.writeDouble(doubles.get(position));
+                case VarcharVector strings -> {
+                    byte[] bytes = new byte[strings.length(position)];
+                    strings.copyTo(position, bytes, 0);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        }
+    }
+
+    // aggregates the rows of a spill file batch by batch
+    private void load(final Path spillFile) throws IOException {
+        VectorBatch batch = new VectorBatch(columns, inputColumns, VectorBatch.DEFAULT_CAPACITY);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), 64 * 1024))) {
+            boolean exhausted = false;
+            while (!exhausted) {
+                batch.reset();
+                while (!batch.isFull()) {
+                    if (!readRow(in, batch)) {
+                        exhausted = true;
+                        break;
+                    }
+                }
+                batch.selectAll();
+                add(batch);
+            }
+        }
+    }
+
+    private boolean readRow(final DataInputStream in, final VectorBatch batch) throws IOException {
+        boolean first = true;
+        int position = batch.getSize();
+        for (int columnIndex = 0; columnIndex < inputColumns.length; columnIndex ++) {
+            if (!inputColumns[columnIndex]) {
+                continue;
+            }
+            boolean present;
+            try {
+                present = in.readBoolean();
+            }
+            catch (EOFException e) {
+                if (first) {
+                    return false;
+                }
+                throw e;
+            }
+            if (first) {
+                batch.addPosition();
+                first = false;
+            }
+            ColumnVector vector = batch.getColumn(columnIndex);
+            if (!present) {
+                vector.setNull(position);
+                continue;
+            }
+            switch (vector) {
+                case IntVector ints -> ints.set(position, in.readInt());
+                case FloatVector floats -> floats.set(position, in.readFloat());
+                case DoubleVector doubles -> doubles.set(position, in.readDouble());
+                case VarcharVector strings -> {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    strings.set(position, bytes);
+                }
+            }
+        }
+        return true;
+    }
+}
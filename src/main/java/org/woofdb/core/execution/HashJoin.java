@@ -0,0 +1,205 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash join that builds a hash table on one input, the one the planner estimated to be smaller, and streams the
+ * other one past it.
+ * <p>
+ * When the build rows outgrow the memory budget the join turns into a grace hash join: the build rows, those already
+ * in the table and the rest, are written to {@value #PARTITIONS} partition files chosen by the hash of their key, the
+ * probe rows are partitioned the same way, and every pair of partitions is joined on its own, partitioned again with
+ * a different hash when its build side is still too large.
+ */
+final class HashJoin implements Join {
+    static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    private static final int PARTITIONS = 16;
+    // past this depth the build rows are kept in memory whatever their size, rows sharing a key cannot be split
+    private static final int MAX_DEPTH = 6;
+
+    private final JoinInput build;
+    private final JoinInput probe;
+    private final boolean buildIsLeft;
+    private final long memoryBudget;
+
+    HashJoin(final JoinInput left, final JoinInput right, final boolean buildIsLeft, final long memoryBudget) {
+        this.buildIsLeft = buildIsLeft;
+        this.build = buildIsLeft ? left : right;
+        this.probe = buildIsLeft ? right : left;
+        this.memoryBudget = memoryBudget;
+    }
+
+    JoinInput getBuild() {
+        return build;
+    }
+
+    @Override
+    public void run(final Transaction transaction, final JoinSink sink) throws IOException {
+        try (RowCursor buildRows = build.open(transaction)) {
+            join(buildRows, () -> probe.open(transaction), sink, 0);
+        }
+    }
+
+    // returns false once the sink stopped the join
+    private boolean join(final RowCursor buildRows, final ProbeRows probeRows, final JoinSink sink, final int depth) throws IOException {
+        // a single row per key as is, more rows sharing a key in a list
+        Map<Object, Object> table = new HashMap<>();
+        long bytes = 0;
+        Object[] row;
+        while ((row = buildRows.next()) != null) {
+            Object key = build.key(row);
+            if (key == null) {
+                continue;
+            }
+            Object rows = table.get(key);
+            if (rows == null) {
+                table.put(key, row);
+            }
+            else if (rows instanceof Object[] single) {
+                List<Object[]> list = new ArrayList<>();
+                list.add(single);
+                list.add(row);
+                table.put(key, list);
+            }
+            else {
+                @SuppressWarnings("unchecked")
+                List<Object[]> list = (List<Object[]>) rows;
+                list.add(row);
+            }
+            bytes += RowFiles.estimateSize(row) + 48;
+            if (bytes > memoryBudget && depth < MAX_DEPTH) {
+                return partitioned(table, buildRows, probeRows, sink, depth);
+            }
+        }
+        try (RowCursor probing = probeRows.open()) {
+            while ((row = probing.next()) != null) {
+                Object key = probe.key(row);
+                Object rows = key == null ? null : table.get(key);
+                if (rows instanceof Object[] single) {
+                    if (!emit(single, row, sink)) {
+                        return false;
+                    }
+                }
+                else if (rows != null) {
+                    @SuppressWarnings("unchecked")
+                    List<Object[]> list = (List<Object[]>) rows;
+                    for (Object[] match : list) {
+                        if (!emit(match, row, sink)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean partitioned(final Map<Object, Object> table, final RowCursor buildRows, final ProbeRows probeRows,
+                                final JoinSink sink, final int depth) throws IOException {
+        Path[] buildFiles = new Path[PARTITIONS];
+        Path[] probeFiles = new Path[PARTITIONS];
+        try {
+            DataOutputStream[] outputs = new DataOutputStream[PARTITIONS];
+            try {
+                for (Object rows : table.values()) {
+                    if (rows instanceof Object[] single) {
+                        spill(single, build.key(single), depth, buildFiles, outputs);
+                        continue;
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<Object[]> list = (List<Object[]>) rows;
+                    for (Object[] row : list) {
+                        spill(row, build.key(row), depth, buildFiles, outputs);
+                    }
+                }
+                table.clear();
+                Object[] row;
+                while ((row = buildRows.next()) != null) {
+                    Object key = build.key(row);
+                    if (key != null) {
+                        spill(row, key, depth, buildFiles, outputs);
+                    }
+                }
+            }
+            finally {
+                close(outputs);
+            }
+            outputs = new DataOutputStream[PARTITIONS];
+            try (RowCursor probing = probeRows.open()) {
+                Object[] row;
+                while ((row = probing.next()) != null) {
+                    Object key = probe.key(row);
+                    // rows of a partition without build rows match nothing
+                    if (key != null && buildFiles[partition(key, depth)] != null) {
+                        spill(row, key, depth, probeFiles, outputs);
+                    }
+                }
+            }
+            finally {
+                close(outputs);
+            }
+            for (int i = 0; i < PARTITIONS; i ++) {
+                if (buildFiles[i] == null || probeFiles[i] == null) {
+                    continue;
+                }
+                Path probeFile = probeFiles[i];
+                try (RowCursor partitionRows = RowFiles.open(buildFiles[i])) {
+                    if (!join(partitionRows, () -> RowFiles.open(probeFile), sink, depth + 1)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        finally {
+            for (int i = 0; i < PARTITIONS; i ++) {
+                if (buildFiles[i] != null) {
+                    Files.deleteIfExists(buildFiles[i]);
+                }
+                if (probeFiles[i] != null) {
+                    Files.deleteIfExists(probeFiles[i]);
+                }
+            }
+        }
+    }
+
+    private boolean emit(final Object[] buildRow, final Object[] probeRow, final JoinSink sink) throws IOException {
+        return buildIsLeft ? sink.accept(buildRow, probeRow) : sink.accept(probeRow, buildRow);
+    }
+
+    private static void spill(final Object[] row, final Object key, final int depth, final Path[] files,
+                              final DataOutputStream[] outputs) throws IOException {
+        int partition = partition(key, depth);
+        if (outputs[partition] == null) {
+            files[partition] = RowFiles.createTempFile("join");
+            outputs[partition] = RowFiles.newOutput(files[partition]);
+        }
+        RowFiles.write(outputs[partition], row);
+    }
+
+    // the next four bits of the hash at every depth, the rows of one partition spread over all partitions below it
+    private static int partition(final Object key, final int depth) {
+        return (int) (GroupTable.mix(key.hashCode()) >>> (60 - 4 * depth)) & (PARTITIONS - 1);
+    }
+
+    private static void close(final DataOutputStream[] outputs) throws IOException {
+        for (DataOutputStream output : outputs) {
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
+
+    private interface ProbeRows {
+        RowCursor open() throws IOException;
+    }
+}
@@ -0,0 +1,62 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+// index nested loop join: the rows of the inner input matching a row of the outer one are looked up through the
+// primary key or an index on its key column, the inner filter is checked on the rows found
+final class IndexNestedLoopJoin implements Join {
+    private final JoinInput outer;
+    private final JoinInput inner;
+    private final boolean outerIsLeft;
+
+    IndexNestedLoopJoin(final JoinInput outer, final JoinInput inner, final boolean outerIsLeft) {
+        if (!inner.table().hasKeyAccess(inner.keyColumn()) || inner.widenKey()) {
+            throw new IllegalArgumentException("The inner input of an index nested loop join needs key access of the type of the outer key");
+        }
+        this.outer = outer;
+        this.inner = inner;
+        this.outerIsLeft = outerIsLeft;
+    }
+
+    @Override
+    public void run(final Transaction transaction, final JoinSink sink) throws IOException {
+        try (RowCursor outerRows = outer.open(transaction)) {
+            Object[] outerRow;
+            while ((outerRow = outerRows.next()) != null) {
+                Object key = outer.key(outerRow);
+                if (key == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                Iterator<Row> matches = inner.table().lookup(inner.keyColumn(), key, transaction);
+                Row match;
+                while ((match = nextMatch(matches, start)) != null) {
+                    if (!(outerIsLeft ? sink.accept(outerRow, match.getValues()) : sink.accept(match.getValues(), outerRow))) {
+                        return;
+                    }
+                    start = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    // the next row found that passes the inner filter, the lookups since start count into the plan node of the inner
+    // input
+    private Row nextMatch(final Iterator<Row> matches, final long start) {
+        Row match = null;
+        while (match == null && matches.hasNext()) {
+            Row row = matches.next();
+            if (inner.filter() == null || inner.filter().matches(row)) {
+                match = row;
+            }
+        }
+        if (inner.node() != null) {
+            inner.node().finish(match == null ? 0 : 1, start);
+        }
+        return match;
+    }
+}
@@ -0,0 +1,12 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+
+// an inner equi-join of two inputs, rows with a null key match nothing
+sealed interface Join permits HashJoin, SortMergeJoin, IndexNestedLoopJoin {
+
+    // passes every pair of matching rows to the sink, the row of the left input first, until the sink stops it
+    void run(Transaction transaction, JoinSink sink) throws IOException;
+}
@@ -0,0 +1,65 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.vector.VectorBatch;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+
+/**
+ * One side of a join: the rows of a table that pass its part of the WHERE clause. Rows are as wide as the table, only
+ * the flagged columns and the join key are filled in. Keys of an INT column joined with a FLOAT or DOUBLE column are
+ * widened to Double so that equal numbers are equal keys. The rows are read through the access comparison the planner
+ * chose, or with a full scan when it is null, and counted into the plan node of the input unless it is null.
+ */
+record JoinInput(Table table, Filter filter, Comparison access, boolean[] columns, int keyColumn, boolean widenKey, PlanNode node) {
+
+    JoinInput {
+        columns = columns.clone();
+        columns[keyColumn] = true;
+    }
+
+    RowCursor open(final Transaction transaction) throws IOException {
+        BatchSource scan = table.selectBatches(filter, columns, transaction, access);
+        BatchSource source = node == null ? scan : node.measure(scan);
+        int width = table.getColumns().size();
+        return new RowCursor() {
+            private VectorBatch batch;
+            private int next;
+
+            @Override
+            public Object[] next() throws IOException {
+                while (batch == null || next == batch.getSelectedCount()) {
+                    batch = source.nextBatch();
+                    next = 0;
+                    if (batch == null) {
+                        return null;
+                    }
+                }
+                int position = batch.getSelection()[next++];
+                Object[] row = new Object[width];
+                for (int columnIndex = 0; columnIndex < width; columnIndex ++) {
+                    if (columns[columnIndex]) {
+                        row[columnIndex] = batch.getColumn(columnIndex).getObject(position);
+                    }
+                }
+                return row;
+            }
+        };
+    }
+
+    Object key(final Object[] row) {
+        Object key = row[keyColumn];
+        return widenKey && key != null ? ((Number) key).doubleValue() : key;
+    }
+
+    // the same input counted into another plan node
+    JoinInput withNode(final PlanNode planNode) {
+        return new JoinInput(table, filter, access, columns, keyColumn, widenKey, planNode);
+    }
+
+    // whether the rows come out in key order without sorting, a scan of a clustered table joined on its primary key
+    boolean isSortedByKey() {
+        return keyColumn == table.getPrimaryKeyIndex() && table.isScannedInPrimaryKeyOrder(access);
+    }
+}
@@ -0,0 +1,108 @@
+package org.woofdb.core.execution;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+// the joined rows of a join, which pushes them to a sink; the join runs on a thread of its own and hands the rows
+// over in chunks. Pages have no latches, so the join only runs while the reader waits for its next chunk: the reader
+// holds whatever lock keeps writers away, e.g. the lock a JDBC connection takes on its database for every call
+final class JoinRows implements RowCursor {
+    private static final int CHUNK_ROWS = 1024;
+    private static final Object[][] END = new Object[0][];
+
+    @FunctionalInterface
+    interface JoinRun {
+        void run(JoinSink sink) throws IOException;
+    }
+
+    private final BlockingQueue<Object[][]> chunks = new LinkedBlockingQueue<>();
+    // a permit per chunk asked for by the reader
+    private final Semaphore requests = new Semaphore(0);
+    private final Thread producer;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private Object[][] chunk;
+    private int index;
+
+    JoinRows(final JoinRun join) {
+        producer = Thread.ofVirtual().name("woofdb-join").start(() -> {
+            Object[][] pending = new Object[CHUNK_ROWS][];
+            int[] size = {0};
+            try {
+                if (awaitRequest()) {
+                    join.run((left, right) -> {
+                        pending[size[0] ++] = SelectExecutor.concat(left, right);
+                        if (size[0] == CHUNK_ROWS) {
+                            size[0] = 0;
+                            return hand(pending.clone());
+                        }
+                        return !closed;
+                    });
+                    if (size[0] > 0) {
+                        chunks.add(Arrays.copyOf(pending, size[0]));
+                    }
+                }
+            }
+            catch (Throwable e) {
+                failure = e;
+            }
+            finally {
+                chunks.add(END);
+            }
+        });
+    }
+
+    @Override
+    public Object[] next() throws IOException {
+        while (chunk != END && (chunk == null || index == chunk.length)) {
+            requests.release();
+            try {
+                chunk = chunks.take();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the rows of the join", e);
+            }
+            index = 0;
+            if (chunk == END && failure != null) {
+                throw ParallelScan.rethrow(failure);
+            }
+        }
+        return chunk == END ? null : chunk[index ++];
+    }
+
+    // stops the join and waits for it to leave, it reads nothing after close returns
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        requests.release();
+        try {
+            producer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stopping the join", e);
+        }
+        chunks.clear();
+    }
+
+    // passes the chunk to the reader and waits until it asks for the next one, false once the reader is gone
+    private boolean hand(final Object[][] rows) {
+        chunks.add(rows);
+        return awaitRequest();
+    }
+
+    private boolean awaitRequest() {
+        try {
+            requests.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !closed;
+    }
+}
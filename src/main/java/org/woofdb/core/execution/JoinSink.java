@@ -0,0 +1,9 @@
+package org.woofdb.core.execution;
+
+import java.io.IOException;
+
+// receives the pairs of matching rows of a join, returning false stops the join
+interface JoinSink {
+
+    boolean accept(Object[] left, Object[] right) throws IOException;
+}
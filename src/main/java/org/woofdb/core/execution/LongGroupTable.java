@@ -0,0 +1,176 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing table for a single numeric group key. Keys are kept as longs, floats and doubles by their bits with
+ * negative zero folded into zero, so nothing is boxed. Linear probing over power of two slot arrays filled to at most
+ * half, the null key gets its own group outside of the slots.
+ */
+final class LongGroupTable implements GroupTable {
+    private final int columnIndex;
+    private final DataType type;
+    private final int maxGroups;
+    private long[] slotKeys;
+    private int[] slotGroups; // group + 1, 0 marks an empty slot
+    private int mask;
+    private long[] groupKeys;
+    private int size;
+    private int nullGroup = -1;
+
+    LongGroupTable(final int columnIndex, final DataType type, final int maxGroups) {
+        this.columnIndex = columnIndex;
+        this.type = type;
+        this.maxGroups = maxGroups;
+        this.slotKeys = new long[64];
+        this.slotGroups = new int[64];
+        this.mask = 63;
+        this.groupKeys = new long[32];
+    }
+
+    @Override
+    public void findGroups(final VectorBatch batch, final int[] groups) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        switch (batch.getColumn(columnIndex)) {
+            case IntVector ints -> {
+                int[] values = ints.getValues();
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    groups[i] = ints.isNull(position) ? nullGroup() : find(values[position]);
+                }
+            }
+            case FloatVector floats -> {
+                float[] values = floats.getValues();
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    groups[i] = floats.isNull(position) ? nullGroup() : find(bits(values[position]));
+                }
+            }
+            case DoubleVector doubles -> {
+                double[] values = doubles.getValues();
+                for (int i = 0; i < count; i ++) {
+                    int position = selection[i];
+                    groups[i] = doubles.isNull(position) ? nullGroup() : find(bits(values[position]));
+                }
+            }
+            default -> throw new IllegalStateException("Column " + columnIndex + " is not numeric");
+        }
+    }
+
+    @Override
+    public int findOrAdd(final Object[] key) {
+        if (key[0] == null) {
+            if (nullGroup < 0) {
+                nullGroup = newGroup();
+            }
+            return nullGroup;
+        }
+        return find(switch (type) {
+            case INT -> (Integer) key[0];
+            case FLOAT -> bits((Float) key[0]);
+            case DOUBLE -> bits((Double) key[0]);
+            case VARCHAR -> throw new IllegalStateException("VARCHAR keys are not numeric");
+        }, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long hash(final VectorBatch batch, final int position) {
+        return switch (batch.getColumn(columnIndex)) {
+            case IntVector ints -> ints.isNull(position) ? 0 : GroupTable.mix(ints.get(position));
+            case FloatVector floats -> floats.isNull(position) ? 0 : GroupTable.mix(bits(floats.get(position)));
+            case DoubleVector doubles -> doubles.isNull(position) ? 0 : GroupTable.mix(bits(doubles.get(position)));
+            default -> throw new IllegalStateException("Column " + columnIndex + " is not numeric");
+        };
+    }
+
+    @Override
+    public Object[] key(final int group) {
+        if (group == nullGroup) {
+            return new Object[] {null};
+        }
+        long key = groupKeys[group];
+        return new Object[] {switch (type) {
+            case INT -> (int) key;
+            case FLOAT -> Float.intBitsToFloat((int) key);
+            case DOUBLE -> Double.longBitsToDouble(key);
+            case VARCHAR -> throw new IllegalStateException("VARCHAR keys are not numeric");
+        }};
+    }
+
+    private int find(final long key) {
+        return find(key, maxGroups);
+    }
+
+    private int find(final long key, final int limit) {
+        int slot = (int) GroupTable.mix(key) & mask;
+        while (slotGroups[slot] != 0) {
+            if (slotKeys[slot] == key) {
+                return slotGroups[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= limit) {
+            return -1;
+        }
+        int group = newGroup();
+        groupKeys[group] = key;
+        slotKeys[slot] = key;
+        slotGroups[slot] = group + 1;
+        if (size * 2 > slotGroups.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    private int nullGroup() {
+        if (nullGroup < 0 && size < maxGroups) {
+            nullGroup = newGroup();
+        }
+        return nullGroup;
+    }
+
+    private int newGroup() {
+        if (size == groupKeys.length) {
+            groupKeys = Arrays.copyOf(groupKeys, size * 2);
+        }
+        return size++;
+    }
+
+    private void rehash() {
+        long[] oldKeys = slotKeys;
+        int[] oldGroups = slotGroups;
+        slotKeys = new long[oldKeys.length * 2];
+        slotGroups = new int[oldGroups.length * 2];
+        mask = slotGroups.length - 1;
+        for (int i = 0; i < oldGroups.length; i ++) {
+            if (oldGroups[i] != 0) {
+                int slot = (int) GroupTable.mix(oldKeys[i]) & mask;
+                while (slotGroups[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slotKeys[slot] = oldKeys[i];
+                slotGroups[slot] = oldGroups[i];
+            }
+        }
+    }
+
+    private static long bits(final float value) {
+        return Float.floatToIntBits(value == 0 ? 0f : value);
+    }
+
+    private static long bits(final double value) {
+        return Double.doubleToLongBits(value == 0 ? 0d : value);
+    }
+}
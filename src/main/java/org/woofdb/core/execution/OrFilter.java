@@ -0,0 +1,61 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.util.Arrays;
+
+public record OrFilter(Filter left, Filter right) implements Filter {
+
+    @Override
+    public boolean matches(final Row row) {
+        return left.matches(row) || right.matches(row);
+    }
+
+    // the right side only sees the rows the left side rejected, both results are merged back in position order
+    @Override
+    public void filter(final VectorBatch batch) {
+        int[] selection = batch.getSelection();
+        int count = batch.getSelectedCount();
+        int[] candidates = Arrays.copyOf(selection, count);
+        left.filter(batch);
+        int leftCount = batch.getSelectedCount();
+        if (leftCount == count) {
+            return;
+        }
+        int[] leftMatches = Arrays.copyOf(selection, leftCount);
+
+        int rejected = 0;
+        for (int i = 0, j = 0; i < count; i ++) {
+            if (j < leftCount && leftMatches[j] == candidates[i]) {
+                j ++;
+            }
+            else {
+                selection[rejected++] = candidates[i];
+            }
+        }
+        batch.setSelectedCount(rejected);
+        right.filter(batch);
+        int rightCount = batch.getSelectedCount();
+        int[] rightMatches = Arrays.copyOf(selection, rightCount);
+
+        int kept = 0;
+        int i = 0;
+        int j = 0;
+        while (i < leftCount || j < rightCount) {
+            if (j == rightCount || (i < leftCount && leftMatches[i] < rightMatches[j])) {
+                selection[kept++] = leftMatches[i++];
+            }
+            else {
+                selection[kept++] = rightMatches[j++];
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+
+    @Override
+    public void markColumns(final boolean[] columns) {
+        left.markColumns(columns);
+        right.markColumns(columns);
+    }
+}
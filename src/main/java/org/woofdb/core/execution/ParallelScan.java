@@ -0,0 +1,103 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Morsel driven parallel scans on a fork-join pool. A table scan is split into many more morsels than there are
+ * workers, and every worker keeps pulling the next morsel off a shared counter until none are left. A worker that
+ * hits a cheap morsel simply takes another one, so the work stays balanced without any planning up front.
+ */
+public final class ParallelScan {
+    // morsels per worker, enough to even out morsels of different cost
+    public static final int MORSELS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    public ParallelScan(final ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int morselCount() {
+        return pool.getParallelism() * MORSELS_PER_WORKER;
+    }
+
+    @FunctionalInterface
+    public interface BatchConsumer<S> {
+        void accept(S state, VectorBatch batch) throws IOException;
+    }
+
+    // every worker folds the batches of the morsels it takes into its own state, the partial states are returned for
+    // the caller to merge, on failure all of them are closed
+    public <S extends Closeable> List<S> fold(final List<BatchSource> sources, final Supplier<S> newState, final BatchConsumer<S> consumer) throws IOException {
+        AtomicInteger next = new AtomicInteger();
+        List<S> states = new ArrayList<>();
+        List<ForkJoinTask<S>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(getParallelism(), sources.size()); i ++) {
+            S state = newState.get();
+            states.add(state);
+            workers.add(pool.submit(() -> {
+                int morsel;
+                while ((morsel = next.getAndIncrement()) < sources.size()) {
+                    BatchSource source = sources.get(morsel);
+                    VectorBatch batch;
+                    while ((batch = source.nextBatch()) != null) {
+                        consumer.accept(state, batch);
+                    }
+                }
+                return state;
+            }));
+        }
+        Throwable failure = null;
+        for (ForkJoinTask<S> worker : workers) {
+            try {
+                worker.get();
+            }
+            catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            for (S state : states) {
+                state.close();
+            }
+            throw rethrow(failure);
+        }
+        return states;
+    }
+
+    // the failure of a worker as thrown on the calling thread
+    static IOException rethrow(final Throwable failure) {
+        if (failure instanceof IOException e) {
+            return e;
+        }
+        if (failure instanceof UncheckedIOException e) {
+            return e.getCause();
+        }
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        return new IOException(failure);
+    }
+}
@@ -0,0 +1,102 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An operator of the plan chosen for a query. It holds what the planner expects of it, the rows it produces and its
+ * cost in the units of {@link QueryPlanner} including the cost of its inputs, and what it did once the query ran:
+ * the rows it produced and the time spent until it produced the last of them. Parallel workers count into the same
+ * node, the time of a parallel scan is summed over the workers.
+ */
+public final class PlanNode {
+    private final String operator;
+    private final double estimatedRows;
+    private final double cost;
+    private final List<PlanNode> inputs;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    PlanNode(final String operator, final double estimatedRows, final double cost, final PlanNode... inputs) {
+        this.operator = operator;
+        this.estimatedRows = estimatedRows;
+        this.cost = cost;
+        this.inputs = List.of(inputs);
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public double getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public List<PlanNode> getInputs() {
+        return inputs;
+    }
+
+    public long getActualRows() {
+        return rows.sum();
+    }
+
+    public long getActualNanos() {
+        return nanos.sum();
+    }
+
+    void addRows(final long count) {
+        rows.add(count);
+    }
+
+    void addNanos(final long elapsed) {
+        nanos.add(elapsed);
+    }
+
+    // records the rows of an operator that finished, with the time since the query started
+    void finish(final long count, final long startNanos) {
+        rows.add(count);
+        nanos.add(System.nanoTime() - startNanos);
+    }
+
+    // counts the selected rows of every batch of the source and the time spent producing them
+    BatchSource measure(final BatchSource source) {
+        return () -> {
+            long start = System.nanoTime();
+            VectorBatch batch = source.nextBatch();
+            nanos.add(System.nanoTime() - start);
+            if (batch != null) {
+                rows.add(batch.getSelectedCount());
+            }
+            return batch;
+        };
+    }
+
+    // one line per operator with its inputs indented below it, with what it did when actual is set
+    public String render(final boolean actual) {
+        StringBuilder output = new StringBuilder();
+        render(output, 0, actual);
+        return output.toString();
+    }
+
+    private void render(final StringBuilder output, final int depth, final boolean actual) {
+        if (depth > 0) {
+            output.append("  ".repeat(depth - 1)).append("-> ");
+        }
+        output.append(operator)
+                .append(String.format(Locale.ROOT, "  (rows=%d cost=%.2f)", Math.round(estimatedRows), cost));
+        if (actual) {
+            output.append(String.format(Locale.ROOT, " (actual rows=%d time=%.3f ms)", getActualRows(), getActualNanos() / 1e6));
+        }
+        output.append('\n');
+        for (PlanNode input : inputs) {
+            input.render(output, depth + 1, actual);
+        }
+    }
+}
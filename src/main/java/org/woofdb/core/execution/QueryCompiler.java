@@ -0,0 +1,312 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Turns the bound filter and the projection of a query into Java source, compiles it in memory and defines the
+ * result as a hidden class. The generated loops read the primitive arrays of the vectors directly and evaluate the
+ * whole condition per row with short-circuiting {@code &&} and {@code ||}, no enum switches and no boxing.
+ * <p>
+ * Literals are passed to the constructor instead of being written into the source, so queries differing only in
+ * their literals share the generated class. Classes are cached by their source, which is the normalized form of the
+ * query: the bound condition with column indexes and types, and the projected columns.
+ * <p>
+ * Compiling needs the JDK compiler, on a runtime without it {@link #compile} returns null and the interpreted
+ * filters are used.
+ */
+public final class QueryCompiler {
+    private static final String CLASS_NAME = "GeneratedQuery";
+    private static final int CACHE_SIZE = 256;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final Map<String, MethodHandle> constructors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, MethodHandle> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public boolean isAvailable() {
+        return compiler != null;
+    }
+
+    // null when the compiler is not available or the generated source does not compile
+    public CompiledQuery compile(final Filter filter, final int[] projection, final List<DataType> columnTypes) {
+        if (compiler == null) {
+            return null;
+        }
+        Generator generator = new Generator(columnTypes);
+        String source = generator.generate(filter, projection);
+        MethodHandle constructor;
+        synchronized (constructors) {
+            constructor = constructors.get(source);
+            if (constructor == null) {
+                try {
+                    constructor = define(source);
+                }
+                catch (ReflectiveOperationException | URISyntaxException | IllegalStateException e) {
+                    // the generated source does not compile or its class cannot be defined, the query runs interpreted
+                    return null;
+                }
+                constructors.put(source, constructor);
+            }
+        }
+        try {
+            return (CompiledQuery) constructor.invoke(generator.constants.toArray());
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            // the generated constructor only stores its arguments, it declares nothing checked
+            throw new IllegalStateException("Failed to create the generated query: " + e.getMessage(), e);
+        }
+    }
+
+    int cachedClasses() {
+        synchronized (constructors) {
+            return constructors.size();
+        }
+    }
+
+    private MethodHandle define(final String source) throws ReflectiveOperationException, URISyntaxException {
+        byte[] bytes = compileSource(source);
+        // same package as this class, the generated code sees what a class of the execution package sees
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+        return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class))
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    private byte[] compileSource(final String source) throws URISyntaxException {
+        String binaryName = QueryCompiler.class.getPackageName() + "." + CLASS_NAME;
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + binaryName.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(final Location location, final String className, final JavaFileObject.Kind kind, final FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return classBytes;
+                    }
+                };
+            }
+        };
+        List<String> options = List.of("-classpath", classPath(), "-proc:none", "-g:none");
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call();
+        if (!compiled) {
+            StringBuilder message = new StringBuilder("Generated query does not compile:");
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append('\n').append(diagnostic.getMessage(null));
+            }
+            throw new IllegalStateException(message.toString());
+        }
+        return classBytes.toByteArray();
+    }
+
+    // the location the woofdb classes were loaded from comes first, the application class path may be a launcher jar
+    private static String classPath() throws URISyntaxException {
+        String own = Path.of(QueryCompiler.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        return own + File.pathSeparator + System.getProperty("java.class.path");
+    }
+
+    private static final class Generator {
+        private final List<DataType> columnTypes;
+        private final List<Object> constants = new ArrayList<>();
+        private final StringBuilder fields = new StringBuilder();
+        private final StringBuilder constructor = new StringBuilder();
+
+        Generator(final List<DataType> columnTypes) {
+            this.columnTypes = columnTypes;
+        }
+
+        String generate(final Filter filter, final int[] projection) {
+            StringBuilder filterMethod = new StringBuilder();
+            if (filter != null) {
+                TreeSet<Integer> filterColumns = new TreeSet<>();
+                String condition = condition(filter, filterColumns);
+                filterMethod.append("        final int[] selection = batch.getSelection();\n");
+                filterMethod.append("        final int count = batch.getSelectedCount();\n");
+                declareColumns(filterMethod, filterColumns);
+                filterMethod.append("        int kept = 0;\n");
+                filterMethod.append("        for (int i = 0; i < count; i ++) {\n");
+                filterMethod.append("            final int p = selection[i];\n");
+                filterMethod.append("            if (").append(condition).append(") {\n");
+                filterMethod.append("                selection[kept++] = p;\n");
+                filterMethod.append("            }\n");
+                filterMethod.append("        }\n");
+                filterMethod.append("        batch.setSelectedCount(kept);\n");
+            }
+
+            StringBuilder printMethod = new StringBuilder();
+            TreeSet<Integer> projectedColumns = new TreeSet<>();
+            for (int columnIndex : projection) {
+                projectedColumns.add(columnIndex);
+            }
+            printMethod.append("        final int[] selection = batch.getSelection();\n");
+            printMethod.append("        final int count = batch.getSelectedCount();\n");
+            declareColumns(printMethod, projectedColumns);
+            printMethod.append("        for (int i = 0; i < count; i ++) {\n");
+            printMethod.append("            final int p = selection[i];\n");
+            for (int columnIndex : projection) {
+                String c = "c" + columnIndex;
+                printMethod.append("            if (").append(c).append(".isNull(p)) {\n");
+                printMethod.append("                output.append(\"null\");\n");
+                printMethod.append("            }\n");
+                printMethod.append("            else {\n");
+                if (columnTypes.get(columnIndex) == DataType.VARCHAR) {
+                    printMethod.append("                ").append(c).append(".appendTo(output, p);\n");
+                }
+                else {
+                    printMethod.append("                output.append(v").append(columnIndex).append("[p]);\n");
+                }
+                printMethod.append("            }\n");
+                printMethod.append("            output.append(\" | \");\n");
+            }
+            printMethod.append("            output.append(\"\\n").append(SelectExecutor.SEPARATOR).append("\\n\");\n");
+            printMethod.append("        }\n");
+
+            return "package " + QueryCompiler.class.getPackageName() + ";\n\n"
+                    + "import org.woofdb.core.models.vector.*;\n\n"
+                    + "final class " + CLASS_NAME + " implements " + CompiledQuery.class.getName() + " {\n"
+                    + fields
+                    + "\n    " + CLASS_NAME + "(final Object[] constants) {\n"
+                    + constructor
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public void filter(final " + VectorBatch.class.getName() + " batch) {\n"
+                    + filterMethod
+                    + "    }\n\n"
+                    + "    @Override\n"
+                    + "    public void print(final " + VectorBatch.class.getName() + " batch, final StringBuilder output) {\n"
+                    + printMethod
+                    + "    }\n"
+                    + "}\n";
+        }
+
+        private void declareColumns(final StringBuilder method, final TreeSet<Integer> columns) {
+            for (int columnIndex : columns) {
+                DataType type = columnTypes.get(columnIndex);
+                String vector = vectorClass(type);
+                method.append("        final ").append(vector).append(" c").append(columnIndex)
+                        .append(" = (").append(vector).append(") batch.getColumn(").append(columnIndex).append(");\n");
+                if (type != DataType.VARCHAR) {
+                    method.append("        final ").append(primitive(type)).append("[] v").append(columnIndex)
+                            .append(" = c").append(columnIndex).append(".getValues();\n");
+                }
+            }
+        }
+
+        private String condition(final Filter filter, final TreeSet<Integer> columns) {
+            return switch (filter) {
+                case AndFilter and -> "(" + condition(and.left(), columns) + " && " + condition(and.right(), columns) + ")";
+                case OrFilter or -> "(" + condition(or.left(), columns) + " || " + condition(or.right(), columns) + ")";
+                case CompiledFilter compiled -> condition(compiled.source(), columns);
+                case Comparison comparison -> comparison(comparison, columns);
+            };
+        }
+
+        private String comparison(final Comparison comparison, final TreeSet<Integer> columns) {
+            int columnIndex = comparison.columnIndex();
+            columns.add(columnIndex);
+            DataType type = columnTypes.get(columnIndex);
+            String constant = constant(type, comparison.value());
+            String c = "c" + columnIndex;
+            String v = "v" + columnIndex + "[p]";
+            String operator = operator(comparison.operation());
+            String test = switch (type) {
+                case INT -> v + " " + operator + " " + constant;
+                // compare keeps the ordering of the interpreted filter for NaN and negative zero
+                case FLOAT -> "Float.compare(" + v + ", " + constant + ") " + operator + " 0";
+                case DOUBLE -> "Double.compare(" + v + ", " + constant + ") " + operator + " 0";
+                case VARCHAR -> switch (comparison.operation()) {
+                    case EQUALS -> c + ".valueEquals(p, " + constant + ")";
+                    case NOT_EQUALS -> "!" + c + ".valueEquals(p, " + constant + ")";
+                    default -> c + ".compare(p, " + constant + ") " + operator + " 0";
+                };
+            };
+            return "(!" + c + ".isNull(p) && " + test + ")";
+        }
+
+        private String constant(final DataType type, final Object value) {
+            String name = "k" + constants.size();
+            Object constant = type == DataType.VARCHAR ? ((String) value).getBytes(StandardCharsets.UTF_8) : value;
+            String javaType = type == DataType.VARCHAR ? "byte[]" : primitive(type);
+            String boxed = switch (type) {
+                case INT -> "Integer";
+                case FLOAT -> "Float";
+                case DOUBLE -> "Double";
+                case VARCHAR -> "byte[]";
+            };
+            fields.append("    private final ").append(javaType).append(' ').append(name).append(";\n");
+            constructor.append("        this.").append(name).append(" = (").append(boxed).append(") constants[")
+                    .append(constants.size()).append("];\n");
+            constants.add(constant);
+            return name;
+        }
+
+        private static String operator(final Operation operation) {
+            return switch (operation) {
+                case EQUALS -> "==";
+                case NOT_EQUALS -> "!=";
+                case GT -> ">";
+                case GTE -> ">=";
+                case LT -> "<";
+                case LTE -> "<=";
+                default -> throw new IllegalArgumentException("Unsupported operator " + operation.getLiteralValue());
+            };
+        }
+
+        private static String vectorClass(final DataType type) {
+            return switch (type) {
+                case INT -> "IntVector";
+                case FLOAT -> "FloatVector";
+                case DOUBLE -> "DoubleVector";
+                case VARCHAR -> "VarcharVector";
+            };
+        }
+
+        private static String primitive(final DataType type) {
+            return switch (type) {
+                case INT -> "int";
+                case FLOAT -> "float";
+                case DOUBLE -> "double";
+                case VARCHAR -> throw new IllegalArgumentException("VARCHAR has no primitive type");
+            };
+        }
+    }
+}
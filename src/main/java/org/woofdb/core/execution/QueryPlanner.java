@@ -0,0 +1,292 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.storage.BPlusTree;
+import org.woofdb.core.storage.ColumnStatistics;
+import org.woofdb.core.storage.SecondaryIndex;
+import org.woofdb.core.storage.TableStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses the physical operators of a SELECT by their estimated cost: the access path of every table, a full scan,
+ * a primary key range or an index scan, and for a join its algorithm and which input is built into the hash table or
+ * looked up through its key. Costs are in units of reading one row with a sequential scan.
+ * <p>
+ * Row counts come from the table header. Once the table is analyzed the fraction of rows a condition keeps comes from
+ * the statistics of its column: a range keeps the part of the histogram on its side, an equality one in the distinct
+ * values of the column, and neither keeps the nulls. Before that it is guessed the way System R guessed it for columns
+ * it knew nothing about: a third of the rows for a range, and for an equality one in the number of distinct values of
+ * the column, which is the row count for a primary key and {@value #DEFAULT_DISTINCT_VALUES} for any other column.
+ */
+final class QueryPlanner {
+    static final double SEQ_ROW_COST = 1.0;
+    // a row fetched through a secondary index entry, a random page read
+    static final double RANDOM_ROW_COST = 4.0;
+    // a descent of a B+Tree to the first key of a range
+    static final double INDEX_PROBE_COST = 4.0;
+    static final double HASH_BUILD_ROW_COST = 2.0;
+    static final double HASH_PROBE_ROW_COST = 1.0;
+    static final double MERGE_ROW_COST = 0.5;
+    static final double AGGREGATE_ROW_COST = 1.0;
+    // one comparison of a sort
+    static final double COMPARE_COST = 0.05;
+    // a row written to a spill file and read back
+    static final double SPILL_ROW_COST = 2.0;
+    static final double RANGE_SELECTIVITY = 1.0 / 3;
+    static final long DEFAULT_DISTINCT_VALUES = 200;
+
+    private QueryPlanner() {
+    }
+
+    // how the rows of a table are read, through the access comparison or with a full scan when it is null
+    record AccessPath(Comparison access, PlanNode node) {
+    }
+
+    record JoinPlan(Join join, PlanNode node) {
+    }
+
+    // the cheapest way to read the rows of the table matching the filter, a full scan is split over the workers
+    static AccessPath planScan(final Table table, final Filter filter, final int workers) {
+        double tableRows = table.getNumOfRows();
+        double rows = filter == null ? tableRows : tableRows * selectivity(table, filter);
+        List<Column> columns = table.getColumns();
+        Comparison best = null;
+        double bestCost = tableRows * SEQ_ROW_COST / Math.max(1, workers);
+        if (filter != null) {
+            for (Comparison candidate : table.accessCandidates(filter)) {
+                double rowCost = table.isPrimaryKeyLookup(candidate) ? SEQ_ROW_COST : RANDOM_ROW_COST;
+                double cost = INDEX_PROBE_COST + tableRows * selectivity(table, candidate) * rowCost;
+                if (cost < bestCost) {
+                    best = candidate;
+                    bestCost = cost;
+                }
+            }
+        }
+        String operator;
+        if (best == null) {
+            operator = (workers > 1 ? "Parallel Seq Scan on " + table.getTableName() + " (" + workers + " workers)"
+                    : "Seq Scan on " + table.getTableName()) + where(columns, filter, null);
+        }
+        else if (table.isPrimaryKeyLookup(best)) {
+            operator = "Primary Key Scan on " + table.getTableName() + " (" + describe(columns, best) + ")" + where(columns, filter, best);
+        }
+        else {
+            SecondaryIndex index = table.indexOn(best.columnIndex());
+            operator = "Index Scan on " + table.getTableName() + " using " + index.getName() + " (" + describe(columns, best) + ")"
+                    + where(columns, filter, best);
+        }
+        return new AccessPath(best, new PlanNode(operator, rows, bestCost));
+    }
+
+    // the cheapest of a hash join built on either input, a sort-merge join and an index nested loop join looking up
+    // the rows of either input through its key; the inputs carry the plan nodes of their scans
+    static JoinPlan planJoin(final JoinInput left, final JoinInput right, final String condition) {
+        double leftRows = left.node().getEstimatedRows();
+        double rightRows = right.node().getEstimatedRows();
+        double rows = leftRows * rightRows / Math.max(1, Math.max(keyDistinctValues(left), keyDistinctValues(right)));
+        double scans = left.node().getCost() + right.node().getCost();
+
+        double buildLeft = scans + hashCost(left, leftRows, rightRows);
+        double buildRight = scans + hashCost(right, rightRows, leftRows);
+        JoinPlan best = buildLeft <= buildRight
+                ? new JoinPlan(new HashJoin(left, right, true, HashJoin.DEFAULT_MEMORY_BUDGET),
+                        new PlanNode("Hash Join on " + condition + " (build " + left.table().getTableName() + ")", rows, buildLeft, left.node(), right.node()))
+                : new JoinPlan(new HashJoin(left, right, false, HashJoin.DEFAULT_MEMORY_BUDGET),
+                        new PlanNode("Hash Join on " + condition + " (build " + right.table().getTableName() + ")", rows, buildRight, left.node(), right.node()));
+
+        double merge = scans + sortCost(left, leftRows) + sortCost(right, rightRows) + (leftRows + rightRows) * MERGE_ROW_COST;
+        if (merge < best.node().getCost()) {
+            List<String> sorted = new ArrayList<>();
+            for (JoinInput input : List.of(left, right)) {
+                if (!input.isSortedByKey()) {
+                    sorted.add(input.table().getTableName());
+                }
+            }
+            String operator = "Merge Join on " + condition + (sorted.isEmpty() ? "" : " (sort " + String.join(", ", sorted) + ")");
+            best = new JoinPlan(new SortMergeJoin(left, right, ExternalSort.DEFAULT_MEMORY_BUDGET),
+                    new PlanNode(operator, rows, merge, left.node(), right.node()));
+        }
+
+        JoinPlan lookupRight = indexJoin(left, right, true, rows, condition);
+        if (lookupRight != null && lookupRight.node().getCost() < best.node().getCost()) {
+            best = lookupRight;
+        }
+        JoinPlan lookupLeft = indexJoin(right, left, false, rows, condition);
+        if (lookupLeft != null && lookupLeft.node().getCost() < best.node().getCost()) {
+            best = lookupLeft;
+        }
+        return best;
+    }
+
+    // a lookup through the key of the inner input per outer row, which reads only the outer table
+    private static JoinPlan indexJoin(final JoinInput outer, final JoinInput inner, final boolean outerIsLeft, final double rows,
+                                      final String condition) {
+        Table table = inner.table();
+        if (inner.widenKey() || !table.hasKeyAccess(inner.keyColumn())) {
+            return null;
+        }
+        double outerRows = outer.node().getEstimatedRows();
+        boolean primaryKey = table.isClustered() && inner.keyColumn() == table.getPrimaryKeyIndex();
+        double rowsPerKey = table.getNumOfRows() / Math.max(1.0, distinctValues(table, inner.keyColumn()));
+        double lookups = outerRows * (INDEX_PROBE_COST + rowsPerKey * (primaryKey ? SEQ_ROW_COST : RANDOM_ROW_COST));
+        String column = table.getColumns().get(inner.keyColumn()).getName();
+        String operator = (primaryKey ? "Primary Key Lookup on " + table.getTableName() + " (" + column + ")"
+                : "Index Lookup on " + table.getTableName() + " using " + table.indexOn(inner.keyColumn()).getName() + " (" + column + ")")
+                + where(table.getColumns(), inner.filter(), null);
+        PlanNode lookup = new PlanNode(operator, rows, lookups);
+        PlanNode node = new PlanNode("Index Nested Loop Join on " + condition, rows, outer.node().getCost() + lookups,
+                outerIsLeft ? outer.node() : lookup, outerIsLeft ? lookup : outer.node());
+        return new JoinPlan(new IndexNestedLoopJoin(outer, inner.withNode(lookup), outerIsLeft), node);
+    }
+
+    // groups of a hash aggregation, at most one per input row and a single one without GROUP BY
+    static PlanNode aggregate(final PlanNode input, final List<String> groupBy, final double[] keyDistinctValues) {
+        double groups = 1;
+        for (double distinct : keyDistinctValues) {
+            groups *= Math.max(1, distinct);
+        }
+        groups = Math.min(groups, Math.max(1, input.getEstimatedRows()));
+        String operator = groupBy.isEmpty() ? "Aggregate" : "Hash Aggregate by " + String.join(", ", groupBy);
+        return new PlanNode(operator, groups, input.getCost() + input.getEstimatedRows() * AGGREGATE_ROW_COST, input);
+    }
+
+    // ORDER BY, a bounded heap of the best rows for a small LIMIT and a full sort otherwise
+    static PlanNode sort(final PlanNode input, final String orderBy, final long limit) {
+        double rows = input.getEstimatedRows();
+        boolean topN = limit >= 0 && limit <= ExternalSort.MAX_HEAP_ROWS;
+        double kept = topN ? limit + 1 : rows;
+        double cost = input.getCost() + rows * log2(kept) * COMPARE_COST;
+        return new PlanNode((topN ? "Top-N Sort by " : "Sort by ") + orderBy, limit < 0 ? rows : Math.min(rows, limit), cost, input);
+    }
+
+    // a limit over a streaming input stops it early, the input is charged for the rows it produces
+    static PlanNode limit(final PlanNode input, final long limit, final boolean streaming) {
+        double rows = Math.min(input.getEstimatedRows(), limit);
+        double cost = streaming && input.getEstimatedRows() > 0 ? input.getCost() * rows / input.getEstimatedRows() : input.getCost();
+        return new PlanNode("Limit " + limit, rows, cost, input);
+    }
+
+    // the fraction of the rows of the table the filter keeps
+    static double selectivity(final Table table, final Filter filter) {
+        return switch (filter) {
+            case Comparison comparison when table.getStatistics() != null -> selectivity(table.getStatistics(), comparison);
+            case Comparison comparison -> switch (comparison.operation()) {
+                case EQUALS -> 1 / Math.max(1.0, distinctValues(table, comparison.columnIndex()));
+                case NOT_EQUALS -> 1 - 1 / Math.max(1.0, distinctValues(table, comparison.columnIndex()));
+                default -> RANGE_SELECTIVITY;
+            };
+            case AndFilter and -> selectivity(table, and.left()) * selectivity(table, and.right());
+            case OrFilter or -> {
+                double left = selectivity(table, or.left());
+                double right = selectivity(table, or.right());
+                yield left + right - left * right;
+            }
+            case CompiledFilter compiled -> selectivity(table, compiled.source());
+        };
+    }
+
+    private static double selectivity(final TableStatistics statistics, final Comparison comparison) {
+        ColumnStatistics column = statistics.getColumn(comparison.columnIndex());
+        double nonNull = 1 - statistics.getNullFraction(comparison.columnIndex());
+        double distinct = Math.max(1.0, column.getDistinctValues());
+        Object value = comparison.value();
+        return nonNull * switch (comparison.operation()) {
+            // a value outside the bounds is in no row
+            case EQUALS -> column.getMin() == null || BPlusTree.compareKeys(value, column.getMin()) < 0
+                    || BPlusTree.compareKeys(value, column.getMax()) > 0 ? 0 : 1 / distinct;
+            case NOT_EQUALS -> 1 - 1 / distinct;
+            case LT -> column.fractionBelow(value, false);
+            case LTE -> column.fractionBelow(value, true);
+            case GT -> 1 - column.fractionBelow(value, true);
+            default -> 1 - column.fractionBelow(value, false);
+        };
+    }
+
+    // distinct values of a column of the table, every row has its own primary key
+    static double distinctValues(final Table table, final int columnIndex) {
+        if (columnIndex == table.getPrimaryKeyIndex()) {
+            return table.getNumOfRows();
+        }
+        if (table.getStatistics() != null) {
+            return Math.min(table.getNumOfRows(), Math.max(1, table.getStatistics().getColumn(columnIndex).getDistinctValues()));
+        }
+        return Math.min(table.getNumOfRows(), DEFAULT_DISTINCT_VALUES);
+    }
+
+    // the condition as it was written, with the names of the columns
+    static String describe(final List<Column> columns, final Filter filter) {
+        return switch (filter) {
+            case Comparison comparison -> {
+                Column column = columns.get(comparison.columnIndex());
+                Object value = column.getDataType() == DataType.VARCHAR ? "'" + comparison.value() + "'" : comparison.value();
+                yield column.getName() + " " + comparison.operation().getLiteralValue() + " " + value;
+            }
+            case AndFilter and -> describe(columns, and.left()) + " AND " + describe(columns, and.right());
+            case OrFilter or -> "(" + describe(columns, or.left()) + " OR " + describe(columns, or.right()) + ")";
+            case CompiledFilter compiled -> describe(columns, compiled.source());
+        };
+    }
+
+    // the conditions checked on the rows read, all but the access comparison
+    private static String where(final List<Column> columns, final Filter filter, final Comparison access) {
+        List<String> conditions = new ArrayList<>();
+        if (filter != null) {
+            conditions(columns, filter instanceof CompiledFilter compiled ? compiled.source() : filter, access, conditions);
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" AND ", conditions);
+    }
+
+    private static void conditions(final List<Column> columns, final Filter filter, final Comparison access, final List<String> conditions) {
+        if (filter instanceof AndFilter and) {
+            conditions(columns, and.left(), access, conditions);
+            conditions(columns, and.right(), access, conditions);
+        }
+        else if (filter != access) {
+            conditions.add(describe(columns, filter));
+        }
+    }
+
+    private static double keyDistinctValues(final JoinInput input) {
+        return Math.min(distinctValues(input.table(), input.keyColumn()), Math.max(1, input.node().getEstimatedRows()));
+    }
+
+    // building the hash table, spilled to partition files past the memory budget, and probing it
+    private static double hashCost(final JoinInput build, final double buildRows, final double probeRows) {
+        double cost = buildRows * HASH_BUILD_ROW_COST + probeRows * HASH_PROBE_ROW_COST;
+        if (buildRows * rowBytes(build) > HashJoin.DEFAULT_MEMORY_BUDGET) {
+            cost += (buildRows + probeRows) * SPILL_ROW_COST;
+        }
+        return cost;
+    }
+
+    // nothing for an input scanned in key order, each sort gets half of the memory budget of the join
+    private static double sortCost(final JoinInput input, final double rows) {
+        if (input.isSortedByKey()) {
+            return 0;
+        }
+        double cost = rows * log2(rows) * COMPARE_COST;
+        if (rows * rowBytes(input) > ExternalSort.DEFAULT_MEMORY_BUDGET / 2) {
+            cost += rows * SPILL_ROW_COST;
+        }
+        return cost;
+    }
+
+    // a row of the input in memory, the array and the filled in values
+    private static double rowBytes(final JoinInput input) {
+        double bytes = 64 + 8 * input.columns().length;
+        for (int i = 0; i < input.columns().length; i ++) {
+            if (input.columns()[i]) {
+                bytes += input.table().getColumns().get(i).getDataType() == DataType.VARCHAR ? 48 : 16;
+            }
+        }
+        return bytes;
+    }
+
+    private static double log2(final double value) {
+        return Math.log(Math.max(2, value)) / Math.log(2);
+    }
+}
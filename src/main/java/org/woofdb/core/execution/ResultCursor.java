@@ -0,0 +1,40 @@
+package org.woofdb.core.execution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The rows of a query, pulled one at a time. Rows are produced as they are read: a scan reads the next batch of the
+ * table only once the rows of the previous one are consumed, so the first rows arrive right away and a query over
+ * any number of rows holds a batch at a time. A sort or an aggregation has read its input before the first row.
+ * <p>
+ * The cursor reads within the transaction it was opened with, which has to stay open until the cursor is closed.
+ */
+public sealed interface ResultCursor extends Closeable permits ScanCursor, RowsCursor {
+
+    // the names of the columns in select list order
+    List<String> getColumnNames();
+
+    // moves to the next row, false once every row is read
+    boolean next() throws IOException;
+
+    // the value of a column of the current row, null for NULL
+    Object getValue(int columnIndex);
+
+    // the rows read so far
+    long getRowCount();
+
+    // stops the query, the rows not read yet are never produced
+    @Override
+    void close() throws IOException;
+
+    // a cursor over rows already at hand, one value per column in every row
+    static ResultCursor of(final List<String> columnNames, final List<Object[]> rows) {
+        Iterator<Object[]> iterator = rows.iterator();
+        int[] positions = IntStream.range(0, columnNames.size()).toArray();
+        return new RowsCursor(columnNames, () -> iterator.hasNext() ? iterator.next() : null, positions, -1, rowCount -> { });
+    }
+}
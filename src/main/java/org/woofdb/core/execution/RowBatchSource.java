@@ -0,0 +1,38 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.util.Iterator;
+
+// packs rows that already come decoded, like the ones fetched through a secondary index, into batches and filters
+// them with the rest of the condition
+public final class RowBatchSource implements BatchSource {
+    private final Iterator<Row> rows;
+    private final VectorBatch batch;
+    private final Filter filter;
+
+    public RowBatchSource(final Iterator<Row> rows, final VectorBatch batch, final Filter filter) {
+        this.rows = rows;
+        this.batch = batch;
+        this.filter = filter;
+    }
+
+    @Override
+    public VectorBatch nextBatch() {
+        while (rows.hasNext()) {
+            batch.reset();
+            while (!batch.isFull() && rows.hasNext()) {
+                batch.addRow(rows.next());
+            }
+            batch.selectAll();
+            if (filter != null) {
+                filter.filter(batch);
+            }
+            if (batch.getSelectedCount() > 0) {
+                return batch;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package org.woofdb.core.execution;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// pulls rows of values one at a time, next returns null once the rows are exhausted
+interface RowCursor extends Closeable {
+
+    Object[] next() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
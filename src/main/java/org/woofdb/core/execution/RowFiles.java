@@ -0,0 +1,116 @@
+package org.woofdb.core.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// temporary files of rows of values for the operators that spill, every value is written with a type tag
+final class RowFiles {
+
+    private RowFiles() {
+    }
+
+    static Path createTempFile(final String prefix) throws IOException {
+        return Files.createTempFile("woofdb-" + prefix, ".spill");
+    }
+
+    static DataOutputStream newOutput(final Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+    }
+
+    // a cursor over the rows of a file, closing it closes the file but leaves it in place
+    static RowCursor open(final Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+        return new RowCursor() {
+            @Override
+            public Object[] next() throws IOException {
+                return read(in);
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    static void write(final DataOutputStream out, final Object[] row) throws IOException {
+        out.writeInt(row.length);
+        for (Object value : row) {
+            switch (value) {
+                case null -> out.writeByte(0);
+                case Integer integer -> {
+                    out.writeByte(1);
+                    out.writeInt(integer);
+                }
+                case Long number -> {
+                    out.writeByte(2);
+                    out.writeLong(number);
+                }
+                case Float number -> {
+                    out.writeByte(3);
+                    out.writeFloat(number);
+                }
+                case Double number -> {
+                    out.writeByte(4);
+                    out.writeDouble(number);
+                }
+                case String string -> {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(5);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                default -> throw new IllegalArgumentException("Cannot spill a value of " + value.getClass());
+            }
+        }
+    }
+
+    // the next row of a file, null at its end
+    static Object[] read(final DataInputStream in) throws IOException {
+        int width;
+        try {
+            width = in.readInt();
+        }
+        catch (EOFException e) {
+            return null;
+        }
+        Object[] row = new Object[width];
+        for (int i = 0; i < width; i ++) {
+            row[i] = switch (in.readByte()) {
+                case 0 -> null;
+                case 1 -> in.readInt();
+                case 2 -> in.readLong();
+                case 3 -> in.readFloat();
+                case 4 -> in.readDouble();
+                default -> {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    yield new String(bytes, StandardCharsets.UTF_8);
+                }
+            };
+        }
+        return row;
+    }
+
+    // heap sizes of the boxed values and the array, close enough to keep buffers within their budget
+    static long estimateSize(final Object[] row) {
+        long size = 16 + 8L * row.length;
+        for (Object value : row) {
+            size += switch (value) {
+                case null -> 0;
+                case String string -> 40 + string.length();
+                case Long ignored -> 24;
+                case Double ignored -> 24;
+                default -> 16;
+            };
+        }
+        return size;
+    }
+}
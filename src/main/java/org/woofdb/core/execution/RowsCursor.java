@@ -0,0 +1,66 @@
+package org.woofdb.core.execution;
+
+import java.io.IOException;
+import java.util.List;
+
+// the rows of a sort, an aggregation or a join, every column of the result is a position in their rows
+final class RowsCursor implements ResultCursor {
+    private final List<String> columnNames;
+    private final RowCursor rows;
+    private final int[] positions;
+    private final long limit;
+    private final CursorListener finished;
+    private Object[] row;
+    private long rowCount;
+    private boolean done;
+
+    // at most limit rows unless the limit is negative, closing the cursor closes the rows
+    RowsCursor(final List<String> columnNames, final RowCursor rows, final int[] positions, final long limit, final CursorListener finished) {
+        this.columnNames = columnNames;
+        this.rows = rows;
+        this.positions = positions;
+        this.limit = limit;
+        this.finished = finished;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        row = done || (limit >= 0 && rowCount >= limit) ? null : rows.next();
+        if (row == null) {
+            close();
+            return false;
+        }
+        rowCount ++;
+        return true;
+    }
+
+    @Override
+    public Object getValue(final int columnIndex) {
+        return row[positions[columnIndex]];
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (done) {
+            return;
+        }
+        done = true;
+        row = null;
+        try {
+            rows.close();
+        }
+        finally {
+            finished.finished(rowCount);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.io.IOException;
+import java.util.List;
+
+// the rows of a scan without ORDER BY or aggregates, read straight from the batches of the table
+final class ScanCursor implements ResultCursor {
+    private final List<String> columnNames;
+    private final BatchSource source;
+    private final int[] projection;
+    private final CompiledQuery compiled;
+    private final long limit;
+    private final CursorListener finished;
+    private VectorBatch batch;
+    // the position of the current row in the selection of the batch
+    private int index;
+    private long rowCount;
+    private boolean done;
+
+    // at most limit rows unless the limit is negative, a compiled query prints the batches
+    ScanCursor(final List<String> columnNames, final BatchSource source, final int[] projection, final CompiledQuery compiled,
+               final long limit, final CursorListener finished) {
+        this.columnNames = columnNames;
+        this.source = source;
+        this.projection = projection;
+        this.compiled = compiled;
+        this.limit = limit;
+        this.finished = finished;
+    }
+
+    @Override
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (batch != null && index + 1 < batch.getSelectedCount()) {
+            index ++;
+            rowCount ++;
+            return true;
+        }
+        if (nextBatch() == null) {
+            return false;
+        }
+        // nextBatch counted the whole batch, next only the first row of it
+        rowCount -= batch.getSelectedCount() - 1;
+        index = 0;
+        return true;
+    }
+
+    // the next batch with the selected rows left within the limit, its rows count as read; null once the rows are
+    // exhausted. The rows of the current batch that were not read yet are skipped
+    VectorBatch nextBatch() throws IOException {
+        if (batch != null) {
+            rowCount += batch.getSelectedCount() - index - 1;
+        }
+        batch = done || (limit >= 0 && rowCount >= limit) ? null : source.nextBatch();
+        if (batch == null) {
+            finish();
+            return null;
+        }
+        if (limit >= 0 && rowCount + batch.getSelectedCount() > limit) {
+            batch.setSelectedCount((int) (limit - rowCount));
+        }
+        rowCount += batch.getSelectedCount();
+        index = batch.getSelectedCount() - 1;
+        return batch;
+    }
+
+    @Override
+    public Object getValue(final int columnIndex) {
+        ColumnVector vector = batch.getColumn(projection[columnIndex]);
+        int position = batch.getSelection()[index];
+        return vector.isNull(position) ? null : vector.getObject(position);
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    int[] getProjection() {
+        return projection;
+    }
+
+    CompiledQuery getCompiled() {
+        return compiled;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+    }
+
+    private void finish() throws IOException {
+        if (!done) {
+            done = true;
+            batch = null;
+            finished.finished(rowCount);
+        }
+    }
+}
@@ -0,0 +1,770 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.expression.AggregateExpression;
+import org.woofdb.core.models.expression.AggregateFunction;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.ColumnExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.JoinClause;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.expression.OrderByItem;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.VectorBatch;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs a SELECT batch by batch: the table produces batches holding only the projected and filtered columns, the
+ * filter narrows their selection vectors and the selected positions of the projected columns are printed. With a
+ * {@link QueryCompiler} the filter and the printing run through a generated class instead of the interpreted tree.
+ * Every query is planned first, {@link QueryPlanner} picks its access paths and join, and then runs the plan.
+ * <p>
+ * A query produces a {@link ResultCursor}. Printing a query reads its cursor to the end, embedders read the cursor
+ * themselves.
+ */
+public final class SelectExecutor {
+    static final String SEPARATOR = "------------------";
+
+    private final PrintStream out;
+    private final QueryCompiler compiler;
+    private final ParallelScan parallelScan;
+
+    public SelectExecutor(final PrintStream out) {
+        this(out, null, null);
+    }
+
+    public SelectExecutor(final PrintStream out, final QueryCompiler compiler) {
+        this(out, compiler, null);
+    }
+
+    // a null compiler interprets the filters, a null parallel scan runs the query on the calling thread
+    public SelectExecutor(final PrintStream out, final QueryCompiler compiler, final ParallelScan parallelScan) {
+        this.out = out;
+        this.compiler = compiler;
+        this.parallelScan = parallelScan;
+    }
+
+    // returns the number of rows printed
+    public long execute(final Table table, final SelectStatement statement, final Transaction transaction) throws IOException {
+        return print(plan(table, statement).run().open(transaction, rowCount -> { }));
+    }
+
+    // the rows of a SELECT over the table, joined with another table unless that one is null
+    public ResultCursor query(final Table table, final Table joined, final SelectStatement statement, final Transaction transaction)
+            throws IOException {
+        return query(table, joined, statement, transaction, null);
+    }
+
+    // onClose runs once the cursor is exhausted or closed, unless it is null; the query reads nothing after that
+    public ResultCursor query(final Table table, final Table joined, final SelectStatement statement, final Transaction transaction,
+                              final Closeable onClose) throws IOException {
+        return prepare(table, joined, statement).open(transaction, onClose);
+    }
+
+    // plans a SELECT without running it, the plan keeps the values the statement has now
+    public PlannedQuery prepare(final Table table, final Table joined, final SelectStatement statement) {
+        return joined == null ? plan(table, statement) : plan(table, joined, statement);
+    }
+
+    /**
+     * Prints the plan chosen for a SELECT over the table, joined with another table unless that one is null, one line
+     * per operator with its estimated rows and cost. EXPLAIN ANALYZE runs the query with its output discarded and adds
+     * the rows every operator produced and the time it took.
+     */
+    public PlanNode explain(final Table table, final Table joined, final SelectStatement statement, final Transaction transaction,
+                            final boolean analyze) throws IOException {
+        SelectExecutor executor = analyze ? new SelectExecutor(new PrintStream(OutputStream.nullOutputStream()), compiler, parallelScan) : this;
+        long start = System.nanoTime();
+        PlannedQuery query = joined == null ? executor.plan(table, statement) : executor.plan(table, joined, statement);
+        long planned = System.nanoTime();
+        if (!analyze) {
+            out.print(query.plan().render(false));
+            return query.plan();
+        }
+        long rowCount = executor.print(query.run().open(transaction, count -> { }));
+        long finished = System.nanoTime();
+        out.print(query.plan().render(true));
+        out.printf(Locale.ROOT, "Planning time: %.3f ms%nExecution time: %.3f ms, %d rows%n", (planned - start) / 1e6, (finished - planned) / 1e6, rowCount);
+        return query.plan();
+    }
+
+    // the plan of a query and how to run it, runs of the same plan count into the same plan nodes
+    public record PlannedQuery(PlanNode plan, QueryRun run) {
+
+        // onClose runs once the cursor is exhausted or closed, unless it is null
+        public ResultCursor open(final Transaction transaction, final Closeable onClose) throws IOException {
+            return run.open(transaction, onClose == null ? rowCount -> { } : rowCount -> onClose.close());
+        }
+    }
+
+    interface QueryRun {
+        // the listener hears of the end of the cursor after the plan nodes counted its rows
+        ResultCursor open(Transaction transaction, CursorListener listener) throws IOException;
+    }
+
+    private PlannedQuery plan(final Table table, final SelectStatement statement) {
+        if (!statement.getGroupBy().isEmpty() || statement.getSelectList().stream().anyMatch(AggregateExpression.class::isInstance)) {
+            return planAggregation(table, statement);
+        }
+        int[] projection = resolveProjection(table.getColumns(), name -> columnIndex(table, name), statement.getColumns());
+        boolean[] columns = new boolean[table.getColumns().size()];
+        for (int columnIndex : projection) {
+            columns[columnIndex] = true;
+        }
+        List<String> names = new ArrayList<>();
+        for (int columnIndex : projection) {
+            names.add(table.getColumns().get(columnIndex).getName());
+        }
+        List<OrderByItem> orderBy = statement.getOrderBy();
+        int[] sortColumns = new int[orderBy.size()];
+        for (int i = 0; i < orderBy.size(); i ++) {
+            if (!(orderBy.get(i).getExpression() instanceof ColumnExpression column)) {
+                throw new SyntaxError("ORDER BY " + orderBy.get(i).getExpression() + " needs an aggregate in the select list");
+            }
+            sortColumns[i] = columnIndex(table, column.getColumnName());
+            columns[sortColumns[i]] = true;
+        }
+        Filter filter = statement.getWhere() == null ? null : table.resolve(statement.getWhere());
+        // without ORDER BY the rows stream out of the scan in table order as they are read, on a single thread; only
+        // a sort, which reads every row before the first one comes out, scans on the workers
+        int workers = parallelScan != null && !orderBy.isEmpty() ? parallelScan.getParallelism() : 1;
+        QueryPlanner.AccessPath path = QueryPlanner.planScan(table, filter, workers);
+        // only a full scan is split into morsels
+        boolean parallel = workers > 1 && path.access() == null;
+        Output output = output(path.node(), statement, true);
+
+        return new PlannedQuery(output.root(), (transaction, listener) -> {
+            long start = System.nanoTime();
+            Filter scanFilter = filter;
+            CompiledQuery compiled = null;
+            if (compiler != null) {
+                compiled = compiler.compile(filter, projection, columnTypes(table));
+                if (compiled != null && filter != null) {
+                    scanFilter = new CompiledFilter(filter, compiled);
+                }
+            }
+            if (orderBy.isEmpty()) {
+                BatchSource source = path.node().measure(table.selectBatches(scanFilter, columns, transaction, path.access()));
+                return new ScanCursor(names, source, projection, compiled, statement.getLimit(), output.listener(start, listener));
+            }
+            List<BatchSource> sources = !parallel
+                    ? List.of(table.selectBatches(scanFilter, columns, transaction, path.access()))
+                    : table.selectBatchPartitions(scanFilter, columns, transaction, parallelScan.morselCount());
+            sources = sources.stream().map(path.node()::measure).toList();
+            return sorted(names, sources, projection, sortColumns, orderBy, statement.getLimit(), output.listener(start, listener));
+        });
+    }
+
+    // prints the header and every row of the cursor and closes it, returns the number of rows printed
+    public long print(final ResultCursor cursor) throws IOException {
+        try (cursor) {
+            printHeader(cursor.getColumnNames());
+            StringBuilder output = new StringBuilder();
+            switch (cursor) {
+                case ScanCursor scan -> {
+                    VectorBatch batch;
+                    while ((batch = scan.nextBatch()) != null) {
+                        printBatch(batch, scan.getCompiled(), scan.getProjection(), output);
+                        // one write per batch instead of one per value
+                        out.print(output);
+                        output.setLength(0);
+                    }
+                }
+                case RowsCursor rows -> {
+                    int width = rows.getColumnNames().size();
+                    while (rows.next()) {
+                        for (int i = 0; i < width; i ++) {
+                            output.append(rows.getValue(i)).append(" | ");
+                        }
+                        output.append('\n').append(SEPARATOR).append('\n');
+                        if (output.length() >= 64 * 1024) {
+                            out.print(output);
+                            output.setLength(0);
+                        }
+                    }
+                }
+            }
+            out.print(output);
+            return cursor.getRowCount();
+        }
+    }
+
+    private void printHeader(final List<String> names) {
+        StringBuilder output = new StringBuilder();
+        output.append(SEPARATOR).append('\n');
+        for (String name : names) {
+            output.append(name).append(" | ");
+        }
+        output.append('\n').append(SEPARATOR).append('\n');
+        out.print(output);
+    }
+
+    // the operators above the scan, join or aggregation of a query, those the query does not have are null
+    private record Output(PlanNode sort, PlanNode limit, PlanNode root) {
+
+        // both produce the rows of the result
+        CursorListener listener(final long start, final CursorListener next) {
+            return rowCount -> {
+                if (sort != null) {
+                    sort.finish(rowCount, start);
+                }
+                if (limit != null) {
+                    limit.finish(rowCount, start);
+                }
+                next.finished(rowCount);
+            };
+        }
+    }
+
+    // a streaming input stops early under a LIMIT without ORDER BY
+    private static Output output(final PlanNode input, final SelectStatement statement, final boolean streaming) {
+        List<String> items = new ArrayList<>();
+        for (OrderByItem item : statement.getOrderBy()) {
+            String expression = item.getExpression() instanceof ColumnExpression column ? column.getColumnName() : item.getExpression().toString();
+            items.add(item.isDescending() ? expression + " DESC" : expression);
+        }
+        PlanNode sort = items.isEmpty() ? null : QueryPlanner.sort(input, String.join(", ", items), statement.getLimit());
+        PlanNode limit = !statement.hasLimit() ? null
+                : QueryPlanner.limit(sort == null ? input : sort, statement.getLimit(), sort == null && streaming);
+        return new Output(sort, limit, limit != null ? limit : sort != null ? sort : input);
+    }
+
+    // ORDER BY: rows of the projected values followed by the sort keys are sorted, one partial sort per worker
+    private ResultCursor sorted(final List<String> names, final List<BatchSource> sources, final int[] projection, final int[] sortColumns,
+                                final List<OrderByItem> orderBy, final long limit, final CursorListener finished) throws IOException {
+        int[] sortPositions = new int[sortColumns.length];
+        for (int i = 0; i < sortColumns.length; i ++) {
+            sortPositions[i] = projection.length + i;
+        }
+        Comparator<Object[]> order = ExternalSort.comparator(sortPositions, descending(orderBy));
+        int[] rowColumns = new int[projection.length + sortColumns.length];
+        System.arraycopy(projection, 0, rowColumns, 0, projection.length);
+        System.arraycopy(sortColumns, 0, rowColumns, projection.length, sortColumns.length);
+        ParallelScan.BatchConsumer<ExternalSort> collect = (sort, batch) -> {
+            int[] selection = batch.getSelection();
+            for (int i = 0; i < batch.getSelectedCount(); i ++) {
+                Object[] row = new Object[rowColumns.length];
+                for (int c = 0; c < rowColumns.length; c ++) {
+                    row[c] = batch.getColumn(rowColumns[c]).getObject(selection[i]);
+                }
+                sort.add(row);
+            }
+        };
+        ExternalSort sort = new ExternalSort(order, limit, ExternalSort.DEFAULT_MEMORY_BUDGET);
+        try {
+            if (sources.size() == 1) {
+                VectorBatch batch;
+                while ((batch = sources.getFirst().nextBatch()) != null) {
+                    collect.accept(sort, batch);
+                }
+            }
+            else {
+                long budget = ExternalSort.DEFAULT_MEMORY_BUDGET / parallelScan.getParallelism();
+                List<ExternalSort> partials = parallelScan.fold(sources, () -> new ExternalSort(order, limit, budget), collect);
+                try {
+                    for (ExternalSort partial : partials) {
+                        sort.merge(partial);
+                    }
+                }
+                finally {
+                    for (ExternalSort partial : partials) {
+                        partial.close();
+                    }
+                }
+            }
+            int[] positions = new int[projection.length];
+            for (int i = 0; i < positions.length; i ++) {
+                positions[i] = i;
+            }
+            return new RowsCursor(names, sort.rows(), positions, -1, finished);
+        }
+        catch (IOException | RuntimeException e) {
+            sort.close();
+            throw e;
+        }
+    }
+
+    private static void printBatch(final VectorBatch batch, final CompiledQuery compiled, final int[] projection, final StringBuilder output) {
+        if (compiled != null) {
+            compiled.print(batch, output);
+        }
+        else {
+            printInterpreted(batch, projection, output);
+        }
+    }
+
+    /**
+     * Runs a SELECT over two joined tables. Every conjunct of the WHERE clause reads columns of one of the tables and
+     * is pushed into the scan of that table. The joined rows hold the columns of the left table followed by those of
+     * the right one, and are aggregated, sorted and printed like rows of a single table.
+     */
+    public long execute(final Table left, final Table right, final SelectStatement statement, final Transaction transaction) throws IOException {
+        return print(plan(left, right, statement).run().open(transaction, rowCount -> { }));
+    }
+
+    private PlannedQuery plan(final Table left, final Table right, final SelectStatement statement) {
+        if (left == right) {
+            throw new SyntaxError("Joining " + left.getTableName() + " with itself needs table aliases, which are not supported");
+        }
+        List<Column> columns = new ArrayList<>(left.getColumns());
+        columns.addAll(right.getColumns());
+        int leftWidth = left.getColumns().size();
+        ToIntFunction<String> columnIndex = name -> joinedColumnIndex(left, right, name);
+
+        JoinClause joinClause = statement.getJoin();
+        int first = columnIndex.applyAsInt(joinClause.getLeftColumn());
+        int second = columnIndex.applyAsInt(joinClause.getRightColumn());
+        if ((first < leftWidth) == (second < leftWidth)) {
+            throw new SyntaxError("JOIN " + right.getTableName() + " ON must compare a column of " + left.getTableName()
+                    + " with a column of " + right.getTableName());
+        }
+        int leftKey = Math.min(first, second);
+        int rightKey = Math.max(first, second) - leftWidth;
+        DataType leftType = left.getColumns().get(leftKey).getDataType();
+        DataType rightType = right.getColumns().get(rightKey).getDataType();
+        if ((leftType == DataType.VARCHAR) != (rightType == DataType.VARCHAR)) {
+            throw new SyntaxError("Cannot join " + leftType + " column " + joinClause.getLeftColumn() + " with " + rightType
+                    + " column " + joinClause.getRightColumn());
+        }
+
+        BinaryExpression[] pushed = new BinaryExpression[2];
+        if (statement.getWhere() != null) {
+            for (BinaryExpression conjunct : conjuncts(statement.getWhere())) {
+                int side = side(conjunct, columnIndex, leftWidth);
+                pushed[side] = pushed[side] == null ? conjunct : and(pushed[side], conjunct);
+            }
+        }
+
+        boolean aggregated = !statement.getGroupBy().isEmpty() || statement.getSelectList().stream().anyMatch(AggregateExpression.class::isInstance);
+        AggregationPlan plan = null;
+        int[] projection = null;
+        int[] sortPositions = new int[statement.getOrderBy().size()];
+        boolean[] needed = new boolean[columns.size()];
+        if (aggregated) {
+            plan = planAggregation(columns, columnIndex, statement);
+            for (int key : plan.keyColumns()) {
+                needed[key] = true;
+            }
+            for (AggregateCall call : plan.calls()) {
+                if (call.columnIndex() >= 0) {
+                    needed[call.columnIndex()] = true;
+                }
+            }
+        }
+        else {
+            projection = resolveProjection(columns, columnIndex, statement.getColumns());
+            for (int position : projection) {
+                needed[position] = true;
+            }
+            for (int i = 0; i < sortPositions.length; i ++) {
+                if (!(statement.getOrderBy().get(i).getExpression() instanceof ColumnExpression column)) {
+                    throw new SyntaxError("ORDER BY " + statement.getOrderBy().get(i).getExpression() + " needs an aggregate in the select list");
+                }
+                sortPositions[i] = columnIndex.applyAsInt(column.getColumnName());
+                needed[sortPositions[i]] = true;
+            }
+        }
+        boolean widenKey = leftType != rightType;
+        Filter leftFilter = pushed[0] == null ? null : left.resolve(pushed[0]);
+        Filter rightFilter = pushed[1] == null ? null : right.resolve(pushed[1]);
+        QueryPlanner.AccessPath leftPath = QueryPlanner.planScan(left, leftFilter, 1);
+        QueryPlanner.AccessPath rightPath = QueryPlanner.planScan(right, rightFilter, 1);
+        JoinInput leftInput = new JoinInput(left, leftFilter, leftPath.access(), Arrays.copyOfRange(needed, 0, leftWidth),
+                leftKey, widenKey, leftPath.node());
+        JoinInput rightInput = new JoinInput(right, rightFilter, rightPath.access(), Arrays.copyOfRange(needed, leftWidth, needed.length),
+                rightKey, widenKey, rightPath.node());
+        QueryPlanner.JoinPlan join = QueryPlanner.planJoin(leftInput, rightInput, joinClause.getLeftColumn() + " = " + joinClause.getRightColumn());
+
+        if (aggregated) {
+            AggregationPlan aggregation = plan;
+            double[] distinctValues = new double[plan.keyColumns().length];
+            for (int i = 0; i < distinctValues.length; i ++) {
+                int key = plan.keyColumns()[i];
+                distinctValues[i] = key < leftWidth ? QueryPlanner.distinctValues(left, key) : QueryPlanner.distinctValues(right, key - leftWidth);
+            }
+            PlanNode aggregate = QueryPlanner.aggregate(join.node(), statement.getGroupBy(), distinctValues);
+            Output output = output(aggregate, statement, false);
+            return new PlannedQuery(output.root(), (transaction, listener) -> {
+                long start = System.nanoTime();
+                HashAggregation hashAggregation = new HashAggregation(columns, aggregation.keyColumns(), aggregation.calls(), HashAggregation.DEFAULT_MEMORY_BUDGET);
+                try {
+                    VectorBatch batch = new VectorBatch(columns, hashAggregation.getInputColumns(), VectorBatch.DEFAULT_CAPACITY);
+                    Row row = new Row(columns.size());
+                    runJoin(join, transaction, (leftRow, rightRow) -> {
+                        row.setValues(concat(leftRow, rightRow));
+                        batch.addRow(row);
+                        if (batch.isFull()) {
+                            batch.selectAll();
+                            hashAggregation.add(batch);
+                            batch.reset();
+                        }
+                        return true;
+                    });
+                    batch.selectAll();
+                    hashAggregation.add(batch);
+                }
+                catch (IOException | RuntimeException e) {
+                    hashAggregation.close();
+                    throw e;
+                }
+                return aggregated(hashAggregation, aggregation, statement, aggregate, start, output.listener(start, listener));
+            });
+        }
+
+        int[] outputs = projection;
+        List<String> names = Arrays.stream(outputs).mapToObj(position -> columns.get(position).getName()).toList();
+        Output output = output(join.node(), statement, true);
+        return new PlannedQuery(output.root(), (transaction, listener) -> {
+            long start = System.nanoTime();
+            CursorListener finished = output.listener(start, listener);
+            if (statement.getOrderBy().isEmpty()) {
+                // the join produces a chunk of rows whenever the reader asks for one and stops when the cursor is closed
+                return new RowsCursor(names, new JoinRows(sink -> runJoin(join, transaction, sink)), outputs, statement.getLimit(), finished);
+            }
+            ExternalSort sort = new ExternalSort(ExternalSort.comparator(sortPositions, descending(statement.getOrderBy())),
+                    statement.getLimit(), ExternalSort.DEFAULT_MEMORY_BUDGET);
+            try {
+                runJoin(join, transaction, (leftRow, rightRow) -> {
+                    sort.add(concat(leftRow, rightRow));
+                    return true;
+                });
+                return new RowsCursor(names, sort.rows(), outputs, -1, finished);
+            }
+            catch (IOException | RuntimeException e) {
+                sort.close();
+                throw e;
+            }
+        });
+    }
+
+    // runs the join, the rows it produced and the time until it was done count into its plan node
+    private static void runJoin(final QueryPlanner.JoinPlan join, final Transaction transaction, final JoinSink sink) throws IOException {
+        long start = System.nanoTime();
+        long[] rowCount = {0};
+        join.join().run(transaction, (leftRow, rightRow) -> {
+            rowCount[0] ++;
+            return sink.accept(leftRow, rightRow);
+        });
+        join.node().finish(rowCount[0], start);
+    }
+
+    // a column of either table, qualified with its table or unqualified when only one of the tables has it
+    private static int joinedColumnIndex(final Table left, final Table right, final String name) {
+        int leftIndex = left.getColumnIndex(name);
+        int rightIndex = right.getColumnIndex(name);
+        if (leftIndex >= 0 && rightIndex >= 0) {
+            throw new SyntaxError("Column '" + name + "' is ambiguous, qualify it with the name of its table");
+        }
+        if (leftIndex < 0 && rightIndex < 0) {
+            throw new SyntaxError("Unknown column '" + name + "' in " + left.getTableName() + " or " + right.getTableName());
+        }
+        return leftIndex >= 0 ? leftIndex : left.getColumns().size() + rightIndex;
+    }
+
+    private static List<BinaryExpression> conjuncts(final BinaryExpression condition) {
+        List<BinaryExpression> conjuncts = new ArrayList<>();
+        if (condition.getOperation() == Operation.AND
+                && condition.getLeftSide() instanceof BinaryExpression left && condition.getRightSide() instanceof BinaryExpression right) {
+            conjuncts.addAll(conjuncts(left));
+            conjuncts.addAll(conjuncts(right));
+        }
+        else {
+            conjuncts.add(condition);
+        }
+        return conjuncts;
+    }
+
+    // 0 when every column of the condition is in the left table, 1 when every one is in the right table
+    private static int side(final BinaryExpression condition, final ToIntFunction<String> columnIndex, final int leftWidth) {
+        List<String> names = new ArrayList<>();
+        columnNames(condition, names);
+        int side = -1;
+        for (String name : names) {
+            int columnSide = columnIndex.applyAsInt(name) < leftWidth ? 0 : 1;
+            if (side >= 0 && side != columnSide) {
+                throw new SyntaxError("Conditions combined with OR must read columns of a single table of the join");
+            }
+            side = columnSide;
+        }
+        if (side < 0) {
+            throw new SyntaxError("WHERE clause must compare a column with a literal");
+        }
+        return side;
+    }
+
+    private static void columnNames(final Expression expression, final List<String> names) {
+        if (expression instanceof ColumnExpression column) {
+            names.add(column.getColumnName());
+        }
+        else if (expression instanceof BinaryExpression binary) {
+            columnNames(binary.getLeftSide(), names);
+            columnNames(binary.getRightSide(), names);
+        }
+    }
+
+    private static BinaryExpression and(final BinaryExpression left, final BinaryExpression right) {
+        BinaryExpression and = new BinaryExpression();
+        and.setLeftSide(left);
+        and.setOperation(Operation.AND);
+        and.setRightSide(right);
+        return and;
+    }
+
+    static Object[] concat(final Object[] left, final Object[] right) {
+        Object[] row = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, row, left.length, right.length);
+        return row;
+    }
+
+    // GROUP BY and aggregates: the batches are fed to a hash aggregation and its groups printed once it is done
+    private PlannedQuery planAggregation(final Table table, final SelectStatement statement) {
+        AggregationPlan plan = planAggregation(table.getColumns(), name -> columnIndex(table, name), statement);
+        Filter filter = statement.getWhere() == null ? null : table.resolve(statement.getWhere());
+        QueryPlanner.AccessPath path = QueryPlanner.planScan(table, filter, parallelScan == null ? 1 : parallelScan.getParallelism());
+        boolean parallel = parallelScan != null && path.access() == null;
+        double[] distinctValues = Arrays.stream(plan.keyColumns()).mapToDouble(key -> QueryPlanner.distinctValues(table, key)).toArray();
+        PlanNode aggregate = QueryPlanner.aggregate(path.node(), statement.getGroupBy(), distinctValues);
+        Output output = output(aggregate, statement, false);
+
+        return new PlannedQuery(output.root(), (transaction, listener) -> {
+            long start = System.nanoTime();
+            Filter scanFilter = filter;
+            if (compiler != null && filter != null) {
+                CompiledQuery compiled = compiler.compile(filter, new int[0], columnTypes(table));
+                if (compiled != null) {
+                    scanFilter = new CompiledFilter(filter, compiled);
+                }
+            }
+            HashAggregation aggregation = new HashAggregation(table.getColumns(), plan.keyColumns(), plan.calls(), HashAggregation.DEFAULT_MEMORY_BUDGET);
+            try {
+                List<BatchSource> sources = !parallel
+                        ? List.of(table.selectBatches(scanFilter, aggregation.getInputColumns(), transaction, path.access()))
+                        : table.selectBatchPartitions(scanFilter, aggregation.getInputColumns(), transaction, parallelScan.morselCount());
+                sources = sources.stream().map(path.node()::measure).toList();
+                if (sources.size() == 1) {
+                    VectorBatch batch;
+                    while ((batch = sources.getFirst().nextBatch()) != null) {
+                        aggregation.add(batch);
+                    }
+                }
+                else {
+                    // partial aggregations per worker, each within its share of the memory budget, merged at the end
+                    long budget = HashAggregation.DEFAULT_MEMORY_BUDGET / parallelScan.getParallelism();
+                    List<HashAggregation> partials = parallelScan.fold(sources,
+                            () -> new HashAggregation(table.getColumns(), plan.keyColumns(), plan.calls(), budget), HashAggregation::add);
+                    try {
+                        for (HashAggregation partial : partials) {
+                            aggregation.merge(partial);
+                        }
+                    }
+                    finally {
+                        for (HashAggregation partial : partials) {
+                            partial.close();
+                        }
+                    }
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                aggregation.close();
+                throw e;
+            }
+            return aggregated(aggregation, plan, statement, aggregate, start, output.listener(start, listener));
+        });
+    }
+
+    // the group keys, the aggregate calls and where every select list and ORDER BY item is found in the rows of the
+    // aggregation, keys first and aggregates after them
+    private record AggregationPlan(int[] keyColumns, List<AggregateCall> calls, int[] outputs, int[] sortPositions) {
+    }
+
+    private static AggregationPlan planAggregation(final List<Column> columns, final ToIntFunction<String> columnIndex, final SelectStatement statement) {
+        List<String> groupBy = statement.getGroupBy();
+        int[] keyColumns = new int[groupBy.size()];
+        for (int i = 0; i < groupBy.size(); i ++) {
+            keyColumns[i] = columnIndex.applyAsInt(groupBy.get(i));
+        }
+        List<Expression> selectList = statement.getSelectList();
+        int[] outputs = new int[selectList.size()];
+        List<AggregateCall> calls = new ArrayList<>();
+        for (int i = 0; i < selectList.size(); i ++) {
+            if (selectList.get(i) instanceof AggregateExpression aggregate) {
+                int column = -1;
+                if (aggregate.getColumnName().equals("*")) {
+                    if (aggregate.getFunction() != AggregateFunction.COUNT) {
+                        throw new SyntaxError(aggregate.getFunction() + "(*) is not supported, only COUNT(*)");
+                    }
+                }
+                else {
+                    column = columnIndex.applyAsInt(aggregate.getColumnName());
+                }
+                outputs[i] = keyColumns.length + calls.size();
+                calls.add(new AggregateCall(aggregate.getFunction(), column));
+                continue;
+            }
+            String name = ((ColumnExpression) selectList.get(i)).getColumnName();
+            int key = name.equals("*") ? -1 : keyPosition(keyColumns, columnIndex.applyAsInt(name));
+            if (key < 0) {
+                throw new SyntaxError("Column '" + name + "' must appear in GROUP BY or be used in an aggregate function");
+            }
+            outputs[i] = key;
+        }
+        // ORDER BY refers to group keys or aggregates, aggregates missing from the select list are computed as well
+        List<OrderByItem> orderBy = statement.getOrderBy();
+        int[] sortPositions = new int[orderBy.size()];
+        for (int i = 0; i < orderBy.size(); i ++) {
+            if (orderBy.get(i).getExpression() instanceof AggregateExpression aggregate) {
+                AggregateCall call = new AggregateCall(aggregate.getFunction(),
+                        aggregate.getColumnName().equals("*") ? -1 : columnIndex.applyAsInt(aggregate.getColumnName()));
+                if (!calls.contains(call)) {
+                    calls.add(call);
+                }
+                sortPositions[i] = keyColumns.length + calls.indexOf(call);
+                continue;
+            }
+            int column = columnIndex.applyAsInt(((ColumnExpression) orderBy.get(i).getExpression()).getColumnName());
+            sortPositions[i] = keyPosition(keyColumns, column);
+            if (sortPositions[i] < 0) {
+                throw new SyntaxError("ORDER BY column '" + columns.get(column).getName() + "' must appear in GROUP BY");
+            }
+        }
+        return new AggregationPlan(keyColumns, calls, outputs, sortPositions);
+    }
+
+    private static int keyPosition(final int[] keyColumns, final int columnIndex) {
+        for (int k = 0; k < keyColumns.length; k ++) {
+            if (keyColumns[k] == columnIndex) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // the groups of an aggregation that read all of its input, sorted under ORDER BY; the groups produced and the
+    // time until the aggregation was done count into its plan node
+    private static ResultCursor aggregated(final HashAggregation aggregation, final AggregationPlan plan, final SelectStatement statement,
+                                           final PlanNode node, final long start, final CursorListener finished) throws IOException {
+        RowCursor groups = aggregation.groups();
+        List<OrderByItem> orderBy = statement.getOrderBy();
+        if (orderBy.isEmpty()) {
+            return new RowsCursor(statement.getColumns(), counted(groups, node, start), plan.outputs(), statement.getLimit(), finished);
+        }
+        ExternalSort sort = new ExternalSort(ExternalSort.comparator(plan.sortPositions(), descending(orderBy)),
+                statement.getLimit(), ExternalSort.DEFAULT_MEMORY_BUDGET);
+        try (groups) {
+            long groupCount = 0;
+            Object[] group;
+            while ((group = groups.next()) != null) {
+                sort.add(group);
+                groupCount ++;
+            }
+            node.finish(groupCount, start);
+        }
+        catch (IOException | RuntimeException e) {
+            sort.close();
+            throw e;
+        }
+        return new RowsCursor(statement.getColumns(), sort.rows(), plan.outputs(), -1, finished);
+    }
+
+    // counts the rows read into the plan node, with the time until they were exhausted or the cursor was closed
+    private static RowCursor counted(final RowCursor rows, final PlanNode node, final long start) {
+        return new RowCursor() {
+            private long rowCount;
+            private boolean finished;
+
+            @Override
+            public Object[] next() throws IOException {
+                Object[] row = rows.next();
+                if (row != null) {
+                    rowCount ++;
+                }
+                else {
+                    finish();
+                }
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                rows.close();
+            }
+
+            private void finish() {
+                if (!finished) {
+                    finished = true;
+                    node.finish(rowCount, start);
+                }
+            }
+        };
+    }
+
+    private static void printInterpreted(final VectorBatch batch, final int[] projection, final StringBuilder output) {
+        int[] selection = batch.getSelection();
+        for (int i = 0; i < batch.getSelectedCount(); i ++) {
+            int position = selection[i];
+            for (int columnIndex : projection) {
+                ColumnVector vector = batch.getColumn(columnIndex);
+                if (vector.isNull(position)) {
+                    output.append("null");
+                }
+                else {
+                    vector.appendTo(output, position);
+                }
+                output.append(" | ");
+            }
+            output.append('\n').append(SEPARATOR).append('\n');
+        }
+    }
+
+    private static boolean[] descending(final List<OrderByItem> orderBy) {
+        boolean[] descending = new boolean[orderBy.size()];
+        for (int i = 0; i < orderBy.size(); i ++) {
+            descending[i] = orderBy.get(i).isDescending();
+        }
+        return descending;
+    }
+
+    private static List<DataType> columnTypes(final Table table) {
+        return table.getColumns().stream().map(Column::getDataType).toList();
+    }
+
+    private static int columnIndex(final Table table, final String name) {
+        int columnIndex = table.getColumnIndex(name);
+        if (columnIndex < 0) {
+            throw new SyntaxError("Unknown column '" + name + "' in table " + table.getTableName());
+        }
+        return columnIndex;
+    }
+
+    // column indexes in select list order, * expands to every column
+    private static int[] resolveProjection(final List<Column> columns, final ToIntFunction<String> columnIndex, final List<String> names) {
+        List<Integer> projection = new ArrayList<>();
+        for (String name : names) {
+            if (name.equals("*")) {
+                for (int i = 0; i < columns.size(); i ++) {
+                    projection.add(i);
+                }
+                continue;
+            }
+            projection.add(columnIndex.applyAsInt(name));
+        }
+        return projection.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,84 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sort-merge join: both inputs are brought into key order, with an {@link ExternalSort} unless the scan already
+ * produces them in key order, and merged. The right rows sharing a key are held in memory while the left rows with
+ * that key are paired with them.
+ */
+final class SortMergeJoin implements Join {
+    private final JoinInput left;
+    private final JoinInput right;
+    private final long memoryBudget;
+
+    SortMergeJoin(final JoinInput left, final JoinInput right, final long memoryBudget) {
+        this.left = left;
+        this.right = right;
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public void run(final Transaction transaction, final JoinSink sink) throws IOException {
+        // half of the budget for each sort
+        try (ExternalSort leftSort = new ExternalSort(order(left), -1, memoryBudget / 2);
+             ExternalSort rightSort = new ExternalSort(order(right), -1, memoryBudget / 2);
+             RowCursor leftRows = sorted(left, leftSort, transaction);
+             RowCursor rightRows = sorted(right, rightSort, transaction)) {
+            Object[] leftRow = leftRows.next();
+            Object[] rightRow = rightRows.next();
+            List<Object[]> group = new ArrayList<>();
+            while (leftRow != null && rightRow != null) {
+                Object key = right.key(rightRow);
+                int comparison = ExternalSort.compareValues(left.key(leftRow), key);
+                if (comparison < 0) {
+                    leftRow = leftRows.next();
+                    continue;
+                }
+                if (comparison > 0) {
+                    rightRow = rightRows.next();
+                    continue;
+                }
+                group.clear();
+                while (rightRow != null && ExternalSort.compareValues(right.key(rightRow), key) == 0) {
+                    group.add(rightRow);
+                    rightRow = rightRows.next();
+                }
+                while (leftRow != null && ExternalSort.compareValues(left.key(leftRow), key) == 0) {
+                    for (Object[] match : group) {
+                        if (!sink.accept(leftRow, match)) {
+                            return;
+                        }
+                    }
+                    leftRow = leftRows.next();
+                }
+            }
+        }
+    }
+
+    private static Comparator<Object[]> order(final JoinInput input) {
+        return (left, right) -> ExternalSort.compareValues(input.key(left), input.key(right));
+    }
+
+    // the rows with a key in key order
+    private static RowCursor sorted(final JoinInput input, final ExternalSort sort, final Transaction transaction) throws IOException {
+        RowCursor rows = input.open(transaction);
+        if (input.isSortedByKey()) {
+            return rows;
+        }
+        try (rows) {
+            Object[] row;
+            while ((row = rows.next()) != null) {
+                if (input.key(row) != null) {
+                    sort.add(row);
+                }
+            }
+        }
+        return sort.sorted();
+    }
+}
@@ -0,0 +1,57 @@
+package org.woofdb.core.execution;
+
+import org.woofdb.core.models.vector.VectorBatch;
+import org.woofdb.core.storage.RecordScanner;
+import org.woofdb.core.storage.RowCodec;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the versions visible to a transaction straight from their records into a reused batch and filters the
+ * whole batch at once. Nothing is allocated per row, columns the query does not read are skipped while decoding.
+ */
+public final class VectorizedScan implements BatchSource {
+    private final RecordScanner records;
+    private final RowCodec rowCodec;
+    private final Transaction transaction;
+    private final VectorBatch batch;
+    private final Filter filter;
+    private boolean exhausted;
+
+    public VectorizedScan(final RecordScanner records, final RowCodec rowCodec, final Transaction transaction,
+                          final VectorBatch batch, final Filter filter) {
+        this.records = records;
+        this.rowCodec = rowCodec;
+        this.transaction = transaction;
+        this.batch = batch;
+        this.filter = filter;
+    }
+
+    @Override
+    public VectorBatch nextBatch() throws IOException {
+        while (!exhausted) {
+            batch.reset();
+            while (!batch.isFull()) {
+                if (!records.next()) {
+                    exhausted = true;
+                    break;
+                }
+                ByteBuffer buffer = records.buffer();
+                int offset = records.offset();
+                if (transaction.isVisible(RowCodec.readBeginTimestamp(buffer, offset), RowCodec.readEndTimestamp(buffer, offset))) {
+                    rowCodec.decodeInto(buffer, offset, batch, batch.addPosition());
+                }
+            }
+            batch.selectAll();
+            if (filter != null) {
+                filter.filter(batch);
+            }
+            if (batch.getSelectedCount() > 0) {
+                return batch;
+            }
+        }
+        return null;
+    }
+}
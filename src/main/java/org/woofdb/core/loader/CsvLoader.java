@@ -0,0 +1,228 @@
+package org.woofdb.core.loader;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads a delimited text file into a table. The file is read sequentially in chunks cut at line boundaries, the chunks
+ * are parsed into rows on worker threads and handed to {@link Table#addRows} in file order from the calling thread.
+ * Quoted fields may contain the delimiter and doubled quotes but not line breaks. An empty unquoted field is null.
+ */
+public final class CsvLoader {
+    private static final int CHUNK_SIZE = 4 << 20;
+
+    private final Table table;
+    private final char delimiter;
+    private final boolean header;
+    private final int parallelism;
+
+    public CsvLoader(final Table table, final char delimiter, final boolean header) {
+        this(table, delimiter, header, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CsvLoader(final Table table, final char delimiter, final boolean header, final int parallelism) {
+        this.table = table;
+        this.delimiter = delimiter;
+        this.header = header;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // returns the number of rows loaded, a malformed line fails the load and the caller rolls the transaction back
+    public long load(final Path file, final Transaction transaction) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "csv-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // at most two chunks per worker are in flight, so memory stays bounded however large the file is
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+        long[] progress = new long[2];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] carry = new byte[0];
+            boolean first = true;
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                byte[] chunk = Arrays.copyOf(carry, Math.max(CHUNK_SIZE, carry.length * 2));
+                int length = carry.length;
+                while (length < chunk.length) {
+                    int read = channel.read(ByteBuffer.wrap(chunk, length, chunk.length - length));
+                    if (read < 0) {
+                        endOfFile = true;
+                        break;
+                    }
+                    length += read;
+                }
+                int end = endOfFile ? length : lastLineBreak(chunk, length) + 1;
+                if (end == 0) {
+                    // a single line longer than the chunk, read on with a bigger buffer
+                    carry = Arrays.copyOf(chunk, length);
+                    continue;
+                }
+                carry = Arrays.copyOfRange(chunk, end, length);
+                boolean skipFirstLine = first && header;
+                first = false;
+                int chunkLength = end;
+                pending.add(workers.submit(() -> parse(chunk, chunkLength, skipFirstLine)));
+                if (pending.size() >= parallelism * 2) {
+                    append(pending.poll(), progress, transaction);
+                }
+            }
+            while (!pending.isEmpty()) {
+                append(pending.poll(), progress, transaction);
+            }
+        }
+        finally {
+            workers.shutdownNow();
+        }
+        return progress[1];
+    }
+
+    // progress holds the lines consumed so far followed by the rows loaded so far
+    private void append(final Future<ParsedChunk> future, final long[] progress, final Transaction transaction) throws IOException {
+        ParsedChunk chunk;
+        try {
+            chunk = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + table.getTableName(), e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+        if (chunk.error() != null) {
+            throw new SyntaxError("Line " + (progress[0] + chunk.errorLine()) + ": " + chunk.error());
+        }
+        if (!chunk.rows().isEmpty()) {
+            table.addRows(chunk.rows(), transaction);
+        }
+        progress[0] += chunk.lineCount();
+        progress[1] += chunk.rows().size();
+    }
+
+    private ParsedChunk parse(final byte[] chunk, final int length, final boolean skipFirstLine) {
+        List<Column> columns = table.getColumns();
+        List<Row> rows = new ArrayList<>();
+        List<String> fields = new ArrayList<>(columns.size());
+        String text = new String(chunk, 0, length, StandardCharsets.UTF_8);
+        int lineCount = 0;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            lineCount ++;
+            int lineEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            if ((lineCount > 1 || !skipFirstLine) && lineEnd > start) {
+                try {
+                    split(text, start, lineEnd, fields);
+                    if (fields.size() != columns.size()) {
+                        throw new SyntaxError("Expected " + columns.size() + " fields but found " + fields.size());
+                    }
+                    Row row = new Row(columns.size());
+                    for (int i = 0; i < columns.size(); i ++) {
+                        row.setValue(i, convert(columns.get(i).getDataType(), fields.get(i)));
+                    }
+                    rows.add(row);
+                }
+                catch (SyntaxError e) {
+                    return new ParsedChunk(rows, lineCount, lineCount, e.getMessage());
+                }
+            }
+            start = end + 1;
+        }
+        return new ParsedChunk(rows, lineCount, 0, null);
+    }
+
+    // quoted fields come back without their quotes, an empty unquoted field comes back as null
+    private void split(final String text, final int start, final int end, final List<String> fields) {
+        fields.clear();
+        int position = start;
+        while (true) {
+            if (position < end && text.charAt(position) == '"') {
+                StringBuilder field = new StringBuilder();
+                position ++;
+                while (true) {
+                    if (position >= end) {
+                        throw new SyntaxError("Unterminated quoted field");
+                    }
+                    char current = text.charAt(position ++);
+                    if (current != '"') {
+                        field.append(current);
+                    }
+                    else if (position < end && text.charAt(position) == '"') {
+                        field.append('"');
+                        position ++;
+                    }
+                    else {
+                        break;
+                    }
+                }
+                fields.add(field.toString());
+                if (position < end && text.charAt(position) != delimiter) {
+                    throw new SyntaxError("Unexpected character after quoted field at column " + (position - start + 1));
+                }
+            }
+            else {
+                int next = text.indexOf(delimiter, position);
+                if (next < 0 || next > end) {
+                    next = end;
+                }
+                fields.add(next == position ? null : text.substring(position, next));
+                position = next;
+            }
+            if (position >= end) {
+                return;
+            }
+            position ++;
+            if (position == end) {
+                // a trailing delimiter leaves an empty last field
+                fields.add(null);
+                return;
+            }
+        }
+    }
+
+    private static Object convert(final DataType dataType, final String field) {
+        if (field == null) {
+            return null;
+        }
+        return dataType == DataType.VARCHAR ? field : dataType.parse(field.strip());
+    }
+
+    private static int lastLineBreak(final byte[] chunk, final int length) {
+        for (int i = length - 1; i >= 0; i --) {
+            if (chunk[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record ParsedChunk(List<Row> rows, int lineCount, int errorLine, String error) {
+    }
+}
@@ -4,6 +4,7 @@ public class Column {
     private String name;
     private DataType dataType;
     private boolean nullable;
+    private boolean primaryKey;
 
     public Column() {
     }
@@ -38,12 +39,21 @@ public class Column {
         this.nullable = nullable;
     }
 
+    public boolean isPrimaryKey() {
+        return primaryKey;
+    }
+
+    public void setPrimaryKey(final boolean primaryKey) {
+        this.primaryKey = primaryKey;
+    }
+
     @Override
     public String toString() {
         return "Column{" +
                 "name='" + name + '\'' +
                 ", dataType=" + dataType +
                 ", nullable=" + nullable +
+                ", primaryKey=" + primaryKey +
                 '}';
     }
 }
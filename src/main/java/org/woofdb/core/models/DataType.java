@@ -1,5 +1,7 @@
 package org.woofdb.core.models;
 
+import org.woofdb.core.exceptions.SyntaxError;
+
 public enum DataType {
     INT,
     DOUBLE,
@@ -33,6 +35,26 @@ public enum DataType {
         return length;
     }
 
+    // converts a literal as written in a statement, string literals keep their surrounding quotes until here
+    public Object parse(final String literal) {
+        if (literal == null) {
+            return null;
+        }
+        try {
+            return switch (this) {
+                case INT -> Integer.parseInt(literal);
+                case DOUBLE -> Double.parseDouble(literal);
+                case FLOAT -> Float.parseFloat(literal);
+                case VARCHAR -> literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")
+                        ? literal.substring(1, literal.length() - 1)
+                        : literal;
+            };
+        }
+        catch (NumberFormatException e) {
+            throw new SyntaxError("Invalid " + this + " value " + literal);
+        }
+    }
+
     public static DataType from(String value) {
         return DataType.valueOf(value.toUpperCase());
     }
@@ -1,54 +1,146 @@
 package org.woofdb.core.models;
 
-import org.woofdb.core.exceptions.MaxTableSizeReachedException;
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.storage.BufferPool;
+import org.woofdb.core.storage.WriteAheadLog;
+import org.woofdb.core.transaction.Transaction;
+import org.woofdb.core.transaction.TransactionManager;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-public class Database {
+/**
+ * Tables are opened on first use, not when the database is. The open ones are kept in access order and the least
+ * recently used are closed once more than {@code maxOpenTables} are open and no transaction is running, so no
+ * cursor or transaction ever sees its table closed. The bound is exceeded while transactions run.
+ */
+public class Database implements Closeable {
+    public static final int DEFAULT_MAX_OPEN_TABLES = 256;
 
-    private Map<String, Table> tables;
+    private static final String TABLE_FILE_SUFFIX = ".tbl";
+
+    private final LinkedHashMap<String, Table> tables;
+    private final int maxOpenTables;
     private String baseDirectory;
+    private final BufferPool bufferPool;
+    private final WriteAheadLog writeAheadLog;
+    private final TransactionManager transactionManager;
+
     public Database(String baseDirectory) {
-        this.tables = new HashMap<>();
+        this(baseDirectory, new BufferPool());
+    }
+
+    public Database(String baseDirectory, BufferPool bufferPool) {
+        this(baseDirectory, bufferPool, DEFAULT_MAX_OPEN_TABLES);
+    }
+
+    public Database(String baseDirectory, BufferPool bufferPool, int maxOpenTables) {
+        this.tables = new LinkedHashMap<>(16, 0.75f, true);
+        this.maxOpenTables = maxOpenTables;
         this.baseDirectory = baseDirectory;
+        this.bufferPool = bufferPool;
         File file = new File(baseDirectory);
-        if (file.exists()) {
-            try {
-                loadTables();
-            }
-            catch (Exception e) {
-                throw new IllegalStateException("Failed to load tables into database: " + Arrays.toString(e.getStackTrace()));
-            }
-        }
-        else {
+        if (!file.exists()) {
             file.mkdirs();
         }
+        try {
+            // replays the changes committed before a crash, so tables are opened in their last committed state
+            this.writeAheadLog = WriteAheadLog.open(Path.of(baseDirectory));
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to recover database " + baseDirectory + ": " + e.getMessage(), e);
+        }
+        bufferPool.setWriteAheadLog(writeAheadLog);
+        try {
+            this.transactionManager = TransactionManager.open(Path.of(baseDirectory), bufferPool);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to open the transactions of database " + baseDirectory + ": " + e.getMessage(), e);
+        }
     }
 
     public Table createTable(String tableName, List<Column> columns) throws IOException {
-        if (tables.containsKey(tableName)) {
-            return tables.get(tableName);
+        Table existing = getTable(tableName);
+        if (existing != null) {
+            return existing;
         }
-        Table table = new Table();
-        table.setTableName(tableName);
-        table.setColumns(columns);
+        Table table = Table.create(tableFilePath(tableName), tableName, columns, bufferPool);
         this.tables.put(tableName, table);
-        saveTable(table);
+        closeIdleTables();
+        return table;
+    }
+
+    // only the header page is read when the table is opened, data pages are brought in by the buffer pool on demand
+    public Table getTable(final String tableName) {
+        Table table = tables.get(tableName);
+        if (table != null) {
+            return table;
+        }
+        String filePath = tableFilePath(tableName);
+        if (!new File(filePath).isFile()) {
+            return null;
+        }
+        try {
+            table = Table.open(filePath, bufferPool);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("Failed to open table " + tableName + ": " + e.getMessage(), e);
+        }
+        tables.put(tableName, table);
+        closeIdleTables();
         return table;
     }
 
-    private void saveTable(final Table table) throws IOException {
-        String filePath = baseDirectory + File.separator + table.getTableName() + ".tbl";
-        table.saveToFile(filePath);
+    // from the names of the table files, no table is opened
+    public List<String> getTableNames() {
+        List<String> tableNames = new ArrayList<>();
+        String[] tableFiles = new File(baseDirectory).list((d, filename) -> filename.endsWith(TABLE_FILE_SUFFIX));
+        if (tableFiles != null) {
+            for (String filename : tableFiles) {
+                tableNames.add(filename.substring(0, filename.length() - TABLE_FILE_SUFFIX.length()));
+            }
+        }
+        tableNames.sort(null);
+        return tableNames;
+    }
+
+    // not transactional, like creating one
+    public void dropTable(final String tableName) throws IOException {
+        Table table = getTable(tableName);
+        if (table != null) {
+            tables.remove(tableName);
+            table.drop();
+        }
     }
 
-    public Table getTable(final String tableName) {
-        return this.tables.get(tableName);
+    // index names are unique across the database so DROP INDEX can find the table on its own
+    public void createIndex(final String indexName, final String tableName, final String columnName) throws IOException {
+        if (findTableWithIndex(indexName) != null) {
+            throw new ConstraintViolationException("Index '" + indexName + "' already exists");
+        }
+        getTable(tableName).createIndex(indexName, columnName);
+    }
+
+    // index files are named <table>.<index>.idx, only the table owning one is opened
+    public Table findTableWithIndex(final String indexName) {
+        String suffix = "." + indexName + ".idx";
+        String[] indexFiles = new File(baseDirectory).list((d, filename) -> filename.endsWith(suffix));
+        if (indexFiles != null) {
+            for (String filename : indexFiles) {
+                Table table = getTable(filename.substring(0, filename.length() - suffix.length()));
+                if (table != null && table.hasIndex(indexName)) {
+                    return table;
+                }
+            }
+        }
+        return null;
     }
 
     public String getBaseDirectory() {
@@ -59,15 +151,85 @@ public class Database {
         this.baseDirectory = baseDirectory;
     }
 
-    public void loadTables() throws IOException, MaxTableSizeReachedException {
-        File dir = new File(baseDirectory);
-        File[] tableFiles = dir.listFiles((d, filename) -> filename.endsWith(".tbl"));
-        if (tableFiles != null) {
-            for (File file: tableFiles) {
-                String tableName = file.getName().replace(".tbl", "");
-                Table table = Table.loadFromFile(file.getPath());
-                tables.put(tableName, table);
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public int getOpenTableCount() {
+        return tables.size();
+    }
+
+    public Transaction begin() throws IOException {
+        return transactionManager.begin();
+    }
+
+    // the commit bit and the row counts reach the log in the same commit as the versions written by the transaction
+    public void commit(final Transaction transaction) throws IOException {
+        sync(commitUnsynced(transaction));
+    }
+
+    // commit without the fsync, returns the log position sync has to reach before the commit is durable. The
+    // transaction is visible to others already, a later commit depending on it lands further down the same log
+    public long commitUnsynced(final Transaction transaction) throws IOException {
+        for (Map.Entry<String, Long> delta : transaction.getRowCountDeltas().entrySet()) {
+            Table table = getTable(delta.getKey());
+            if (table != null && delta.getValue() != 0) {
+                table.adjustRowCount(delta.getValue());
             }
         }
+        transactionManager.commit(transaction);
+        return transaction.hasWrites() ? bufferPool.commitAll() : 0;
+    }
+
+    // needs no lock of the caller, commits logged meanwhile by others share the fsync
+    public void sync(final long commitPosition) throws IOException {
+        bufferPool.sync(commitPosition);
+    }
+
+    public void rollback(final Transaction transaction) {
+        transactionManager.abort(transaction);
+    }
+
+    public void flush() throws IOException {
+        bufferPool.flushAll();
+    }
+
+    private String tableFilePath(final String tableName) {
+        return baseDirectory + File.separator + tableName + TABLE_FILE_SUFFIX;
+    }
+
+    // a closed table is written out and its cached pages are dropped, it is opened again on its next use
+    private void closeIdleTables() {
+        if (tables.size() <= maxOpenTables || transactionManager.hasActive()) {
+            return;
+        }
+        Iterator<Table> openTables = tables.values().iterator();
+        while (tables.size() > maxOpenTables && openTables.hasNext()) {
+            Table table = openTables.next();
+            openTables.remove();
+            try {
+                table.close();
+            }
+            catch (IOException e) {
+                throw new IllegalStateException("Failed to close table " + table.getTableName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        bufferPool.checkpoint();
+        for (Table table : tables.values()) {
+            table.close();
+        }
+        tables.clear();
+        transactionManager.close();
+        bufferPool.setWriteAheadLog(null);
+        writeAheadLog.close();
     }
 }
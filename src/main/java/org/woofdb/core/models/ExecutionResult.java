@@ -2,6 +2,5 @@ package org.woofdb.core.models;
 
 public enum ExecutionResult {
     EXECUTE_SUCCESS,
-    EXECUTE_FAILURE,
-    EXECUTE_TABLE_FULL;
+    EXECUTE_FAILURE;
 }
@@ -7,6 +7,8 @@ public enum MetaCommand {
     HELP(".help", "Display this help."),
     EXIT(".exit", "Exit woofdb. Same as quit."),
     CLEAR(".clear", "Clear the terminal."),
+    COMPILE(".compile", "Toggle compiling WHERE filters and projections to bytecode."),
+    PARALLEL(".parallel", "Set the number of threads scanning a table, .parallel 1 scans on a single thread."),
     QUIT(".quit", "Quit woofdb."),
     UNKNOWN(null, null);
 
@@ -26,9 +28,11 @@ public enum MetaCommand {
         return help;
     }
 
+    // matches the first word, the rest of the line are the arguments of the command
     public static MetaCommand from(String command) {
+        String name = command.split("\\s+", 2)[0];
         return Arrays.stream(MetaCommand.values())
-                .filter(it -> it != UNKNOWN && it.getCommand().equals(command))
+                .filter(it -> it != UNKNOWN && it.getCommand().equals(name))
                 .findFirst()
                 .orElse(UNKNOWN);
     }
@@ -2,8 +2,12 @@ package org.woofdb.core.models;
 
 import java.util.Arrays;
 
+// a row version, visible to the transactions that see the one with the begin timestamp commit but not the one
+// with the end timestamp, timestamps are transaction ids and an end timestamp of zero means the version is current
 public class Row {
     private Object[] values;
+    private long beginTimestamp;
+    private long endTimestamp;
 
     public Row(final int columnCount) {
         this.values = new Object[columnCount];
@@ -25,10 +29,28 @@ public class Row {
         this.values = values;
     }
 
+    public long getBeginTimestamp() {
+        return beginTimestamp;
+    }
+
+    public void setBeginTimestamp(final long beginTimestamp) {
+        this.beginTimestamp = beginTimestamp;
+    }
+
+    public long getEndTimestamp() {
+        return endTimestamp;
+    }
+
+    public void setEndTimestamp(final long endTimestamp) {
+        this.endTimestamp = endTimestamp;
+    }
+
     @Override
     public String toString() {
         return "Row{" +
                 "values=" + Arrays.toString(values) +
+                ", beginTimestamp=" + beginTimestamp +
+                ", endTimestamp=" + endTimestamp +
                 '}';
     }
 }
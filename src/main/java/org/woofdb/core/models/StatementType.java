@@ -10,5 +10,13 @@ public enum StatementType {
     STATEMENT_ROLLBACK,
     STATEMENT_START_TRANSACTION,
     STATEMENT_SHOW,
-    STATEMENT_COMMIT;
+    STATEMENT_COMMIT,
+    STATEMENT_COPY,
+    STATEMENT_EXPLAIN,
+    STATEMENT_ANALYZE,
+    STATEMENT_PREPARE,
+    STATEMENT_EXECUTE,
+    STATEMENT_DEALLOCATE,
+    STATEMENT_DELETE,
+    STATEMENT_VACUUM;
 }
@@ -1,234 +1,922 @@
 package org.woofdb.core.models;
 
-import org.woofdb.core.exceptions.MaxTableSizeReachedException;
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.exceptions.TransactionConflictException;
+import org.woofdb.core.execution.AndFilter;
+import org.woofdb.core.execution.BatchSource;
+import org.woofdb.core.execution.Comparison;
+import org.woofdb.core.execution.CompiledFilter;
+import org.woofdb.core.execution.Filter;
+import org.woofdb.core.execution.OrFilter;
+import org.woofdb.core.execution.RowBatchSource;
+import org.woofdb.core.execution.VectorizedScan;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.ColumnExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.expression.StaticValueExpression;
+import org.woofdb.core.models.vector.VectorBatch;
+import org.woofdb.core.storage.BPlusTree;
+import org.woofdb.core.storage.BufferPool;
+import org.woofdb.core.storage.ClusteredStorage;
+import org.woofdb.core.storage.HeapStorage;
+import org.woofdb.core.storage.IndexDefinition;
+import org.woofdb.core.storage.KeyRange;
+import org.woofdb.core.storage.Page;
+import org.woofdb.core.storage.PageFile;
+import org.woofdb.core.storage.RecordScanner;
+import org.woofdb.core.storage.RowCodec;
+import org.woofdb.core.storage.SecondaryIndex;
+import org.woofdb.core.storage.TableHeader;
+import org.woofdb.core.storage.TableStatistics;
+import org.woofdb.core.storage.TableStorage;
+import org.woofdb.core.transaction.Transaction;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class Table implements Closeable {
+    private final TableHeader header;
+    private final String tableFilePath;
+    private final PageFile pageFile;
+    private final BufferPool bufferPool;
+    private final RowCodec rowCodec;
+    private final TableStorage storage;
+    private final Map<String, SecondaryIndex> indexes;
+    // null until the table is analyzed
+    private TableStatistics statistics;
+    // counts the changes to the indexes and statistics, plans made before a change may no longer be the best
+    private long catalogVersion;
+
+    private Table(final TableHeader header, final String tableFilePath, final PageFile pageFile, final BufferPool bufferPool,
+                  final RowCodec rowCodec, final TableStorage storage) {
+        this.header = header;
+        this.tableFilePath = tableFilePath;
+        this.pageFile = pageFile;
+        this.bufferPool = bufferPool;
+        this.rowCodec = rowCodec;
+        this.storage = storage;
+        this.indexes = new LinkedHashMap<>();
+    }
 
-public class Table {
-    private static final int MAX_ROWS = 100;
-    private int numOfRows;
-    private String tableName;
-    private List<Column> columns;
-    private List<Row> rows;
-    private String tableFilePath;
+    public long getNumOfRows() {
+        return header.getRowCount();
+    }
 
-    public Table() {
-        this.columns = new ArrayList<>();
-        this.rows = new ArrayList<>();
+    // applied when a transaction commits, so the count covers committed rows only
+    public void adjustRowCount(final long delta) throws IOException {
+        header.setRowCount(header.getRowCount() + delta);
+        writeRowCount();
     }
 
-    public int getNumOfRows() {
-        return numOfRows;
+    public String getTableName() {
+        return header.getTableName();
     }
 
-    public void setNumOfRows(final int numOfRows) {
-        this.numOfRows = numOfRows;
+    public List<Column> getColumns() {
+        return header.getColumns();
     }
 
-    public String getTableName() {
-        return tableName;
+    public String getTableFilePath() {
+        return tableFilePath;
     }
 
-    public void setTableName(final String tableName) {
-        this.tableName = tableName;
+    public void addRow(final Row row, final Transaction transaction) throws IOException {
+        checkColumnCount(row);
+        insertVersion(row, transaction);
+        addToStatistics(row);
+        transaction.recordWrite(getTableName(), 1);
     }
 
-    public List<Column> getColumns() {
-        return columns;
+    public void addRow(final Object[] values, final Transaction transaction) throws IOException {
+        addRow(toRow(values), transaction);
     }
 
-    public void setColumns(final List<Column> columns) {
-        this.columns = columns;
+    // bulk load path, the rows are written with as few page writes as the storage allows
+    public void addRows(final List<Row> rows, final Transaction transaction) throws IOException {
+        for (Row row : rows) {
+            checkColumnCount(row);
+            row.setBeginTimestamp(transaction.getId());
+            row.setEndTimestamp(0);
+        }
+        List<byte[]> locators;
+        try {
+            locators = storage.insertAll(rows);
+        }
+        catch (ConstraintViolationException e) {
+            if (!isClustered()) {
+                throw e;
+            }
+            // a key may still be held by versions that are deleted or invisible to this transaction, the row by row
+            // path sorts out which of them really clash
+            for (Row row : rows) {
+                insertVersion(row, transaction);
+                addToStatistics(row);
+            }
+            transaction.recordWrite(getTableName(), rows.size());
+            return;
+        }
+        for (SecondaryIndex index : indexes.values()) {
+            List<Object> values = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                values.add(row.getValue(index.getColumnIndex()));
+            }
+            index.insertAll(values, locators);
+        }
+        for (Row row : rows) {
+            addToStatistics(row);
+        }
+        transaction.recordWrite(getTableName(), rows.size());
     }
 
-    public List<Row> getRows() {
-        return rows;
+    public Row toRow(final Object[] values) {
+        if (values.length != getColumns().size()) {
+            throw new SyntaxError("Expected " + getColumns().size() + " values for table " + getTableName() + " but got " + values.length);
+        }
+        Row row = new Row(getColumns().size());
+        int index = 0;
+        for (Object value: values) {
+            Column column = this.getColumns().get(index);
+            row.setValue(index++, column.getDataType().parse((String) value));
+        }
+        return row;
     }
 
-    public void setRows(final List<Row> rows) {
-        this.rows = rows;
+    // ends the version of the row the transaction sees and stores the new one, returns the locator of the new version
+    public byte[] updateRow(final byte[] locator, final Row row, final Transaction transaction) throws IOException {
+        checkColumnCount(row);
+        List<Row> versions = storage.fetch(locator);
+        Row current = visibleVersion(versions, transaction);
+        if (current == null) {
+            throw new IllegalArgumentException("No row visible at the given locator of table " + getTableName());
+        }
+        byte[] newLocator = replace(locator, versions, current, row, transaction);
+        transaction.recordWrite(getTableName(), 0);
+        return newLocator;
     }
 
-    public String getTableFilePath() {
-        return tableFilePath;
+    // UPDATE: every visible row matching the condition gets the assigned literals, the rows are found through the
+    // primary key or an index like select finds them. All of them are located before the first one changes, so a
+    // new version is never updated again. Returns the number of rows updated
+    public long update(final Map<String, String> assignments, final BinaryExpression where, final Transaction transaction) throws IOException {
+        int[] columnIndexes = new int[assignments.size()];
+        Object[] values = new Object[assignments.size()];
+        int next = 0;
+        for (Map.Entry<String, String> assignment : assignments.entrySet()) {
+            int columnIndex = getColumnIndex(assignment.getKey());
+            if (columnIndex < 0) {
+                throw new SyntaxError("Unknown column '" + assignment.getKey() + "' in table " + getTableName());
+            }
+            String literal = "NULL".equalsIgnoreCase(assignment.getValue()) ? null : assignment.getValue();
+            columnIndexes[next] = columnIndex;
+            values[next ++] = getColumns().get(columnIndex).getDataType().parse(literal);
+        }
+        List<byte[]> locators = locate(where, transaction);
+        for (byte[] locator : locators) {
+            List<Row> versions = storage.fetch(locator);
+            Row current = visibleVersion(versions, transaction);
+            Row row = new Row(getColumns().size());
+            row.setValues(current.getValues().clone());
+            for (int i = 0; i < columnIndexes.length; i ++) {
+                row.setValue(columnIndexes[i], values[i]);
+            }
+            replace(locator, versions, current, row, transaction);
+        }
+        transaction.recordWrite(getTableName(), 0);
+        return locators.size();
     }
 
-    public void setTableFilePath(final String tableFilePath) {
-        this.tableFilePath = tableFilePath;
+    // DELETE: ends the visible versions of the rows matching the condition, found like update finds them. The versions
+    // stay in place until VACUUM removes them once no transaction can see them. Returns the number of rows deleted
+    public long delete(final BinaryExpression where, final Transaction transaction) throws IOException {
+        List<byte[]> locators = locate(where, transaction);
+        for (byte[] locator : locators) {
+            List<Row> versions = storage.fetch(locator);
+            Row current = visibleVersion(versions, transaction);
+            transaction.checkWritable(current, getTableName());
+            current.setEndTimestamp(transaction.getId());
+            storage.rewrite(locator, versions);
+        }
+        transaction.recordWrite(getTableName(), -locators.size());
+        return locators.size();
     }
 
-    public void addColumn(final Column column) {
-        columns.add(column);
-        if (!rows.isEmpty()) {
-            for (Row row : rows) {
-                Object[] newValues = new Object[columns.size()];
-                System.arraycopy(row.getValues(), 0, newValues, 0, row.getValues().length);
-                row.setValues(newValues);
+    // VACUUM: removes the versions no transaction can see anymore and the index entries only they needed, their
+    // space is taken by later inserts, in this process or after the table is opened again. Returns the number of
+    // versions removed
+    public long vacuum(final Transaction transaction) throws IOException {
+        long removed = storage.vacuum(transaction::isObsolete, (locator, version, remaining) -> {
+            for (SecondaryIndex index : indexes.values()) {
+                Object value = version.getValue(index.getColumnIndex());
+                if (!holdsValue(remaining, index.getColumnIndex(), value)) {
+                    index.delete(value, locator);
+                }
             }
+        });
+        if (storage instanceof HeapStorage heapStorage) {
+            heapStorage.writeFreeSpaceMap(freeSpacePath());
         }
+        return removed;
     }
 
-    public void addRow(final Row row) throws MaxTableSizeReachedException, IOException {
-        if (rows.size() >= MAX_ROWS) {
-            throw new MaxTableSizeReachedException("Table is full!");
+    // DROP TABLE: the file of the table goes away with its indexes, statistics and free-space map, the table is closed after this
+    public void drop() throws IOException {
+        for (SecondaryIndex index : indexes.values()) {
+            index.drop();
         }
-        if (row.getValues().length != columns.size()) {
-            throw new IllegalArgumentException("Values count in the row doesn't match column count");
+        indexes.clear();
+        bufferPool.discardFile(pageFile);
+        pageFile.close();
+        Files.deleteIfExists(Path.of(tableFilePath));
+        Files.deleteIfExists(statisticsPath());
+        Files.deleteIfExists(freeSpacePath());
+    }
+
+    // the locators of the visible rows matching the condition, all collected before the caller changes any of them
+    private List<byte[]> locate(final BinaryExpression where, final Transaction transaction) throws IOException {
+        List<byte[]> locators = new ArrayList<>();
+        Iterator<TableStorage.StoredRow> matches = selectWithLocators(where, transaction);
+        while (matches.hasNext()) {
+            locators.add(matches.next().locator());
         }
-        rows.add(row);
-        File file = new File(this.tableFilePath);
-        if (!file.exists()) {
-            this.saveToFile(this.tableFilePath);
-            return;
+        return locators;
+    }
+
+    private static boolean holdsValue(final List<Row> versions, final int columnIndex, final Object value) {
+        for (Row version : versions) {
+            Object other = version.getValue(columnIndex);
+            if (value != null && other != null && BPlusTree.compareKeys(value, other) == 0) {
+                return true;
+            }
         }
-        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
-            raf.seek(getRowCountPosition(raf));
-            int currentRowCount = raf.readInt();
+        return false;
+    }
+
+    // a version created by the transaction itself is seen by nobody else, so it is replaced in its place when the
+    // storage allows it, otherwise it is ended and the new version is stored next to it
+    private byte[] replace(final byte[] locator, final List<Row> versions, final Row current, final Row row,
+                           final Transaction transaction) throws IOException {
+        transaction.checkWritable(current, getTableName());
+        boolean own = current.getBeginTimestamp() == transaction.getId();
+        if (storage instanceof ClusteredStorage clusteredStorage
+                && BPlusTree.compareKeys(clusteredStorage.getKey(row), clusteredStorage.getKey(current)) == 0) {
+            // same key, the new version goes in front of the chain
+            current.setEndTimestamp(transaction.getId());
+            row.setBeginTimestamp(transaction.getId());
+            row.setEndTimestamp(0);
+            List<Row> chain = new ArrayList<>(versions.size() + 1);
+            chain.add(row);
+            for (Row version : versions) {
+                if (version == current ? !own : !transaction.isObsolete(version)) {
+                    chain.add(version);
+                }
+            }
+            storage.rewrite(locator, chain);
+            addToIndexes(row, locator);
+            return locator;
+        }
+        if (own && storage instanceof HeapStorage heapStorage) {
+            row.setBeginTimestamp(transaction.getId());
+            row.setEndTimestamp(0);
+            if (heapStorage.overwrite(locator, row)) {
+                // the slot holds a single version, so the entries of the values it no longer holds go
+                for (SecondaryIndex index : indexes.values()) {
+                    Object before = current.getValue(index.getColumnIndex());
+                    if (!holdsValue(List.of(row), index.getColumnIndex(), before)) {
+                        index.delete(before, locator);
+                        index.insert(row.getValue(index.getColumnIndex()), locator);
+                    }
+                }
+                return locator;
+            }
+        }
+        byte[] newLocator = insertVersion(row, transaction);
+        current.setEndTimestamp(transaction.getId());
+        storage.rewrite(locator, versions);
+        return newLocator;
+    }
 
-            raf.seek(getRowCountPosition(raf));
-            raf.writeInt(currentRowCount + 1);
+    // ANALYZE: statistics of the columns over the rows the transaction sees, stored next to the table
+    public TableStatistics analyze(final Transaction transaction) throws IOException {
+        TableStatistics analyzed = TableStatistics.collect(getColumns(), scan(transaction));
+        analyzed.writeTo(statisticsPath());
+        statistics = analyzed;
+        catalogVersion ++;
+        return analyzed;
+    }
 
-            raf.seek(file.length());
-            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(raf.getFD()))) {
-                writeRow(row, out);
+    // null until the table is analyzed
+    public TableStatistics getStatistics() {
+        return statistics;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public Iterator<Row> scan(final Transaction transaction) {
+        return map(scanWithLocators(transaction), TableStorage.StoredRow::row);
+    }
+
+    public Iterator<TableStorage.StoredRow> scanWithLocators(final Transaction transaction) {
+        return filter(storage.scan(), storedRow -> transaction.isVisible(storedRow.row()));
+    }
+
+    // a column name, optionally qualified with the name of this table
+    public int getColumnIndex(final String columnName) {
+        String name = columnName;
+        int dot = columnName.indexOf('.');
+        if (dot >= 0) {
+            if (!columnName.substring(0, dot).equalsIgnoreCase(getTableName())) {
+                return -1;
+            }
+            name = columnName.substring(dot + 1);
+        }
+        for (int i = 0; i < getColumns().size(); i ++) {
+            if (getColumns().get(i).getName().equalsIgnoreCase(name)) {
+                return i;
             }
         }
+        return -1;
     }
 
-    public void addRow(final Object[] values) throws MaxTableSizeReachedException, IOException {
-        Row row = new Row(columns.size());
-        int index = 0;
-        for (Object value: values) {
-            Column column = this.getColumns().get(index);
-            DataType dataType = column.getDataType();
-            switch (dataType) {
-                case INT -> row.setValue(index++, Integer.parseInt((String) value));
-                case DOUBLE -> row.setValue(index++, Double.parseDouble((String) value));
-                case VARCHAR -> row.setValue(index++, (String) value);
-                case FLOAT -> row.setValue(index++, Float.parseFloat((String) value));
-            }
-        }
-        addRow(row);
-    }
-
-    public void printTableData() {
-        System.out.println("------------------");
-        for (Column column: columns) {
-            System.out.print(column.getName() + " | ");
-        }
-        System.out.println();
-        System.out.println("------------------");
-        for (Row row: rows) {
-            for (Object value: row.getValues()) {
-                System.out.print(value + " | ");
-            }
-            System.out.println();
-            System.out.println("------------------");
-        }
-    }
-
-    public static Table loadFromFile(final String path) throws IOException, MaxTableSizeReachedException {
-        try (DataInputStream in = new DataInputStream(new FileInputStream(path))) {
-            String tableName = in.readUTF();
-            Table table = new Table();
-            table.setTableName(tableName);
-            table.setTableFilePath(path);
-
-            int columnCount = in.readInt();
-            for (int i = 0; i < columnCount; i ++) {
-                String name = in.readUTF();
-                DataType dataType = DataType.values()[in.readInt()];
-                boolean nullable = in.readBoolean();
-                table.addColumn(new Column(name, dataType, nullable));
-            }
-
-            int rowCount = in.readInt();
-
-            for (int i = 0; i < rowCount; i ++) {
-                Object[] values = new Object[columnCount];
-                for (int j = 0; j < columnCount; j ++) {
-                    boolean isNull = in.readBoolean();
-                    if (isNull) {
-                        values[j] = null;
-                    } else {
-                        DataType dataType = table.getColumns().get(j).getDataType();
-                        switch (dataType) {
-                            case INT:
-                                values[j] = in.readInt();
-                                break;
-                            case FLOAT:
-                                values[j] = in.readFloat();
-                                break;
-                            case DOUBLE:
-                                values[j] = in.readDouble();
-                                break;
-                            case VARCHAR:
-                                values[j] = in.readUTF();
-                                break;
-                            default:
-                                break;
-                        }
+    public Collection<SecondaryIndex> getIndexes() {
+        return indexes.values();
+    }
+
+    public boolean hasIndex(final String indexName) {
+        return indexes.containsKey(indexName);
+    }
+
+    public void createIndex(final String indexName, final String columnName) throws IOException {
+        if (indexes.containsKey(indexName)) {
+            throw new ConstraintViolationException("Index '" + indexName + "' already exists on table " + getTableName());
+        }
+        int columnIndex = getColumnIndex(columnName);
+        if (columnIndex < 0) {
+            throw new SyntaxError("Unknown column '" + columnName + "' in table " + getTableName());
+        }
+        IndexDefinition definition = new IndexDefinition(indexName, getColumns().get(columnIndex).getName());
+        SecondaryIndex index = SecondaryIndex.create(indexPath(indexName), definition, columnIndex,
+                getColumns().get(columnIndex).getDataType(), bufferPool);
+        Iterator<TableStorage.StoredRow> rows = storage.scan();
+        while (rows.hasNext()) {
+            // every version is indexed so older snapshots can use the index too
+            TableStorage.StoredRow storedRow = rows.next();
+            Object value = storedRow.row().getValue(columnIndex);
+            if (!isClustered() || !index.contains(value, storedRow.locator())) {
+                index.insert(value, storedRow.locator());
+            }
+        }
+        indexes.put(indexName, index);
+        header.getIndexes().add(definition);
+        writeHeader();
+        catalogVersion ++;
+    }
+
+    public void dropIndex(final String indexName) throws IOException {
+        SecondaryIndex index = indexes.remove(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown index '" + indexName + "' on table " + getTableName());
+        }
+        header.getIndexes().remove(index.getDefinition());
+        writeHeader();
+        index.drop();
+        catalogVersion ++;
+    }
+
+    // rows matching a condition, served by the primary key or a secondary index when one of its conjuncts compares
+    // a key column and filtered with the whole condition
+    public Iterator<Row> select(final BinaryExpression where, final Transaction transaction) throws IOException {
+        return map(selectWithLocators(where, transaction), TableStorage.StoredRow::row);
+    }
+
+    // select with the locator of every row, for statements that change the rows they find
+    public Iterator<TableStorage.StoredRow> selectWithLocators(final BinaryExpression where, final Transaction transaction) throws IOException {
+        if (where == null) {
+            return scanWithLocators(transaction);
+        }
+        Filter filter = resolve(where);
+        Comparison access = accessComparison(filter);
+        if (access != null) {
+            KeyRange range = access.keyRange();
+            Iterator<TableStorage.StoredRow> rows;
+            if (isPrimaryKeyLookup(access)) {
+                Iterator<TableStorage.StoredRow> versions = clusteredStorage().scan(range.low(), range.lowInclusive(), range.high(), range.highInclusive());
+                rows = filter(versions, storedRow -> transaction.isVisible(storedRow.row()));
+            }
+            else {
+                SecondaryIndex index = indexOn(access.columnIndex());
+                rows = fetchAllWithLocators(index.find(range.low(), range.lowInclusive(), range.high(), range.highInclusive()),
+                        access.columnIndex(), transaction);
+            }
+            return filter(rows, storedRow -> filter.matches(storedRow.row()));
+        }
+        return filter(scanWithLocators(transaction), storedRow -> filter.matches(storedRow.row()));
+    }
+
+    // batch oriented select, only the flagged columns and the ones the filter reads are materialized, a null filter
+    // selects every visible row
+    public BatchSource selectBatches(final Filter filter, final boolean[] columns, final Transaction transaction) throws IOException {
+        return selectBatches(filter, columns, transaction, filter == null ? null : accessComparison(filter));
+    }
+
+    // selectBatches through the given access comparison, one of the access candidates of the filter, or with a full
+    // scan when it is null
+    public BatchSource selectBatches(final Filter filter, final boolean[] columns, final Transaction transaction,
+                                     final Comparison access) throws IOException {
+        VectorBatch batch = new VectorBatch(getColumns(), materialized(filter, columns), VectorBatch.DEFAULT_CAPACITY);
+        if (access != null) {
+            KeyRange range = access.keyRange();
+            if (isPrimaryKeyLookup(access)) {
+                RecordScanner records = clusteredStorage().scanRecords(range.low(), range.lowInclusive(), range.high(), range.highInclusive());
+                return new VectorizedScan(records, rowCodec, transaction, batch, residual(filter, access));
+            }
+            Iterator<BPlusTree.Entry> entries = indexOn(access.columnIndex()).find(range.low(), range.lowInclusive(), range.high(), range.highInclusive());
+            return new RowBatchSource(fetchAll(entries, access.columnIndex(), transaction), batch, residual(filter, access));
+        }
+        return new VectorizedScan(storage.scanRecords(), rowCodec, transaction, batch, filter);
+    }
+
+    // selectBatches with a full scan split into morsels of the storage that can be scanned in parallel, every source
+    // has its own batch
+    public List<BatchSource> selectBatchPartitions(final Filter filter, final boolean[] columns, final Transaction transaction,
+                                                   final int partitions) throws IOException {
+        boolean[] materialized = materialized(filter, columns);
+        List<BatchSource> sources = new ArrayList<>();
+        for (RecordScanner records : storage.partitionRecords(partitions)) {
+            VectorBatch batch = new VectorBatch(getColumns(), materialized, VectorBatch.DEFAULT_CAPACITY);
+            sources.add(new VectorizedScan(records, rowCodec, transaction, batch, filter));
+        }
+        return sources;
+    }
+
+    // the conjuncts of the condition on the primary key or an indexed column, every row matching the condition is
+    // found through any one of them
+    public List<Comparison> accessCandidates(final Filter filter) {
+        List<Comparison> candidates = new ArrayList<>();
+        addAccessCandidates(filter, candidates);
+        return candidates;
+    }
+
+    // binds a condition to the columns of the table, names are resolved and literals parsed once per query
+    public Filter resolve(final BinaryExpression where) {
+        Operation operation = where.getOperation();
+        if (operation == Operation.AND || operation == Operation.OR) {
+            Filter left = resolve(condition(where.getLeftSide()));
+            Filter right = resolve(condition(where.getRightSide()));
+            return operation == Operation.AND ? new AndFilter(left, right) : new OrFilter(left, right);
+        }
+        Expression column = where.getLeftSide();
+        Expression literal = where.getRightSide();
+        if (!(column instanceof ColumnExpression)) {
+            // literal on the left side, mirror the comparison
+            column = where.getRightSide();
+            literal = where.getLeftSide();
+            operation = mirror(operation);
+        }
+        if (!(column instanceof ColumnExpression columnExpression) || !(literal instanceof StaticValueExpression)) {
+            throw new SyntaxError("WHERE clause must compare a column of " + getTableName() + " with a literal");
+        }
+        int columnIndex = getColumnIndex(columnExpression.getColumnName());
+        if (columnIndex < 0) {
+            throw new SyntaxError("Unknown column '" + columnExpression.getColumnName() + "' in table " + getTableName());
+        }
+        return new Comparison(columnIndex, operation, getColumns().get(columnIndex).getDataType().parse(literalOf(literal)));
+    }
+
+    // whether the rows holding a value of the column are found without a scan, through the primary key or an index
+    public boolean hasKeyAccess(final int columnIndex) {
+        return (isClustered() && columnIndex == getPrimaryKeyIndex()) || indexOn(columnIndex) != null;
+    }
+
+    // whether the comparison is answered with a range of the clustered primary key
+    public boolean isPrimaryKeyLookup(final Comparison comparison) {
+        return isClustered() && comparison.columnIndex() == getPrimaryKeyIndex();
+    }
+
+    // the index on the column, null when it has none
+    public SecondaryIndex indexOn(final int columnIndex) {
+        for (SecondaryIndex index : indexes.values()) {
+            if (index.getColumnIndex() == columnIndex) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    // the visible rows holding the value in a column with key access
+    public Iterator<Row> lookup(final int columnIndex, final Object value, final Transaction transaction) throws IOException {
+        if (isClustered() && columnIndex == getPrimaryKeyIndex()) {
+            Row row = findByPrimaryKey(value, transaction);
+            return row == null ? Collections.emptyIterator() : List.of(row).iterator();
+        }
+        SecondaryIndex index = indexOn(columnIndex);
+        if (index == null) {
+            throw new UnsupportedOperationException("Column " + getColumns().get(columnIndex).getName() + " of " + getTableName() + " has no index");
+        }
+        return fetchAll(index.find(value, true, value, true), columnIndex, transaction);
+    }
+
+    // whether selectBatches through the access comparison produces the rows in primary key order, which full scans
+    // and primary key ranges of a clustered table do
+    public boolean isScannedInPrimaryKeyOrder(final Comparison access) {
+        return isClustered() && (access == null || isPrimaryKeyLookup(access));
+    }
+
+    public boolean isClustered() {
+        return storage instanceof ClusteredStorage;
+    }
+
+    public int getPrimaryKeyIndex() {
+        for (int i = 0; i < getColumns().size(); i ++) {
+            if (getColumns().get(i).isPrimaryKey()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // point lookup through the clustered B+Tree, only available for tables with a primary key
+    public Row findByPrimaryKey(final Object key, final Transaction transaction) throws IOException {
+        return visibleVersion(clusteredStorage().lookup(key), transaction);
+    }
+
+    // rows with primary keys between the bounds in key order, null bounds are open ended
+    public Iterator<Row> scanPrimaryKeyRange(final Object low, final boolean lowInclusive, final Object high, final boolean highInclusive,
+                                             final Transaction transaction) {
+        Iterator<TableStorage.StoredRow> versions = clusteredStorage().scan(low, lowInclusive, high, highInclusive);
+        return map(filter(versions, storedRow -> transaction.isVisible(storedRow.row())), TableStorage.StoredRow::row);
+    }
+
+    public static Table create(final String path, final String tableName, final List<Column> columns, final BufferPool bufferPool) throws IOException {
+        PageFile pageFile = PageFile.open(Path.of(path));
+        if (pageFile.getPageCount() != 0) {
+            pageFile.close();
+            throw new IOException("Table file " + path + " already exists");
+        }
+        TableHeader header = new TableHeader(tableName, columns);
+        Page headerPage = bufferPool.newPage(pageFile);
+        bufferPool.unpinPage(headerPage, true);
+        RowCodec rowCodec = new RowCodec(columns);
+        TableStorage storage = new HeapStorage(pageFile, bufferPool, rowCodec, TableHeader.HEADER_PAGE + 1);
+        for (Column column : columns) {
+            if (column.isPrimaryKey()) {
+                BPlusTree tree = BPlusTree.create(pageFile, bufferPool, column.getDataType(), true);
+                header.setTreeMetaPage(tree.getMetaPage());
+                storage = clusteredStorage(header, tree, rowCodec);
+                break;
+            }
+        }
+        Table table = new Table(header, path, pageFile, bufferPool, rowCodec, storage);
+        table.writeHeader();
+        return table;
+    }
+
+    public static Table open(final String path, final BufferPool bufferPool) throws IOException {
+        PageFile pageFile = PageFile.open(Path.of(path));
+        if (pageFile.getPageCount() == 0) {
+            pageFile.close();
+            throw new IOException("Table file " + path + " is empty");
+        }
+        Page headerPage = bufferPool.fetchPage(pageFile, TableHeader.HEADER_PAGE);
+        TableHeader header;
+        try {
+            header = TableHeader.readFrom(headerPage.getData());
+        }
+        finally {
+            bufferPool.unpinPage(headerPage, false);
+        }
+        RowCodec rowCodec = new RowCodec(header.getColumns());
+        Table table = new Table(header, path, pageFile, bufferPool, rowCodec, openStorage(header, pageFile, bufferPool, rowCodec));
+        for (IndexDefinition definition : header.getIndexes()) {
+            table.indexes.put(definition.name(), SecondaryIndex.open(table.indexPath(definition.name()), definition,
+                    table.getColumnIndex(definition.columnName()), bufferPool));
+        }
+        if (Files.exists(table.statisticsPath())) {
+            table.statistics = TableStatistics.readFrom(table.statisticsPath(), header.getColumns());
+        }
+        if (table.storage instanceof HeapStorage heapStorage && Files.exists(table.freeSpacePath())) {
+            heapStorage.readFreeSpaceMap(table.freeSpacePath());
+        }
+        return table;
+    }
+
+    public void flush() throws IOException {
+        bufferPool.flushFile(pageFile);
+        for (SecondaryIndex index : indexes.values()) {
+            index.flush();
+        }
+        if (statistics != null && statistics.isDirty()) {
+            statistics.writeTo(statisticsPath());
+        }
+        if (storage instanceof HeapStorage heapStorage) {
+            heapStorage.writeFreeSpaceMap(freeSpacePath());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        for (SecondaryIndex index : indexes.values()) {
+            index.close();
+        }
+        bufferPool.discardFile(pageFile);
+        pageFile.close();
+    }
+
+    private Path indexPath(final String indexName) {
+        return Path.of(tableFilePath.substring(0, tableFilePath.length() - ".tbl".length()) + "." + indexName + ".idx");
+    }
+
+    private Path statisticsPath() {
+        return Path.of(tableFilePath.substring(0, tableFilePath.length() - ".tbl".length()) + ".stats");
+    }
+
+    private Path freeSpacePath() {
+        return Path.of(tableFilePath.substring(0, tableFilePath.length() - ".tbl".length()) + ".fsm");
+    }
+
+    // inserts after ANALYZE count into the statistics right away, rows of a transaction that rolls back included
+    private void addToStatistics(final Row row) {
+        if (statistics != null) {
+            statistics.add(row);
+        }
+    }
+
+    // an index entry points at every version that ever held its value, so only the visible version still holding
+    // the value of the entry counts
+    private Iterator<Row> fetchAll(final Iterator<BPlusTree.Entry> entries, final int columnIndex, final Transaction transaction) {
+        return map(fetchAllWithLocators(entries, columnIndex, transaction), TableStorage.StoredRow::row);
+    }
+
+    private Iterator<TableStorage.StoredRow> fetchAllWithLocators(final Iterator<BPlusTree.Entry> entries, final int columnIndex,
+                                                                 final Transaction transaction) {
+        return new Iterator<>() {
+            private TableStorage.StoredRow nextRow;
+
+            @Override
+            public boolean hasNext() {
+                while (nextRow == null && entries.hasNext()) {
+                    BPlusTree.Entry entry = entries.next();
+                    Row row;
+                    try {
+                        row = visibleVersion(storage.fetch(entry.value()), transaction);
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (row != null && row.getValue(columnIndex) != null
+                            && BPlusTree.compareKeys(row.getValue(columnIndex), entry.key()) == 0) {
+                        nextRow = new TableStorage.StoredRow(entry.value(), row);
                     }
                 }
-                Row row = new Row(columnCount);
-                row.setValues(values);
-                table.rows.add(row);
+                return nextRow != null;
             }
 
-            return table;
+            @Override
+            public TableStorage.StoredRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TableStorage.StoredRow row = nextRow;
+                nextRow = null;
+                return row;
+            }
+        };
+    }
+
+    private static <T> Iterator<T> filter(final Iterator<T> iterator, final Predicate<T> predicate) {
+        return new Iterator<>() {
+            private T nextItem;
+
+            @Override
+            public boolean hasNext() {
+                while (nextItem == null && iterator.hasNext()) {
+                    T item = iterator.next();
+                    if (predicate.test(item)) {
+                        nextItem = item;
+                    }
+                }
+                return nextItem != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T item = nextItem;
+                nextItem = null;
+                return item;
+            }
+        };
+    }
+
+    private static Operation mirror(final Operation operation) {
+        return switch (operation) {
+            case GT -> Operation.LT;
+            case GTE -> Operation.LTE;
+            case LT -> Operation.GT;
+            case LTE -> Operation.GTE;
+            default -> operation;
+        };
+    }
+
+    private static String literalOf(final Expression expression) {
+        if (expression instanceof StaticValueExpression staticValueExpression && staticValueExpression.getValue() != null) {
+            return staticValueExpression.getValue().toString();
         }
+        throw new SyntaxError("WHERE clause must compare a column with a literal");
     }
 
-    public void saveToFile(final String path) throws IOException {
-        this.setTableFilePath(path);
-        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tableFilePath))) {
-            out.writeUTF(tableName);
-            out.writeInt(columns.size());
-            for (Column column: columns) {
-                out.writeUTF(column.getName());
-                out.writeInt(column.getDataType().ordinal());
-                out.writeBoolean(column.isNullable());
+    private static <T, R> Iterator<R> map(final Iterator<T> iterator, final Function<T, R> mapper) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
             }
 
-            out.writeInt(rows.size());
-            for (Row row: rows) {
-                writeRow(row, out);
+            @Override
+            public R next() {
+                return mapper.apply(iterator.next());
             }
+        };
+    }
+
+    private static BinaryExpression condition(final Expression expression) {
+        if (expression instanceof BinaryExpression binaryExpression) {
+            return binaryExpression;
         }
+        throw new SyntaxError("AND and OR expect conditions on both sides, found " + expression);
     }
 
-    private void writeRow(final Row row, final DataOutputStream out) throws IOException {
-        Object[] values = row.getValues();
-        int i = 0;
-        for (Object value: values) {
-            out.writeBoolean(value == null);
-            if (value != null) {
-                switch (columns.get(i ++).getDataType()) {
-                    case INT -> out.writeInt((Integer) value);
-                    case DOUBLE -> out.writeDouble((double) value);
-                    case FLOAT -> out.writeFloat((float) value);
-                    case VARCHAR -> out.writeUTF((String) value);
+    private static boolean[] materialized(final Filter filter, final boolean[] columns) {
+        boolean[] materialized = columns.clone();
+        if (filter != null) {
+            filter.markColumns(materialized);
+        }
+        return materialized;
+    }
+
+    // the first access candidate of the condition, null when the whole table has to be scanned
+    private Comparison accessComparison(final Filter filter) {
+        List<Comparison> candidates = accessCandidates(filter);
+        return candidates.isEmpty() ? null : candidates.getFirst();
+    }
+
+    private void addAccessCandidates(final Filter filter, final List<Comparison> candidates) {
+        switch (filter) {
+            case Comparison comparison -> {
+                if (comparison.keyRange() != null && (isPrimaryKeyLookup(comparison) || indexOn(comparison.columnIndex()) != null)) {
+                    candidates.add(comparison);
                 }
             }
+            case AndFilter and -> {
+                addAccessCandidates(and.left(), candidates);
+                addAccessCandidates(and.right(), candidates);
+            }
+            case CompiledFilter compiled -> addAccessCandidates(compiled.source(), candidates);
+            case OrFilter ignored -> {
+            }
+        }
+    }
+
+    // what is left to check on the rows the access comparison produced
+    private static Filter residual(final Filter filter, final Comparison access) {
+        if (filter == access) {
+            return null;
+        }
+        if (filter instanceof AndFilter and) {
+            Filter left = residual(and.left(), access);
+            Filter right = residual(and.right(), access);
+            if (left == null || right == null) {
+                return left == null ? right : left;
+            }
+            return left == and.left() && right == and.right() ? filter : new AndFilter(left, right);
+        }
+        return filter;
+    }
+
+    private ClusteredStorage clusteredStorage() {
+        if (storage instanceof ClusteredStorage clusteredStorage) {
+            return clusteredStorage;
+        }
+        throw new UnsupportedOperationException("Table " + getTableName() + " has no primary key");
+    }
+
+    private static TableStorage openStorage(final TableHeader header, final PageFile pageFile, final BufferPool bufferPool,
+                                            final RowCodec rowCodec) throws IOException {
+        if (header.getTreeMetaPage() < 0) {
+            return new HeapStorage(pageFile, bufferPool, rowCodec, TableHeader.HEADER_PAGE + 1);
+        }
+        BPlusTree tree = BPlusTree.open(pageFile, bufferPool, header.getTreeMetaPage());
+        return clusteredStorage(header, tree, rowCodec);
+    }
+
+    private static ClusteredStorage clusteredStorage(final TableHeader header, final BPlusTree tree, final RowCodec rowCodec) {
+        List<Column> columns = header.getColumns();
+        for (int i = 0; i < columns.size(); i ++) {
+            if (columns.get(i).isPrimaryKey()) {
+                return new ClusteredStorage(tree, rowCodec, i, columns.get(i).getName());
+            }
+        }
+        throw new IllegalStateException("Clustered table " + header.getTableName() + " has no primary key column");
+    }
+
+    private void checkColumnCount(final Row row) {
+        if (row.getValues().length != getColumns().size()) {
+            throw new IllegalArgumentException("Values count in the row doesn't match column count");
         }
     }
 
-    private long getRowCountPosition(RandomAccessFile raf) throws IOException {
-        raf.seek(0);
+    // stores a new version created by the transaction, a clustered key may still hold versions that are deleted in
+    // the snapshot of the transaction or that nobody can see anymore
+    private byte[] insertVersion(final Row row, final Transaction transaction) throws IOException {
+        row.setBeginTimestamp(transaction.getId());
+        row.setEndTimestamp(0);
+        byte[] locator;
+        if (storage instanceof ClusteredStorage clusteredStorage) {
+            Object key = clusteredStorage.getKey(row);
+            locator = clusteredStorage.locator(key);
+            List<Row> versions = clusteredStorage.lookup(key);
+            if (versions.isEmpty()) {
+                storage.insert(row);
+            }
+            else {
+                List<Row> chain = new ArrayList<>(versions.size() + 1);
+                chain.add(row);
+                for (Row version : versions) {
+                    if (transaction.isObsolete(version)) {
+                        continue;
+                    }
+                    if (transaction.isVisible(version)) {
+                        throw clusteredStorage.duplicateKey(key);
+                    }
+                    if (!transaction.sees(version.getBeginTimestamp())) {
+                        throw new TransactionConflictException("Key '" + key + "' of table " + getTableName() + " was inserted by a concurrent transaction");
+                    }
+                    chain.add(version);
+                }
+                storage.rewrite(locator, chain);
+            }
+        }
+        else {
+            locator = storage.insert(row);
+        }
+        addToIndexes(row, locator);
+        return locator;
+    }
 
-        raf.readUTF(); // skip tablename
+    // a clustered locator stays the same across versions, so the entry may already be there
+    private void addToIndexes(final Row row, final byte[] locator) throws IOException {
+        for (SecondaryIndex index : indexes.values()) {
+            Object value = row.getValue(index.getColumnIndex());
+            if (!isClustered() || !index.contains(value, locator)) {
+                index.insert(value, locator);
+            }
+        }
+    }
 
-        raf.readInt(); // skip columns count
+    private static Row visibleVersion(final List<Row> versions, final Transaction transaction) {
+        for (Row version : versions) {
+            if (transaction.isVisible(version)) {
+                return version;
+            }
+        }
+        return null;
+    }
 
-        // skip column definitions
-        for (Column col: columns) {
-            raf.readUTF(); // skip colName
-            raf.readInt(); // skip data type ordinal
-            raf.readBoolean(); // skip nullable flag
+    // the row count sits at a fixed offset of the header page, so an insert never re-encodes the schema
+    private void writeRowCount() throws IOException {
+        Page headerPage = bufferPool.fetchPage(pageFile, TableHeader.HEADER_PAGE);
+        try {
+            header.writeRowCountTo(headerPage.getData());
+        }
+        finally {
+            bufferPool.unpinPage(headerPage, true);
         }
+    }
 
-        return raf.getFilePointer();
+    private void writeHeader() throws IOException {
+        Page headerPage = bufferPool.fetchPage(pageFile, TableHeader.HEADER_PAGE);
+        try {
+            header.writeTo(headerPage.getData());
+        }
+        finally {
+            bufferPool.unpinPage(headerPage, true);
+        }
     }
 }
@@ -9,5 +9,7 @@ public enum TokenType {
     SEMICOLON, // ;
     WHITESPACE, // spaces, tabs, new lines
     COMMENT, // --
+    LEFT_PARENTHESIS, // (, only kept when asked for
+    RIGHT_PARENTHESIS, // )
     ;
 }
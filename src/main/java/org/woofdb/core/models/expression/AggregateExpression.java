@@ -0,0 +1,28 @@
+package org.woofdb.core.models.expression;
+
+// an aggregate function over a column, COUNT(*) has * as its column name
+public class AggregateExpression extends Expression {
+    private AggregateFunction function;
+    private String columnName;
+
+    public AggregateFunction getFunction() {
+        return function;
+    }
+
+    public void setFunction(final AggregateFunction function) {
+        this.function = function;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public void setColumnName(final String columnName) {
+        this.columnName = columnName;
+    }
+
+    @Override
+    public String toString() {
+        return function + "(" + columnName + ")";
+    }
+}
@@ -0,0 +1,19 @@
+package org.woofdb.core.models.expression;
+
+import java.util.Arrays;
+
+public enum AggregateFunction {
+    COUNT,
+    SUM,
+    MIN,
+    MAX,
+    AVG;
+
+    // null when the name is not an aggregate function
+    public static AggregateFunction from(final String name) {
+        return Arrays.stream(AggregateFunction.values())
+                .filter(it -> it.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,25 @@
+package org.woofdb.core.models.expression;
+
+public class ColumnExpression extends Expression {
+    private String columnName;
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public void setColumnName(final String columnName) {
+        this.columnName = columnName;
+    }
+
+    public ColumnExpression withColumnName(final String columnName) {
+        this.columnName = columnName;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnExpression{" +
+                "columnName='" + columnName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package org.woofdb.core.models.expression;
+
+// JOIN table ON left = right, an inner equi-join where each side of the condition names a column of one of the tables
+public class JoinClause {
+    private final String table;
+    private final String leftColumn;
+    private final String rightColumn;
+
+    public JoinClause(final String table, final String leftColumn, final String rightColumn) {
+        this.table = table;
+        this.leftColumn = leftColumn;
+        this.rightColumn = rightColumn;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getLeftColumn() {
+        return leftColumn;
+    }
+
+    public String getRightColumn() {
+        return rightColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "JOIN " + table + " ON " + leftColumn + " = " + rightColumn;
+    }
+}
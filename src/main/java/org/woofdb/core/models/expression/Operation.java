@@ -29,6 +29,9 @@ public enum Operation {
     }
 
     public static Operation from(final String value) {
+       if ("!=".equals(value)) {
+           return NOT_EQUALS;
+       }
        return Arrays.stream(Operation.values())
                .filter(it -> it.getLiteralValue().equals(value))
                .findAny()
@@ -0,0 +1,25 @@
+package org.woofdb.core.models.expression;
+
+// an item of ORDER BY, a column or an aggregate of the select list sorted ascending unless DESC is given
+public class OrderByItem {
+    private final Expression expression;
+    private final boolean descending;
+
+    public OrderByItem(final Expression expression, final boolean descending) {
+        this.expression = expression;
+        this.descending = descending;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return expression + (descending ? " DESC" : " ASC");
+    }
+}
@@ -0,0 +1,17 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class AnalyzeStatement extends Statement {
+
+    private final String tableName;
+
+    public AnalyzeStatement(final String tableName) {
+        super(StatementType.STATEMENT_ANALYZE);
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
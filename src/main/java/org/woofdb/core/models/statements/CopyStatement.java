@@ -0,0 +1,56 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class CopyStatement extends Statement {
+    private String table;
+    private String filePath;
+    private char delimiter = ',';
+    private boolean header;
+
+    public CopyStatement() {
+        super(StatementType.STATEMENT_COPY);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public void setTable(final String table) {
+        this.table = table;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(final String filePath) {
+        this.filePath = filePath;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(final char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public boolean hasHeader() {
+        return header;
+    }
+
+    public void setHeader(final boolean header) {
+        this.header = header;
+    }
+
+    @Override
+    public String toString() {
+        return "CopyStatement{" +
+                "table='" + table + '\'' +
+                ", filePath='" + filePath + '\'' +
+                ", delimiter=" + delimiter +
+                ", header=" + header +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.ResourceType;
+
+public final class CreateIndexStatement extends CreateStatement {
+
+    public CreateIndexStatement() {
+        super(ResourceType.INDEX);
+    }
+
+    private String indexName;
+    private String tableName;
+    private String columnName;
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public void setIndexName(final String indexName) {
+        this.indexName = indexName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(final String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public void setColumnName(final String columnName) {
+        this.columnName = columnName;
+    }
+
+    @Override
+    public String toString() {
+        return "CreateIndexStatement{" +
+                "indexName='" + indexName + '\'' +
+                ", tableName='" + tableName + '\'' +
+                ", columnName='" + columnName + '\'' +
+                '}';
+    }
+}
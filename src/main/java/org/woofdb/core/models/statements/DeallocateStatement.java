@@ -0,0 +1,17 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class DeallocateStatement extends Statement {
+
+    private final String name;
+
+    public DeallocateStatement(final String name) {
+        super(StatementType.STATEMENT_DEALLOCATE);
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,25 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+import org.woofdb.core.models.expression.BinaryExpression;
+
+public final class DeleteStatement extends Statement {
+
+    private final String tableName;
+    // null deletes every row
+    private final BinaryExpression condition;
+
+    public DeleteStatement(final String tableName, final BinaryExpression condition) {
+        super(StatementType.STATEMENT_DELETE);
+        this.tableName = tableName;
+        this.condition = condition;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public BinaryExpression getCondition() {
+        return condition;
+    }
+}
@@ -7,6 +7,8 @@ import org.woofdb.core.models.StatementType;
 public final class DropStatement extends Statement {
     private ResourceType resourceType;
     private String resourceName;
+    // only set for DROP INDEX ... ON table
+    private String tableName;
 
     public DropStatement() {
         super(StatementType.STATEMENT_DROP);
@@ -28,11 +30,20 @@ public final class DropStatement extends Statement {
         this.resourceName = resourceName;
     }
 
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(final String tableName) {
+        this.tableName = tableName;
+    }
+
     @Override
     public String toString() {
         return "DropStatement{" +
                 "resourceType=" + resourceType +
                 ", resourceName='" + resourceName + '\'' +
+                ", tableName='" + tableName + '\'' +
                 '}';
     }
 }
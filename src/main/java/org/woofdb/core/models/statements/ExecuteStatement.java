@@ -0,0 +1,26 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+import java.util.List;
+
+public final class ExecuteStatement extends Statement {
+
+    private final String name;
+    // in their SQL form, strings in quotes and null for NULL
+    private final List<String> parameters;
+
+    public ExecuteStatement(final String name, final List<String> parameters) {
+        super(StatementType.STATEMENT_EXECUTE);
+        this.name = name;
+        this.parameters = parameters;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,24 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class ExplainStatement extends Statement {
+
+    private final SelectStatement select;
+    // ANALYZE runs the query and reports what every operator did
+    private final boolean analyze;
+
+    public ExplainStatement(final SelectStatement select, final boolean analyze) {
+        super(StatementType.STATEMENT_EXPLAIN);
+        this.select = select;
+        this.analyze = analyze;
+    }
+
+    public SelectStatement getSelect() {
+        return select;
+    }
+
+    public boolean isAnalyze() {
+        return analyze;
+    }
+}
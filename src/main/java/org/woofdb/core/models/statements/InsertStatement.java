@@ -6,7 +6,7 @@ import java.util.List;
 
 public final class InsertStatement extends Statement {
     private String table;
-    private List<String> values;
+    private List<List<String>> values;
     private List<String> columns;
 
     public InsertStatement() {
@@ -21,11 +21,11 @@ public final class InsertStatement extends Statement {
         this.table = table;
     }
 
-    public List<String> getValues() {
+    public List<List<String>> getValues() {
         return values;
     }
 
-    public void setValues(final List<String> values) {
+    public void setValues(final List<List<String>> values) {
         this.values = values;
     }
 
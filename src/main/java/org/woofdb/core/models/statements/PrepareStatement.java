@@ -0,0 +1,24 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class PrepareStatement extends Statement {
+
+    private final String name;
+    // the statement with ? in place of the values bound by EXECUTE
+    private final Statement statement;
+
+    public PrepareStatement(final String name, final Statement statement) {
+        super(StatementType.STATEMENT_PREPARE);
+        this.name = name;
+        this.statement = statement;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Statement getStatement() {
+        return statement;
+    }
+}
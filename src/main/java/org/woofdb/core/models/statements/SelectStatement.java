@@ -2,14 +2,25 @@ package org.woofdb.core.models.statements;
 
 import org.woofdb.core.models.StatementType;
 import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.JoinClause;
+import org.woofdb.core.models.expression.OrderByItem;
 
 import java.util.List;
 
 public final class SelectStatement extends Statement {
 
+    // labels of the select list items, the items themselves are column or aggregate expressions
     private List<String> columns;
+    private List<Expression> selectList;
     private String from;
+    // null unless the table of FROM is joined with another one
+    private JoinClause join;
     private BinaryExpression where;
+    private List<String> groupBy = List.of();
+    private List<OrderByItem> orderBy = List.of();
+    // -1 without a LIMIT clause
+    private long limit = -1;
 
     public SelectStatement() {
         super(StatementType.STATEMENT_SELECT);
@@ -23,6 +34,14 @@ public final class SelectStatement extends Statement {
         this.columns = columns;
     }
 
+    public List<Expression> getSelectList() {
+        return selectList;
+    }
+
+    public void setSelectList(final List<Expression> selectList) {
+        this.selectList = selectList;
+    }
+
     public String getFrom() {
         return from;
     }
@@ -31,6 +50,14 @@ public final class SelectStatement extends Statement {
         this.from = from;
     }
 
+    public JoinClause getJoin() {
+        return join;
+    }
+
+    public void setJoin(final JoinClause join) {
+        this.join = join;
+    }
+
     public BinaryExpression getWhere() {
         return where;
     }
@@ -39,12 +66,44 @@ public final class SelectStatement extends Statement {
         this.where = where;
     }
 
+    public List<String> getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(final List<String> groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public List<OrderByItem> getOrderBy() {
+        return orderBy;
+    }
+
+    public void setOrderBy(final List<OrderByItem> orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public void setLimit(final long limit) {
+        this.limit = limit;
+    }
+
+    public boolean hasLimit() {
+        return limit >= 0;
+    }
+
     @Override
     public String toString() {
         return "SelectStatement{" +
                 "columns=" + columns +
                 ", from='" + from + '\'' +
+                ", join=" + join +
                 ", where=" + where +
+                ", groupBy=" + groupBy +
+                ", orderBy=" + orderBy +
+                ", limit=" + limit +
                 '}';
     }
 }
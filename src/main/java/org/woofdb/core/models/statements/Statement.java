@@ -3,8 +3,10 @@ package org.woofdb.core.models.statements;
 import org.woofdb.core.models.StatementType;
 
 sealed public abstract class Statement
-        permits CommitStatement, CreateStatement, DropStatement, InsertStatement, RollbackStatement, SelectStatement, StartTransactionStatement, UpdateStatement, UseDatabaseStatement, ShowStatement{
+        permits AnalyzeStatement, CommitStatement, CopyStatement, CreateStatement, DeallocateStatement, DeleteStatement, DropStatement, ExecuteStatement, ExplainStatement, InsertStatement, PrepareStatement, RollbackStatement, SelectStatement, StartTransactionStatement, UpdateStatement, UseDatabaseStatement, ShowStatement, VacuumStatement{
     private StatementType statementType;
+    // parsed once and run many times, its plan is worth keeping
+    private boolean prepared;
 
     public Statement(final StatementType statementType) {
         this.statementType = statementType;
@@ -13,4 +15,12 @@ sealed public abstract class Statement
     public StatementType getStatementType() {
         return statementType;
     }
+
+    public boolean isPrepared() {
+        return prepared;
+    }
+
+    public void setPrepared(final boolean prepared) {
+        this.prepared = prepared;
+    }
 }
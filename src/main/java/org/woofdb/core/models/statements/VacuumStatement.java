@@ -0,0 +1,18 @@
+package org.woofdb.core.models.statements;
+
+import org.woofdb.core.models.StatementType;
+
+public final class VacuumStatement extends Statement {
+
+    // null vacuums every table
+    private final String tableName;
+
+    public VacuumStatement(final String tableName) {
+        super(StatementType.STATEMENT_VACUUM);
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+}
@@ -0,0 +1,52 @@
+package org.woofdb.core.models.vector;
+
+import org.woofdb.core.models.DataType;
+
+import java.util.Arrays;
+
+/**
+ * Up to {@code capacity} values of a single column kept in a primitive array, with a null bitmap next to it.
+ * Vectors are reused from batch to batch, values are written by position and never boxed on the way in.
+ */
+public abstract sealed class ColumnVector permits IntVector, FloatVector, DoubleVector, VarcharVector {
+    protected final int capacity;
+    private final long[] nulls;
+
+    protected ColumnVector(final int capacity) {
+        this.capacity = capacity;
+        this.nulls = new long[(capacity + 63) / 64];
+    }
+
+    public static ColumnVector allocate(final DataType dataType, final int capacity) {
+        return switch (dataType) {
+            case INT -> new IntVector(capacity);
+            case FLOAT -> new FloatVector(capacity);
+            case DOUBLE -> new DoubleVector(capacity);
+            case VARCHAR -> new VarcharVector(capacity);
+        };
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isNull(final int position) {
+        return (nulls[position >>> 6] & (1L << position)) != 0;
+    }
+
+    public void setNull(final int position) {
+        nulls[position >>> 6] |= 1L << position;
+    }
+
+    public void reset() {
+        Arrays.fill(nulls, 0);
+    }
+
+    // boxed value for row based consumers, null when the position holds a null
+    public abstract Object getObject(int position);
+
+    public abstract void setObject(int position, Object value);
+
+    // appends the textual form of a non null value without boxing it
+    public abstract void appendTo(StringBuilder target, int position);
+}
@@ -0,0 +1,42 @@
+package org.woofdb.core.models.vector;
+
+public final class DoubleVector extends ColumnVector {
+    private final double[] values;
+
+    public DoubleVector(final int capacity) {
+        super(capacity);
+        this.values = new double[capacity];
+    }
+
+    public double get(final int position) {
+        return values[position];
+    }
+
+    public void set(final int position, final double value) {
+        values[position] = value;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(final int position) {
+        return isNull(position) ? null : values[position];
+    }
+
+    @Override
+    public void setObject(final int position, final Object value) {
+        if (value == null) {
+            setNull(position);
+        }
+        else {
+            values[position] = (Double) value;
+        }
+    }
+
+    @Override
+    public void appendTo(final StringBuilder target, final int position) {
+        target.append(values[position]);
+    }
+}
@@ -0,0 +1,42 @@
+package org.woofdb.core.models.vector;
+
+public final class FloatVector extends ColumnVector {
+    private final float[] values;
+
+    public FloatVector(final int capacity) {
+        super(capacity);
+        this.values = new float[capacity];
+    }
+
+    public float get(final int position) {
+        return values[position];
+    }
+
+    public void set(final int position, final float value) {
+        values[position] = value;
+    }
+
+    public float[] getValues() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(final int position) {
+        return isNull(position) ? null : values[position];
+    }
+
+    @Override
+    public void setObject(final int position, final Object value) {
+        if (value == null) {
+            setNull(position);
+        }
+        else {
+            values[position] = (Float) value;
+        }
+    }
+
+    @Override
+    public void appendTo(final StringBuilder target, final int position) {
+        target.append(values[position]);
+    }
+}
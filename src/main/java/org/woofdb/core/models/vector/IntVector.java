@@ -0,0 +1,42 @@
+package org.woofdb.core.models.vector;
+
+public final class IntVector extends ColumnVector {
+    private final int[] values;
+
+    public IntVector(final int capacity) {
+        super(capacity);
+        this.values = new int[capacity];
+    }
+
+    public int get(final int position) {
+        return values[position];
+    }
+
+    public void set(final int position, final int value) {
+        values[position] = value;
+    }
+
+    public int[] getValues() {
+        return values;
+    }
+
+    @Override
+    public Object getObject(final int position) {
+        return isNull(position) ? null : values[position];
+    }
+
+    @Override
+    public void setObject(final int position, final Object value) {
+        if (value == null) {
+            setNull(position);
+        }
+        else {
+            values[position] = (Integer) value;
+        }
+    }
+
+    @Override
+    public void appendTo(final StringBuilder target, final int position) {
+        target.append(values[position]);
+    }
+}
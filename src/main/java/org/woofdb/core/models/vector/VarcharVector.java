@@ -0,0 +1,98 @@
+package org.woofdb.core.models.vector;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// UTF-8 bytes of all values packed into one growing array, every position keeps the offset and length of its value
+public final class VarcharVector extends ColumnVector {
+    private final int[] offsets;
+    private final int[] lengths;
+    private byte[] data;
+    private int dataSize;
+
+    public VarcharVector(final int capacity) {
+        super(capacity);
+        this.offsets = new int[capacity];
+        this.lengths = new int[capacity];
+        this.data = new byte[capacity * 16];
+    }
+
+    public void set(final int position, final ByteBuffer source, final int offset, final int length) {
+        ensureSpace(length);
+        if (source.hasArray()) {
+            // a plain array copy, the bulk get of ByteBuffer is slow for values this short
+            System.arraycopy(source.array(), source.arrayOffset() + offset, data, dataSize, length);
+        }
+        else {
+            source.get(offset, data, dataSize, length);
+        }
+        offsets[position] = dataSize;
+        lengths[position] = length;
+        dataSize += length;
+    }
+
+    public void set(final int position, final byte[] bytes) {
+        ensureSpace(bytes.length);
+        System.arraycopy(bytes, 0, data, dataSize, bytes.length);
+        offsets[position] = dataSize;
+        lengths[position] = bytes.length;
+        dataSize += bytes.length;
+    }
+
+    public String get(final int position) {
+        return new String(data, offsets[position], lengths[position], StandardCharsets.UTF_8);
+    }
+
+    public int length(final int position) {
+        return lengths[position];
+    }
+
+    // copies the UTF-8 bytes of the value into the target, returns the offset after them
+    public int copyTo(final int position, final byte[] target, final int targetOffset) {
+        System.arraycopy(data, offsets[position], target, targetOffset, lengths[position]);
+        return targetOffset + lengths[position];
+    }
+
+    public boolean valueEquals(final int position, final byte[] value) {
+        return Arrays.equals(data, offsets[position], offsets[position] + lengths[position], value, 0, value.length);
+    }
+
+    // unsigned byte order of UTF-8 is code point order, which only differs from String.compareTo for characters
+    // outside the basic multilingual plane
+    public int compare(final int position, final byte[] value) {
+        return Arrays.compareUnsigned(data, offsets[position], offsets[position] + lengths[position], value, 0, value.length);
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        dataSize = 0;
+    }
+
+    @Override
+    public Object getObject(final int position) {
+        return isNull(position) ? null : get(position);
+    }
+
+    @Override
+    public void setObject(final int position, final Object value) {
+        if (value == null) {
+            setNull(position);
+        }
+        else {
+            set(position, ((String) value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public void appendTo(final StringBuilder target, final int position) {
+        target.append(get(position));
+    }
+
+    private void ensureSpace(final int length) {
+        if (dataSize + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + length));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.woofdb.core.models.vector;
+
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.Row;
+
+import java.util.List;
+
+/**
+ * A batch of rows stored column by column. Only the columns a query reads are allocated, the others stay null.
+ * Filters do not move values around, they narrow the selection vector: the positions of the rows still qualifying.
+ */
+public class VectorBatch {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final ColumnVector[] columns;
+    private final int capacity;
+    private final int[] selection;
+    private final int materializedLimit;
+    private int size;
+    private int selectedCount;
+
+    public VectorBatch(final List<Column> columns, final boolean[] materialized, final int capacity) {
+        this.columns = new ColumnVector[columns.size()];
+        for (int i = 0; i < columns.size(); i ++) {
+            if (materialized[i]) {
+                this.columns[i] = ColumnVector.allocate(columns.get(i).getDataType(), capacity);
+            }
+        }
+        this.capacity = capacity;
+        this.selection = new int[capacity];
+        int limit = 0;
+        for (int i = 0; i < columns.size(); i ++) {
+            if (materialized[i]) {
+                limit = i + 1;
+            }
+        }
+        this.materializedLimit = limit;
+    }
+
+    public ColumnVector getColumn(final int columnIndex) {
+        return columns[columnIndex];
+    }
+
+    // columns from this index on are not materialized, decoders can stop there
+    public int getMaterializedLimit() {
+        return materializedLimit;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    // claims the next position, the caller writes the values of the row there
+    public int addPosition() {
+        return size++;
+    }
+
+    public void addRow(final Row row) {
+        int position = addPosition();
+        for (int i = 0; i < columns.length; i ++) {
+            if (columns[i] != null) {
+                columns[i].setObject(position, row.getValue(i));
+            }
+        }
+    }
+
+    public int[] getSelection() {
+        return selection;
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    public void setSelectedCount(final int selectedCount) {
+        this.selectedCount = selectedCount;
+    }
+
+    public void selectAll() {
+        for (int i = 0; i < size; i ++) {
+            selection[i] = i;
+        }
+        selectedCount = size;
+    }
+
+    public void reset() {
+        for (ColumnVector column : columns) {
+            if (column != null) {
+                column.reset();
+            }
+        }
+        size = 0;
+        selectedCount = 0;
+    }
+}
@@ -0,0 +1,109 @@
+package org.woofdb.core.parser;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.Token;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.ColumnExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.expression.StaticValueExpression;
+
+import java.util.List;
+
+import static org.woofdb.core.models.TokenType.*;
+
+/**
+ * Recursive descent parser for conditions, AND binds tighter than OR and parentheses group:
+ * <pre>
+ * or         := and (OR and)*
+ * and        := primary (AND primary)*
+ * primary    := '(' or ')' | operand operator operand
+ * operand    := column | literal
+ * </pre>
+ * Every level produces a {@link BinaryExpression}, the comparisons are the leaves of the tree.
+ */
+final class ExpressionParser {
+    private final List<Token> tokens;
+    private int position;
+
+    ExpressionParser(final List<Token> tokens, final int position) {
+        this.tokens = tokens;
+        this.position = position;
+    }
+
+    // position of the first token after the parsed expression
+    int getPosition() {
+        return position;
+    }
+
+    BinaryExpression parse() {
+        return parseOr();
+    }
+
+    private BinaryExpression parseOr() {
+        BinaryExpression expression = parseAnd();
+        while (isKeyword("OR")) {
+            position ++;
+            expression = binary(expression, Operation.OR, parseAnd());
+        }
+        return expression;
+    }
+
+    private BinaryExpression parseAnd() {
+        BinaryExpression expression = parsePrimary();
+        while (isKeyword("AND")) {
+            position ++;
+            expression = binary(expression, Operation.AND, parsePrimary());
+        }
+        return expression;
+    }
+
+    private BinaryExpression parsePrimary() {
+        if (position < tokens.size() && tokens.get(position).getTokenType() == LEFT_PARENTHESIS) {
+            position ++;
+            BinaryExpression expression = parseOr();
+            if (position >= tokens.size() || tokens.get(position).getTokenType() != RIGHT_PARENTHESIS) {
+                throw new SyntaxError("Syntax error: Expected ')' at position " + position);
+            }
+            position ++;
+            return expression;
+        }
+        Expression left = parseOperand();
+        Token operator = next("an operator");
+        Operation operation = Operation.from(operator.getValue());
+        if (operator.getTokenType() != OPERATOR || operation == Operation.UNKNOWN) {
+            throw new SyntaxError("Syntax error: Unknown operator '" + operator.getValue() + "' at position " + (position - 1));
+        }
+        return binary(left, operation, parseOperand());
+    }
+
+    private Expression parseOperand() {
+        Token token = next("a column or a literal");
+        return switch (token.getTokenType()) {
+            case IDENTIFIER -> new ColumnExpression().withColumnName(token.getValue());
+            case LITERAL -> new StaticValueExpression().withValue(token.getValue());
+            default -> throw new SyntaxError("Syntax error: Expected a column or a literal, found " + token.getTokenType()
+                    + " '" + token.getValue() + "' at position " + (position - 1));
+        };
+    }
+
+    private Token next(final String expected) {
+        if (position >= tokens.size()) {
+            throw new SyntaxError("Syntax error: Expected " + expected + " but encountered end of statement");
+        }
+        return tokens.get(position++);
+    }
+
+    private boolean isKeyword(final String keyword) {
+        return position < tokens.size() && tokens.get(position).getTokenType() == KEYWORD
+                && tokens.get(position).getValue().equalsIgnoreCase(keyword);
+    }
+
+    private static BinaryExpression binary(final Expression left, final Operation operation, final Expression right) {
+        BinaryExpression expression = new BinaryExpression();
+        expression.setLeftSide(left);
+        expression.setOperation(operation);
+        expression.setRightSide(right);
+        return expression;
+    }
+}
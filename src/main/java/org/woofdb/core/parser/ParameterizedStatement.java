@@ -0,0 +1,107 @@
+package org.woofdb.core.parser;
+
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.StaticValueExpression;
+import org.woofdb.core.models.statements.DeleteStatement;
+import org.woofdb.core.models.statements.ExplainStatement;
+import org.woofdb.core.models.statements.InsertStatement;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.models.statements.Statement;
+import org.woofdb.core.models.statements.UpdateStatement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A statement parsed once with ? placeholders in place of some of its literals. Binding a value writes it into the
+ * statement where its placeholder was, so the statement runs again with other values without being parsed again.
+ * Values are bound in their SQL form, numbers as written and strings in quotes, or null for NULL; a bound string is
+ * never tokenized, so it may hold quotes of its own.
+ */
+public final class ParameterizedStatement {
+    static final String PLACEHOLDER = "?";
+
+    private final Statement statement;
+    // write the value of every placeholder, in the order the placeholders appear in the statement
+    private final List<Consumer<String>> parameters = new ArrayList<>();
+    private final boolean[] bound;
+
+    public ParameterizedStatement(final Statement statement) {
+        this.statement = statement;
+        statement.setPrepared(true);
+        switch (statement) {
+            case InsertStatement insert -> {
+                for (List<String> row : insert.getValues()) {
+                    for (int i = 0; i < row.size(); i ++) {
+                        int column = i;
+                        if (PLACEHOLDER.equals(row.get(i))) {
+                            parameters.add(value -> row.set(column, value));
+                        }
+                    }
+                }
+            }
+            case SelectStatement select -> addParameters(select.getWhere());
+            case ExplainStatement explain -> addParameters(explain.getSelect().getWhere());
+            case DeleteStatement delete -> addParameters(delete.getCondition());
+            case UpdateStatement update -> {
+                for (Map.Entry<String, String> entry : update.getUpdates().entrySet()) {
+                    if (PLACEHOLDER.equals(entry.getValue())) {
+                        parameters.add(entry::setValue);
+                    }
+                }
+                addParameters(update.getCondition());
+            }
+            default -> {
+            }
+        }
+        this.bound = new boolean[parameters.size()];
+    }
+
+    private void addParameters(final Expression expression) {
+        if (expression instanceof BinaryExpression binary) {
+            addParameters(binary.getLeftSide());
+            addParameters(binary.getRightSide());
+        }
+        else if (expression instanceof StaticValueExpression value && PLACEHOLDER.equals(value.getValue())) {
+            parameters.add(value::setValue);
+        }
+    }
+
+    public int getParameterCount() {
+        return parameters.size();
+    }
+
+    // binds the placeholder at the index, counted from 0 in the order of the statement
+    public void bind(final int parameterIndex, final String literal) {
+        if (parameterIndex < 0 || parameterIndex >= parameters.size()) {
+            throw new SyntaxError("Parameter " + (parameterIndex + 1) + " does not exist, the statement has " + parameters.size());
+        }
+        parameters.get(parameterIndex).accept(literal);
+        bound[parameterIndex] = true;
+    }
+
+    // the values stay in the statement until bound again, but every placeholder needs a value bound after this
+    public void clearParameters() {
+        Arrays.fill(bound, false);
+    }
+
+    // the statement with the values bound last, every placeholder needs one
+    public Statement getStatement() {
+        for (int i = 0; i < bound.length; i ++) {
+            if (!bound[i]) {
+                throw new SyntaxError("No value bound to parameter " + (i + 1));
+            }
+        }
+        return statement;
+    }
+
+    // the same statement whether its values are bound or not, to tell it apart from others
+    public Statement getParsedStatement() {
+        return statement;
+    }
+}
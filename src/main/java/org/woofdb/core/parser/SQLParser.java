@@ -2,9 +2,13 @@ package org.woofdb.core.parser;
 
 import org.woofdb.core.exceptions.SyntaxError;
 import org.woofdb.core.models.*;
+import org.woofdb.core.models.expression.AggregateExpression;
+import org.woofdb.core.models.expression.AggregateFunction;
 import org.woofdb.core.models.expression.BinaryExpression;
-import org.woofdb.core.models.expression.Operation;
-import org.woofdb.core.models.expression.StaticValueExpression;
+import org.woofdb.core.models.expression.ColumnExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.JoinClause;
+import org.woofdb.core.models.expression.OrderByItem;
 import org.woofdb.core.models.statements.*;
 import org.woofdb.core.tokenizer.Tokenizer;
 
@@ -19,18 +23,46 @@ public final class SQLParser {
         this.tokenizer = tokenizer;
     }
 
+    // a statement with ? placeholders, parsed once and run with the values bound to them
+    public ParameterizedStatement prepare(final String sql) {
+        return new ParameterizedStatement(parse(sql));
+    }
+
     public Statement parse(final String sql) {
-        List<Token> tokens = tokenizer.getTokens(sql).stream()
-                .filter(it -> it.getTokenType() != TokenType.WHITESPACE)
-                .toList();
+        // conditions need the parentheses, every other clause is parsed without them
+        List<Token> allTokens = tokenizer.getTokens(sql, true);
+        List<Token> expressionTokens = new ArrayList<>(allTokens.size());
+        List<Token> tokens = new ArrayList<>(allTokens.size());
+        for (Token token : allTokens) {
+            if (token.getTokenType() == TokenType.WHITESPACE) {
+                continue;
+            }
+            expressionTokens.add(token);
+            if (token.getTokenType() != LEFT_PARENTHESIS && token.getTokenType() != RIGHT_PARENTHESIS) {
+                tokens.add(token);
+            }
+        }
+        if (tokens.isEmpty()) {
+            throw new SyntaxError("Empty statement");
+        }
+        return parse(expressionTokens, tokens);
+    }
+
+    private static Statement parse(final List<Token> expressionTokens, final List<Token> tokens) {
         int position = 0;
         Token firstToken = tokens.getFirst();
         if (firstToken.getTokenType() == KEYWORD) {
             if (firstToken.getValue().equalsIgnoreCase("SELECT")) {
-                return parseSelect(tokens, position); // based on the first token we need to decide which method to call here for parsing
+                return parseSelect(expressionTokens, position); // based on the first token we need to decide which method to call here for parsing
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("EXPLAIN")) {
+                return parseExplain(expressionTokens, position);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("ANALYZE")) {
+                return parseAnalyze(tokens, position);
             }
             else if (firstToken.getValue().equalsIgnoreCase("INSERT")) {
-                return parseInsert(tokens, position);
+                return parseInsert(tokens, expressionTokens, position);
             }
             else if (firstToken.getValue().equalsIgnoreCase("CREATE")) {
                 return parseCreate(tokens, position);
@@ -38,8 +70,14 @@ public final class SQLParser {
             else if (firstToken.getValue().equalsIgnoreCase("DROP")) {
                 return parseDrop(tokens, position);
             }
+            else if (firstToken.getValue().equalsIgnoreCase("DELETE")) {
+                return parseDelete(tokens, expressionTokens, position);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("VACUUM")) {
+                return parseVacuum(tokens, position);
+            }
             else if (firstToken.getValue().equalsIgnoreCase("UPDATE")) {
-                return parseUpdate(tokens, position);
+                return parseUpdate(tokens, expressionTokens, position);
             }
             else if (firstToken.getValue().equalsIgnoreCase("USE")) {
                 return parseUse(tokens, position);
@@ -47,6 +85,31 @@ public final class SQLParser {
             else if (firstToken.getValue().equalsIgnoreCase("SHOW")) {
                 return parseShowStatement(tokens, position);
             }
+            else if (firstToken.getValue().equalsIgnoreCase("COPY")) {
+                return parseCopy(tokens, position);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("BEGIN") || firstToken.getValue().equalsIgnoreCase("START")) {
+                return parseStartTransaction(tokens, position);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("COMMIT")) {
+                position ++;
+                expectEndOfStatement(tokens, position);
+                return new CommitStatement();
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("ROLLBACK")) {
+                position ++;
+                expectEndOfStatement(tokens, position);
+                return new RollbackStatement();
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("PREPARE")) {
+                return parsePrepare(expressionTokens, tokens);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("EXECUTE")) {
+                return parseExecute(tokens, position);
+            }
+            else if (firstToken.getValue().equalsIgnoreCase("DEALLOCATE")) {
+                return parseDeallocate(tokens, position);
+            }
             else  {
                 throw new SyntaxError("Illegal token " + firstToken.getValue() + " at position 0");
             }
@@ -56,27 +119,205 @@ public final class SQLParser {
         }
     }
 
+    // PREPARE name AS statement, the statement after AS is parsed like one of its own
+    private static PrepareStatement parsePrepare(final List<Token> expressionTokens, final List<Token> tokens) {
+        expect("PREPARE", tokens, 0);
+        String name = getToken(tokens, 1).getValue();
+        expect("AS", tokens, 2);
+        // the name cannot hold parentheses, so the statement starts at the same token in both lists
+        expect("AS", expressionTokens, 2);
+        if (tokens.size() == 3) {
+            throw new SyntaxError("Expected a statement to prepare after AS");
+        }
+        Statement statement = parse(expressionTokens.subList(3, expressionTokens.size()), tokens.subList(3, tokens.size()));
+        if (statement instanceof PrepareStatement || statement instanceof ExecuteStatement || statement instanceof DeallocateStatement) {
+            throw new SyntaxError("Cannot prepare a " + tokens.get(3).getValue().toUpperCase() + " statement");
+        }
+        return new PrepareStatement(name, statement);
+    }
+
+    // EXECUTE name [(value, ...)], a value for every ? of the prepared statement
+    private static ExecuteStatement parseExecute(final List<Token> tokens, int position) {
+        expect("EXECUTE", tokens, position);
+        position ++;
+        String name = getToken(tokens, position).getValue();
+        position ++;
+        List<String> parameters = new ArrayList<>();
+        if (position < tokens.size() && getToken(tokens, position).getTokenType() != SEMICOLON) {
+            for (String value : getExpandedValues(tokens, position)) {
+                parameters.add(value.equalsIgnoreCase("NULL") ? null : value);
+            }
+            position += 2 * parameters.size() - 1;
+        }
+        expectEndOfStatement(tokens, position);
+        return new ExecuteStatement(name, parameters);
+    }
+
+    // DEALLOCATE [PREPARE] name
+    private static DeallocateStatement parseDeallocate(final List<Token> tokens, int position) {
+        expect("DEALLOCATE", tokens, position);
+        position ++;
+        if (isKeyword(getToken(tokens, position), "PREPARE")) {
+            position ++;
+        }
+        String name = getToken(tokens, position).getValue();
+        position ++;
+        expectEndOfStatement(tokens, position);
+        return new DeallocateStatement(name);
+    }
+
+    // EXPLAIN [ANALYZE] select
+    private static ExplainStatement parseExplain(final List<Token> tokens, int position) {
+        expect("EXPLAIN", tokens, position);
+        position ++;
+        boolean analyze = position < tokens.size() && isKeyword(getToken(tokens, position), "ANALYZE");
+        if (analyze) {
+            position ++;
+        }
+        return new ExplainStatement(parseSelect(tokens, position), analyze);
+    }
+
+    // ANALYZE table
+    private static AnalyzeStatement parseAnalyze(final List<Token> tokens, int position) {
+        expect("ANALYZE", tokens, position);
+        position ++;
+        String tableName = getToken(tokens, position).getValue();
+        position ++;
+        expectEndOfStatement(tokens, position);
+        return new AnalyzeStatement(tableName);
+    }
+
+    // DELETE FROM table [WHERE condition]
+    private static DeleteStatement parseDelete(final List<Token> tokens, final List<Token> expressionTokens, int position) {
+        expect("DELETE", tokens, position);
+        position ++;
+        expect("FROM", tokens, position);
+        position ++;
+        String tableName = getToken(tokens, position).getValue();
+        position ++;
+        if (position < tokens.size() && isKeyword(getToken(tokens, position), "WHERE")) {
+            return new DeleteStatement(tableName, parseWhere(expressionTokens));
+        }
+        expectEndOfStatement(tokens, position);
+        return new DeleteStatement(tableName, null);
+    }
+
+    // VACUUM [table]
+    private static VacuumStatement parseVacuum(final List<Token> tokens, int position) {
+        expect("VACUUM", tokens, position);
+        position ++;
+        String tableName = null;
+        if (position < tokens.size() && getToken(tokens, position).getTokenType() != SEMICOLON) {
+            tableName = getToken(tokens, position).getValue();
+            position ++;
+        }
+        expectEndOfStatement(tokens, position);
+        return new VacuumStatement(tableName);
+    }
+
+    // SELECT items FROM table [[INNER] JOIN table ON column = column] [WHERE condition] [GROUP BY columns]
+    // [ORDER BY items] [LIMIT count], parsed with the parentheses of the aggregates
     private static SelectStatement parseSelect(List<Token> tokens, int position) {
         SelectStatement statement = new SelectStatement();
         expect("SELECT", tokens, position);
         position ++;
-        List<String> columns = getExpandedValues(tokens, position);
-        statement.setColumns(columns);
-        position ++;
+        List<String> labels = new ArrayList<>();
+        List<Expression> selectList = new ArrayList<>();
+        do {
+            Expression item = parseSelectItem(tokens, position);
+            position += item instanceof AggregateExpression ? 4 : 1;
+            selectList.add(item);
+            labels.add(item instanceof ColumnExpression column ? column.getColumnName() : item.toString());
+            if (position < tokens.size() && getToken(tokens, position).getTokenType() == COMMA) {
+                position ++;
+            }
+            else {
+                break;
+            }
+        } while (true);
+        statement.setColumns(labels);
+        statement.setSelectList(selectList);
         expect("FROM", tokens, position);
         position ++;
         statement.setFrom(getToken(tokens, position).getValue());
         position ++;
+        if (position < tokens.size() && (isKeyword(getToken(tokens, position), "INNER") || isKeyword(getToken(tokens, position), "JOIN"))) {
+            if (isKeyword(getToken(tokens, position), "INNER")) {
+                position ++;
+            }
+            expect("JOIN", tokens, position);
+            position ++;
+            String table = getToken(tokens, position).getValue();
+            position ++;
+            expect("ON", tokens, position);
+            position ++;
+            Token left = getToken(tokens, position);
+            Token operator = getToken(tokens, position + 1);
+            Token right = getToken(tokens, position + 2);
+            if (left.getTokenType() != IDENTIFIER || right.getTokenType() != IDENTIFIER || !operator.getValue().equals("=")) {
+                throw new SyntaxError("Syntax error: JOIN expects ON column = column at position " + position);
+            }
+            statement.setJoin(new JoinClause(table, left.getValue(), right.getValue()));
+            position += 3;
+        }
 
-        // parse where clause
-        if (position < tokens.size()) {
-            if (getToken(tokens, position).getTokenType() == KEYWORD) {
-                if (getToken(tokens, position).getValue().equalsIgnoreCase("WHERE") ) {
-                    statement.setWhere(parseWhere(tokens, position));
+        if (position < tokens.size() && isKeyword(getToken(tokens, position), "WHERE")) {
+            ExpressionParser expressionParser = new ExpressionParser(tokens, position + 1);
+            statement.setWhere(expressionParser.parse());
+            position = expressionParser.getPosition();
+        }
+        if (position < tokens.size() && isKeyword(getToken(tokens, position), "GROUP")) {
+            position ++;
+            expect("BY", tokens, position);
+            position ++;
+            List<String> groupBy = getExpandedValues(tokens, position);
+            statement.setGroupBy(groupBy);
+            position = position + 2 * groupBy.size() - 1;
+        }
+        if (position < tokens.size() && isKeyword(getToken(tokens, position), "ORDER")) {
+            position ++;
+            expect("BY", tokens, position);
+            position ++;
+            List<OrderByItem> orderBy = new ArrayList<>();
+            do {
+                Expression item = parseSelectItem(tokens, position);
+                position += item instanceof AggregateExpression ? 4 : 1;
+                boolean descending = false;
+                if (position < tokens.size() && (isKeyword(getToken(tokens, position), "ASC") || isKeyword(getToken(tokens, position), "DESC"))) {
+                    descending = isKeyword(getToken(tokens, position), "DESC");
+                    position ++;
+                }
+                orderBy.add(new OrderByItem(item, descending));
+                if (position < tokens.size() && getToken(tokens, position).getTokenType() == COMMA) {
+                    position ++;
                 }
                 else {
-                    throw new SyntaxError("Syntax error: Unexpected keyword " + getToken(tokens, position).getValue() + " at position " + position + " after table name");
+                    break;
                 }
+            } while (true);
+            statement.setOrderBy(orderBy);
+        }
+        if (position < tokens.size() && isKeyword(getToken(tokens, position), "LIMIT")) {
+            position ++;
+            Token count = getToken(tokens, position);
+            long limit = -1;
+            if (count.getTokenType() == LITERAL) {
+                try {
+                    limit = Long.parseLong(count.getValue());
+                }
+                catch (NumberFormatException e) {
+                    limit = -1;
+                }
+            }
+            if (limit < 0) {
+                throw new SyntaxError("Syntax error: LIMIT expects a row count, found '" + count.getValue() + "' at position " + position);
+            }
+            statement.setLimit(limit);
+            position ++;
+        }
+        if (position < tokens.size()) {
+            if (getToken(tokens, position).getTokenType() == KEYWORD) {
+                throw new SyntaxError("Syntax error: Unexpected keyword " + getToken(tokens, position).getValue() + " at position " + position);
             }
             else if (getToken(tokens, position).getTokenType() != SEMICOLON) {
                 throw new SyntaxError("Syntax error: Unexpected token at position " + position + " " +
@@ -87,7 +328,33 @@ public final class SQLParser {
         return statement;
     }
 
-    private static InsertStatement parseInsert(List<Token> tokens, int position) {
+    // a column, or an aggregate spanning the four tokens function ( column )
+    private static Expression parseSelectItem(final List<Token> tokens, int position) {
+        Token token = getToken(tokens, position);
+        position ++;
+        if (token.getTokenType() != IDENTIFIER) {
+            throw new SyntaxError("Syntax error: Expected a column or an aggregate, found " + token.getTokenType() + " '" + token.getValue() + "' at position " + (position - 1));
+        }
+        if (position >= tokens.size() || getToken(tokens, position).getTokenType() != LEFT_PARENTHESIS) {
+            return new ColumnExpression().withColumnName(token.getValue());
+        }
+        AggregateFunction function = AggregateFunction.from(token.getValue());
+        if (function == null) {
+            throw new SyntaxError("Unknown function " + token.getValue());
+        }
+        position ++;
+        String columnName = getToken(tokens, position).getValue();
+        position ++;
+        if (getToken(tokens, position).getTokenType() != RIGHT_PARENTHESIS) {
+            throw new SyntaxError("Syntax error: Expected ')' after " + function + "(" + columnName + " at position " + position);
+        }
+        AggregateExpression aggregate = new AggregateExpression();
+        aggregate.setFunction(function);
+        aggregate.setColumnName(columnName);
+        return aggregate;
+    }
+
+    private static InsertStatement parseInsert(final List<Token> tokens, final List<Token> expressionTokens, int position) {
         InsertStatement statement = new InsertStatement();
         expect("INSERT", tokens, position);
         position ++;
@@ -101,11 +368,50 @@ public final class SQLParser {
         position = position + 2 * columns.size() - 1;
 
         expect("VALUES", tokens, position);
-        position ++;
-
-        List<String> values = getExpandedValues(tokens, position);
+        if (columns.isEmpty()) {
+            throw new SyntaxError("Expected the columns to insert into before VALUES");
+        }
 
-        statement.setValues(values);
+        // the tuples are read with their parentheses, every row has to list a value for each column
+        position = 0;
+        while (!isKeyword(getToken(expressionTokens, position), "VALUES")) {
+            position ++;
+        }
+        position ++;
+        List<List<String>> rows = new ArrayList<>();
+        while (true) {
+            if (getToken(expressionTokens, position).getTokenType() != LEFT_PARENTHESIS) {
+                throw new SyntaxError("Syntax error: Expected '(' before the values of row " + (rows.size() + 1) + ", found '" + getToken(expressionTokens, position).getValue() + "'");
+            }
+            position ++;
+            List<String> row = new ArrayList<>(columns.size());
+            while (true) {
+                Token value = getToken(expressionTokens, position);
+                if (value.getTokenType() == COMMA || value.getTokenType() == LEFT_PARENTHESIS || value.getTokenType() == RIGHT_PARENTHESIS) {
+                    throw new SyntaxError("Syntax error: Expected a value in row " + (rows.size() + 1) + ", found '" + value.getValue() + "'");
+                }
+                row.add(value.getValue());
+                position ++;
+                TokenType separator = getToken(expressionTokens, position).getTokenType();
+                position ++;
+                if (separator == RIGHT_PARENTHESIS) {
+                    break;
+                }
+                if (separator != COMMA) {
+                    throw new SyntaxError("Syntax error: Expected ',' or ')' after '" + value.getValue() + "' in row " + (rows.size() + 1));
+                }
+            }
+            if (row.size() != columns.size()) {
+                throw new SyntaxError("Expected " + columns.size() + " values per row but row " + (rows.size() + 1) + " has " + row.size() + " values");
+            }
+            rows.add(row);
+            if (position >= expressionTokens.size() || getToken(expressionTokens, position).getTokenType() != COMMA) {
+                break;
+            }
+            position ++;
+        }
+        expectEndOfStatement(expressionTokens, position);
+        statement.setValues(rows);
         return statement;
     }
 
@@ -134,6 +440,7 @@ public final class SQLParser {
                 createStatement.setTableName(tableName);
                 position ++;
                 List<Column> columns = new ArrayList<>();
+                List<String> primaryKeyColumns = new ArrayList<>();
                 do {
                     if (position < tokens.size() && getToken(tokens, position).getTokenType() == TokenType.COMMA) {
                         position++;
@@ -142,6 +449,15 @@ public final class SQLParser {
                     else if (position < tokens.size() && getToken(tokens, position).getTokenType() == SEMICOLON) {
                         break;
                     }
+                    if (isKeyword(getToken(tokens, position), "PRIMARY")) {
+                        // table level constraint: PRIMARY KEY (column)
+                        position ++;
+                        expect("KEY", tokens, position);
+                        position ++;
+                        primaryKeyColumns.add(getToken(tokens, position).getValue());
+                        position ++;
+                        continue;
+                    }
                     String columnName = getToken(tokens, position).getValue();
                     Column column = new Column();
                     column.setName(columnName);
@@ -150,11 +466,40 @@ public final class SQLParser {
                     position ++;
                     // TODO: remove this default and handle correctly
                     column.setNullable(true);
+                    if (position < tokens.size() && isKeyword(getToken(tokens, position), "PRIMARY")) {
+                        position ++;
+                        expect("KEY", tokens, position);
+                        position ++;
+                        primaryKeyColumns.add(columnName);
+                    }
                     columns.add(column);
                 } while (position < tokens.size());
+                if (primaryKeyColumns.size() > 1) {
+                    throw new SyntaxError("Composite primary keys are not supported, found " + primaryKeyColumns);
+                }
+                for (String primaryKeyColumn : primaryKeyColumns) {
+                    Column column = columns.stream()
+                            .filter(it -> it.getName().equalsIgnoreCase(primaryKeyColumn))
+                            .findFirst()
+                            .orElseThrow(() -> new SyntaxError("Unknown primary key column '" + primaryKeyColumn + "'"));
+                    column.setPrimaryKey(true);
+                    column.setNullable(false);
+                }
                 createStatement.setColumns(columns);
                 return createStatement;
             }
+            case INDEX -> {
+                // CREATE INDEX name ON table (column), parentheses never reach the parser
+                CreateIndexStatement createStatement = new CreateIndexStatement();
+                createStatement.setIndexName(getToken(tokens, position).getValue());
+                position ++;
+                expect("ON", tokens, position);
+                position ++;
+                createStatement.setTableName(getToken(tokens, position).getValue());
+                position ++;
+                createStatement.setColumnName(getToken(tokens, position).getValue());
+                return createStatement;
+            }
         }
         return null;
     }
@@ -169,10 +514,14 @@ public final class SQLParser {
         String resourceName = getToken(tokens, position).getValue();
         position++;
         statement.setResourceName(resourceName);
+        if (resourceType == ResourceType.INDEX && position < tokens.size() && isKeyword(getToken(tokens, position), "ON")) {
+            position ++;
+            statement.setTableName(getToken(tokens, position).getValue());
+        }
         return statement;
     }
 
-    private static UpdateStatement parseUpdate(List<Token> tokens, int position) {
+    private static UpdateStatement parseUpdate(List<Token> tokens, List<Token> expressionTokens, int position) {
         UpdateStatement statement = new UpdateStatement();
         expect("UPDATE", tokens, position);
         position ++;
@@ -181,7 +530,8 @@ public final class SQLParser {
         position ++;
         expect("SET", tokens, position);
         position ++;
-        Map<String, String> updates = new HashMap<>();
+        // in the order of the SET clause, the order its placeholders are bound in
+        Map<String, String> updates = new LinkedHashMap<>();
         do {
             String columnName = getToken(tokens, position).getValue();
             position += 2; // skip '='
@@ -203,7 +553,7 @@ public final class SQLParser {
         if (position < tokens.size()) {
             if (getToken(tokens, position).getTokenType() == KEYWORD) {
                 if (getToken(tokens, position).getValue().equalsIgnoreCase("WHERE") ) {
-                    statement.setCondition(parseWhere(tokens, position));
+                    statement.setCondition(parseWhere(expressionTokens));
                 }
                 else {
                     throw new SyntaxError("Syntax error: Unexpected keyword " + getToken(tokens, position).getValue() + " at position " + position + " after table name");
@@ -227,6 +577,70 @@ public final class SQLParser {
         return statement;
     }
 
+    // COPY table FROM 'file' [DELIMITER 'c'] [HEADER]
+    private static CopyStatement parseCopy(List<Token> tokens, int position) {
+        CopyStatement statement = new CopyStatement();
+        expect("COPY", tokens, position);
+        position ++;
+        statement.setTable(getToken(tokens, position).getValue());
+        position ++;
+        expect("FROM", tokens, position);
+        position ++;
+        statement.setFilePath(unquote(getToken(tokens, position)));
+        position ++;
+        while (position < tokens.size() && getToken(tokens, position).getTokenType() != SEMICOLON) {
+            String option = getToken(tokens, position).getValue();
+            position ++;
+            if (option.equalsIgnoreCase("HEADER")) {
+                statement.setHeader(true);
+            }
+            else if (option.equalsIgnoreCase("DELIMITER")) {
+                String delimiter = unquote(getToken(tokens, position));
+                if (delimiter.length() != 1) {
+                    throw new SyntaxError("DELIMITER must be a single character, found '" + delimiter + "'");
+                }
+                statement.setDelimiter(delimiter.charAt(0));
+                position ++;
+            }
+            else {
+                throw new SyntaxError("Unknown COPY option " + option);
+            }
+        }
+        return statement;
+    }
+
+    // BEGIN [TRANSACTION] or START TRANSACTION
+    private static StartTransactionStatement parseStartTransaction(List<Token> tokens, int position) {
+        if (isKeyword(getToken(tokens, position), "START")) {
+            position ++;
+            expect("TRANSACTION", tokens, position);
+            position ++;
+        }
+        else {
+            expect("BEGIN", tokens, position);
+            position ++;
+            if (position < tokens.size() && isKeyword(getToken(tokens, position), "TRANSACTION")) {
+                position ++;
+            }
+        }
+        expectEndOfStatement(tokens, position);
+        return new StartTransactionStatement();
+    }
+
+    private static void expectEndOfStatement(final List<Token> tokens, final int position) {
+        if (position < tokens.size() && getToken(tokens, position).getTokenType() != SEMICOLON) {
+            throw new SyntaxError("Syntax error: Unexpected token '" + getToken(tokens, position).getValue() + "' at position " + position);
+        }
+    }
+
+    private static String unquote(final Token token) {
+        String value = token.getValue();
+        if (token.getTokenType() != LITERAL || value.length() < 2 || !value.startsWith("'") || !value.endsWith("'")) {
+            throw new SyntaxError("Expected a quoted string, found " + value);
+        }
+        return value.substring(1, value.length() - 1);
+    }
+
     private static ShowStatement parseShowStatement(List<Token> tokens, int position) {
         expect("SHOW", tokens, position);
         position ++;
@@ -241,18 +655,20 @@ public final class SQLParser {
         return showStatement;
     }
 
-    private static BinaryExpression parseWhere(List<Token> tokens, int position) {
-        // as of now only parsing a single binary expression
-        BinaryExpression binaryExpression = new BinaryExpression();
-        position ++;
-        binaryExpression.setLeftSide(new StaticValueExpression().withValue(getToken(tokens, position).getValue()));
-        position ++;
-        binaryExpression.setOperation(Operation.from(getToken(tokens, position).getValue()));
-        position ++;
+    // WHERE is the last clause, the condition runs up to the end of the statement
+    private static BinaryExpression parseWhere(List<Token> expressionTokens) {
+        int position = 0;
+        while (!isKeyword(getToken(expressionTokens, position), "WHERE")) {
+            position ++;
+        }
+        ExpressionParser expressionParser = new ExpressionParser(expressionTokens, position + 1);
+        BinaryExpression condition = expressionParser.parse();
+        expectEndOfStatement(expressionTokens, expressionParser.getPosition());
+        return condition;
+    }
 
-        binaryExpression.setRightSide(new StaticValueExpression().withValue(getToken(tokens, position).getValue()));
-        position ++;
-        return binaryExpression;
+    private static boolean isKeyword(final Token token, final String keywordValue) {
+        return token.getTokenType() == KEYWORD && token.getValue().equalsIgnoreCase(keywordValue);
     }
 
     private static void expect(final String keywordValue, List<Token> tokens, int position) {
@@ -0,0 +1,399 @@
+package org.woofdb.core.session;
+
+import org.woofdb.core.exceptions.InvalidTransactionStateException;
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.execution.ParallelScan;
+import org.woofdb.core.execution.QueryCompiler;
+import org.woofdb.core.execution.ResultCursor;
+import org.woofdb.core.execution.SelectExecutor;
+import org.woofdb.core.loader.CsvLoader;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.Expression;
+import org.woofdb.core.models.expression.StaticValueExpression;
+import org.woofdb.core.models.statements.AnalyzeStatement;
+import org.woofdb.core.models.statements.CopyStatement;
+import org.woofdb.core.models.statements.CreateIndexStatement;
+import org.woofdb.core.models.statements.CreateTableStatement;
+import org.woofdb.core.models.statements.DeallocateStatement;
+import org.woofdb.core.models.statements.DeleteStatement;
+import org.woofdb.core.models.statements.DropStatement;
+import org.woofdb.core.models.statements.ExecuteStatement;
+import org.woofdb.core.models.statements.ExplainStatement;
+import org.woofdb.core.models.statements.InsertStatement;
+import org.woofdb.core.models.statements.PrepareStatement;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.models.statements.Statement;
+import org.woofdb.core.models.statements.UpdateStatement;
+import org.woofdb.core.models.statements.VacuumStatement;
+import org.woofdb.core.parser.ParameterizedStatement;
+import org.woofdb.core.storage.TableStatistics;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs statements against an open database for the REPL and the JDBC driver, inside the transaction opened with
+ * {@link #begin()} or else each in a statement transaction of its own, committed once the statement is done. A query
+ * is done when its cursor is exhausted or closed, its transaction stays open while the rows are read.
+ * <p>
+ * A statement that fails rolls back its own transaction and the one opened with begin(), there are no savepoints.
+ * Sessions are not thread safe, closing one leaves the database open.
+ * <p>
+ * Statements prepared with PREPARE live as long as the session. A prepared SELECT keeps its plan and runs it again
+ * while the values bound to it, the settings of the session and the indexes and statistics of its tables stay the
+ * same; the access path depends on the values, so other values are planned again.
+ */
+public final class Session implements Closeable {
+    private static final PrintStream NO_OUTPUT = new PrintStream(OutputStream.nullOutputStream());
+
+    private final Database database;
+    private Transaction currentTransaction;
+    // the statement transactions not done yet, queries keep theirs until the cursor is closed
+    private final List<Transaction> statementTransactions = new ArrayList<>();
+    private QueryCompiler queryCompiler;
+    private ParallelScan parallelScan;
+    private final Map<String, ParameterizedStatement> preparedStatements = new HashMap<>();
+    // the plans of prepared SELECTs by identity, until the statement is released
+    private final Map<Statement, CachedPlan> plans = new IdentityHashMap<>();
+    // with deferred syncs a commit only logs its changes, the caller syncs up to this position after releasing its lock
+    private boolean deferSync;
+    private long syncPosition;
+
+    public Session(final Database database) {
+        this.database = database;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public void setQueryCompiler(final QueryCompiler queryCompiler) {
+        this.queryCompiler = queryCompiler;
+    }
+
+    public void setDeferSync(final boolean deferSync) {
+        this.deferSync = deferSync;
+    }
+
+    // the log position the commits since the last call have to reach to be durable, 0 when there is nothing to sync
+    public long takeSyncPosition() {
+        long position = syncPosition;
+        syncPosition = 0;
+        return position;
+    }
+
+    public void setParallelScan(final ParallelScan parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    public boolean inTransaction() {
+        return currentTransaction != null;
+    }
+
+    public void begin() throws IOException {
+        if (currentTransaction != null) {
+            throw new InvalidTransactionStateException("A transaction is already in progress.");
+        }
+        currentTransaction = database.begin();
+    }
+
+    public void commit() throws IOException {
+        Transaction transaction = transaction();
+        currentTransaction = null;
+        try {
+            commit(transaction);
+        }
+        catch (RuntimeException | IOException e) {
+            if (transaction.getState() == Transaction.State.ACTIVE) {
+                database.rollback(transaction);
+            }
+            throw e;
+        }
+    }
+
+    public void rollback() {
+        Transaction transaction = transaction();
+        currentTransaction = null;
+        database.rollback(transaction);
+    }
+
+    private Transaction transaction() {
+        if (currentTransaction == null) {
+            throw new InvalidTransactionStateException("No transaction in progress.");
+        }
+        return currentTransaction;
+    }
+
+    // returns the number of rows inserted
+    public long insert(final InsertStatement statement) throws IOException {
+        Table table = table(statement.getTable());
+        List<Row> rows = new ArrayList<>(statement.getValues().size());
+        for (List<String> values : statement.getValues()) {
+            rows.add(table.toRow(values.toArray()));
+        }
+        return run(transaction -> {
+            table.addRows(rows, transaction);
+            return (long) rows.size();
+        });
+    }
+
+    // returns the number of rows updated
+    public long update(final UpdateStatement statement) throws IOException {
+        Table table = table(statement.getTableName());
+        BinaryExpression where = (BinaryExpression) statement.getCondition();
+        return run(transaction -> table.update(statement.getUpdates(), where, transaction));
+    }
+
+    // returns the number of rows deleted
+    public long delete(final DeleteStatement statement) throws IOException {
+        Table table = table(statement.getTableName());
+        return run(transaction -> table.delete(statement.getCondition(), transaction));
+    }
+
+    // returns the number of row versions removed, from the table or from every table
+    public long vacuum(final VacuumStatement statement) throws IOException {
+        List<String> tableNames = statement.getTableName() == null
+                ? database.getTableNames()
+                : List.of(table(statement.getTableName()).getTableName());
+        return run(transaction -> {
+            long removed = 0;
+            for (String tableName : tableNames) {
+                removed += table(tableName).vacuum(transaction);
+            }
+            database.flush();
+            return removed;
+        });
+    }
+
+    // returns the number of rows copied
+    public long copy(final CopyStatement statement) throws IOException {
+        Table table = table(statement.getTable());
+        CsvLoader loader = new CsvLoader(table, statement.getDelimiter(), statement.hasHeader());
+        return run(transaction -> loader.load(Path.of(statement.getFilePath()), transaction));
+    }
+
+    // the statement ends when the cursor is exhausted or closed, the caller closes it
+    public ResultCursor query(final SelectStatement statement) throws IOException {
+        Table table = table(statement.getFrom());
+        Table joined = statement.getJoin() == null ? null : table(statement.getJoin().getTable());
+        SelectExecutor.PlannedQuery query = statement.isPrepared() ? cachedPlan(statement, table, joined)
+                : executor(NO_OUTPUT).prepare(table, joined, statement);
+        Transaction transaction = beginStatement();
+        try {
+            return query.open(transaction, () -> endStatement(transaction));
+        }
+        catch (RuntimeException | IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    public void explain(final ExplainStatement statement, final PrintStream out) throws IOException {
+        SelectStatement select = statement.getSelect();
+        Table table = table(select.getFrom());
+        Table joined = select.getJoin() == null ? null : table(select.getJoin().getTable());
+        run(transaction -> executor(out).explain(table, joined, select, transaction, statement.isAnalyze()));
+    }
+
+    public TableStatistics analyze(final AnalyzeStatement statement) throws IOException {
+        Table table = table(statement.getTableName());
+        return run(table::analyze);
+    }
+
+    public void createTable(final CreateTableStatement statement) throws IOException {
+        run(transaction -> {
+            database.createTable(statement.getTableName(), statement.getColumns());
+            database.flush();
+            return null;
+        });
+    }
+
+    public void createIndex(final CreateIndexStatement statement) throws IOException {
+        table(statement.getTableName());
+        run(transaction -> {
+            database.createIndex(statement.getIndexName(), statement.getTableName(), statement.getColumnName());
+            database.flush();
+            return null;
+        });
+    }
+
+    public void dropTable(final DropStatement statement) throws IOException {
+        table(statement.getResourceName());
+        run(transaction -> {
+            database.dropTable(statement.getResourceName());
+            return null;
+        });
+    }
+
+    public void dropIndex(final DropStatement statement) throws IOException {
+        Table table = statement.getTableName() != null
+                ? database.getTable(statement.getTableName())
+                : database.findTableWithIndex(statement.getResourceName());
+        if (table == null || !table.hasIndex(statement.getResourceName())) {
+            throw new SyntaxError("Unknown index '" + statement.getResourceName() + "'");
+        }
+        run(transaction -> {
+            table.dropIndex(statement.getResourceName());
+            database.flush();
+            return null;
+        });
+    }
+
+    // PREPARE, the statement runs with EXECUTE until DEALLOCATE
+    public void prepare(final PrepareStatement statement) {
+        if (preparedStatements.containsKey(statement.getName())) {
+            throw new SyntaxError("Prepared statement '" + statement.getName() + "' already exists");
+        }
+        preparedStatements.put(statement.getName(), new ParameterizedStatement(statement.getStatement()));
+    }
+
+    // EXECUTE, returns the prepared statement with the values bound for the caller to run
+    public Statement bind(final ExecuteStatement statement) {
+        ParameterizedStatement prepared = prepared(statement.getName());
+        List<String> parameters = statement.getParameters();
+        if (parameters.size() != prepared.getParameterCount()) {
+            throw new SyntaxError("Prepared statement '" + statement.getName() + "' takes " + prepared.getParameterCount()
+                    + " parameters, got " + parameters.size());
+        }
+        for (int i = 0; i < parameters.size(); i ++) {
+            prepared.bind(i, parameters.get(i));
+        }
+        return prepared.getStatement();
+    }
+
+    public void deallocate(final DeallocateStatement statement) {
+        release(prepared(statement.getName()));
+        preparedStatements.remove(statement.getName());
+    }
+
+    // forgets the plan kept for a prepared statement that will not run again
+    public void release(final ParameterizedStatement statement) {
+        plans.remove(statement.getParsedStatement());
+    }
+
+    private ParameterizedStatement prepared(final String name) {
+        ParameterizedStatement prepared = preparedStatements.get(name);
+        if (prepared == null) {
+            throw new SyntaxError("Unknown prepared statement '" + name + "'");
+        }
+        return prepared;
+    }
+
+    // the plan made for the statement before, unless anything it was made with changed since
+    private SelectExecutor.PlannedQuery cachedPlan(final SelectStatement statement, final Table table, final Table joined) {
+        List<Object> values = new ArrayList<>();
+        addValues(statement.getWhere(), values);
+        long joinedVersion = joined == null ? 0 : joined.getCatalogVersion();
+        CachedPlan cached = plans.get(statement);
+        if (cached != null && cached.table() == table && cached.joined() == joined && cached.tableVersion() == table.getCatalogVersion()
+                && cached.joinedVersion() == joinedVersion && cached.queryCompiler() == queryCompiler
+                && cached.parallelScan() == parallelScan && cached.values().equals(values)) {
+            return cached.query();
+        }
+        SelectExecutor.PlannedQuery query = executor(NO_OUTPUT).prepare(table, joined, statement);
+        plans.put(statement, new CachedPlan(query, table, table.getCatalogVersion(), joined, joinedVersion, queryCompiler, parallelScan, values));
+        return query;
+    }
+
+    private static void addValues(final Expression expression, final List<Object> values) {
+        if (expression instanceof BinaryExpression binary) {
+            addValues(binary.getLeftSide(), values);
+            addValues(binary.getRightSide(), values);
+        }
+        else if (expression instanceof StaticValueExpression value) {
+            values.add(value.getValue());
+        }
+    }
+
+    private record CachedPlan(SelectExecutor.PlannedQuery query, Table table, long tableVersion, Table joined, long joinedVersion,
+                              QueryCompiler queryCompiler, ParallelScan parallelScan, List<Object> values) {
+    }
+
+    private Table table(final String tableName) {
+        Table table = database.getTable(tableName);
+        if (table == null) {
+            throw new SyntaxError("Unknown table '" + tableName + "'");
+        }
+        return table;
+    }
+
+    private SelectExecutor executor(final PrintStream out) {
+        return new SelectExecutor(out, queryCompiler, parallelScan);
+    }
+
+    private <T> T run(final Work<T> work) throws IOException {
+        Transaction transaction = beginStatement();
+        try {
+            T result = work.run(transaction);
+            endStatement(transaction);
+            return result;
+        }
+        catch (RuntimeException | IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Work<T> {
+        T run(Transaction transaction) throws IOException;
+    }
+
+    private Transaction beginStatement() throws IOException {
+        if (currentTransaction != null) {
+            return currentTransaction;
+        }
+        Transaction transaction = database.begin();
+        statementTransactions.add(transaction);
+        return transaction;
+    }
+
+    // commits a statement transaction, changes made inside begin() wait for commit()
+    private void endStatement(final Transaction transaction) throws IOException {
+        if (statementTransactions.remove(transaction)) {
+            commit(transaction);
+        }
+    }
+
+    private void commit(final Transaction transaction) throws IOException {
+        if (deferSync) {
+            syncPosition = Math.max(syncPosition, database.commitUnsynced(transaction));
+        }
+        else {
+            database.commit(transaction);
+        }
+    }
+
+    // rolls back every transaction of the session after a failure, also one while reading the rows of a cursor
+    public void abort() {
+        for (Transaction transaction : statementTransactions) {
+            if (transaction.getState() == Transaction.State.ACTIVE) {
+                database.rollback(transaction);
+            }
+        }
+        statementTransactions.clear();
+        if (currentTransaction != null) {
+            if (currentTransaction.getState() == Transaction.State.ACTIVE) {
+                database.rollback(currentTransaction);
+            }
+            currentTransaction = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        abort();
+    }
+}
@@ -0,0 +1,740 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.models.DataType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Disk resident B+Tree stored in the pages of a {@link PageFile}. Leaves hold (key, value) entries and are
+ * linked in both directions for range scans. Trees that allow duplicate keys order equal keys by their value bytes,
+ * so every entry is still unique and can be located for deletion.
+ * <p>
+ * The meta page records the key type, the uniqueness flag, the current root and the head of the free page list:
+ * <pre>
+ * | type (1) | unique (1) | reserved (2) | key type (4) | root page (4) | free list head (4) |
+ * </pre>
+ * Users of the tree can keep data too large for an entry in linked overflow pages taken from the same free list:
+ * <pre>
+ * | type (1) | reserved (3) | next page (4) | length (4) | data ... |
+ * </pre>
+ */
+public class BPlusTree {
+    public static final int MAX_ENTRY_SIZE = Page.PAGE_SIZE / 4 - 16;
+
+    private static final byte TYPE_META = 4;
+    private static final int OVERFLOW_HEADER_SIZE = 12;
+    private static final byte[] NO_TIE_BREAKER = new byte[0];
+
+    private final PageFile pageFile;
+    private final BufferPool bufferPool;
+    private final int metaPage;
+    private final DataType keyType;
+    private final boolean unique;
+    private int rootPage;
+    private int freeListHead;
+
+    private BPlusTree(final PageFile pageFile, final BufferPool bufferPool, final int metaPage, final DataType keyType,
+                      final boolean unique, final int rootPage, final int freeListHead) {
+        this.pageFile = pageFile;
+        this.bufferPool = bufferPool;
+        this.metaPage = metaPage;
+        this.keyType = keyType;
+        this.unique = unique;
+        this.rootPage = rootPage;
+        this.freeListHead = freeListHead;
+    }
+
+    public static BPlusTree create(final PageFile pageFile, final BufferPool bufferPool, final DataType keyType, final boolean unique) throws IOException {
+        Page meta = bufferPool.newPage(pageFile);
+        bufferPool.unpinPage(meta, true);
+        BPlusTree tree = new BPlusTree(pageFile, bufferPool, meta.getPageNumber(), keyType, unique, BTreeNode.NO_PAGE, BTreeNode.NO_PAGE);
+        BTreeNode root = tree.allocate(true);
+        tree.write(root);
+        tree.rootPage = root.pageNumber;
+        tree.writeMeta();
+        return tree;
+    }
+
+    public static BPlusTree open(final PageFile pageFile, final BufferPool bufferPool, final int metaPage) throws IOException {
+        Page meta = bufferPool.fetchPage(pageFile, metaPage);
+        try {
+            ByteBuffer data = meta.getData();
+            if (data.get(0) != TYPE_META) {
+                throw new IOException("Page " + metaPage + " of " + pageFile.getPath() + " is not a B+Tree meta page");
+            }
+            return new BPlusTree(pageFile, bufferPool, metaPage, DataType.values()[data.getInt(4)], data.get(1) != 0,
+                    data.getInt(8), data.getInt(12));
+        }
+        finally {
+            bufferPool.unpinPage(meta, false);
+        }
+    }
+
+    public int getMetaPage() {
+        return metaPage;
+    }
+
+    public DataType getKeyType() {
+        return keyType;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    public synchronized byte[] get(final Object key) throws IOException {
+        BTreeNode leaf = findLeaf(key, NO_TIE_BREAKER);
+        int position = lowerBound(leaf, key, NO_TIE_BREAKER);
+        if (position < leaf.size() && compareKeys(leaf.keys.get(position), key) == 0) {
+            return leaf.values.get(position);
+        }
+        return null;
+    }
+
+    // for trees with duplicate keys the value is part of the entry looked up
+    public synchronized boolean contains(final Object key, final byte[] value) throws IOException {
+        byte[] tieBreaker = unique ? NO_TIE_BREAKER : value;
+        BTreeNode leaf = findLeaf(key, tieBreaker);
+        int position = lowerBound(leaf, key, tieBreaker);
+        return position < leaf.size() && compare(leaf.keys.get(position), leaf.values.get(position), key, tieBreaker) == 0;
+    }
+
+    public synchronized void insert(final Object key, final byte[] value) throws IOException {
+        if (BTreeNode.entrySize(keyType, key, value) > MAX_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Entry of " + BTreeNode.entrySize(keyType, key, value) + " bytes exceeds the B+Tree limit of " + MAX_ENTRY_SIZE + " bytes");
+        }
+        Split split = insert(rootPage, key, value);
+        if (split != null) {
+            BTreeNode newRoot = allocate(false);
+            newRoot.children.add(rootPage);
+            newRoot.keys.add(split.key());
+            newRoot.values.add(split.tieBreaker());
+            newRoot.children.add(split.rightPage());
+            write(newRoot);
+            rootPage = newRoot.pageNumber;
+            writeMeta();
+        }
+    }
+
+    // bulk load path for entries sorted by key, every leaf is decoded and written once for all the entries that
+    // route to it instead of once per entry
+    public synchronized void insertAll(final List<Entry> sortedEntries) throws IOException {
+        for (Entry entry : sortedEntries) {
+            if (BTreeNode.entrySize(keyType, entry.key(), entry.value()) > MAX_ENTRY_SIZE) {
+                throw new IllegalArgumentException("Entry of " + BTreeNode.entrySize(keyType, entry.key(), entry.value()) + " bytes exceeds the B+Tree limit of " + MAX_ENTRY_SIZE + " bytes");
+            }
+        }
+        int next = 0;
+        while (next < sortedEntries.size()) {
+            int filled = fillLeaf(sortedEntries, next);
+            next += filled;
+            if (filled == 0) {
+                // the leaf is full, the regular path splits it and the following entries fill the new halves
+                Entry entry = sortedEntries.get(next ++);
+                insert(entry.key(), entry.value());
+            }
+        }
+    }
+
+    // returns the first of the sorted keys that is already in the tree, or null when none of them is
+    public synchronized Object findAny(final List<Object> sortedKeys) throws IOException {
+        int next = 0;
+        while (next < sortedKeys.size()) {
+            LeafRange range = findLeafRange(sortedKeys.get(next), NO_TIE_BREAKER);
+            BTreeNode leaf = range.leaf();
+            while (next < sortedKeys.size() && routesTo(range, sortedKeys.get(next), NO_TIE_BREAKER)) {
+                Object key = sortedKeys.get(next ++);
+                int position = lowerBound(leaf, key, NO_TIE_BREAKER);
+                if (position < leaf.size() && compareKeys(leaf.keys.get(position), key) == 0) {
+                    return key;
+                }
+            }
+        }
+        return null;
+    }
+
+    // overwrites the value stored for a key of a unique tree, returns false when the key is absent
+    // checks the size first, the fallback below removes the entry before inserting it again
+    public synchronized boolean replace(final Object key, final byte[] value) throws IOException {
+        if (!unique) {
+            throw new UnsupportedOperationException("Values of a tree with duplicate keys are part of the entry identity");
+        }
+        if (BTreeNode.entrySize(keyType, key, value) > MAX_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Entry of " + BTreeNode.entrySize(keyType, key, value) + " bytes exceeds the B+Tree limit of " + MAX_ENTRY_SIZE + " bytes");
+        }
+        BTreeNode leaf = findLeaf(key, NO_TIE_BREAKER);
+        int position = lowerBound(leaf, key, NO_TIE_BREAKER);
+        if (position >= leaf.size() || compareKeys(leaf.keys.get(position), key) != 0) {
+            return false;
+        }
+        byte[] previous = leaf.values.set(position, value);
+        if (leaf.encodedSize(keyType) <= Page.PAGE_SIZE) {
+            write(leaf);
+            return true;
+        }
+        leaf.values.set(position, previous);
+        delete(key, previous);
+        insert(key, value);
+        return true;
+    }
+
+    // for trees with duplicate keys the value identifies which of the equal keys is removed
+    public synchronized boolean delete(final Object key, final byte[] value) throws IOException {
+        BTreeNode root = read(rootPage);
+        boolean found = delete(root, key, unique ? NO_TIE_BREAKER : value);
+        if (found && !root.leaf && root.size() == 0) {
+            rootPage = root.children.getFirst();
+            free(root.pageNumber);
+            writeMeta();
+        }
+        return found;
+    }
+
+    // the largest value an entry with this key can hold
+    public int maxValueSize(final Object key) {
+        return MAX_ENTRY_SIZE - BTreeNode.entrySize(keyType, key, NO_TIE_BREAKER);
+    }
+
+    // returns the first of the overflow pages the data is written to
+    public synchronized int writeOverflow(final byte[] data) throws IOException {
+        int capacity = Page.PAGE_SIZE - OVERFLOW_HEADER_SIZE;
+        int next = BTreeNode.NO_PAGE;
+        // written back to front so every page knows the one after it
+        for (int start = (data.length - 1) / capacity * capacity; start >= 0; start -= capacity) {
+            int pageNumber = allocate(true).pageNumber;
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            try {
+                ByteBuffer buffer = page.getData();
+                int length = Math.min(capacity, data.length - start);
+                buffer.put(0, BTreeNode.TYPE_OVERFLOW);
+                buffer.putInt(4, next);
+                buffer.putInt(8, length);
+                buffer.put(OVERFLOW_HEADER_SIZE, data, start, length);
+            }
+            finally {
+                bufferPool.unpinPage(page, true);
+            }
+            next = pageNumber;
+        }
+        return next;
+    }
+
+    public synchronized byte[] readOverflow(final int firstPage) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int pageNumber = firstPage; pageNumber != BTreeNode.NO_PAGE; ) {
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            try {
+                ByteBuffer buffer = page.getData();
+                if (buffer.get(0) != BTreeNode.TYPE_OVERFLOW) {
+                    throw new IllegalStateException("Page " + pageNumber + " is not an overflow page");
+                }
+                byte[] part = new byte[buffer.getInt(8)];
+                buffer.get(OVERFLOW_HEADER_SIZE, part);
+                data.write(part);
+                pageNumber = buffer.getInt(4);
+            }
+            finally {
+                bufferPool.unpinPage(page, false);
+            }
+        }
+        return data.toByteArray();
+    }
+
+    public synchronized void freeOverflow(final int firstPage) throws IOException {
+        for (int pageNumber = firstPage; pageNumber != BTreeNode.NO_PAGE; ) {
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            int next;
+            try {
+                next = page.getData().getInt(4);
+            }
+            finally {
+                bufferPool.unpinPage(page, false);
+            }
+            free(pageNumber);
+            pageNumber = next;
+        }
+    }
+
+    public Iterator<Entry> scan() {
+        return scan(null, true, null, true);
+    }
+
+    // null bounds are open ended
+    public synchronized Iterator<Entry> scan(final Object low, final boolean lowInclusive, final Object high, final boolean highInclusive) {
+        try {
+            BTreeNode leaf = low == null ? leftmostLeaf() : findLeaf(low, NO_TIE_BREAKER);
+            int position = low == null ? 0 : lowerBound(leaf, low, NO_TIE_BREAKER);
+            return new RangeIterator(leaf, position, low, lowInclusive, high, highInclusive);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // up to parts - 1 ascending keys splitting a unique tree into key ranges of similar size, taken from the highest
+    // inner level holding enough separators, leaves are never read
+    public synchronized List<Object> splitKeys(final int parts) throws IOException {
+        List<BTreeNode> level = List.of(read(rootPage));
+        List<Object> separators = new ArrayList<>();
+        while (!level.getFirst().leaf) {
+            separators.clear();
+            for (BTreeNode node : level) {
+                separators.addAll(node.keys);
+            }
+            if (separators.size() + 1 >= parts || read(level.getFirst().children.getFirst()).leaf) {
+                break;
+            }
+            List<BTreeNode> next = new ArrayList<>();
+            for (BTreeNode node : level) {
+                for (int child : node.children) {
+                    next.add(read(child));
+                }
+            }
+            level = next;
+        }
+        if (separators.size() + 1 <= parts) {
+            return separators;
+        }
+        List<Object> keys = new ArrayList<>(parts - 1);
+        for (int i = 1; i < parts; i ++) {
+            keys.add(separators.get((int) ((long) i * separators.size() / parts)));
+        }
+        return keys;
+    }
+
+    private Split insert(final int pageNumber, final Object key, final byte[] value) throws IOException {
+        BTreeNode node = read(pageNumber);
+        if (node.leaf) {
+            int position = lowerBound(node, key, value);
+            if (unique && position < node.size() && compareKeys(node.keys.get(position), key) == 0) {
+                throw new ConstraintViolationException("Duplicate entry '" + key + "' for a unique key");
+            }
+            node.keys.add(position, key);
+            node.values.add(position, value);
+        }
+        else {
+            int childIndex = childIndex(node, key, value);
+            Split split = insert(node.children.get(childIndex), key, value);
+            if (split == null) {
+                return null;
+            }
+            node.keys.add(childIndex, split.key());
+            node.values.add(childIndex, split.tieBreaker());
+            node.children.add(childIndex + 1, split.rightPage());
+        }
+        if (node.encodedSize(keyType) <= Page.PAGE_SIZE) {
+            write(node);
+            return null;
+        }
+        return split(node);
+    }
+
+    private Split split(final BTreeNode node) throws IOException {
+        int total = node.encodedSize(keyType);
+        int accumulated = 0;
+        int middle = 0;
+        while (middle < node.size() - 1 && accumulated < total / 2) {
+            accumulated += BTreeNode.entrySize(keyType, node.keys.get(middle), node.values.get(middle)) + 4;
+            middle ++;
+        }
+        // internal nodes give their middle separator to the parent, so the right half needs at least one key left
+        middle = Math.max(node.leaf ? middle : Math.min(middle, node.size() - 2), 1);
+        BTreeNode right = allocate(node.leaf);
+        Split split;
+        if (node.leaf) {
+            moveTail(node, right, middle);
+            split = new Split(right.keys.getFirst(), unique ? NO_TIE_BREAKER : right.values.getFirst(), right.pageNumber);
+            right.next = node.next;
+            right.previous = node.pageNumber;
+            if (node.next != BTreeNode.NO_PAGE) {
+                BTreeNode next = read(node.next);
+                next.previous = right.pageNumber;
+                write(next);
+            }
+            node.next = right.pageNumber;
+        }
+        else {
+            // the middle separator moves up into the parent instead of staying in either half
+            split = new Split(node.keys.get(middle), node.values.get(middle), right.pageNumber);
+            moveTail(node, right, middle + 1);
+            node.keys.removeLast();
+            node.values.removeLast();
+            right.children.addAll(node.children.subList(middle + 1, node.children.size()));
+            node.children.subList(middle + 1, node.children.size()).clear();
+        }
+        write(node);
+        write(right);
+        return split;
+    }
+
+    private boolean delete(final BTreeNode node, final Object key, final byte[] tieBreaker) throws IOException {
+        if (node.leaf) {
+            int position = lowerBound(node, key, tieBreaker);
+            if (position >= node.size() || compare(node.keys.get(position), node.values.get(position), key, tieBreaker) != 0) {
+                return false;
+            }
+            node.keys.remove(position);
+            node.values.remove(position);
+            write(node);
+            return true;
+        }
+        int childIndex = childIndex(node, key, tieBreaker);
+        BTreeNode child = read(node.children.get(childIndex));
+        if (!delete(child, key, tieBreaker)) {
+            return false;
+        }
+        if (isUnderflow(child)) {
+            rebalance(node, childIndex, child);
+            write(node);
+        }
+        return true;
+    }
+
+    private boolean isUnderflow(final BTreeNode node) {
+        return node.size() == 0 || node.encodedSize(keyType) < Page.PAGE_SIZE / 4;
+    }
+
+    private void rebalance(final BTreeNode parent, final int childIndex, final BTreeNode child) throws IOException {
+        int separator = childIndex > 0 ? childIndex - 1 : childIndex;
+        BTreeNode left = childIndex > 0 ? read(parent.children.get(separator)) : child;
+        BTreeNode right = childIndex > 0 ? child : read(parent.children.get(separator + 1));
+        Object separatorKey = parent.keys.get(separator);
+        byte[] separatorValue = parent.values.get(separator);
+
+        int mergedSize = left.encodedSize(keyType) + right.encodedSize(keyType);
+        if (!left.leaf) {
+            mergedSize += BTreeNode.entrySize(keyType, separatorKey, separatorValue);
+        }
+        if (mergedSize <= Page.PAGE_SIZE) {
+            if (!left.leaf) {
+                left.keys.add(separatorKey);
+                left.values.add(separatorValue);
+                left.children.addAll(right.children);
+            }
+            left.keys.addAll(right.keys);
+            left.values.addAll(right.values);
+            if (left.leaf) {
+                left.next = right.next;
+                if (right.next != BTreeNode.NO_PAGE) {
+                    BTreeNode next = read(right.next);
+                    next.previous = left.pageNumber;
+                    write(next);
+                }
+            }
+            parent.keys.remove(separator);
+            parent.values.remove(separator);
+            parent.children.remove(separator + 1);
+            write(left);
+            free(right.pageNumber);
+            return;
+        }
+
+        // siblings are too big to merge, move entries from the fuller one until both are roughly even
+        boolean fromRight = right.encodedSize(keyType) > left.encodedSize(keyType);
+        while (Math.abs(right.encodedSize(keyType) - left.encodedSize(keyType)) > MAX_ENTRY_SIZE
+                && (fromRight ? right.size() : left.size()) > 1) {
+            if (left.leaf) {
+                if (fromRight) {
+                    left.keys.add(right.keys.removeFirst());
+                    left.values.add(right.values.removeFirst());
+                }
+                else {
+                    right.keys.addFirst(left.keys.removeLast());
+                    right.values.addFirst(left.values.removeLast());
+                }
+            }
+            else if (fromRight) {
+                left.keys.add(separatorKey);
+                left.values.add(separatorValue);
+                left.children.add(right.children.removeFirst());
+                separatorKey = right.keys.removeFirst();
+                separatorValue = right.values.removeFirst();
+            }
+            else {
+                right.keys.addFirst(separatorKey);
+                right.values.addFirst(separatorValue);
+                right.children.addFirst(left.children.removeLast());
+                separatorKey = left.keys.removeLast();
+                separatorValue = left.values.removeLast();
+            }
+            if (fromRight != right.encodedSize(keyType) > left.encodedSize(keyType)) {
+                break;
+            }
+        }
+        if (left.leaf) {
+            separatorKey = right.keys.getFirst();
+            separatorValue = unique ? NO_TIE_BREAKER : right.values.getFirst();
+        }
+        parent.keys.set(separator, separatorKey);
+        parent.values.set(separator, separatorValue);
+        write(left);
+        write(right);
+    }
+
+    private static void moveTail(final BTreeNode from, final BTreeNode to, final int start) {
+        to.keys.addAll(from.keys.subList(start, from.size()));
+        to.values.addAll(from.values.subList(start, from.size()));
+        from.keys.subList(start, from.size()).clear();
+        from.values.subList(start, from.size()).clear();
+    }
+
+    private BTreeNode findLeaf(final Object key, final byte[] tieBreaker) throws IOException {
+        BTreeNode node = read(rootPage);
+        while (!node.leaf) {
+            node = read(node.children.get(childIndex(node, key, tieBreaker)));
+        }
+        return node;
+    }
+
+    // adds the entries starting at the given one that belong to the same leaf while they fit, returns how many were added
+    private int fillLeaf(final List<Entry> sortedEntries, final int start) throws IOException {
+        Entry first = sortedEntries.get(start);
+        LeafRange range = findLeafRange(first.key(), unique ? NO_TIE_BREAKER : first.value());
+        BTreeNode leaf = range.leaf();
+        int size = leaf.encodedSize(keyType);
+        int next = start;
+        while (next < sortedEntries.size()) {
+            Entry entry = sortedEntries.get(next);
+            byte[] tieBreaker = unique ? NO_TIE_BREAKER : entry.value();
+            int entrySize = BTreeNode.entrySize(keyType, entry.key(), entry.value());
+            if (!routesTo(range, entry.key(), tieBreaker) || size + entrySize > Page.PAGE_SIZE) {
+                break;
+            }
+            int position = lowerBound(leaf, entry.key(), entry.value());
+            if (unique && position < leaf.size() && compareKeys(leaf.keys.get(position), entry.key()) == 0) {
+                throw new ConstraintViolationException("Duplicate entry '" + entry.key() + "' for a unique key");
+            }
+            leaf.keys.add(position, entry.key());
+            leaf.values.add(position, entry.value());
+            size += entrySize;
+            next ++;
+        }
+        if (next > start) {
+            write(leaf);
+        }
+        return next - start;
+    }
+
+    // the leaf for the key together with the smallest separator above it, entries below that separator route to the leaf
+    private LeafRange findLeafRange(final Object key, final byte[] tieBreaker) throws IOException {
+        BTreeNode node = read(rootPage);
+        Object highKey = null;
+        byte[] highTieBreaker = null;
+        while (!node.leaf) {
+            int childIndex = childIndex(node, key, tieBreaker);
+            if (childIndex < node.size()) {
+                highKey = node.keys.get(childIndex);
+                highTieBreaker = node.values.get(childIndex);
+            }
+            node = read(node.children.get(childIndex));
+        }
+        return new LeafRange(node, highKey, highTieBreaker);
+    }
+
+    private boolean routesTo(final LeafRange range, final Object key, final byte[] tieBreaker) {
+        return range.highKey() == null || compare(key, tieBreaker, range.highKey(), range.highTieBreaker()) < 0;
+    }
+
+    private BTreeNode leftmostLeaf() throws IOException {
+        BTreeNode node = read(rootPage);
+        while (!node.leaf) {
+            node = read(node.children.getFirst());
+        }
+        return node;
+    }
+
+    // first position whose entry is not smaller than (key, tieBreaker)
+    private int lowerBound(final BTreeNode node, final Object key, final byte[] tieBreaker) {
+        int low = 0;
+        int high = node.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(node.keys.get(middle), node.values.get(middle), key, tieBreaker) < 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // child i holds the entries between separator i - 1 (inclusive) and separator i (exclusive)
+    private int childIndex(final BTreeNode node, final Object key, final byte[] tieBreaker) {
+        int low = 0;
+        int high = node.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(node.keys.get(middle), node.values.get(middle), key, tieBreaker) <= 0) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(final Object key, final byte[] value, final Object otherKey, final byte[] otherValue) {
+        int result = compareKeys(key, otherKey);
+        if (result != 0 || unique) {
+            return result;
+        }
+        return Arrays.compareUnsigned(value, otherValue);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static int compareKeys(final Object key, final Object otherKey) {
+        return ((Comparable<Object>) key).compareTo(otherKey);
+    }
+
+    private BTreeNode read(final int pageNumber) throws IOException {
+        Page page = bufferPool.fetchPage(pageFile, pageNumber);
+        try {
+            return BTreeNode.decode(pageNumber, page.getData(), keyType);
+        }
+        finally {
+            bufferPool.unpinPage(page, false);
+        }
+    }
+
+    private void write(final BTreeNode node) throws IOException {
+        Page page = bufferPool.fetchPage(pageFile, node.pageNumber);
+        try {
+            node.encode(page.getData(), keyType);
+        }
+        finally {
+            bufferPool.unpinPage(page, true);
+        }
+    }
+
+    private BTreeNode allocate(final boolean leaf) throws IOException {
+        if (freeListHead == BTreeNode.NO_PAGE) {
+            Page page = bufferPool.newPage(pageFile);
+            bufferPool.unpinPage(page, true);
+            return new BTreeNode(page.getPageNumber(), leaf);
+        }
+        Page page = bufferPool.fetchPage(pageFile, freeListHead);
+        int pageNumber = freeListHead;
+        try {
+            freeListHead = page.getData().getInt(4);
+        }
+        finally {
+            bufferPool.unpinPage(page, false);
+        }
+        writeMeta();
+        return new BTreeNode(pageNumber, leaf);
+    }
+
+    private void free(final int pageNumber) throws IOException {
+        Page page = bufferPool.fetchPage(pageFile, pageNumber);
+        try {
+            page.getData().put(0, BTreeNode.TYPE_FREE);
+            page.getData().putInt(4, freeListHead);
+        }
+        finally {
+            bufferPool.unpinPage(page, true);
+        }
+        freeListHead = pageNumber;
+        writeMeta();
+    }
+
+    private void writeMeta() throws IOException {
+        Page meta = bufferPool.fetchPage(pageFile, metaPage);
+        try {
+            ByteBuffer data = meta.getData();
+            data.put(0, TYPE_META);
+            data.put(1, (byte) (unique ? 1 : 0));
+            data.putInt(4, keyType.ordinal());
+            data.putInt(8, rootPage);
+            data.putInt(12, freeListHead);
+        }
+        finally {
+            bufferPool.unpinPage(meta, true);
+        }
+    }
+
+    public record Entry(Object key, byte[] value) {
+    }
+
+    private record LeafRange(BTreeNode leaf, Object highKey, byte[] highTieBreaker) {
+    }
+
+    private record Split(Object key, byte[] tieBreaker, int rightPage) {
+    }
+
+    private class RangeIterator implements Iterator<Entry> {
+        private BTreeNode leaf;
+        private int position;
+        private final Object low;
+        private final boolean lowInclusive;
+        private final Object high;
+        private final boolean highInclusive;
+        private Entry nextEntry;
+
+        RangeIterator(final BTreeNode leaf, final int position, final Object low, final boolean lowInclusive,
+                      final Object high, final boolean highInclusive) {
+            this.leaf = leaf;
+            this.position = position;
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextEntry == null && leaf != null) {
+                if (position >= leaf.size()) {
+                    leaf = leaf.next == BTreeNode.NO_PAGE ? null : readLeaf(leaf.next);
+                    position = 0;
+                    continue;
+                }
+                Object key = leaf.keys.get(position);
+                if (high != null) {
+                    int comparison = compareKeys(key, high);
+                    if (comparison > 0 || (comparison == 0 && !highInclusive)) {
+                        leaf = null;
+                        break;
+                    }
+                }
+                byte[] value = leaf.values.get(position++);
+                if (low != null && !lowInclusive && compareKeys(key, low) == 0) {
+                    continue;
+                }
+                nextEntry = new Entry(key, value);
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry entry = nextEntry;
+            nextEntry = null;
+            return entry;
+        }
+
+        private BTreeNode readLeaf(final int pageNumber) {
+            synchronized (BPlusTree.this) {
+                try {
+                    return read(pageNumber);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
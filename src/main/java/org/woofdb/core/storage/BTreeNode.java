@@ -0,0 +1,131 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.DataType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory form of a B+Tree node page:
+ * <pre>
+ * | type (1) | reserved (1) | key count (2) | next leaf (4) | previous leaf (4) | reserved (4) | entries ... |
+ * </pre>
+ * Leaf entries are (key, value) pairs. Internal nodes store key count + 1 child page numbers followed by the
+ * separator entries, where the separator value is the tie breaker used by trees allowing duplicate keys.
+ */
+final class BTreeNode {
+    static final byte TYPE_LEAF = 2;
+    static final byte TYPE_INTERNAL = 3;
+    static final byte TYPE_FREE = 5;
+    static final byte TYPE_OVERFLOW = 6;
+    static final int NO_PAGE = -1;
+
+    private static final int HEADER_SIZE = 16;
+
+    final int pageNumber;
+    final boolean leaf;
+    final List<Object> keys = new ArrayList<>();
+    final List<byte[]> values = new ArrayList<>();
+    final List<Integer> children = new ArrayList<>();
+    int next = NO_PAGE;
+    int previous = NO_PAGE;
+
+    BTreeNode(final int pageNumber, final boolean leaf) {
+        this.pageNumber = pageNumber;
+        this.leaf = leaf;
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    int encodedSize(final DataType keyType) {
+        int size = HEADER_SIZE;
+        for (int i = 0; i < keys.size(); i ++) {
+            size += entrySize(keyType, keys.get(i), values.get(i));
+        }
+        return size + children.size() * 4;
+    }
+
+    static int entrySize(final DataType keyType, final Object key, final byte[] value) {
+        return keySize(keyType, key) + 2 + value.length;
+    }
+
+    static BTreeNode decode(final int pageNumber, final ByteBuffer page, final DataType keyType) {
+        byte type = page.get(0);
+        if (type != TYPE_LEAF && type != TYPE_INTERNAL) {
+            throw new IllegalStateException("Page " + pageNumber + " is not a B+Tree node");
+        }
+        BTreeNode node = new BTreeNode(pageNumber, type == TYPE_LEAF);
+        int count = Short.toUnsignedInt(page.getShort(2));
+        node.next = page.getInt(4);
+        node.previous = page.getInt(8);
+        ByteBuffer buffer = page.duplicate().position(HEADER_SIZE);
+        if (!node.leaf) {
+            for (int i = 0; i <= count; i ++) {
+                node.children.add(buffer.getInt());
+            }
+        }
+        for (int i = 0; i < count; i ++) {
+            node.keys.add(readKey(buffer, keyType));
+            byte[] value = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(value);
+            node.values.add(value);
+        }
+        return node;
+    }
+
+    void encode(final ByteBuffer page, final DataType keyType) {
+        ByteBuffer buffer = page.duplicate().clear();
+        buffer.put(leaf ? TYPE_LEAF : TYPE_INTERNAL);
+        buffer.put((byte) 0);
+        buffer.putShort((short) keys.size());
+        buffer.putInt(next);
+        buffer.putInt(previous);
+        buffer.putInt(0);
+        for (int child : children) {
+            buffer.putInt(child);
+        }
+        for (int i = 0; i < keys.size(); i ++) {
+            writeKey(buffer, keyType, keys.get(i));
+            buffer.putShort((short) values.get(i).length);
+            buffer.put(values.get(i));
+        }
+    }
+
+    static int keySize(final DataType keyType, final Object key) {
+        return switch (keyType) {
+            case INT, FLOAT -> 4;
+            case DOUBLE -> 8;
+            case VARCHAR -> 2 + ((String) key).getBytes(StandardCharsets.UTF_8).length;
+        };
+    }
+
+    static void writeKey(final ByteBuffer buffer, final DataType keyType, final Object key) {
+        switch (keyType) {
+            case INT -> buffer.putInt((Integer) key);
+            case FLOAT -> buffer.putFloat((Float) key);
+            case DOUBLE -> buffer.putDouble((Double) key);
+            case VARCHAR -> {
+                byte[] bytes = ((String) key).getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) bytes.length);
+                buffer.put(bytes);
+            }
+        }
+    }
+
+    static Object readKey(final ByteBuffer buffer, final DataType keyType) {
+        return switch (keyType) {
+            case INT -> buffer.getInt();
+            case FLOAT -> buffer.getFloat();
+            case DOUBLE -> buffer.getDouble();
+            case VARCHAR -> {
+                byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,252 @@
+package org.woofdb.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Fixed budget of in-memory page frames shared by every file of a database.
+ * Victims are picked with the CLOCK algorithm, skipping pinned frames.
+ */
+public class BufferPool {
+    public static final int DEFAULT_FRAME_COUNT = 1024;
+
+    // frames are slices of direct buffers this large, the cached pages live outside the Java heap, so the heap a
+    // database needs does not grow with the pool, and reads and writes of the files need no intermediate copy
+    private static final int FRAMES_PER_ARENA = 1 << 16;
+    private static final byte[] EMPTY_PAGE = new byte[Page.PAGE_SIZE];
+
+    private final Page[] frames;
+    private final boolean[] referenced;
+    private final Map<PageKey, Integer> pageTable;
+    // flushing after every statement only visits the pages that actually changed
+    private final Set<Page> dirtyPages;
+    private WriteAheadLog writeAheadLog;
+    private int clockHand;
+
+    public BufferPool() {
+        this(DEFAULT_FRAME_COUNT);
+    }
+
+    public BufferPool(final int frameCount) {
+        if (frameCount <= 0) {
+            throw new IllegalArgumentException("Buffer pool needs at least one frame");
+        }
+        this.frames = new Page[frameCount];
+        this.referenced = new boolean[frameCount];
+        this.pageTable = new HashMap<>();
+        this.dirtyPages = new LinkedHashSet<>();
+        ByteBuffer arena = null;
+        for (int i = 0; i < frameCount; i ++) {
+            if (i % FRAMES_PER_ARENA == 0) {
+                arena = ByteBuffer.allocateDirect(Math.min(FRAMES_PER_ARENA, frameCount - i) * Page.PAGE_SIZE);
+            }
+            frames[i] = new Page(arena.slice((i % FRAMES_PER_ARENA) * Page.PAGE_SIZE, Page.PAGE_SIZE));
+        }
+    }
+
+    public int getFrameCount() {
+        return frames.length;
+    }
+
+    // once a log is set, changed pages go to the log and reach their files only at checkpoints
+    public synchronized void setWriteAheadLog(final WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    public synchronized Page fetchPage(final PageFile pageFile, final int pageNumber) throws IOException {
+        if (pageNumber < 0 || pageNumber >= pageFile.getPageCount()) {
+            throw new IllegalArgumentException("Page " + pageNumber + " is out of bounds for " + pageFile);
+        }
+        PageKey key = new PageKey(pageFile, pageNumber);
+        Integer frameIndex = pageTable.get(key);
+        if (frameIndex != null) {
+            Page page = frames[frameIndex];
+            page.pin();
+            referenced[frameIndex] = true;
+            return page;
+        }
+        int victim = evict();
+        Page page = frames[victim];
+        page.reset(pageFile, pageNumber);
+        if (writeAheadLog == null || !writeAheadLog.readPage(pageFile, pageNumber, page.getData())) {
+            pageFile.readPage(pageNumber, page.getData());
+        }
+        return install(key, victim, page);
+    }
+
+    // the page as its file holds it, for scans that read it without taking a frame, null when it is cached or logged
+    // since the last checkpoint, the file may be behind for those
+    public synchronized ByteBuffer mappedPage(final PageFile pageFile, final int pageNumber) throws IOException {
+        if (pageTable.containsKey(new PageKey(pageFile, pageNumber))
+                || writeAheadLog != null && writeAheadLog.contains(pageFile, pageNumber)) {
+            return null;
+        }
+        return pageFile.mappedPage(pageNumber);
+    }
+
+    public synchronized Page newPage(final PageFile pageFile) throws IOException {
+        int victim = evict();
+        int pageNumber = pageFile.allocatePage();
+        Page page = frames[victim];
+        page.reset(pageFile, pageNumber);
+        page.getData().put(0, EMPTY_PAGE);
+        markDirty(page);
+        return install(new PageKey(pageFile, pageNumber), victim, page);
+    }
+
+    public synchronized void unpinPage(final Page page, final boolean dirty) {
+        page.unpin();
+        if (dirty) {
+            markDirty(page);
+        }
+    }
+
+    // writes pages that never went through the pool, such as the fresh pages packed by a bulk load
+    public synchronized void writePages(final PageFile pageFile, final int firstPage, final ByteBuffer source) throws IOException {
+        if (writeAheadLog == null) {
+            pageFile.writePages(firstPage, source);
+        }
+        else {
+            writeAheadLog.append(pageFile, firstPage, source);
+        }
+    }
+
+    public void flushFile(final PageFile pageFile) throws IOException {
+        sync(commit(page -> page.getPageFile() == pageFile));
+    }
+
+    // with a log this is a commit: one sequential write of the changed pages and a single fsync shared with every
+    // writer committing at the same time
+    public void flushAll() throws IOException {
+        sync(commitAll());
+    }
+
+    // the write half of flushAll, returns the log size sync has to reach for the changes to be durable. A caller
+    // serializing its writers can release its own lock in between, so their commits share the fsync
+    public long commitAll() throws IOException {
+        return commit(page -> true);
+    }
+
+    public void sync(final long commitSize) throws IOException {
+        WriteAheadLog log;
+        synchronized (this) {
+            log = writeAheadLog;
+        }
+        if (log != null && commitSize > 0) {
+            log.sync(commitSize);
+        }
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        if (writeAheadLog != null) {
+            writeAheadLog.checkpoint();
+        }
+    }
+
+    // drops every cached page of the file without writing it, used when the file itself goes away
+    public synchronized void discardFile(final PageFile pageFile) throws IOException {
+        for (int i = 0; i < frames.length; i ++) {
+            Page page = frames[i];
+            if (page.getPageFile() == pageFile) {
+                if (page.getPinCount() > 0) {
+                    throw new IllegalStateException("Cannot discard pinned " + page + " of " + pageFile);
+                }
+                pageTable.remove(new PageKey(pageFile, page.getPageNumber()));
+                dirtyPages.remove(page);
+                page.reset(null, -1);
+                referenced[i] = false;
+            }
+        }
+        if (writeAheadLog != null) {
+            // the logged images of the file have to reach it while it is still open
+            writeAheadLog.checkpoint();
+            writeAheadLog.forget(pageFile);
+        }
+    }
+
+    // logs the pages with a commit frame. A checkpoint copies them into their files and forces those, nothing is
+    // left to sync then
+    private synchronized long commit(final Predicate<Page> filter) throws IOException {
+        List<Page> pages = new ArrayList<>();
+        for (Page page : dirtyPages) {
+            if (filter.test(page)) {
+                pages.add(page);
+            }
+        }
+        if (writeAheadLog == null) {
+            for (Page page : pages) {
+                writeBack(page);
+            }
+            return 0;
+        }
+        long commitSize = writeAheadLog.commit(pages);
+        for (Page page : pages) {
+            page.setDirty(false);
+            dirtyPages.remove(page);
+        }
+        if (writeAheadLog.needsCheckpoint()) {
+            writeAheadLog.checkpoint();
+            return 0;
+        }
+        return commitSize;
+    }
+
+    private Page install(final PageKey key, final int frameIndex, final Page page) {
+        page.pin();
+        referenced[frameIndex] = true;
+        pageTable.put(key, frameIndex);
+        return page;
+    }
+
+    private int evict() throws IOException {
+        // two full sweeps are enough to clear every reference bit, after that all frames are pinned
+        for (int i = 0; i < 2 * frames.length; i ++) {
+            int candidate = clockHand;
+            clockHand = (clockHand + 1) % frames.length;
+            Page page = frames[candidate];
+            if (page.getPageFile() == null) {
+                return candidate;
+            }
+            if (page.getPinCount() > 0) {
+                continue;
+            }
+            if (referenced[candidate]) {
+                referenced[candidate] = false;
+                continue;
+            }
+            if (page.isDirty()) {
+                writeBack(page);
+            }
+            pageTable.remove(new PageKey(page.getPageFile(), page.getPageNumber()));
+            return candidate;
+        }
+        throw new IllegalStateException("All " + frames.length + " buffer pool frames are pinned");
+    }
+
+    private void markDirty(final Page page) {
+        page.setDirty(true);
+        dirtyPages.add(page);
+    }
+
+    private void writeBack(final Page page) throws IOException {
+        if (writeAheadLog == null) {
+            page.getPageFile().writePage(page.getPageNumber(), page.getData());
+        }
+        else {
+            // an evicted page of an unfinished change is logged without a commit, recovery ignores it after a crash
+            writeAheadLog.append(List.of(page));
+        }
+        page.setDirty(false);
+        dirtyPages.remove(page);
+    }
+
+    private record PageKey(PageFile pageFile, int pageNumber) {
+    }
+}
@@ -0,0 +1,362 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Rows kept inside the leaves of a unique B+Tree keyed by the primary key column, in key order.
+ * The locator of a row is its encoded primary key. Every entry holds the version chain of its key, newest first:
+ * a version count followed by the length prefixed records of the versions.
+ * <p>
+ * Versions that do not fit the entry any more, because a long running snapshot keeps them alive, move to overflow
+ * pages of the tree. The count then has its top bit set and the entry ends with the first overflow page, which
+ * holds the length prefixed records of the older versions. Readers see the chain with those records appended.
+ */
+public class ClusteredStorage implements TableStorage {
+    // chains vacuum collects before rewriting them
+    private static final int VACUUM_BATCH = 256;
+    private static final int OVERFLOW = 0x8000;
+
+    private final BPlusTree tree;
+    private final RowCodec rowCodec;
+    private final int keyColumnIndex;
+    private final String keyColumnName;
+
+    public ClusteredStorage(final BPlusTree tree, final RowCodec rowCodec, final int keyColumnIndex, final String keyColumnName) {
+        this.tree = tree;
+        this.rowCodec = rowCodec;
+        this.keyColumnIndex = keyColumnIndex;
+        this.keyColumnName = keyColumnName;
+    }
+
+    public BPlusTree getTree() {
+        return tree;
+    }
+
+    // starts the chain of a key that is not stored yet, versions of a stored key go through rewrite
+    @Override
+    public byte[] insert(final Row version) throws IOException {
+        Object key = getKey(version);
+        try {
+            tree.insert(key, encodeEntry(key, List.of(version), BTreeNode.NO_PAGE));
+        }
+        catch (ConstraintViolationException e) {
+            throw duplicateKey(key);
+        }
+        return locator(key);
+    }
+
+    // inserts in key order so consecutive rows land in the same leaf, and checks every key before touching the tree
+    // so a batch with a duplicate key leaves the table unchanged
+    @Override
+    public List<byte[]> insertAll(final List<Row> versions) throws IOException {
+        List<BPlusTree.Entry> entries = new ArrayList<>(versions.size());
+        for (Row version : versions) {
+            // a single version never overflows
+            entries.add(new BPlusTree.Entry(getKey(version), encodeEntry(getKey(version), List.of(version), BTreeNode.NO_PAGE)));
+        }
+        entries.sort((entry, other) -> BPlusTree.compareKeys(entry.key(), other.key()));
+        List<Object> keys = new ArrayList<>(entries.size());
+        for (BPlusTree.Entry entry : entries) {
+            if (!keys.isEmpty() && BPlusTree.compareKeys(keys.getLast(), entry.key()) == 0) {
+                throw duplicateKey(entry.key());
+            }
+            keys.add(entry.key());
+        }
+        Object existing = tree.findAny(keys);
+        if (existing != null) {
+            throw duplicateKey(existing);
+        }
+        tree.insertAll(entries);
+        List<byte[]> locators = new ArrayList<>(versions.size());
+        for (Row version : versions) {
+            locators.add(locator(getKey(version)));
+        }
+        return locators;
+    }
+
+    @Override
+    public List<Row> fetch(final byte[] locator) throws IOException {
+        return lookup(key(locator));
+    }
+
+    @Override
+    public void rewrite(final byte[] locator, final List<Row> versions) throws IOException {
+        Object key = key(locator);
+        byte[] previous = tree.get(key);
+        int previousOverflow = previous == null ? BTreeNode.NO_PAGE : overflowPage(previous);
+        if (versions.isEmpty()) {
+            if (previous != null) {
+                tree.delete(key, null);
+                freeOverflow(previousOverflow);
+            }
+            return;
+        }
+        byte[] entry = encodeEntry(key, versions, previousOverflow);
+        if (!tree.replace(key, entry)) {
+            tree.insert(key, entry);
+        }
+    }
+
+    // rewrites the chains holding obsolete versions, a batch at a time collected before the tree changes so the scan
+    // never runs over leaves being rewritten; a chain left empty takes its key out of the tree and the tree reuses
+    // the pages it frees
+    @Override
+    public long vacuum(final VersionFilter obsolete, final RemovalListener listener) throws IOException {
+        long removed = 0;
+        Object after = null;
+        while (true) {
+            Iterator<BPlusTree.Entry> entries = tree.scan(after, false, null, true);
+            List<BPlusTree.Entry> batch = new ArrayList<>();
+            while (batch.size() < VACUUM_BATCH && entries.hasNext()) {
+                BPlusTree.Entry entry = entries.next();
+                after = entry.key();
+                if (holdsObsolete(chain(entry.value()), obsolete)) {
+                    batch.add(entry);
+                }
+            }
+            boolean more = entries.hasNext();
+            for (BPlusTree.Entry entry : batch) {
+                byte[] locator = locator(entry.key());
+                List<Row> versions = decodeChain(chain(entry.value()));
+                List<Row> remaining = new ArrayList<>(versions.size());
+                for (Row version : versions) {
+                    if (!obsolete.test(version.getBeginTimestamp(), version.getEndTimestamp())) {
+                        remaining.add(version);
+                    }
+                }
+                for (Row version : versions) {
+                    if (!remaining.contains(version)) {
+                        listener.removed(locator, version, remaining);
+                    }
+                }
+                rewrite(locator, remaining);
+                removed += versions.size() - remaining.size();
+            }
+            if (!more) {
+                return removed;
+            }
+        }
+    }
+
+    public List<Row> lookup(final Object key) throws IOException {
+        byte[] record = tree.get(key);
+        return record == null ? List.of() : decodeChain(chain(record));
+    }
+
+    @Override
+    public Iterator<StoredRow> scan() {
+        return scan(null, true, null, true);
+    }
+
+    public Iterator<StoredRow> scan(final Object low, final boolean lowInclusive, final Object high, final boolean highInclusive) {
+        Iterator<BPlusTree.Entry> entries = tree.scan(low, lowInclusive, high, highInclusive);
+        return new Iterator<>() {
+            private Iterator<Row> versions = Collections.emptyIterator();
+            private byte[] locator;
+
+            @Override
+            public boolean hasNext() {
+                while (!versions.hasNext() && entries.hasNext()) {
+                    BPlusTree.Entry entry = entries.next();
+                    locator = locator(entry.key());
+                    try {
+                        versions = decodeChain(chain(entry.value())).iterator();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return versions.hasNext();
+            }
+
+            @Override
+            public StoredRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new StoredRow(locator, versions.next());
+            }
+        };
+    }
+
+    @Override
+    public RecordScanner scanRecords() {
+        return scanRecords(null, true, null, true);
+    }
+
+    // key ranges split at separators of the tree
+    @Override
+    public List<RecordScanner> partitionRecords(final int partitions) throws IOException {
+        List<Object> keys = tree.splitKeys(partitions);
+        List<RecordScanner> scanners = new ArrayList<>(keys.size() + 1);
+        Object low = null;
+        for (Object key : keys) {
+            scanners.add(scanRecords(low, true, key, false));
+            low = key;
+        }
+        scanners.add(scanRecords(low, true, null, true));
+        return scanners;
+    }
+
+    public RecordScanner scanRecords(final Object low, final boolean lowInclusive, final Object high, final boolean highInclusive) {
+        Iterator<BPlusTree.Entry> entries = tree.scan(low, lowInclusive, high, highInclusive);
+        return new RecordScanner() {
+            private ByteBuffer chain;
+            private int position;
+            private int length;
+
+            @Override
+            public boolean next() throws IOException {
+                position += length;
+                while (chain == null || position >= chain.limit()) {
+                    if (!entries.hasNext()) {
+                        return false;
+                    }
+                    chain = ByteBuffer.wrap(chain(entries.next().value()));
+                    position = 2;
+                }
+                length = 2 + chain.getShort(position);
+                return true;
+            }
+
+            @Override
+            public ByteBuffer buffer() {
+                return chain;
+            }
+
+            @Override
+            public int offset() {
+                return position + 2;
+            }
+        };
+    }
+
+    public Object getKey(final Row row) {
+        Object key = row.getValue(keyColumnIndex);
+        if (key == null) {
+            throw new ConstraintViolationException("Primary key column '" + keyColumnName + "' cannot be null");
+        }
+        return key;
+    }
+
+    public byte[] locator(final Object key) {
+        DataType keyType = tree.getKeyType();
+        ByteBuffer buffer = ByteBuffer.allocate(BTreeNode.keySize(keyType, key));
+        BTreeNode.writeKey(buffer, keyType, key);
+        return buffer.array();
+    }
+
+    public ConstraintViolationException duplicateKey(final Object key) {
+        return new ConstraintViolationException("Duplicate entry '" + key + "' for primary key column '" + keyColumnName + "'");
+    }
+
+    // everything is sized before any page is touched, so a chain that cannot be stored leaves the tree as it was;
+    // the overflow pages of the previous entry are reused for the new one
+    private byte[] encodeEntry(final Object key, final List<Row> versions, final int previousOverflow) throws IOException {
+        List<byte[]> records = new ArrayList<>(versions.size());
+        int size = 2;
+        for (Row version : versions) {
+            byte[] record = rowCodec.encode(version);
+            records.add(record);
+            size += 2 + record.length;
+        }
+        int maxSize = tree.maxValueSize(key);
+        if (2 + 2 + records.getFirst().length > maxSize) {
+            throw new ConstraintViolationException("Row of " + records.getFirst().length + " bytes exceeds the limit of "
+                    + (maxSize - 4) + " bytes for table rows");
+        }
+        int inline = records.size();
+        if (size > maxSize) {
+            size = 2 + 4;
+            inline = 0;
+            while (size + 2 + records.get(inline).length <= maxSize) {
+                size += 2 + records.get(inline).length;
+                inline ++;
+            }
+        }
+        freeOverflow(previousOverflow);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putShort((short) (inline < records.size() ? inline | OVERFLOW : inline));
+        for (int i = 0; i < inline; i ++) {
+            buffer.putShort((short) records.get(i).length);
+            buffer.put(records.get(i));
+        }
+        if (inline < records.size()) {
+            buffer.putInt(tree.writeOverflow(encodeRecords(records.subList(inline, records.size()))));
+        }
+        return buffer.array();
+    }
+
+    private static byte[] encodeRecords(final List<byte[]> records) {
+        int size = 0;
+        for (byte[] record : records) {
+            size += 2 + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            buffer.putShort((short) record.length);
+            buffer.put(record);
+        }
+        return buffer.array();
+    }
+
+    // the whole chain of an entry, its records run from offset 2 to the end
+    private byte[] chain(final byte[] entry) throws IOException {
+        int overflowPage = overflowPage(entry);
+        if (overflowPage == BTreeNode.NO_PAGE) {
+            return entry;
+        }
+        byte[] older = tree.readOverflow(overflowPage);
+        byte[] chain = new byte[entry.length - 4 + older.length];
+        System.arraycopy(entry, 0, chain, 0, entry.length - 4);
+        System.arraycopy(older, 0, chain, entry.length - 4, older.length);
+        return chain;
+    }
+
+    private static int overflowPage(final byte[] entry) {
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        return (buffer.getShort(0) & OVERFLOW) == 0 ? BTreeNode.NO_PAGE : buffer.getInt(entry.length - 4);
+    }
+
+    private void freeOverflow(final int overflowPage) throws IOException {
+        if (overflowPage != BTreeNode.NO_PAGE) {
+            tree.freeOverflow(overflowPage);
+        }
+    }
+
+    private List<Row> decodeChain(final byte[] chain) {
+        ByteBuffer buffer = ByteBuffer.wrap(chain);
+        List<Row> versions = new ArrayList<>();
+        for (int position = 2; position < chain.length; position += 2 + buffer.getShort(position)) {
+            versions.add(rowCodec.decode(buffer, position + 2));
+        }
+        return versions;
+    }
+
+    // reads the timestamps of the versions in place, a chain is only decoded when it has something to remove
+    private static boolean holdsObsolete(final byte[] chain, final VersionFilter obsolete) {
+        ByteBuffer buffer = ByteBuffer.wrap(chain);
+        for (int position = 2; position < chain.length; position += 2 + buffer.getShort(position)) {
+            int offset = position + 2;
+            if (obsolete.test(RowCodec.readBeginTimestamp(buffer, offset), RowCodec.readEndTimestamp(buffer, offset))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object key(final byte[] locator) {
+        return BTreeNode.readKey(ByteBuffer.wrap(locator), tree.getKeyType());
+    }
+}
@@ -0,0 +1,122 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.DataType;
+
+/**
+ * What the planner knows about the values of a column: how many are null, the smallest and largest, an estimate of
+ * the distinct values and an equi-depth histogram. The histogram holds the bounds of buckets of equally many values,
+ * so the fraction of values below a value is the number of buckets below it plus the part of its bucket below it.
+ * Inserted rows keep the counts, the bounds and the distinct estimate current, the histogram only changes with the
+ * next ANALYZE.
+ */
+public final class ColumnStatistics {
+    private final DataType dataType;
+    private long nullCount;
+    private Object min;
+    private Object max;
+    private final HyperLogLog distinctValues;
+    // bucket bounds in ascending order, empty before the column held a value
+    private Object[] histogram;
+
+    ColumnStatistics(final DataType dataType, final long nullCount, final Object min, final Object max,
+                     final HyperLogLog distinctValues, final Object[] histogram) {
+        this.dataType = dataType;
+        this.nullCount = nullCount;
+        this.min = min;
+        this.max = max;
+        this.distinctValues = distinctValues;
+        this.histogram = histogram;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public Object getMin() {
+        return min;
+    }
+
+    public Object getMax() {
+        return max;
+    }
+
+    public long getDistinctValues() {
+        return distinctValues.estimate();
+    }
+
+    public Object[] getHistogram() {
+        return histogram.clone();
+    }
+
+    HyperLogLog getSketch() {
+        return distinctValues;
+    }
+
+    void setHistogram(final Object[] histogram) {
+        this.histogram = histogram;
+    }
+
+    void add(final Object value) {
+        if (value == null) {
+            nullCount ++;
+            return;
+        }
+        if (min == null || BPlusTree.compareKeys(value, min) < 0) {
+            min = value;
+        }
+        if (max == null || BPlusTree.compareKeys(value, max) > 0) {
+            max = value;
+        }
+        distinctValues.add(value);
+    }
+
+    // the fraction of the non-null values below the value, or at most the value when inclusive
+    public double fractionBelow(final Object value, final boolean inclusive) {
+        if (min == null) {
+            return 0;
+        }
+        if (histogram.length < 2) {
+            // a single value or none analyzed yet, the bounds are all there is
+            return interpolate(min, max, value, inclusive);
+        }
+        int buckets = histogram.length - 1;
+        // the bounds below the value, or at most the value
+        int bounds = 0;
+        while (bounds < histogram.length && compare(histogram[bounds], value, inclusive)) {
+            bounds ++;
+        }
+        if (bounds == 0) {
+            return 0;
+        }
+        if (bounds == histogram.length) {
+            return 1;
+        }
+        int bucket = bounds - 1;
+        return (bucket + interpolate(histogram[bucket], histogram[bucket + 1], value, inclusive)) / buckets;
+    }
+
+    // whether the bound is below the value, or at most the value when inclusive
+    private static boolean compare(final Object bound, final Object value, final boolean inclusive) {
+        int comparison = BPlusTree.compareKeys(bound, value);
+        return inclusive ? comparison <= 0 : comparison < 0;
+    }
+
+    // where the value sits between two bounds, numbers linearly and strings halfway
+    private static double interpolate(final Object low, final Object high, final Object value, final boolean inclusive) {
+        if (!compare(low, value, inclusive)) {
+            return 0;
+        }
+        if (compare(high, value, inclusive)) {
+            return 1;
+        }
+        if (low instanceof Number lowNumber && high instanceof Number highNumber && value instanceof Number number) {
+            double width = highNumber.doubleValue() - lowNumber.doubleValue();
+            return width <= 0 ? 0.5 : Math.clamp((number.doubleValue() - lowNumber.doubleValue()) / width, 0, 1);
+        }
+        return 0.5;
+    }
+}
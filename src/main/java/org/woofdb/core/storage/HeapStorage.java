@@ -0,0 +1,426 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.Row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * Unordered rows appended to slotted pages, every page after the first one of the file is a data page.
+ * Rows are located by their record id: the page number followed by the slot number.
+ * <p>
+ * Vacuum compacts the pages it removed versions from and keeps every page with room in a free-space map, which
+ * inserts fill before the file grows. The table saves the map next to its file and reads it back when it is opened.
+ * The map is only a hint, a page taken from it is checked before a record goes in, so a map older than the pages
+ * costs a few page reads at most.
+ */
+public class HeapStorage implements TableStorage {
+    private static final int LOCATOR_SIZE = 6;
+    private static final int MIN_PARTITION_PAGES = 16;
+    // pages with less room than this are left out of the free-space map
+    private static final int MIN_FREE_SPACE = Page.PAGE_SIZE / 8;
+    private static final int FREE_SPACE_MAGIC = 0x574f4f46;
+
+    private final PageFile pageFile;
+    private final BufferPool bufferPool;
+    private final RowCodec rowCodec;
+    private final int firstDataPage;
+    private final NavigableSet<Integer> pagesWithSpace = new TreeSet<>();
+    private boolean freeSpaceMapDirty;
+
+    public HeapStorage(final PageFile pageFile, final BufferPool bufferPool, final RowCodec rowCodec, final int firstDataPage) {
+        this.pageFile = pageFile;
+        this.bufferPool = bufferPool;
+        this.rowCodec = rowCodec;
+        this.firstDataPage = firstDataPage;
+    }
+
+    @Override
+    public byte[] insert(final Row row) throws IOException {
+        return append(rowCodec.encode(row));
+    }
+
+    // fills the tail page through the buffer pool, then packs the remaining records into fresh pages that reach
+    // the file with a single write
+    @Override
+    public List<byte[]> insertAll(final List<Row> rows) throws IOException {
+        List<byte[]> records = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            records.add(rowCodec.encode(row));
+        }
+        List<byte[]> locators = new ArrayList<>(rows.size());
+        int next = 0;
+        Page free;
+        while (next < records.size() && (free = pageWithSpace(records.get(next).length)) != null) {
+            int inserted = 0;
+            try {
+                int slot;
+                while (next < records.size() && (slot = SlottedPage.insert(free.getData(), records.get(next))) >= 0) {
+                    locators.add(recordId(free.getPageNumber(), slot));
+                    next ++;
+                    inserted ++;
+                }
+            }
+            finally {
+                bufferPool.unpinPage(free, inserted > 0);
+            }
+        }
+        if (next < records.size() && pageFile.getPageCount() > firstDataPage) {
+            Page tail = bufferPool.fetchPage(pageFile, pageFile.getPageCount() - 1);
+            try {
+                int slot;
+                while (next < records.size() && (slot = SlottedPage.insert(tail.getData(), records.get(next))) >= 0) {
+                    locators.add(recordId(tail.getPageNumber(), slot));
+                    next ++;
+                }
+            }
+            finally {
+                bufferPool.unpinPage(tail, next > 0);
+            }
+        }
+        if (next == records.size()) {
+            return locators;
+        }
+
+        List<ByteBuffer> pages = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<Integer> pageIndexes = new ArrayList<>();
+        ByteBuffer current = null;
+        for (; next < records.size(); next ++) {
+            int slot = current == null ? -1 : SlottedPage.insert(current, records.get(next));
+            if (slot < 0) {
+                current = ByteBuffer.allocate(Page.PAGE_SIZE);
+                SlottedPage.init(current);
+                pages.add(current);
+                slot = SlottedPage.insert(current, records.get(next));
+            }
+            slots.add(slot);
+            pageIndexes.add(pages.size() - 1);
+        }
+        ByteBuffer batch = ByteBuffer.allocate(pages.size() * Page.PAGE_SIZE);
+        for (ByteBuffer page : pages) {
+            batch.put(page.array());
+        }
+        int firstPage = pageFile.allocatePages(pages.size());
+        bufferPool.writePages(pageFile, firstPage, batch.flip());
+        for (int i = 0; i < slots.size(); i ++) {
+            locators.add(recordId(firstPage + pageIndexes.get(i), slots.get(i)));
+        }
+        return locators;
+    }
+
+    @Override
+    public List<Row> fetch(final byte[] locator) throws IOException {
+        ByteBuffer recordId = ByteBuffer.wrap(locator);
+        Page page = bufferPool.fetchPage(pageFile, recordId.getInt(0));
+        try {
+            ByteBuffer data = page.getData();
+            int slot = recordId.getShort(4);
+            if (slot >= SlottedPage.getSlotCount(data) || SlottedPage.isDeleted(data, slot)) {
+                return List.of();
+            }
+            return List.of(rowCodec.decode(data, SlottedPage.getRecordOffset(data, slot)));
+        }
+        finally {
+            bufferPool.unpinPage(page, false);
+        }
+    }
+
+    // a record id holds a single version, so only its end timestamp can change or the version can go away entirely
+    @Override
+    public void rewrite(final byte[] locator, final List<Row> versions) throws IOException {
+        if (versions.size() > 1) {
+            throw new IllegalArgumentException("A heap slot holds a single row version");
+        }
+        ByteBuffer recordId = ByteBuffer.wrap(locator);
+        Page page = bufferPool.fetchPage(pageFile, recordId.getInt(0));
+        try {
+            int slot = recordId.getShort(4);
+            if (versions.isEmpty()) {
+                SlottedPage.delete(page.getData(), slot);
+            }
+            else {
+                RowCodec.writeEndTimestamp(page.getData(), SlottedPage.getRecordOffset(page.getData(), slot),
+                        versions.getFirst().getEndTimestamp());
+            }
+        }
+        finally {
+            bufferPool.unpinPage(page, true);
+        }
+    }
+
+    // replaces the version at the record id in its place when the new one is no longer, the caller makes sure no
+    // other transaction can see the old one
+    public boolean overwrite(final byte[] locator, final Row version) throws IOException {
+        byte[] record = rowCodec.encode(version);
+        ByteBuffer recordId = ByteBuffer.wrap(locator);
+        Page page = bufferPool.fetchPage(pageFile, recordId.getInt(0));
+        boolean written = false;
+        try {
+            written = SlottedPage.update(page.getData(), recordId.getShort(4), record);
+            return written;
+        }
+        finally {
+            bufferPool.unpinPage(page, written);
+        }
+    }
+
+    // removes the obsolete versions a page at a time, a page that lost versions is compacted and goes into the
+    // free-space map when enough of it is free
+    @Override
+    public long vacuum(final VersionFilter obsolete, final RemovalListener listener) throws IOException {
+        long removed = 0;
+        for (int pageNumber = firstDataPage; pageNumber < pageFile.getPageCount(); pageNumber ++) {
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            boolean dirty = false;
+            try {
+                ByteBuffer data = page.getData();
+                for (int slot = 0; slot < SlottedPage.getSlotCount(data); slot ++) {
+                    if (SlottedPage.isDeleted(data, slot)) {
+                        continue;
+                    }
+                    int offset = SlottedPage.getRecordOffset(data, slot);
+                    if (obsolete.test(RowCodec.readBeginTimestamp(data, offset), RowCodec.readEndTimestamp(data, offset))) {
+                        listener.removed(recordId(pageNumber, slot), rowCodec.decode(data, offset), List.of());
+                        SlottedPage.delete(data, slot);
+                        dirty = true;
+                        removed ++;
+                    }
+                }
+                if (dirty) {
+                    SlottedPage.compact(data);
+                }
+                if (SlottedPage.getFreeSpace(data) >= MIN_FREE_SPACE && pagesWithSpace.add(pageNumber)) {
+                    freeSpaceMapDirty = true;
+                }
+            }
+            finally {
+                bufferPool.unpinPage(page, dirty);
+            }
+        }
+        return removed;
+    }
+
+    // written only when the map changed since it was last read or written
+    public void writeFreeSpaceMap(final Path path) throws IOException {
+        if (!freeSpaceMapDirty) {
+            return;
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(FREE_SPACE_MAGIC);
+            out.writeInt(pagesWithSpace.size());
+            for (int pageNumber : pagesWithSpace) {
+                out.writeInt(pageNumber);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        freeSpaceMapDirty = false;
+    }
+
+    public void readFreeSpaceMap(final Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FREE_SPACE_MAGIC) {
+                throw new IOException("Not a WoofDB free-space map: " + path);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i ++) {
+                int pageNumber = in.readInt();
+                if (pageNumber >= firstDataPage && pageNumber < pageFile.getPageCount()) {
+                    pagesWithSpace.add(pageNumber);
+                }
+            }
+        }
+        freeSpaceMapDirty = false;
+    }
+
+    // rows are decoded one page at a time, so only a single page worth of rows is on the heap during a scan
+    @Override
+    public Iterator<StoredRow> scan() {
+        return new Iterator<>() {
+            private int nextPageNumber = firstDataPage;
+            private Iterator<StoredRow> currentPage = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!currentPage.hasNext() && nextPageNumber < pageFile.getPageCount()) {
+                    currentPage = readPage(nextPageNumber++).iterator();
+                }
+                return currentPage.hasNext();
+            }
+
+            @Override
+            public StoredRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return currentPage.next();
+            }
+        };
+    }
+
+    @Override
+    public RecordScanner scanRecords() {
+        return scanRecords(firstDataPage, -1);
+    }
+
+    // page ranges of at least MIN_PARTITION_PAGES pages, the last one runs to whatever the end of the file is then
+    @Override
+    public List<RecordScanner> partitionRecords(final int partitions) {
+        int pageCount = pageFile.getPageCount() - firstDataPage;
+        int pagesPerPartition = Math.max(MIN_PARTITION_PAGES, (pageCount + partitions - 1) / Math.max(1, partitions));
+        List<RecordScanner> scanners = new ArrayList<>();
+        for (int first = firstDataPage; first < firstDataPage + pageCount; first += pagesPerPartition) {
+            boolean last = first + pagesPerPartition >= firstDataPage + pageCount;
+            scanners.add(scanRecords(first, last ? -1 : first + pagesPerPartition));
+        }
+        return scanners.isEmpty() ? List.of(scanRecords()) : scanners;
+    }
+
+    // pages the file holds as they are are read from its mapping, the others are copied out of the buffer pool, so
+    // no page stays pinned between calls and a large scan does not push the cached pages out of the pool. the slot
+    // directory is read on every call, a mapped page shows what is written to the file while the scan is on it, and
+    // the rows written or vacuumed after the scan started are invisible to it either way. an end page of -1 scans
+    // to the end of the file
+    private RecordScanner scanRecords(final int firstPage, final int endPage) {
+        return new RecordScanner() {
+            private final ByteBuffer copy = ByteBuffer.allocate(Page.PAGE_SIZE);
+            private ByteBuffer page = copy;
+            private int nextPageNumber = firstPage;
+            private int slot = -1;
+
+            @Override
+            public boolean next() throws IOException {
+                while (true) {
+                    while (++slot < SlottedPage.getSlotCount(page)) {
+                        if (!SlottedPage.isDeleted(page, slot)) {
+                            return true;
+                        }
+                    }
+                    if (nextPageNumber >= (endPage < 0 ? pageFile.getPageCount() : endPage)) {
+                        return false;
+                    }
+                    page = readOnlyPage(nextPageNumber++, copy);
+                    slot = -1;
+                }
+            }
+
+            @Override
+            public ByteBuffer buffer() {
+                return page;
+            }
+
+            @Override
+            public int offset() {
+                return SlottedPage.getRecordOffset(page, slot);
+            }
+        };
+    }
+
+    // the mapped page when there is one, otherwise a copy of the cached page
+    private ByteBuffer readOnlyPage(final int pageNumber, final ByteBuffer copy) throws IOException {
+        ByteBuffer mapped = bufferPool.mappedPage(pageFile, pageNumber);
+        if (mapped != null) {
+            return mapped;
+        }
+        Page page = bufferPool.fetchPage(pageFile, pageNumber);
+        try {
+            copy.put(0, page.getData(), 0, Page.PAGE_SIZE);
+        }
+        finally {
+            bufferPool.unpinPage(page, false);
+        }
+        return copy;
+    }
+
+    private byte[] append(final byte[] record) throws IOException {
+        Page page = pageWithSpace(record.length);
+        if (page == null && pageFile.getPageCount() > firstDataPage) {
+            page = bufferPool.fetchPage(pageFile, pageFile.getPageCount() - 1);
+            if (!SlottedPage.canFit(page.getData(), record.length)) {
+                bufferPool.unpinPage(page, false);
+                page = null;
+            }
+        }
+        if (page == null) {
+            page = bufferPool.newPage(pageFile);
+            SlottedPage.init(page.getData());
+        }
+        try {
+            int slot = SlottedPage.insert(page.getData(), record);
+            return recordId(page.getPageNumber(), slot);
+        }
+        finally {
+            bufferPool.unpinPage(page, true);
+        }
+    }
+
+    // the first page of the free-space map with room for the record, pinned, or null to append to the tail instead;
+    // pages that filled up leave the map on the way
+    private Page pageWithSpace(final int recordLength) throws IOException {
+        while (!pagesWithSpace.isEmpty()) {
+            Page page = bufferPool.fetchPage(pageFile, pagesWithSpace.first());
+            if (SlottedPage.canFit(page.getData(), recordLength)) {
+                return page;
+            }
+            boolean full = SlottedPage.getFreeSpace(page.getData()) < MIN_FREE_SPACE;
+            bufferPool.unpinPage(page, false);
+            if (!full) {
+                return null;
+            }
+            pagesWithSpace.pollFirst();
+            freeSpaceMapDirty = true;
+        }
+        return null;
+    }
+
+    private List<StoredRow> readPage(final int pageNumber) {
+        try {
+            ByteBuffer mapped = bufferPool.mappedPage(pageFile, pageNumber);
+            if (mapped != null) {
+                return decodePage(pageNumber, mapped);
+            }
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            try {
+                return decodePage(pageNumber, page.getData());
+            }
+            finally {
+                bufferPool.unpinPage(page, false);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<StoredRow> decodePage(final int pageNumber, final ByteBuffer data) {
+        int slotCount = SlottedPage.getSlotCount(data);
+        List<StoredRow> rows = new ArrayList<>(slotCount);
+        for (int slot = 0; slot < slotCount; slot ++) {
+            if (SlottedPage.isDeleted(data, slot)) {
+                continue;
+            }
+            rows.add(new StoredRow(recordId(pageNumber, slot), rowCodec.decode(data, SlottedPage.getRecordOffset(data, slot))));
+        }
+        return rows;
+    }
+
+    private static byte[] recordId(final int pageNumber, final int slot) {
+        return ByteBuffer.allocate(LOCATOR_SIZE).putInt(pageNumber).putShort((short) slot).array();
+    }
+}
@@ -0,0 +1,85 @@
+package org.woofdb.core.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog sketch of the number of distinct values added to it, within about 1.6% with its {@value #REGISTERS}
+ * registers. Every value is hashed to 64 bits, the first {@value #PRECISION} bits pick a register and the register
+ * keeps the longest run of leading zeros seen in the remaining bits.
+ */
+public final class HyperLogLog {
+    static final int PRECISION = 12;
+    static final int REGISTERS = 1 << PRECISION;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    HyperLogLog(final byte[] registers) {
+        if (registers.length != REGISTERS) {
+            throw new IllegalArgumentException("Expected " + REGISTERS + " registers, got " + registers.length);
+        }
+        this.registers = registers;
+    }
+
+    // Integer, Float, Double or String values, nulls are not counted
+    public void add(final Object value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        int register = (int) (hash >>> (64 - PRECISION));
+        // a one past the remaining bits bounds the run of zeros
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros ++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        // linear counting is closer while registers are still empty
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    byte[] getRegisters() {
+        return registers;
+    }
+
+    private static long hash(final Object value) {
+        long bits = switch (value) {
+            case Integer integer -> integer;
+            case Float number -> Float.floatToIntBits(number);
+            case Double number -> Double.doubleToLongBits(number);
+            case String string -> {
+                long hash = 0xcbf29ce484222325L;
+                for (byte b : string.getBytes(StandardCharsets.UTF_8)) {
+                    hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+                }
+                yield hash;
+            }
+            default -> value.hashCode();
+        };
+        // the finalizer of MurmurHash3, every input bit flips about half of the output bits
+        bits ^= bits >>> 33;
+        bits *= 0xff51afd7ed558ccdL;
+        bits ^= bits >>> 33;
+        bits *= 0xc4ceb3fe1a85ec53L;
+        bits ^= bits >>> 33;
+        return bits;
+    }
+}
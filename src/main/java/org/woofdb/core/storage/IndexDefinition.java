@@ -0,0 +1,4 @@
+package org.woofdb.core.storage;
+
+public record IndexDefinition(String name, String columnName) {
+}
@@ -0,0 +1,5 @@
+package org.woofdb.core.storage;
+
+// bounds of a key range scan, null bounds are open ended
+public record KeyRange(Object low, boolean lowInclusive, Object high, boolean highInclusive) {
+}
@@ -0,0 +1,79 @@
+package org.woofdb.core.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A single fixed-size page cached in a {@link BufferPool} frame. Callers must hold a pin
+ * (obtained through {@link BufferPool#fetchPage} or {@link BufferPool#newPage}) while touching the data.
+ */
+public class Page {
+    public static final int PAGE_SIZE = 4096;
+
+    private final ByteBuffer data;
+    private PageFile pageFile;
+    private int pageNumber;
+    private int pinCount;
+    private boolean dirty;
+
+    public Page() {
+        this(ByteBuffer.allocate(PAGE_SIZE));
+    }
+
+    // a frame over memory owned by the pool
+    Page(final ByteBuffer data) {
+        this.data = data;
+        this.pageNumber = -1;
+    }
+
+    public ByteBuffer getData() {
+        return data;
+    }
+
+    public PageFile getPageFile() {
+        return pageFile;
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    int getPinCount() {
+        return pinCount;
+    }
+
+    void pin() {
+        pinCount++;
+    }
+
+    void unpin() {
+        if (pinCount == 0) {
+            throw new IllegalStateException("Page " + pageNumber + " is not pinned");
+        }
+        pinCount--;
+    }
+
+    void setDirty(final boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    void reset(final PageFile pageFile, final int pageNumber) {
+        this.pageFile = pageFile;
+        this.pageNumber = pageNumber;
+        this.pinCount = 0;
+        this.dirty = false;
+        this.data.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "pageNumber=" + pageNumber +
+                ", pinCount=" + pinCount +
+                ", dirty=" + dirty +
+                '}';
+    }
+}
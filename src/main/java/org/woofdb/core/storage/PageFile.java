@@ -0,0 +1,127 @@
+package org.woofdb.core.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file made of {@link Page#PAGE_SIZE} sized pages. Page {@code n} lives at byte offset {@code n * PAGE_SIZE}.
+ * <p>
+ * Scans can also read pages through read-only mappings of the file, {@link #MAPPING_PAGES} pages each. Writes to
+ * the channel show through the mappings, a mapping that ends before a page written later is mapped again.
+ */
+public class PageFile implements Closeable {
+    static final int MAPPING_PAGES = 1 << 18;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> mappings;
+    private int pageCount;
+
+    private PageFile(final Path path, final FileChannel channel, final int pageCount) {
+        this.path = path;
+        this.channel = channel;
+        this.mappings = new ArrayList<>();
+        this.pageCount = pageCount;
+    }
+
+    public static PageFile open(final Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size % Page.PAGE_SIZE != 0) {
+            channel.close();
+            throw new IOException("File " + path + " is not aligned to the page size of " + Page.PAGE_SIZE + " bytes");
+        }
+        return new PageFile(path, channel, (int) (size / Page.PAGE_SIZE));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public synchronized int getPageCount() {
+        return pageCount;
+    }
+
+    synchronized int allocatePage() {
+        return pageCount++;
+    }
+
+    // reserves a contiguous run of pages and returns the first page number
+    synchronized int allocatePages(final int count) {
+        int firstPage = pageCount;
+        pageCount += count;
+        return firstPage;
+    }
+
+    void readPage(final int pageNumber, final ByteBuffer destination) throws IOException {
+        destination.clear();
+        long position = (long) pageNumber * Page.PAGE_SIZE;
+        while (destination.hasRemaining()) {
+            int read = channel.read(destination, position + destination.position());
+            if (read < 0) {
+                // page was allocated but never written, it reads back as zeroes
+                while (destination.hasRemaining()) {
+                    destination.put((byte) 0);
+                }
+            }
+        }
+        destination.clear();
+    }
+
+    // a read-only view of the page in the file, null when the page lies past what has been written to the file
+    synchronized ByteBuffer mappedPage(final int pageNumber) throws IOException {
+        int index = pageNumber / MAPPING_PAGES;
+        int offset = (pageNumber % MAPPING_PAGES) * Page.PAGE_SIZE;
+        while (mappings.size() <= index) {
+            mappings.add(null);
+        }
+        MappedByteBuffer mapping = mappings.get(index);
+        if (mapping == null || mapping.capacity() < offset + Page.PAGE_SIZE) {
+            long start = (long) index * MAPPING_PAGES * Page.PAGE_SIZE;
+            long size = Math.min((long) MAPPING_PAGES * Page.PAGE_SIZE, channel.size() - start);
+            if (size < offset + Page.PAGE_SIZE) {
+                return null;
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            mappings.set(index, mapping);
+        }
+        return mapping.slice(offset, Page.PAGE_SIZE);
+    }
+
+    void writePage(final int pageNumber, final ByteBuffer source) throws IOException {
+        writePages(pageNumber, source.duplicate().clear());
+    }
+
+    // writes consecutive pages starting at the given page with as few system calls as possible
+    void writePages(final int firstPage, final ByteBuffer source) throws IOException {
+        ByteBuffer buffer = source.duplicate();
+        long position = (long) firstPage * Page.PAGE_SIZE - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "PageFile{" +
+                "path=" + path +
+                ", pageCount=" + pageCount +
+                '}';
+    }
+}
@@ -0,0 +1,14 @@
+package org.woofdb.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// walks the encoded records of a storage without decoding them, buffer and offset are valid until the next call
+public interface RecordScanner {
+    // moves to the next record, false once there are no more
+    boolean next() throws IOException;
+
+    ByteBuffer buffer();
+
+    int offset();
+}
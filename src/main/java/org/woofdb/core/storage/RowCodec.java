@@ -0,0 +1,175 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.vector.ColumnVector;
+import org.woofdb.core.models.vector.DoubleVector;
+import org.woofdb.core.models.vector.FloatVector;
+import org.woofdb.core.models.vector.IntVector;
+import org.woofdb.core.models.vector.VarcharVector;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary record layout of a row version: the begin and end timestamps, a null bitmap and the non null values in
+ * column order. INT and FLOAT take 4 bytes, DOUBLE 8 bytes and VARCHAR a 2 byte length followed by UTF-8 bytes.
+ */
+public class RowCodec {
+    public static final int VERSION_HEADER_SIZE = 16;
+
+    private final DataType[] dataTypes;
+    private final int nullBitmapSize;
+
+    public RowCodec(final List<Column> columns) {
+        this.dataTypes = new DataType[columns.size()];
+        for (int i = 0; i < dataTypes.length; i ++) {
+            dataTypes[i] = columns.get(i).getDataType();
+        }
+        this.nullBitmapSize = (dataTypes.length + 7) / 8;
+    }
+
+    public byte[] encode(final Row row) {
+        Object[] values = row.getValues();
+        byte[][] strings = new byte[values.length][];
+        int size = VERSION_HEADER_SIZE + nullBitmapSize;
+        for (int i = 0; i < values.length; i ++) {
+            if (values[i] == null) {
+                continue;
+            }
+            switch (dataTypes[i]) {
+                case INT, FLOAT -> size += 4;
+                case DOUBLE -> size += 8;
+                case VARCHAR -> {
+                    strings[i] = ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+                    size += 2 + strings[i].length;
+                }
+            }
+        }
+        // a record lives in a single page, this also keeps every VARCHAR length within its 2 bytes
+        if (size > SlottedPage.MAX_RECORD_SIZE) {
+            throw new ConstraintViolationException("Row of " + size + " bytes exceeds the limit of "
+                    + SlottedPage.MAX_RECORD_SIZE + " bytes for table rows");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(row.getBeginTimestamp());
+        buffer.putLong(row.getEndTimestamp());
+        for (int i = 0; i < values.length; i ++) {
+            if (values[i] == null) {
+                int bitmapByte = VERSION_HEADER_SIZE + i / 8;
+                buffer.put(bitmapByte, (byte) (buffer.get(bitmapByte) | (1 << (i % 8))));
+            }
+        }
+        buffer.position(VERSION_HEADER_SIZE + nullBitmapSize);
+        for (int i = 0; i < values.length; i ++) {
+            if (values[i] == null) {
+                continue;
+            }
+            switch (dataTypes[i]) {
+                case INT -> buffer.putInt((Integer) values[i]);
+                case FLOAT -> buffer.putFloat((Float) values[i]);
+                case DOUBLE -> buffer.putDouble((Double) values[i]);
+                case VARCHAR -> {
+                    buffer.putShort((short) strings[i].length);
+                    buffer.put(strings[i]);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    public Row decode(final ByteBuffer source, final int offset) {
+        Row row = new Row(dataTypes.length);
+        row.setBeginTimestamp(source.getLong(offset));
+        row.setEndTimestamp(source.getLong(offset + 8));
+        int bitmap = offset + VERSION_HEADER_SIZE;
+        int position = bitmap + nullBitmapSize;
+        for (int i = 0; i < dataTypes.length; i ++) {
+            if ((source.get(bitmap + i / 8) & (1 << (i % 8))) != 0) {
+                continue;
+            }
+            switch (dataTypes[i]) {
+                case INT -> {
+                    row.setValue(i, source.getInt(position));
+                    position += 4;
+                }
+                case FLOAT -> {
+                    row.setValue(i, source.getFloat(position));
+                    position += 4;
+                }
+                case DOUBLE -> {
+                    row.setValue(i, source.getDouble(position));
+                    position += 8;
+                }
+                case VARCHAR -> {
+                    int length = source.getShort(position);
+                    byte[] bytes = new byte[length];
+                    source.get(position + 2, bytes);
+                    row.setValue(i, new String(bytes, StandardCharsets.UTF_8));
+                    position += 2 + length;
+                }
+            }
+        }
+        return row;
+    }
+
+    // decodes the record into the position of the batch, only the columns the batch materializes are copied out
+    public void decodeInto(final ByteBuffer source, final int offset, final VectorBatch batch, final int position) {
+        int bitmap = offset + VERSION_HEADER_SIZE;
+        int cursor = bitmap + nullBitmapSize;
+        int limit = batch.getMaterializedLimit();
+        for (int i = 0; i < limit; i ++) {
+            ColumnVector vector = batch.getColumn(i);
+            if ((source.get(bitmap + i / 8) & (1 << (i % 8))) != 0) {
+                if (vector != null) {
+                    vector.setNull(position);
+                }
+                continue;
+            }
+            switch (dataTypes[i]) {
+                case INT -> {
+                    if (vector != null) {
+                        ((IntVector) vector).set(position, source.getInt(cursor));
+                    }
+                    cursor += 4;
+                }
+                case FLOAT -> {
+                    if (vector != null) {
+                        ((FloatVector) vector).set(position, source.getFloat(cursor));
+                    }
+                    cursor += 4;
+                }
+                case DOUBLE -> {
+                    if (vector != null) {
+                        ((DoubleVector) vector).set(position, source.getDouble(cursor));
+                    }
+                    cursor += 8;
+                }
+                case VARCHAR -> {
+                    int length = source.getShort(cursor);
+                    if (vector != null) {
+                        ((VarcharVector) vector).set(position, source, cursor + 2, length);
+                    }
+                    cursor += 2 + length;
+                }
+            }
+        }
+    }
+
+    public static long readBeginTimestamp(final ByteBuffer source, final int offset) {
+        return source.getLong(offset);
+    }
+
+    public static long readEndTimestamp(final ByteBuffer source, final int offset) {
+        return source.getLong(offset + 8);
+    }
+
+    // stamps the end timestamp of an encoded version in place
+    public static void writeEndTimestamp(final ByteBuffer target, final int offset, final long endTimestamp) {
+        target.putLong(offset + 8, endTimestamp);
+    }
+}
@@ -0,0 +1,118 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.DataType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Index file mapping the values of one column to the locators of the rows holding them. The entries live in a
+ * B+Tree allowing duplicate keys whose meta page is the first page of the file. Null values are not indexed.
+ */
+public class SecondaryIndex implements Closeable {
+    private static final int META_PAGE = 0;
+
+    private final IndexDefinition definition;
+    private final int columnIndex;
+    private final PageFile pageFile;
+    private final BufferPool bufferPool;
+    private final BPlusTree tree;
+
+    private SecondaryIndex(final IndexDefinition definition, final int columnIndex, final PageFile pageFile,
+                           final BufferPool bufferPool, final BPlusTree tree) {
+        this.definition = definition;
+        this.columnIndex = columnIndex;
+        this.pageFile = pageFile;
+        this.bufferPool = bufferPool;
+        this.tree = tree;
+    }
+
+    public static SecondaryIndex create(final Path path, final IndexDefinition definition, final int columnIndex,
+                                        final DataType dataType, final BufferPool bufferPool) throws IOException {
+        PageFile pageFile = PageFile.open(path);
+        if (pageFile.getPageCount() != 0) {
+            pageFile.close();
+            throw new IOException("Index file " + path + " already exists");
+        }
+        return new SecondaryIndex(definition, columnIndex, pageFile, bufferPool, BPlusTree.create(pageFile, bufferPool, dataType, false));
+    }
+
+    public static SecondaryIndex open(final Path path, final IndexDefinition definition, final int columnIndex,
+                                      final BufferPool bufferPool) throws IOException {
+        PageFile pageFile = PageFile.open(path);
+        return new SecondaryIndex(definition, columnIndex, pageFile, bufferPool, BPlusTree.open(pageFile, bufferPool, META_PAGE));
+    }
+
+    public IndexDefinition getDefinition() {
+        return definition;
+    }
+
+    public String getName() {
+        return definition.name();
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public void insert(final Object value, final byte[] locator) throws IOException {
+        if (value != null) {
+            tree.insert(value, locator);
+        }
+    }
+
+    // values and locators are paired by position, they are sorted here so every leaf is touched once
+    public void insertAll(final List<Object> values, final List<byte[]> locators) throws IOException {
+        List<BPlusTree.Entry> entries = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i ++) {
+            if (values.get(i) != null) {
+                entries.add(new BPlusTree.Entry(values.get(i), locators.get(i)));
+            }
+        }
+        entries.sort((entry, other) -> {
+            int comparison = BPlusTree.compareKeys(entry.key(), other.key());
+            return comparison != 0 ? comparison : Arrays.compareUnsigned(entry.value(), other.value());
+        });
+        tree.insertAll(entries);
+    }
+
+    public void delete(final Object value, final byte[] locator) throws IOException {
+        if (value != null) {
+            tree.delete(value, locator);
+        }
+    }
+
+    // an index entry points at every row version that held the value, so the pair may already be there
+    public boolean contains(final Object value, final byte[] locator) throws IOException {
+        return value != null && tree.contains(value, locator);
+    }
+
+    // entries of the rows whose value is between the bounds, the key of an entry is the value and its value the
+    // locator of the row, null bounds are open ended
+    public Iterator<BPlusTree.Entry> find(final Object low, final boolean lowInclusive, final Object high, final boolean highInclusive) {
+        return tree.scan(low, lowInclusive, high, highInclusive);
+    }
+
+    public void flush() throws IOException {
+        bufferPool.flushFile(pageFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        bufferPool.discardFile(pageFile);
+        pageFile.close();
+    }
+
+    public void drop() throws IOException {
+        bufferPool.discardFile(pageFile);
+        pageFile.close();
+        Files.deleteIfExists(pageFile.getPath());
+    }
+}
@@ -0,0 +1,165 @@
+package org.woofdb.core.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Slotted layout of a data page:
+ * <pre>
+ * | type (1) | reserved (1) | slot count (2) | free space end (2) | deleted slots (2) | slot 0 | slot 1 | ... free ... | record 1 | record 0 |
+ * </pre>
+ * Each slot is a (offset, length) pair of shorts. Records grow from the end of the page towards the slot array.
+ * A deleted slot is taken again by the next insert into the page, the space of its record only comes back when the
+ * page is compacted. All accesses use absolute positions so pinned pages can be read by several threads at once.
+ */
+public final class SlottedPage {
+    public static final byte TYPE_DATA = 1;
+
+    private static final int TYPE_OFFSET = 0;
+    private static final int SLOT_COUNT_OFFSET = 2;
+    private static final int FREE_SPACE_END_OFFSET = 4;
+    private static final int DELETED_COUNT_OFFSET = 6;
+    private static final int HEADER_SIZE = 8;
+    private static final int SLOT_SIZE = 4;
+
+    public static final int MAX_RECORD_SIZE = Page.PAGE_SIZE - HEADER_SIZE - SLOT_SIZE;
+
+    private SlottedPage() {
+    }
+
+    public static void init(final ByteBuffer page) {
+        page.put(TYPE_OFFSET, TYPE_DATA);
+        page.putShort(SLOT_COUNT_OFFSET, (short) 0);
+        setFreeSpaceEnd(page, Page.PAGE_SIZE);
+        setDeletedCount(page, 0);
+    }
+
+    public static int getSlotCount(final ByteBuffer page) {
+        return Short.toUnsignedInt(page.getShort(SLOT_COUNT_OFFSET));
+    }
+
+    public static int getFreeSpace(final ByteBuffer page) {
+        return getFreeSpaceEnd(page) - (HEADER_SIZE + getSlotCount(page) * SLOT_SIZE);
+    }
+
+    public static boolean canFit(final ByteBuffer page, final int recordLength) {
+        return getFreeSpace(page) >= recordLength + SLOT_SIZE;
+    }
+
+    // returns the slot the record was stored in, or -1 when the page is full
+    public static int insert(final ByteBuffer page, final byte[] record) {
+        return insert(page, record, 0, record.length);
+    }
+
+    public static int insert(final ByteBuffer page, final byte[] source, final int offset, final int length) {
+        int slot = getDeletedCount(page) > 0 ? firstDeletedSlot(page) : getSlotCount(page);
+        boolean newSlot = slot == getSlotCount(page);
+        if (getFreeSpace(page) < length + (newSlot ? SLOT_SIZE : 0)) {
+            return -1;
+        }
+        int recordOffset = getFreeSpaceEnd(page) - length;
+        page.put(recordOffset, source, offset, length);
+        setFreeSpaceEnd(page, recordOffset);
+        int slotPosition = slotPosition(slot);
+        page.putShort(slotPosition, (short) recordOffset);
+        page.putShort(slotPosition + 2, (short) length);
+        if (newSlot) {
+            page.putShort(SLOT_COUNT_OFFSET, (short) (slot + 1));
+        }
+        else {
+            setDeletedCount(page, getDeletedCount(page) - 1);
+        }
+        return slot;
+    }
+
+    // overwrites the record in its current place, returns false when the new record is longer than the old one
+    public static boolean update(final ByteBuffer page, final int slot, final byte[] record) {
+        if (record.length > getRecordLength(page, slot)) {
+            return false;
+        }
+        int slotPosition = slotPosition(slot);
+        page.put(getRecordOffset(page, slot), record);
+        page.putShort(slotPosition + 2, (short) record.length);
+        return true;
+    }
+
+    // a deleted slot keeps its position so the slots after it stay addressable, its length becomes 0
+    public static void delete(final ByteBuffer page, final int slot) {
+        if (!isDeleted(page, slot)) {
+            page.putShort(slotPosition(slot) + 2, (short) 0);
+            setDeletedCount(page, getDeletedCount(page) + 1);
+        }
+    }
+
+    // moves the records to the end of the page so the space of deleted and shrunk records is one free block again,
+    // records keep their slots and trailing deleted slots are dropped
+    public static void compact(final ByteBuffer page) {
+        int slotCount = getSlotCount(page);
+        while (slotCount > 0 && isDeleted(page, slotCount - 1)) {
+            slotCount --;
+        }
+        int deleted = 0;
+        byte[] records = new byte[Page.PAGE_SIZE];
+        int freeSpaceEnd = Page.PAGE_SIZE;
+        for (int slot = 0; slot < slotCount; slot ++) {
+            int length = getRecordLength(page, slot);
+            if (length == 0) {
+                page.putShort(slotPosition(slot), (short) 0);
+                deleted ++;
+                continue;
+            }
+            freeSpaceEnd -= length;
+            page.get(getRecordOffset(page, slot), records, freeSpaceEnd, length);
+            page.putShort(slotPosition(slot), (short) freeSpaceEnd);
+        }
+        page.put(freeSpaceEnd, records, freeSpaceEnd, Page.PAGE_SIZE - freeSpaceEnd);
+        page.putShort(SLOT_COUNT_OFFSET, (short) slotCount);
+        setFreeSpaceEnd(page, freeSpaceEnd);
+        setDeletedCount(page, deleted);
+    }
+
+    public static boolean isDeleted(final ByteBuffer page, final int slot) {
+        return getRecordLength(page, slot) == 0;
+    }
+
+    public static int getRecordOffset(final ByteBuffer page, final int slot) {
+        return Short.toUnsignedInt(page.getShort(slotPosition(slot)));
+    }
+
+    public static int getRecordLength(final ByteBuffer page, final int slot) {
+        return Short.toUnsignedInt(page.getShort(slotPosition(slot) + 2));
+    }
+
+    public static byte[] getRecord(final ByteBuffer page, final int slot) {
+        byte[] record = new byte[getRecordLength(page, slot)];
+        page.get(getRecordOffset(page, slot), record);
+        return record;
+    }
+
+    private static int getDeletedCount(final ByteBuffer page) {
+        return Short.toUnsignedInt(page.getShort(DELETED_COUNT_OFFSET));
+    }
+
+    private static void setDeletedCount(final ByteBuffer page, final int deletedCount) {
+        page.putShort(DELETED_COUNT_OFFSET, (short) deletedCount);
+    }
+
+    private static int firstDeletedSlot(final ByteBuffer page) {
+        int slot = 0;
+        while (!isDeleted(page, slot)) {
+            slot ++;
+        }
+        return slot;
+    }
+
+    private static int getFreeSpaceEnd(final ByteBuffer page) {
+        return Short.toUnsignedInt(page.getShort(FREE_SPACE_END_OFFSET));
+    }
+
+    private static void setFreeSpaceEnd(final ByteBuffer page, final int freeSpaceEnd) {
+        page.putShort(FREE_SPACE_END_OFFSET, (short) freeSpaceEnd);
+    }
+
+    private static int slotPosition(final int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,138 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contents of page 0 of a table file: format identification, the table schema and row bookkeeping.
+ * Data pages follow the header page.
+ */
+public class TableHeader {
+    public static final int HEADER_PAGE = 0;
+
+    private static final int MAGIC = 0x574F4F46; // "WOOF"
+    private static final int FORMAT_VERSION = 3;
+    private static final int NULLABLE_FLAG = 1;
+    private static final int PRIMARY_KEY_FLAG = 2;
+    private static final int ROW_COUNT_OFFSET = 12;
+
+    private String tableName;
+    private List<Column> columns;
+    private long rowCount;
+    private int treeMetaPage = -1;
+    private final List<IndexDefinition> indexes = new ArrayList<>();
+
+    public TableHeader(final String tableName, final List<Column> columns) {
+        this.tableName = tableName;
+        this.columns = columns;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(final long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    // meta page of the B+Tree holding the rows of a clustered table, -1 for heap tables
+    public int getTreeMetaPage() {
+        return treeMetaPage;
+    }
+
+    public void setTreeMetaPage(final int treeMetaPage) {
+        this.treeMetaPage = treeMetaPage;
+    }
+
+    public List<IndexDefinition> getIndexes() {
+        return indexes;
+    }
+
+    public void writeTo(final ByteBuffer page) {
+        ByteBuffer buffer = page.duplicate().clear();
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(Page.PAGE_SIZE);
+        buffer.putLong(rowCount);
+        buffer.putInt(treeMetaPage);
+        putString(buffer, tableName);
+        buffer.putInt(columns.size());
+        for (Column column : columns) {
+            putString(buffer, column.getName());
+            buffer.putInt(column.getDataType().ordinal());
+            buffer.put((byte) ((column.isNullable() ? NULLABLE_FLAG : 0) | (column.isPrimaryKey() ? PRIMARY_KEY_FLAG : 0)));
+        }
+        buffer.putInt(indexes.size());
+        for (IndexDefinition index : indexes) {
+            putString(buffer, index.name());
+            putString(buffer, index.columnName());
+        }
+    }
+
+    public void writeRowCountTo(final ByteBuffer page) {
+        page.putLong(ROW_COUNT_OFFSET, rowCount);
+    }
+
+    public static TableHeader readFrom(final ByteBuffer page) throws IOException {
+        ByteBuffer buffer = page.duplicate().clear();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a WoofDB table file");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported table file version " + version);
+        }
+        int pageSize = buffer.getInt();
+        if (pageSize != Page.PAGE_SIZE) {
+            throw new IOException("Table file uses " + pageSize + " byte pages, expected " + Page.PAGE_SIZE);
+        }
+        long rowCount = buffer.getLong();
+        int treeMetaPage = buffer.getInt();
+        String tableName = getString(buffer);
+        int columnCount = buffer.getInt();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i ++) {
+            String name = getString(buffer);
+            DataType dataType = DataType.values()[buffer.getInt()];
+            int flags = buffer.get();
+            Column column = new Column(name, dataType, (flags & NULLABLE_FLAG) != 0);
+            column.setPrimaryKey((flags & PRIMARY_KEY_FLAG) != 0);
+            columns.add(column);
+        }
+        TableHeader header = new TableHeader(tableName, columns);
+        header.setRowCount(rowCount);
+        header.setTreeMetaPage(treeMetaPage);
+        // headers written before indexes existed end with zeroes, which reads back as no indexes
+        int indexCount = buffer.getInt();
+        for (int i = 0; i < indexCount; i ++) {
+            header.getIndexes().add(new IndexDefinition(getString(buffer), getString(buffer)));
+        }
+        return header;
+    }
+
+    static void putString(final ByteBuffer buffer, final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
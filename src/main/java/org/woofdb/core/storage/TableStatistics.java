@@ -0,0 +1,217 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Statistics of the columns of a table, computed by ANALYZE over every visible row and kept current by the rows
+ * inserted after it. The histograms are built from a uniform sample of up to {@value #SAMPLE_SIZE} values per
+ * column, the counts, bounds and distinct estimates see every row.
+ * <p>
+ * They live in a file next to the table file, written by ANALYZE and whenever the table is flushed. Inserts since the
+ * last flush are missing from the file after a crash, until the next ANALYZE counts them again.
+ */
+public final class TableStatistics {
+    public static final int HISTOGRAM_BUCKETS = 100;
+    static final int SAMPLE_SIZE = 30_000;
+    private static final int MAGIC = 0x574f4f53;
+    private static final int FORMAT_VERSION = 1;
+
+    private long rowCount;
+    private final List<ColumnStatistics> columns;
+    private boolean dirty;
+
+    private TableStatistics(final long rowCount, final List<ColumnStatistics> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    // reads every row once, the sample of each column is a reservoir of its non-null values
+    public static TableStatistics collect(final List<Column> columns, final Iterator<Row> rows) {
+        List<ColumnStatistics> statistics = new ArrayList<>();
+        for (Column column : columns) {
+            statistics.add(new ColumnStatistics(column.getDataType(), 0, null, null, new HyperLogLog(), new Object[0]));
+        }
+        Object[][] samples = new Object[columns.size()][SAMPLE_SIZE];
+        long[] seen = new long[columns.size()];
+        // the same rows give the same histograms
+        SplittableRandom random = new SplittableRandom(0);
+        long rowCount = 0;
+        while (rows.hasNext()) {
+            Object[] values = rows.next().getValues();
+            rowCount ++;
+            for (int i = 0; i < values.length; i ++) {
+                statistics.get(i).add(values[i]);
+                if (values[i] == null) {
+                    continue;
+                }
+                if (seen[i] < SAMPLE_SIZE) {
+                    samples[i][(int) seen[i]] = values[i];
+                }
+                else {
+                    long slot = random.nextLong(seen[i] + 1);
+                    if (slot < SAMPLE_SIZE) {
+                        samples[i][(int) slot] = values[i];
+                    }
+                }
+                seen[i] ++;
+            }
+        }
+        for (int i = 0; i < columns.size(); i ++) {
+            Object[] sample = Arrays.copyOf(samples[i], (int) Math.min(seen[i], SAMPLE_SIZE));
+            statistics.get(i).setHistogram(histogram(sample));
+        }
+        return new TableStatistics(rowCount, statistics);
+    }
+
+    // bounds of equally deep buckets over the sorted sample, the first and last bound are its smallest and largest value
+    private static Object[] histogram(final Object[] sample) {
+        if (sample.length == 0) {
+            return sample;
+        }
+        Arrays.sort(sample, BPlusTree::compareKeys);
+        int buckets = Math.max(1, Math.min(HISTOGRAM_BUCKETS, sample.length - 1));
+        Object[] bounds = new Object[buckets + 1];
+        for (int i = 0; i <= buckets; i ++) {
+            bounds[i] = sample[(int) ((long) i * (sample.length - 1) / buckets)];
+        }
+        return bounds;
+    }
+
+    // the rows analyzed and inserted since
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public ColumnStatistics getColumn(final int columnIndex) {
+        return columns.get(columnIndex);
+    }
+
+    public double getNullFraction(final int columnIndex) {
+        return rowCount == 0 ? 0 : (double) columns.get(columnIndex).getNullCount() / rowCount;
+    }
+
+    public void add(final Row row) {
+        Object[] values = row.getValues();
+        for (int i = 0; i < values.length; i ++) {
+            columns.get(i).add(values[i]);
+        }
+        rowCount ++;
+        dirty = true;
+    }
+
+    // whether rows were added since the statistics were last written
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    // replaces the file as a whole, a crash leaves either the old or the new statistics
+    public void writeTo(final Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(rowCount);
+            out.writeInt(columns.size());
+            for (ColumnStatistics column : columns) {
+                out.writeInt(column.getDataType().ordinal());
+                out.writeLong(column.getNullCount());
+                writeValue(out, column.getDataType(), column.getMin());
+                writeValue(out, column.getDataType(), column.getMax());
+                Object[] histogram = column.getHistogram();
+                out.writeInt(histogram.length);
+                for (Object bound : histogram) {
+                    writeValue(out, column.getDataType(), bound);
+                }
+                out.write(column.getSketch().getRegisters());
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    public static TableStatistics readFrom(final Path path, final List<Column> columns) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a WoofDB statistics file: " + path);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported statistics file version " + version);
+            }
+            long rowCount = in.readLong();
+            int columnCount = in.readInt();
+            if (columnCount != columns.size()) {
+                throw new IOException("Statistics file " + path + " has " + columnCount + " columns, the table has " + columns.size());
+            }
+            List<ColumnStatistics> statistics = new ArrayList<>();
+            for (Column column : columns) {
+                DataType dataType = DataType.values()[in.readInt()];
+                if (dataType != column.getDataType()) {
+                    throw new IOException("Statistics file " + path + " has a " + dataType + " column " + column.getName()
+                            + ", the table has a " + column.getDataType() + " one");
+                }
+                long nullCount = in.readLong();
+                Object min = readValue(in, dataType);
+                Object max = readValue(in, dataType);
+                Object[] histogram = new Object[in.readInt()];
+                for (int i = 0; i < histogram.length; i ++) {
+                    histogram[i] = readValue(in, dataType);
+                }
+                byte[] registers = new byte[HyperLogLog.REGISTERS];
+                in.readFully(registers);
+                statistics.add(new ColumnStatistics(dataType, nullCount, min, max, new HyperLogLog(registers), histogram));
+            }
+            return new TableStatistics(rowCount, statistics);
+        }
+    }
+
+    private static void writeValue(final DataOutputStream out, final DataType dataType, final Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        switch (dataType) {
+            case INT -> out.writeInt((Integer) value);
+            case FLOAT -> out.writeFloat((Float) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            case VARCHAR -> {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static Object readValue(final DataInputStream in, final DataType dataType) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return switch (dataType) {
+            case INT -> in.readInt();
+            case FLOAT -> in.readFloat();
+            case DOUBLE -> in.readDouble();
+            case VARCHAR -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package org.woofdb.core.storage;
+
+import org.woofdb.core.models.Row;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Physical organization of the row versions of a table inside its page file. Every stored version is addressed by an
+ * opaque locator, which is what secondary indexes point to. Storages keep every version they are given, deciding
+ * which one a transaction sees is up to the caller.
+ */
+public interface TableStorage {
+    // returns the locator of the stored version
+    byte[] insert(Row version) throws IOException;
+
+    // stores a batch of versions, returns their locators in the same order
+    default List<byte[]> insertAll(final List<Row> versions) throws IOException {
+        List<byte[]> locators = new ArrayList<>(versions.size());
+        for (Row version : versions) {
+            locators.add(insert(version));
+        }
+        return locators;
+    }
+
+    // versions stored at the locator, newest first, empty when nothing lives there anymore
+    List<Row> fetch(byte[] locator) throws IOException;
+
+    // replaces the versions stored at the locator with the given ones, newest first
+    void rewrite(byte[] locator, List<Row> versions) throws IOException;
+
+    // every stored version, including the ones no transaction can see anymore
+    Iterator<StoredRow> scan();
+
+    // every stored version still encoded, for consumers that decode only what they need
+    RecordScanner scanRecords();
+
+    // the same records split into about the given number of independent scanners of similar size, in storage
+    // order, so they can be scanned in parallel
+    default List<RecordScanner> partitionRecords(final int partitions) throws IOException {
+        return List.of(scanRecords());
+    }
+
+    // removes the stored versions the filter calls obsolete and gives their space back, every removed version is
+    // passed to the listener before it goes; returns how many were removed
+    long vacuum(VersionFilter obsolete, RemovalListener listener) throws IOException;
+
+    record StoredRow(byte[] locator, Row row) {
+    }
+
+    @FunctionalInterface
+    interface VersionFilter {
+        boolean test(long beginTimestamp, long endTimestamp);
+    }
+
+    // remaining holds the versions still stored at the locator, newest first
+    @FunctionalInterface
+    interface RemovalListener {
+        void removed(byte[] locator, Row version, List<Row> remaining) throws IOException;
+    }
+}
@@ -0,0 +1,368 @@
+package org.woofdb.core.storage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Redo log of page images shared by every file of a database directory. Changed pages are appended to the log instead
+ * of being written in place, a commit record followed by one fsync makes everything appended before it durable.
+ * Pages whose latest image lives in the log are read back from it until a checkpoint copies them into their files and
+ * truncates the log. On open, the images of committed frames are replayed into the files and the rest is dropped.
+ * <p>
+ * Frame layout: type byte, payload length, payload, CRC32C of the preceding bytes. A page payload holds the file name,
+ * the page number and the page image without its longest run of zero bytes (the free space hole of the page).
+ */
+public class WriteAheadLog implements Closeable {
+    public static final String FILE_NAME = "wal.log";
+    public static final long DEFAULT_CHECKPOINT_SIZE = 16L << 20;
+
+    private static final byte TYPE_PAGE = 1;
+    private static final byte TYPE_COMMIT = 2;
+    private static final int FRAME_OVERHEAD = 1 + 4 + 4;
+    // holes shorter than this cost more to describe than they save
+    private static final int MIN_HOLE_SIZE = 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long checkpointSize;
+    // offset of the frame holding the latest image of every page appended since the last checkpoint
+    private final Map<PageFile, Map<Integer, Long>> latestFrames;
+    private final Object syncLock;
+    private long size;
+    private long committedSize;
+    private volatile long durableSize;
+    private volatile long syncCount;
+
+    private WriteAheadLog(final Path path, final FileChannel channel, final long checkpointSize) {
+        this.path = path;
+        this.channel = channel;
+        this.checkpointSize = checkpointSize;
+        this.latestFrames = new HashMap<>();
+        this.syncLock = new Object();
+    }
+
+    public static WriteAheadLog open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_CHECKPOINT_SIZE);
+    }
+
+    public static WriteAheadLog open(final Path directory, final long checkpointSize) throws IOException {
+        Path path = directory.resolve(FILE_NAME);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        WriteAheadLog log = new WriteAheadLog(path, channel, checkpointSize);
+        try {
+            log.recover(directory);
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    // appends the images without making them durable, returns the log size the caller has to wait for
+    public synchronized long append(final Collection<Page> pages) throws IOException {
+        int capacity = 0;
+        for (Page page : pages) {
+            capacity += maxFrameSize(page.getPageFile());
+        }
+        ByteBuffer frames = ByteBuffer.allocate(capacity);
+        List<Long> offsets = new ArrayList<>(pages.size());
+        for (Page page : pages) {
+            offsets.add(size + frames.position());
+            writePageFrame(frames, page.getPageFile(), page.getPageNumber(), page.getData());
+        }
+        write(frames.flip());
+        int i = 0;
+        for (Page page : pages) {
+            index(page.getPageFile(), page.getPageNumber(), offsets.get(i ++));
+        }
+        return size;
+    }
+
+    // consecutive page images starting at the given page, as packed by the bulk load path
+    public synchronized long append(final PageFile pageFile, final int firstPage, final ByteBuffer source) throws IOException {
+        int pageCount = source.remaining() / Page.PAGE_SIZE;
+        ByteBuffer frames = ByteBuffer.allocate(pageCount * maxFrameSize(pageFile));
+        long[] offsets = new long[pageCount];
+        for (int i = 0; i < pageCount; i ++) {
+            offsets[i] = size + frames.position();
+            ByteBuffer image = source.slice(source.position() + i * Page.PAGE_SIZE, Page.PAGE_SIZE);
+            writePageFrame(frames, pageFile, firstPage + i, image);
+        }
+        write(frames.flip());
+        for (int i = 0; i < pageCount; i ++) {
+            index(pageFile, firstPage + i, offsets[i]);
+        }
+        return size;
+    }
+
+    // pages appended before this call become durable once sync returns for the returned size
+    public synchronized long commit(final Collection<Page> pages) throws IOException {
+        if (pages.isEmpty() && size == committedSize) {
+            return size;
+        }
+        append(pages);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_OVERHEAD);
+        frame.put(TYPE_COMMIT).putInt(0);
+        frame.putInt(checksum(frame, 0, frame.position()));
+        write(frame.flip());
+        committedSize = size;
+        return size;
+    }
+
+    // group commit: whoever gets here first forces everything written so far, writers that appended meanwhile find
+    // their frames already durable and return without a second fsync
+    public void sync(final long upTo) throws IOException {
+        if (durableSize >= upTo) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSize >= upTo) {
+                return;
+            }
+            long target = getSize();
+            channel.force(false);
+            durableSize = target;
+            syncCount ++;
+        }
+    }
+
+    // the fsyncs made by sync, fewer than the commits when writers share them
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    public synchronized boolean needsCheckpoint() {
+        return size >= checkpointSize;
+    }
+
+    public synchronized boolean contains(final PageFile pageFile, final int pageNumber) {
+        Map<Integer, Long> frames = latestFrames.get(pageFile);
+        return frames != null && frames.containsKey(pageNumber);
+    }
+
+    // reads the latest logged image of the page, returns false when the log holds none
+    public synchronized boolean readPage(final PageFile pageFile, final int pageNumber, final ByteBuffer destination) throws IOException {
+        Map<Integer, Long> frames = latestFrames.get(pageFile);
+        Long offset = frames == null ? null : frames.get(pageNumber);
+        if (offset == null) {
+            return false;
+        }
+        decodePage(readFrame(offset), destination);
+        return true;
+    }
+
+    // copies the latest image of every logged page into its file and empties the log, callers must not append
+    // frames of an unfinished change concurrently
+    public synchronized void checkpoint() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer image = ByteBuffer.allocate(Page.PAGE_SIZE);
+        for (Map.Entry<PageFile, Map<Integer, Long>> file : latestFrames.entrySet()) {
+            List<Map.Entry<Integer, Long>> pages = new ArrayList<>(file.getValue().entrySet());
+            pages.sort(Map.Entry.comparingByKey());
+            for (Map.Entry<Integer, Long> page : pages) {
+                readPage(file.getKey(), page.getKey(), image);
+                file.getKey().writePage(page.getKey(), image);
+            }
+            file.getKey().sync();
+        }
+        truncate();
+    }
+
+    // the file goes away, its images must neither be read back nor copied anywhere
+    public synchronized void forget(final PageFile pageFile) {
+        latestFrames.remove(pageFile);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void recover(final Path directory) throws IOException {
+        long length = channel.size();
+        if (length == 0) {
+            return;
+        }
+        Map<String, Map<Integer, Long>> committed = new LinkedHashMap<>();
+        Map<String, Map<Integer, Long>> pending = new LinkedHashMap<>();
+        long offset = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (offset + FRAME_OVERHEAD <= length) {
+                byte type = input.readByte();
+                int payloadLength = input.readInt();
+                if ((type != TYPE_PAGE && type != TYPE_COMMIT) || payloadLength < 0 || offset + FRAME_OVERHEAD + payloadLength > length) {
+                    break;
+                }
+                ByteBuffer frame = ByteBuffer.allocate(5 + payloadLength);
+                frame.put(type).putInt(payloadLength);
+                input.readFully(frame.array(), 5, payloadLength);
+                if (input.readInt() != checksum(frame, 0, frame.capacity())) {
+                    // torn tail of a write that never completed
+                    break;
+                }
+                if (type == TYPE_PAGE) {
+                    frame.position(5);
+                    String fileName = readName(frame);
+                    pending.computeIfAbsent(fileName, name -> new HashMap<>()).put(frame.getInt(), offset);
+                }
+                else {
+                    pending.forEach((fileName, frames) -> committed.computeIfAbsent(fileName, name -> new HashMap<>()).putAll(frames));
+                    pending.clear();
+                }
+                offset += FRAME_OVERHEAD + payloadLength;
+            }
+        }
+        catch (EOFException e) {
+            // the last frame was cut short
+        }
+
+        ByteBuffer image = ByteBuffer.allocate(Page.PAGE_SIZE);
+        for (Map.Entry<String, Map<Integer, Long>> file : committed.entrySet()) {
+            Path filePath = directory.resolve(file.getKey());
+            // a file dropped after its pages were logged stays dropped
+            if (!Files.exists(filePath)) {
+                continue;
+            }
+            try (PageFile pageFile = PageFile.open(filePath)) {
+                List<Integer> pageNumbers = new ArrayList<>(file.getValue().keySet());
+                pageNumbers.sort(Comparator.naturalOrder());
+                for (int pageNumber : pageNumbers) {
+                    decodePage(readFrame(file.getValue().get(pageNumber)), image);
+                    pageFile.writePage(pageNumber, image);
+                }
+                pageFile.sync();
+            }
+        }
+        truncate();
+    }
+
+    private void truncate() throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+        latestFrames.clear();
+        size = 0;
+        committedSize = 0;
+        durableSize = 0;
+    }
+
+    private void index(final PageFile pageFile, final int pageNumber, final long offset) {
+        latestFrames.computeIfAbsent(pageFile, file -> new HashMap<>()).put(pageNumber, offset);
+    }
+
+    private void write(final ByteBuffer frames) throws IOException {
+        while (frames.hasRemaining()) {
+            size += channel.write(frames, size);
+        }
+    }
+
+    // the frame starting at the offset, positioned at its payload
+    private ByteBuffer readFrame(final long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(header, offset);
+        ByteBuffer frame = ByteBuffer.allocate(5 + header.getInt(1));
+        readFully(frame, offset);
+        return frame.position(5);
+    }
+
+    private void readFully(final ByteBuffer destination, final long offset) throws IOException {
+        while (destination.hasRemaining()) {
+            if (channel.read(destination, offset + destination.position()) < 0) {
+                throw new EOFException("Write-ahead log " + path + " ends inside a frame at " + offset);
+            }
+        }
+        destination.flip();
+    }
+
+    private static int maxFrameSize(final PageFile pageFile) {
+        return FRAME_OVERHEAD + 2 + pageFile.getPath().getFileName().toString().getBytes(StandardCharsets.UTF_8).length + 8 + Page.PAGE_SIZE;
+    }
+
+    private static void writePageFrame(final ByteBuffer frames, final PageFile pageFile, final int pageNumber, final ByteBuffer image) {
+        int holeOffset = 0;
+        int holeLength = 0;
+        int runStart = -1;
+        for (int i = 0; i <= Page.PAGE_SIZE; i ++) {
+            if (i < Page.PAGE_SIZE && image.get(i) == 0) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+            }
+            else if (runStart >= 0) {
+                if (i - runStart > holeLength) {
+                    holeOffset = runStart;
+                    holeLength = i - runStart;
+                }
+                runStart = -1;
+            }
+        }
+        if (holeLength < MIN_HOLE_SIZE) {
+            holeOffset = 0;
+            holeLength = 0;
+        }
+        byte[] name = pageFile.getPath().getFileName().toString().getBytes(StandardCharsets.UTF_8);
+        int start = frames.position();
+        frames.put(TYPE_PAGE).putInt(0);
+        frames.putShort((short) name.length).put(name);
+        frames.putInt(pageNumber);
+        frames.putShort((short) holeOffset).putShort((short) holeLength);
+        frames.put(image.slice(0, holeOffset));
+        frames.put(image.slice(holeOffset + holeLength, Page.PAGE_SIZE - holeOffset - holeLength));
+        frames.putInt(start + 1, frames.position() - start - 5);
+        frames.putInt(checksum(frames, start, frames.position() - start));
+    }
+
+    // positioned at the payload of a page frame, fills the destination with the page image
+    private static void decodePage(final ByteBuffer frame, final ByteBuffer destination) {
+        readName(frame);
+        frame.getInt();
+        int holeOffset = Short.toUnsignedInt(frame.getShort());
+        int holeLength = Short.toUnsignedInt(frame.getShort());
+        destination.clear();
+        destination.put(frame.slice(frame.position(), holeOffset));
+        for (int i = 0; i < holeLength; i ++) {
+            destination.put((byte) 0);
+        }
+        destination.put(frame.slice(frame.position() + holeOffset, Page.PAGE_SIZE - holeOffset - holeLength));
+        destination.clear();
+    }
+
+    private static String readName(final ByteBuffer frame) {
+        byte[] name = new byte[frame.getShort()];
+        frame.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(final ByteBuffer buffer, final int offset, final int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -12,29 +12,50 @@ import java.util.Set;
 public final class SqlTokenizer implements Tokenizer {
 
     public static Set<String> SUPPORTED_KEYWORDS = Set.of(
+            "ANALYZE",
             "AND",
+            "AS",
+            "ASC",
+            "BEGIN",
+            "BY",
+            "COMMIT",
+            "COPY",
             "CREATE",
             "DATABASE",
             "DATABASES",
+            "DEALLOCATE",
+            "DELETE",
+            "DESC",
             "DESCRIBE",
             "DROP",
+            "EXECUTE",
             "EXPLAIN",
             "FROM",
+            "GROUP",
             "INDEX",
+            "INNER",
             "INSERT",
             "INTO",
+            "JOIN",
+            "KEY",
             "LIKE",
             "LIMIT",
             "ON",
             "OR",
+            "ORDER",
+            "PREPARE",
             "PRIMARY",
+            "ROLLBACK",
             "SELECT",
             "SET",
             "SHOW",
+            "START",
             "TABLE",
             "TABLES",
+            "TRANSACTION",
             "UPDATE",
             "USE",
+            "VACUUM",
             "VALUES",
             "WHERE"
     );
@@ -45,6 +66,11 @@ public final class SqlTokenizer implements Tokenizer {
 
     @Override
     public List<Token> getTokens(final String sql) {
+        return getTokens(sql, false);
+    }
+
+    @Override
+    public List<Token> getTokens(final String sql, final boolean keepParentheses) {
 
         if (sql == null || sql.isBlank())
             return Collections.emptyList();
@@ -65,10 +91,11 @@ public final class SqlTokenizer implements Tokenizer {
                 continue;
             }
 
-            // check for identifiers and keywords
+            // check for identifiers and keywords, a column can be qualified with its table as in users.id
             if (Character.isLetter(currentChar)) {
                 int startPosition = position;
-                while (position < sql.length() && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '_')) {
+                while (position < sql.length() && (Character.isLetterOrDigit(sql.charAt(position)) || sql.charAt(position) == '_'
+                        || (sql.charAt(position) == '.' && position + 1 < sql.length() && Character.isLetter(sql.charAt(position + 1))))) {
                     position++;
                 }
 
@@ -124,12 +151,29 @@ public final class SqlTokenizer implements Tokenizer {
                 continue;
             }
 
+            // <=, >=, <> and != are read as one operator
+            if (currentChar == '<' || currentChar == '>' || currentChar == '!') {
+                int nextPosition = position + 1;
+                if (nextPosition < sql.length() && (sql.charAt(nextPosition) == '=' || (currentChar == '<' && sql.charAt(nextPosition) == '>'))) {
+                    tokens.add(new Token(TokenType.OPERATOR, sql.substring(position, nextPosition + 1)));
+                    position += 2;
+                    continue;
+                }
+            }
+
             if (currentChar == '=' || currentChar == '>' || currentChar == '<') {
                 tokens.add(new Token(TokenType.OPERATOR, Character.toString(currentChar)));
                 position ++;
                 continue;
             }
 
+            // a placeholder of a prepared statement, read as a literal whose value is bound later
+            if (currentChar == '?') {
+                tokens.add(new Token(TokenType.LITERAL, Character.toString(currentChar)));
+                position ++;
+                continue;
+            }
+
             if (currentChar == ',') {
                 tokens.add(new Token(TokenType.COMMA, Character.toString(currentChar)));
                 position ++;
@@ -143,6 +187,9 @@ public final class SqlTokenizer implements Tokenizer {
             }
 
             if (currentChar == '(' || currentChar == ')') {
+                if (keepParentheses) {
+                    tokens.add(new Token(currentChar == '(' ? TokenType.LEFT_PARENTHESIS : TokenType.RIGHT_PARENTHESIS, Character.toString(currentChar)));
+                }
                 position ++;
             }
 
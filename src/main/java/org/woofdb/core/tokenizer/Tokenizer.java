@@ -6,4 +6,7 @@ import java.util.List;
 
 public interface Tokenizer {
     List<Token> getTokens(final String command);
+
+    // parentheses are dropped by default, expressions need them to group conditions
+    List<Token> getTokens(final String command, final boolean keepParentheses);
 }
@@ -0,0 +1,111 @@
+package org.woofdb.core.transaction;
+
+import org.woofdb.core.exceptions.TransactionConflictException;
+import org.woofdb.core.models.Row;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot isolated unit of work. The snapshot is taken at begin: the transaction sees the versions created by
+ * itself and by the transactions that committed before it began, readers never wait for writers. Two transactions
+ * replacing the same version conflict and the later one fails, first writer wins.
+ */
+public class Transaction {
+    public enum State {
+        ACTIVE,
+        COMMITTED,
+        ABORTED
+    }
+
+    private final long id;
+    private final Set<Long> activeAtStart;
+    private final long oldestActive;
+    private final TransactionManager manager;
+    private final Map<String, Long> rowCountDeltas;
+    private State state;
+    private boolean writes;
+    private volatile long lastSeen;
+
+    Transaction(final long id, final Set<Long> activeAtStart, final long oldestActive, final TransactionManager manager) {
+        this.id = id;
+        this.activeAtStart = activeAtStart;
+        this.oldestActive = oldestActive;
+        this.manager = manager;
+        this.rowCountDeltas = new HashMap<>();
+        this.state = State.ACTIVE;
+        this.lastSeen = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    void setState(final State state) {
+        this.state = state;
+    }
+
+    long getOldestActive() {
+        return oldestActive;
+    }
+
+    public boolean hasWrites() {
+        return writes;
+    }
+
+    // live row count changes per table, applied to the table headers when the transaction commits
+    public Map<String, Long> getRowCountDeltas() {
+        return rowCountDeltas;
+    }
+
+    public void recordWrite(final String tableName, final long rowCountDelta) {
+        writes = true;
+        rowCountDeltas.merge(tableName, rowCountDelta, Long::sum);
+    }
+
+    public boolean isVisible(final Row version) {
+        return isVisible(version.getBeginTimestamp(), version.getEndTimestamp());
+    }
+
+    public boolean isVisible(final long beginTimestamp, final long endTimestamp) {
+        return sees(beginTimestamp) && (endTimestamp == 0 || !sees(endTimestamp));
+    }
+
+    // whether the changes of the transaction with the given id are part of the snapshot
+    public boolean sees(final long timestamp) {
+        if (timestamp == id || timestamp == lastSeen) {
+            return true;
+        }
+        boolean seen = timestamp < id && !activeAtStart.contains(timestamp) && manager.isCommitted(timestamp);
+        if (seen) {
+            // neighbouring versions mostly come from the same transaction, and a seen id stays seen
+            lastSeen = timestamp;
+        }
+        return seen;
+    }
+
+    public boolean isObsolete(final Row version) {
+        return manager.isObsolete(version);
+    }
+
+    public boolean isObsolete(final long beginTimestamp, final long endTimestamp) {
+        return manager.isObsolete(beginTimestamp, endTimestamp);
+    }
+
+    // a visible version may only be replaced when nobody else replaced it, versions ended by an aborted
+    // transaction are current again
+    public void checkWritable(final Row version, final String tableName) {
+        long end = version.getEndTimestamp();
+        if (end == 0 || end == id) {
+            return;
+        }
+        if (manager.isActive(end) || manager.isCommitted(end)) {
+            throw new TransactionConflictException("Row of table " + tableName + " was changed by a concurrent transaction");
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.woofdb.core.transaction;
+
+import org.woofdb.core.models.Row;
+import org.woofdb.core.storage.BufferPool;
+import org.woofdb.core.storage.Page;
+import org.woofdb.core.storage.PageFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hands out transaction ids and remembers which of them committed. Ids only grow and double as the timestamps of
+ * row versions. Page 0 of the transaction file holds the next id, every following page the commit bits of the next
+ * {@code PAGE_SIZE * 8} ids. The file goes through the buffer pool, so a commit bit becomes durable in the same
+ * log commit as the versions written by its transaction, and a transaction that never got its bit stays invisible.
+ */
+public class TransactionManager implements Closeable {
+    public static final String FILE_NAME = "transactions.dat";
+
+    private static final int MAGIC = 0x54584E53; // "TXNS"
+    private static final int NEXT_ID_OFFSET = 8;
+    private static final int IDS_PER_PAGE = Page.PAGE_SIZE * 8;
+    private static final int COMMIT_BITS_PAGE = 1;
+
+    private final PageFile pageFile;
+    private final BufferPool bufferPool;
+    private final BitSet committed;
+    private final TreeMap<Long, Transaction> active;
+    private long nextId;
+
+    private TransactionManager(final PageFile pageFile, final BufferPool bufferPool, final BitSet committed, final long nextId) {
+        this.pageFile = pageFile;
+        this.bufferPool = bufferPool;
+        this.committed = committed;
+        this.active = new TreeMap<>();
+        this.nextId = nextId;
+    }
+
+    public static TransactionManager open(final Path directory, final BufferPool bufferPool) throws IOException {
+        PageFile pageFile = PageFile.open(directory.resolve(FILE_NAME));
+        if (pageFile.getPageCount() == 0) {
+            Page page = bufferPool.newPage(pageFile);
+            page.getData().putInt(0, MAGIC);
+            page.getData().putLong(NEXT_ID_OFFSET, 1);
+            bufferPool.unpinPage(page, true);
+            return new TransactionManager(pageFile, bufferPool, new BitSet(), 1);
+        }
+        Page page = bufferPool.fetchPage(pageFile, 0);
+        long nextId;
+        try {
+            if (page.getData().getInt(0) != MAGIC) {
+                throw new IOException("File " + pageFile.getPath() + " is not a transaction file");
+            }
+            nextId = page.getData().getLong(NEXT_ID_OFFSET);
+        }
+        finally {
+            bufferPool.unpinPage(page, false);
+        }
+        BitSet committed = new BitSet();
+        for (int pageNumber = COMMIT_BITS_PAGE; pageNumber < pageFile.getPageCount(); pageNumber ++) {
+            page = bufferPool.fetchPage(pageFile, pageNumber);
+            try {
+                BitSet bits = BitSet.valueOf(page.getData().duplicate().clear());
+                int base = (pageNumber - COMMIT_BITS_PAGE) * IDS_PER_PAGE;
+                for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+                    committed.set(base + bit);
+                }
+            }
+            finally {
+                bufferPool.unpinPage(page, false);
+            }
+        }
+        return new TransactionManager(pageFile, bufferPool, committed, nextId);
+    }
+
+    public synchronized Transaction begin() throws IOException {
+        long id = nextId++;
+        Page page = bufferPool.fetchPage(pageFile, 0);
+        try {
+            page.getData().putLong(NEXT_ID_OFFSET, nextId);
+        }
+        finally {
+            bufferPool.unpinPage(page, true);
+        }
+        long oldestActive = active.isEmpty() ? id : active.firstKey();
+        Transaction transaction = new Transaction(id, new HashSet<>(active.keySet()), oldestActive, this);
+        active.put(id, transaction);
+        return transaction;
+    }
+
+    public synchronized void commit(final Transaction transaction) throws IOException {
+        ensureActive(transaction);
+        long id = transaction.getId();
+        if (transaction.hasWrites()) {
+            int pageNumber = COMMIT_BITS_PAGE + (int) (id / IDS_PER_PAGE);
+            while (pageFile.getPageCount() <= pageNumber) {
+                bufferPool.unpinPage(bufferPool.newPage(pageFile), true);
+            }
+            Page page = bufferPool.fetchPage(pageFile, pageNumber);
+            try {
+                int bit = (int) (id % IDS_PER_PAGE);
+                ByteBuffer data = page.getData();
+                data.put(bit / 8, (byte) (data.get(bit / 8) | (1 << (bit % 8))));
+            }
+            finally {
+                bufferPool.unpinPage(page, true);
+            }
+            committed.set((int) id);
+        }
+        active.remove(id);
+        transaction.setState(Transaction.State.COMMITTED);
+    }
+
+    // nothing is undone, the versions of an aborted transaction are skipped by every reader until vacuumed
+    public synchronized void abort(final Transaction transaction) {
+        ensureActive(transaction);
+        active.remove(transaction.getId());
+        transaction.setState(Transaction.State.ABORTED);
+    }
+
+    public synchronized boolean isCommitted(final long id) {
+        return committed.get((int) id);
+    }
+
+    public synchronized boolean isActive(final long id) {
+        return active.containsKey(id);
+    }
+
+    public synchronized boolean hasActive() {
+        return !active.isEmpty();
+    }
+
+    // a version no running or future transaction can see: its creator never committed, or it was replaced by a
+    // transaction that committed before the oldest running snapshot was taken
+    public boolean isObsolete(final Row version) {
+        return isObsolete(version.getBeginTimestamp(), version.getEndTimestamp());
+    }
+
+    public synchronized boolean isObsolete(final long begin, final long end) {
+        if (!committed.get((int) begin) && !active.containsKey(begin)) {
+            return true;
+        }
+        return end != 0 && committed.get((int) end) && end < horizon();
+    }
+
+    // ids below the horizon finished before every running snapshot was taken
+    private long horizon() {
+        long horizon = nextId;
+        for (Map.Entry<Long, Transaction> entry : active.entrySet()) {
+            horizon = Math.min(horizon, entry.getValue().getOldestActive());
+        }
+        return horizon;
+    }
+
+    private void ensureActive(final Transaction transaction) {
+        if (transaction.getState() != Transaction.State.ACTIVE) {
+            throw new IllegalStateException("Transaction " + transaction.getId() + " is already " + transaction.getState());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        bufferPool.discardFile(pageFile);
+        pageFile.close();
+    }
+}
@@ -0,0 +1,35 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.exceptions.InvalidTransactionStateException;
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.exceptions.TransactionConflictException;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransactionRollbackException;
+
+// the SQLException of every engine failure, with the SQLSTATE class of its kind
+final class SqlExceptions {
+
+    private SqlExceptions() {
+    }
+
+    static SQLException of(final Exception e) {
+        return switch (e) {
+            case SQLException sqlException -> sqlException;
+            case SyntaxError syntaxError -> new SQLSyntaxErrorException(syntaxError.getMessage(), "42000", syntaxError);
+            case ConstraintViolationException violation -> new SQLIntegrityConstraintViolationException(violation.getMessage(), "23000", violation);
+            // the transaction was rolled back, running it again may succeed
+            case TransactionConflictException conflict -> new SQLTransactionRollbackException(conflict.getMessage(), "40001", conflict);
+            case InvalidTransactionStateException state -> new SQLException(state.getMessage(), "25000", state);
+            default -> new SQLException(e.getMessage(), e);
+        };
+    }
+
+    static SQLFeatureNotSupportedException unsupported(final String feature) {
+        return new SQLFeatureNotSupportedException(feature + " is not supported by WoofDB");
+    }
+}
@@ -0,0 +1,504 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.models.Database;
+import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.session.Session;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * A session on a database. In auto-commit mode every statement runs in a transaction of its own, a query until its
+ * result set is closed; otherwise the first statement begins a transaction that lasts until commit or rollback, which
+ * close the result sets still open. A statement that fails rolls back the transaction it ran in.
+ * <p>
+ * Connections to the same database take turns: pages have no latches of their own, so a statement runs and a commit
+ * logs its changes under the lock of the database. The fsync making a commit durable waits until the lock is released,
+ * commits of other connections logged meanwhile share it.
+ */
+final class WoofConnection implements Connection {
+    private final WoofDriver.SharedDatabase shared;
+    private final Database database;
+    private final Session session;
+    private final SQLParser parser = new SQLParser(new SqlTokenizer());
+    private final List<WoofStatement> statements = new ArrayList<>();
+    private boolean autoCommit = true;
+    private boolean readOnly;
+    private boolean closed;
+
+    WoofConnection(final WoofDriver.SharedDatabase shared) {
+        this.shared = shared;
+        this.database = shared.getDatabase();
+        this.session = new Session(database);
+        session.setDeferSync(true);
+    }
+
+    Database getDatabase() {
+        return database;
+    }
+
+    SQLParser getParser() {
+        return parser;
+    }
+
+    // runs a statement against the session, in the transaction of manual commit mode begun by the first one
+    <T> T execute(final SessionCall<T> call) throws SQLException {
+        return call(session -> {
+            if (!autoCommit && !session.inTransaction()) {
+                session.begin();
+            }
+            return call.call(session);
+        });
+    }
+
+    // one call at a time per database, the commits of the call are synced after it
+    <T> T call(final SessionCall<T> call) throws SQLException {
+        checkOpen();
+        T result;
+        long syncPosition;
+        synchronized (database) {
+            try {
+                result = call.call(session);
+            }
+            catch (RuntimeException | IOException e) {
+                throw SqlExceptions.of(e);
+            }
+            finally {
+                syncPosition = session.takeSyncPosition();
+            }
+        }
+        sync(syncPosition);
+        return result;
+    }
+
+    private void sync(final long syncPosition) throws SQLException {
+        try {
+            database.sync(syncPosition);
+        }
+        catch (IOException e) {
+            throw SqlExceptions.of(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface SessionCall<T> {
+        T call(Session session) throws IOException, SQLException;
+    }
+
+    void forget(final WoofStatement statement) {
+        statements.remove(statement);
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection is closed", "08003");
+        }
+    }
+
+    private <T extends WoofStatement> T register(final T statement) {
+        statements.add(statement);
+        return statement;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return register(new WoofStatement(this));
+    }
+
+    @Override
+    public Statement createStatement(final int resultSetType, final int resultSetConcurrency) throws SQLException {
+        checkResultSetType(resultSetType, resultSetConcurrency);
+        return createStatement();
+    }
+
+    @Override
+    public Statement createStatement(final int resultSetType, final int resultSetConcurrency, final int resultSetHoldability)
+            throws SQLException {
+        checkResultSetType(resultSetType, resultSetConcurrency);
+        checkHoldability(resultSetHoldability);
+        return createStatement();
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql) throws SQLException {
+        checkOpen();
+        try {
+            return register(new WoofPreparedStatement(this, parser.prepare(sql)));
+        }
+        catch (RuntimeException e) {
+            throw SqlExceptions.of(e);
+        }
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency)
+            throws SQLException {
+        checkResultSetType(resultSetType, resultSetConcurrency);
+        return prepareStatement(sql);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int resultSetType, final int resultSetConcurrency,
+                                              final int resultSetHoldability) throws SQLException {
+        checkResultSetType(resultSetType, resultSetConcurrency);
+        checkHoldability(resultSetHoldability);
+        return prepareStatement(sql);
+    }
+
+    // results are read forward once, and never written through
+    private static void checkResultSetType(final int resultSetType, final int resultSetConcurrency) throws SQLException {
+        if (resultSetType != ResultSet.TYPE_FORWARD_ONLY) {
+            throw SqlExceptions.unsupported("Scrollable result sets");
+        }
+        if (resultSetConcurrency != ResultSet.CONCUR_READ_ONLY) {
+            throw SqlExceptions.unsupported("Updatable result sets");
+        }
+    }
+
+    private static void checkHoldability(final int holdability) throws SQLException {
+        if (holdability != ResultSet.CLOSE_CURSORS_AT_COMMIT) {
+            throw SqlExceptions.unsupported("Holding result sets over commit");
+        }
+    }
+
+    @Override
+    public String nativeSQL(final String sql) throws SQLException {
+        checkOpen();
+        return sql;
+    }
+
+    @Override
+    public void setAutoCommit(final boolean autoCommit) throws SQLException {
+        checkOpen();
+        if (autoCommit && !this.autoCommit) {
+            // switching back commits the transaction in progress
+            commit();
+        }
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return autoCommit;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        if (autoCommit) {
+            throw new SQLException("Connection is in auto-commit mode", "25000");
+        }
+        closeResultSets();
+        long syncPosition;
+        synchronized (database) {
+            try {
+                if (session.inTransaction()) {
+                    session.commit();
+                }
+            }
+            catch (RuntimeException | IOException e) {
+                throw SqlExceptions.of(e);
+            }
+            finally {
+                syncPosition = session.takeSyncPosition();
+            }
+        }
+        sync(syncPosition);
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        if (autoCommit) {
+            throw new SQLException("Connection is in auto-commit mode", "25000");
+        }
+        closeResultSets();
+        synchronized (database) {
+            if (session.inTransaction()) {
+                session.rollback();
+            }
+        }
+    }
+
+    private void closeResultSets() throws SQLException {
+        for (WoofStatement statement : List.copyOf(statements)) {
+            statement.closeResultSet();
+        }
+    }
+
+    // rolls back the transaction in progress
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        try {
+            for (WoofStatement statement : List.copyOf(statements)) {
+                statement.close();
+            }
+        }
+        finally {
+            closed = true;
+            synchronized (database) {
+                session.close();
+            }
+            WoofDriver.release(shared);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isValid(final int timeout) throws SQLException {
+        if (timeout < 0) {
+            throw new SQLException("Negative timeout " + timeout);
+        }
+        return !closed;
+    }
+
+    // a hint only, read-only connections may still write
+    @Override
+    public void setReadOnly(final boolean readOnly) throws SQLException {
+        checkOpen();
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return readOnly;
+    }
+
+    // databases have no catalogs or schemas, setting one is ignored
+    @Override
+    public void setCatalog(final String catalog) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void setSchema(final String schema) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    // every transaction reads from a snapshot, the weaker levels get the same
+    @Override
+    public void setTransactionIsolation(final int level) throws SQLException {
+        checkOpen();
+        if (level != TRANSACTION_READ_UNCOMMITTED && level != TRANSACTION_READ_COMMITTED && level != TRANSACTION_REPEATABLE_READ) {
+            throw SqlExceptions.unsupported("Transaction isolation level " + level);
+        }
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return TRANSACTION_REPEATABLE_READ;
+    }
+
+    @Override
+    public void setHoldability(final int holdability) throws SQLException {
+        checkOpen();
+        checkHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return ResultSet.CLOSE_CURSORS_AT_COMMIT;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public void setClientInfo(final String name, final String value) throws SQLClientInfoException {
+        throw new SQLClientInfoException("No client info properties are supported", null);
+    }
+
+    @Override
+    public void setClientInfo(final Properties properties) throws SQLClientInfoException {
+        throw new SQLClientInfoException("No client info properties are supported", null);
+    }
+
+    @Override
+    public String getClientInfo(final String name) throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        checkOpen();
+        return new Properties();
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        checkOpen();
+        return 0;
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql) throws SQLException {
+        throw SqlExceptions.unsupported("prepareCall");
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        throw SqlExceptions.unsupported("getMetaData");
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency) throws SQLException {
+        throw SqlExceptions.unsupported("prepareCall");
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        throw SqlExceptions.unsupported("getTypeMap");
+    }
+
+    @Override
+    public void setTypeMap(final Map<String, Class<?>> map) throws SQLException {
+        throw SqlExceptions.unsupported("setTypeMap");
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        throw SqlExceptions.unsupported("setSavepoint");
+    }
+
+    @Override
+    public Savepoint setSavepoint(final String name) throws SQLException {
+        throw SqlExceptions.unsupported("setSavepoint");
+    }
+
+    @Override
+    public void rollback(final Savepoint savepoint) throws SQLException {
+        throw SqlExceptions.unsupported("rollback");
+    }
+
+    @Override
+    public void releaseSavepoint(final Savepoint savepoint) throws SQLException {
+        throw SqlExceptions.unsupported("releaseSavepoint");
+    }
+
+    @Override
+    public CallableStatement prepareCall(final String sql, final int resultSetType, final int resultSetConcurrency, final int resultSetHoldability) throws SQLException {
+        throw SqlExceptions.unsupported("prepareCall");
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int autoGeneratedKeys) throws SQLException {
+        throw SqlExceptions.unsupported("prepareStatement");
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final int[] columnIndexes) throws SQLException {
+        throw SqlExceptions.unsupported("prepareStatement");
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(final String sql, final String[] columnNames) throws SQLException {
+        throw SqlExceptions.unsupported("prepareStatement");
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        throw SqlExceptions.unsupported("createClob");
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        throw SqlExceptions.unsupported("createBlob");
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        throw SqlExceptions.unsupported("createNClob");
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        throw SqlExceptions.unsupported("createSQLXML");
+    }
+
+    @Override
+    public Array createArrayOf(final String typeName, final Object[] elements) throws SQLException {
+        throw SqlExceptions.unsupported("createArrayOf");
+    }
+
+    @Override
+    public Struct createStruct(final String typeName, final Object[] attributes) throws SQLException {
+        throw SqlExceptions.unsupported("createStruct");
+    }
+
+    @Override
+    public void abort(final Executor executor) throws SQLException {
+        throw SqlExceptions.unsupported("abort");
+    }
+
+    @Override
+    public void setNetworkTimeout(final Executor executor, final int milliseconds) throws SQLException {
+        throw SqlExceptions.unsupported("setNetworkTimeout");
+    }
+}
@@ -0,0 +1,134 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.models.Database;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver of embedded WoofDB databases, for URLs like {@code jdbc:woofdb:./db/name} naming the directory of the
+ * database. The database has to exist unless the create property is true, the same directory is opened once per JVM
+ * and shared by the connections to it, and closed with the last of them.
+ * <p>
+ * The connections to a database run one statement at a time, reading a row of a result set counts as a statement.
+ */
+public final class WoofDriver implements Driver {
+    public static final String URL_PREFIX = "jdbc:woofdb:";
+    static final String CREATE_PROPERTY = "create";
+
+    // the open databases by their normalized directory
+    private static final Map<Path, SharedDatabase> DATABASES = new HashMap<>();
+
+    static {
+        try {
+            DriverManager.registerDriver(new WoofDriver());
+        }
+        catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Connection connect(final String url, final Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        String directory = url.substring(URL_PREFIX.length());
+        if (directory.isBlank()) {
+            throw new SQLException("No database directory in " + url);
+        }
+        boolean create = info != null && Boolean.parseBoolean(info.getProperty(CREATE_PROPERTY));
+        return new WoofConnection(open(Path.of(directory).toAbsolutePath().normalize(), create));
+    }
+
+    @Override
+    public boolean acceptsURL(final String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(final String url, final Properties info) {
+        DriverPropertyInfo create = new DriverPropertyInfo(CREATE_PROPERTY, info == null ? "false" : info.getProperty(CREATE_PROPERTY, "false"));
+        create.description = "Creates the database if the directory does not exist";
+        create.choices = new String[] {"true", "false"};
+        return new DriverPropertyInfo[] {create};
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 0;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 1;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw SqlExceptions.unsupported("Logging");
+    }
+
+    private static synchronized SharedDatabase open(final Path directory, final boolean create) throws SQLException {
+        SharedDatabase shared = DATABASES.get(directory);
+        if (shared == null) {
+            if (!create && !Files.isDirectory(directory)) {
+                throw new SQLException("Unknown database '" + directory + "'", "3D000");
+            }
+            try {
+                shared = new SharedDatabase(directory, new Database(directory.toString()));
+            }
+            catch (IllegalStateException e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+            DATABASES.put(directory, shared);
+        }
+        shared.connections ++;
+        return shared;
+    }
+
+    static synchronized void release(final SharedDatabase shared) throws SQLException {
+        if (-- shared.connections > 0) {
+            return;
+        }
+        DATABASES.remove(shared.directory);
+        try {
+            shared.database.close();
+        }
+        catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    // a database with the number of open connections to it
+    static final class SharedDatabase {
+        private final Path directory;
+        private final Database database;
+        private int connections;
+
+        private SharedDatabase(final Path directory, final Database database) {
+            this.directory = directory;
+            this.database = database;
+        }
+
+        Database getDatabase() {
+            return database;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.parser.ParameterizedStatement;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+// parsed once, every execution binds the parameters into the parsed statement instead of parsing it again
+final class WoofPreparedStatement extends WoofStatement implements PreparedStatement {
+    private final ParameterizedStatement prepared;
+
+    WoofPreparedStatement(final WoofConnection connection, final ParameterizedStatement prepared) {
+        super(connection);
+        this.prepared = prepared;
+    }
+
+    // parameters are counted from 1 here and from 0 in the statement
+    private void bind(final int parameterIndex, final String literal) throws SQLException {
+        checkOpen();
+        try {
+            prepared.bind(parameterIndex - 1, literal);
+        }
+        catch (RuntimeException e) {
+            throw SqlExceptions.of(e);
+        }
+    }
+
+    private boolean run() throws SQLException {
+        checkOpen();
+        try {
+            return run(prepared.getStatement());
+        }
+        catch (RuntimeException e) {
+            throw SqlExceptions.of(e);
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return query(run());
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return (int) Math.min(update(run()), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        return update(run());
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return run();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (isClosed()) {
+            return;
+        }
+        super.close();
+        // the session goes with the connection otherwise
+        if (!connection.isClosed()) {
+            connection.call(session -> {
+                session.release(prepared);
+                return null;
+            });
+        }
+    }
+
+    // the SQL of a prepared statement is given when preparing it
+    @Override
+    public ResultSet executeQuery(final String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to a prepared statement");
+    }
+
+    @Override
+    public int executeUpdate(final String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to a prepared statement");
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to a prepared statement");
+    }
+
+    @Override
+    public boolean execute(final String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to a prepared statement");
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        checkOpen();
+        prepared.clearParameters();
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType) throws SQLException {
+        bind(parameterIndex, null);
+    }
+
+    @Override
+    public void setNull(final int parameterIndex, final int sqlType, final String typeName) throws SQLException {
+        bind(parameterIndex, null);
+    }
+
+    @Override
+    public void setByte(final int parameterIndex, final byte x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setShort(final int parameterIndex, final short x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setInt(final int parameterIndex, final int x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setLong(final int parameterIndex, final long x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setFloat(final int parameterIndex, final float x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setDouble(final int parameterIndex, final double x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setBigDecimal(final int parameterIndex, final BigDecimal x) throws SQLException {
+        bind(parameterIndex, x == null ? null : x.toPlainString());
+    }
+
+    @Override
+    public void setString(final int parameterIndex, final String x) throws SQLException {
+        bind(parameterIndex, x == null ? null : "'" + x + "'");
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, final Object x) throws SQLException {
+        switch (x) {
+            case null -> bind(parameterIndex, null);
+            case String string -> setString(parameterIndex, string);
+            case BigDecimal decimal -> setBigDecimal(parameterIndex, decimal);
+            case Byte number -> setByte(parameterIndex, number);
+            case Short number -> setShort(parameterIndex, number);
+            case Integer number -> setInt(parameterIndex, number);
+            case Long number -> setLong(parameterIndex, number);
+            case Float number -> setFloat(parameterIndex, number);
+            case Double number -> setDouble(parameterIndex, number);
+            default -> throw new SQLDataException("Cannot bind a " + x.getClass().getName() + " to parameter " + parameterIndex);
+        }
+    }
+
+    @Override
+    public void setNString(final int parameterIndex, final String value) throws SQLException {
+        setString(parameterIndex, value);
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, final Object x, final int targetSqlType) throws SQLException {
+        setObject(parameterIndex, x);
+    }
+
+    @Override
+    public void setObject(final int parameterIndex, final Object x, final int targetSqlType, final int scaleOrLength) throws SQLException {
+        setObject(parameterIndex, x);
+    }
+
+    // the columns are only known once the statement runs
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void setBoolean(final int parameterIndex, final boolean x) throws SQLException {
+        throw SqlExceptions.unsupported("setBoolean");
+    }
+
+    @Override
+    public void setBytes(final int parameterIndex, final byte[] x) throws SQLException {
+        throw SqlExceptions.unsupported("setBytes");
+    }
+
+    @Override
+    public void setDate(final int parameterIndex, final Date x) throws SQLException {
+        throw SqlExceptions.unsupported("setDate");
+    }
+
+    @Override
+    public void setTime(final int parameterIndex, final Time x) throws SQLException {
+        throw SqlExceptions.unsupported("setTime");
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, final Timestamp x) throws SQLException {
+        throw SqlExceptions.unsupported("setTimestamp");
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("setAsciiStream");
+    }
+
+    @Override
+    @Deprecated
+    public void setUnicodeStream(final int parameterIndex, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("setUnicodeStream");
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("setBinaryStream");
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        throw SqlExceptions.unsupported("addBatch");
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, final Reader reader, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("setCharacterStream");
+    }
+
+    @Override
+    public void setRef(final int parameterIndex, final Ref x) throws SQLException {
+        throw SqlExceptions.unsupported("setRef");
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, final Blob x) throws SQLException {
+        throw SqlExceptions.unsupported("setBlob");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, final Clob x) throws SQLException {
+        throw SqlExceptions.unsupported("setClob");
+    }
+
+    @Override
+    public void setArray(final int parameterIndex, final Array x) throws SQLException {
+        throw SqlExceptions.unsupported("setArray");
+    }
+
+    @Override
+    public void setDate(final int parameterIndex, final Date x, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("setDate");
+    }
+
+    @Override
+    public void setTime(final int parameterIndex, final Time x, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("setTime");
+    }
+
+    @Override
+    public void setTimestamp(final int parameterIndex, final Timestamp x, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("setTimestamp");
+    }
+
+    @Override
+    public void setURL(final int parameterIndex, final java.net.URL x) throws SQLException {
+        throw SqlExceptions.unsupported("setURL");
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        throw SqlExceptions.unsupported("getParameterMetaData");
+    }
+
+    @Override
+    public void setRowId(final int parameterIndex, final RowId x) throws SQLException {
+        throw SqlExceptions.unsupported("setRowId");
+    }
+
+    @Override
+    public void setNCharacterStream(final int parameterIndex, final Reader value, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setNCharacterStream");
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, final NClob value) throws SQLException {
+        throw SqlExceptions.unsupported("setNClob");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setClob");
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, final InputStream inputStream, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setBlob");
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setNClob");
+    }
+
+    @Override
+    public void setSQLXML(final int parameterIndex, final SQLXML xmlObject) throws SQLException {
+        throw SqlExceptions.unsupported("setSQLXML");
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setAsciiStream");
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setBinaryStream");
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("setCharacterStream");
+    }
+
+    @Override
+    public void setAsciiStream(final int parameterIndex, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("setAsciiStream");
+    }
+
+    @Override
+    public void setBinaryStream(final int parameterIndex, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("setBinaryStream");
+    }
+
+    @Override
+    public void setCharacterStream(final int parameterIndex, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("setCharacterStream");
+    }
+
+    @Override
+    public void setNCharacterStream(final int parameterIndex, final Reader value) throws SQLException {
+        throw SqlExceptions.unsupported("setNCharacterStream");
+    }
+
+    @Override
+    public void setClob(final int parameterIndex, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("setClob");
+    }
+
+    @Override
+    public void setBlob(final int parameterIndex, final InputStream inputStream) throws SQLException {
+        throw SqlExceptions.unsupported("setBlob");
+    }
+
+    @Override
+    public void setNClob(final int parameterIndex, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("setNClob");
+    }
+}
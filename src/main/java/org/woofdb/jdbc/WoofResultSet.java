@@ -0,0 +1,1139 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.execution.ResultCursor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of a query, read from its cursor as the result set moves forward, so rows arrive while the query still
+ * runs and only the current one is held. Closing the result set, or reading past its last row, ends the statement.
+ * Values are Integer, Float, Double or String, the getters of other types convert them.
+ */
+final class WoofResultSet implements ResultSet {
+    private final WoofStatement statement;
+    private final ResultCursor cursor;
+    private final List<String> columnNames;
+    // 0 for no limit
+    private final long maxRows;
+    private long row;
+    private boolean wasNull;
+    private boolean closed;
+
+    WoofResultSet(final WoofStatement statement, final ResultCursor cursor, final long maxRows) {
+        this.statement = statement;
+        this.cursor = cursor;
+        this.columnNames = cursor.getColumnNames();
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        checkOpen();
+        if (maxRows > 0 && row >= maxRows) {
+            close();
+            return false;
+        }
+        boolean hasRow = statement.connection.call(session -> {
+            try {
+                return cursor.next();
+            }
+            catch (RuntimeException | IOException e) {
+                // the statement failed midway, its transaction goes with it
+                session.abort();
+                throw e;
+            }
+        });
+        if (!hasRow) {
+            row = 0;
+            close();
+            return false;
+        }
+        row ++;
+        return true;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            statement.connection.call(session -> {
+                cursor.close();
+                return null;
+            });
+        }
+        finally {
+            statement.resultSetClosed(this);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result set is closed");
+        }
+    }
+
+    private Object value(final int columnIndex) throws SQLException {
+        checkOpen();
+        if (row == 0) {
+            throw new SQLException("Result set is not on a row");
+        }
+        if (columnIndex < 1 || columnIndex > columnNames.size()) {
+            throw new SQLException("Column " + columnIndex + " does not exist, the result has " + columnNames.size());
+        }
+        Object value = cursor.getValue(columnIndex - 1);
+        wasNull = value == null;
+        return value;
+    }
+
+    private Number number(final int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        return switch (value) {
+            case null -> 0;
+            case Number number -> number;
+            case String string -> {
+                try {
+                    yield new BigDecimal(string.strip());
+                }
+                catch (NumberFormatException e) {
+                    throw new SQLDataException("Column " + columnIndex + " holds '" + string + "', not a number");
+                }
+            }
+            default -> throw new SQLDataException("Column " + columnIndex + " holds a " + value.getClass().getName() + ", not a number");
+        };
+    }
+
+    @Override
+    public boolean wasNull() throws SQLException {
+        checkOpen();
+        return wasNull;
+    }
+
+    @Override
+    public int findColumn(final String columnLabel) throws SQLException {
+        checkOpen();
+        for (int i = 0; i < columnNames.size(); i ++) {
+            if (columnNames.get(i).equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Unknown column '" + columnLabel + "'", "42S22");
+    }
+
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        return value(columnIndex);
+    }
+
+    @Override
+    public Object getObject(final String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+
+    @Override
+    public <T> T getObject(final int columnIndex, final Class<T> type) throws SQLException {
+        Object value = value(columnIndex);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        Object converted;
+        if (type == String.class) {
+            converted = value.toString();
+        }
+        else if (type == Integer.class) {
+            converted = getInt(columnIndex);
+        }
+        else if (type == Long.class) {
+            converted = getLong(columnIndex);
+        }
+        else if (type == Float.class) {
+            converted = getFloat(columnIndex);
+        }
+        else if (type == Double.class) {
+            converted = getDouble(columnIndex);
+        }
+        else if (type == BigDecimal.class) {
+            converted = getBigDecimal(columnIndex);
+        }
+        else {
+            throw new SQLDataException("Cannot convert column " + columnIndex + " to a " + type.getName());
+        }
+        return type.cast(converted);
+    }
+
+    @Override
+    public <T> T getObject(final String columnLabel, final Class<T> type) throws SQLException {
+        return getObject(findColumn(columnLabel), type);
+    }
+
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public String getString(final String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public String getNString(final int columnIndex) throws SQLException {
+        return getString(columnIndex);
+    }
+
+    @Override
+    public String getNString(final String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        Object value = value(columnIndex);
+        if (value instanceof String string) {
+            return string.equalsIgnoreCase("true") || string.equals("1");
+        }
+        return value != null && number(columnIndex).doubleValue() != 0;
+    }
+
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return getBoolean(findColumn(columnLabel));
+    }
+
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return number(columnIndex).byteValue();
+    }
+
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return number(columnIndex).shortValue();
+    }
+
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return number(columnIndex).intValue();
+    }
+
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return number(columnIndex).longValue();
+    }
+
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return number(columnIndex).floatValue();
+    }
+
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return number(columnIndex).doubleValue();
+    }
+
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        Number number = number(columnIndex);
+        if (wasNull) {
+            return null;
+        }
+        return number instanceof BigDecimal decimal ? decimal : new BigDecimal(number.toString());
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return new WoofResultSetMetaData(columnNames);
+    }
+
+    @Override
+    public Statement getStatement() throws SQLException {
+        checkOpen();
+        return statement;
+    }
+
+    // the number of the current row, 0 before the first and after the last
+    @Override
+    public int getRow() throws SQLException {
+        checkOpen();
+        return (int) Math.min(row, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getType() throws SQLException {
+        checkOpen();
+        return TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getConcurrency() throws SQLException {
+        checkOpen();
+        return CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return CLOSE_CURSORS_AT_COMMIT;
+    }
+
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        checkOpen();
+        if (direction != FETCH_FORWARD) {
+            throw SqlExceptions.unsupported("Fetching backwards");
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        checkOpen();
+        return FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        checkOpen();
+        if (rows < 0) {
+            throw new SQLException("Negative fetch size " + rows);
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkOpen();
+        return 0;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        throw SqlExceptions.unsupported("getBigDecimal");
+    }
+
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getBytes");
+    }
+
+    @Override
+    public Date getDate(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getDate");
+    }
+
+    @Override
+    public Time getTime(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getTime");
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getTimestamp");
+    }
+
+    @Override
+    public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getAsciiStream");
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getUnicodeStream");
+    }
+
+    @Override
+    public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getBinaryStream");
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+        throw SqlExceptions.unsupported("getBigDecimal");
+    }
+
+    @Override
+    public byte[] getBytes(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getBytes");
+    }
+
+    @Override
+    public Date getDate(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getDate");
+    }
+
+    @Override
+    public Time getTime(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getTime");
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getTimestamp");
+    }
+
+    @Override
+    public InputStream getAsciiStream(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getAsciiStream");
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getUnicodeStream");
+    }
+
+    @Override
+    public InputStream getBinaryStream(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getBinaryStream");
+    }
+
+    @Override
+    public String getCursorName() throws SQLException {
+        throw SqlExceptions.unsupported("getCursorName");
+    }
+
+    @Override
+    public Reader getCharacterStream(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getCharacterStream");
+    }
+
+    @Override
+    public Reader getCharacterStream(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getCharacterStream");
+    }
+
+    @Override
+    public boolean isBeforeFirst() throws SQLException {
+        throw SqlExceptions.unsupported("isBeforeFirst");
+    }
+
+    @Override
+    public boolean isAfterLast() throws SQLException {
+        throw SqlExceptions.unsupported("isAfterLast");
+    }
+
+    @Override
+    public boolean isFirst() throws SQLException {
+        throw SqlExceptions.unsupported("isFirst");
+    }
+
+    @Override
+    public boolean isLast() throws SQLException {
+        throw SqlExceptions.unsupported("isLast");
+    }
+
+    @Override
+    public void beforeFirst() throws SQLException {
+        throw SqlExceptions.unsupported("beforeFirst");
+    }
+
+    @Override
+    public void afterLast() throws SQLException {
+        throw SqlExceptions.unsupported("afterLast");
+    }
+
+    @Override
+    public boolean first() throws SQLException {
+        throw SqlExceptions.unsupported("first");
+    }
+
+    @Override
+    public boolean last() throws SQLException {
+        throw SqlExceptions.unsupported("last");
+    }
+
+    @Override
+    public boolean absolute(final int row) throws SQLException {
+        throw SqlExceptions.unsupported("absolute");
+    }
+
+    @Override
+    public boolean relative(final int rows) throws SQLException {
+        throw SqlExceptions.unsupported("relative");
+    }
+
+    @Override
+    public boolean previous() throws SQLException {
+        throw SqlExceptions.unsupported("previous");
+    }
+
+    @Override
+    public boolean rowUpdated() throws SQLException {
+        throw SqlExceptions.unsupported("rowUpdated");
+    }
+
+    @Override
+    public boolean rowInserted() throws SQLException {
+        throw SqlExceptions.unsupported("rowInserted");
+    }
+
+    @Override
+    public boolean rowDeleted() throws SQLException {
+        throw SqlExceptions.unsupported("rowDeleted");
+    }
+
+    @Override
+    public void updateNull(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("updateNull");
+    }
+
+    @Override
+    public void updateBoolean(final int columnIndex, final boolean x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBoolean");
+    }
+
+    @Override
+    public void updateByte(final int columnIndex, final byte x) throws SQLException {
+        throw SqlExceptions.unsupported("updateByte");
+    }
+
+    @Override
+    public void updateShort(final int columnIndex, final short x) throws SQLException {
+        throw SqlExceptions.unsupported("updateShort");
+    }
+
+    @Override
+    public void updateInt(final int columnIndex, final int x) throws SQLException {
+        throw SqlExceptions.unsupported("updateInt");
+    }
+
+    @Override
+    public void updateLong(final int columnIndex, final long x) throws SQLException {
+        throw SqlExceptions.unsupported("updateLong");
+    }
+
+    @Override
+    public void updateFloat(final int columnIndex, final float x) throws SQLException {
+        throw SqlExceptions.unsupported("updateFloat");
+    }
+
+    @Override
+    public void updateDouble(final int columnIndex, final double x) throws SQLException {
+        throw SqlExceptions.unsupported("updateDouble");
+    }
+
+    @Override
+    public void updateBigDecimal(final int columnIndex, final BigDecimal x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBigDecimal");
+    }
+
+    @Override
+    public void updateString(final int columnIndex, final String x) throws SQLException {
+        throw SqlExceptions.unsupported("updateString");
+    }
+
+    @Override
+    public void updateBytes(final int columnIndex, final byte[] x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBytes");
+    }
+
+    @Override
+    public void updateDate(final int columnIndex, final Date x) throws SQLException {
+        throw SqlExceptions.unsupported("updateDate");
+    }
+
+    @Override
+    public void updateTime(final int columnIndex, final Time x) throws SQLException {
+        throw SqlExceptions.unsupported("updateTime");
+    }
+
+    @Override
+    public void updateTimestamp(final int columnIndex, final Timestamp x) throws SQLException {
+        throw SqlExceptions.unsupported("updateTimestamp");
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x, final int scaleOrLength) throws SQLException {
+        throw SqlExceptions.unsupported("updateObject");
+    }
+
+    @Override
+    public void updateObject(final int columnIndex, final Object x) throws SQLException {
+        throw SqlExceptions.unsupported("updateObject");
+    }
+
+    @Override
+    public void updateNull(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("updateNull");
+    }
+
+    @Override
+    public void updateBoolean(final String columnLabel, final boolean x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBoolean");
+    }
+
+    @Override
+    public void updateByte(final String columnLabel, final byte x) throws SQLException {
+        throw SqlExceptions.unsupported("updateByte");
+    }
+
+    @Override
+    public void updateShort(final String columnLabel, final short x) throws SQLException {
+        throw SqlExceptions.unsupported("updateShort");
+    }
+
+    @Override
+    public void updateInt(final String columnLabel, final int x) throws SQLException {
+        throw SqlExceptions.unsupported("updateInt");
+    }
+
+    @Override
+    public void updateLong(final String columnLabel, final long x) throws SQLException {
+        throw SqlExceptions.unsupported("updateLong");
+    }
+
+    @Override
+    public void updateFloat(final String columnLabel, final float x) throws SQLException {
+        throw SqlExceptions.unsupported("updateFloat");
+    }
+
+    @Override
+    public void updateDouble(final String columnLabel, final double x) throws SQLException {
+        throw SqlExceptions.unsupported("updateDouble");
+    }
+
+    @Override
+    public void updateBigDecimal(final String columnLabel, final BigDecimal x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBigDecimal");
+    }
+
+    @Override
+    public void updateString(final String columnLabel, final String x) throws SQLException {
+        throw SqlExceptions.unsupported("updateString");
+    }
+
+    @Override
+    public void updateBytes(final String columnLabel, final byte[] x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBytes");
+    }
+
+    @Override
+    public void updateDate(final String columnLabel, final Date x) throws SQLException {
+        throw SqlExceptions.unsupported("updateDate");
+    }
+
+    @Override
+    public void updateTime(final String columnLabel, final Time x) throws SQLException {
+        throw SqlExceptions.unsupported("updateTime");
+    }
+
+    @Override
+    public void updateTimestamp(final String columnLabel, final Timestamp x) throws SQLException {
+        throw SqlExceptions.unsupported("updateTimestamp");
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream x, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader, final int length) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x, final int scaleOrLength) throws SQLException {
+        throw SqlExceptions.unsupported("updateObject");
+    }
+
+    @Override
+    public void updateObject(final String columnLabel, final Object x) throws SQLException {
+        throw SqlExceptions.unsupported("updateObject");
+    }
+
+    @Override
+    public void insertRow() throws SQLException {
+        throw SqlExceptions.unsupported("insertRow");
+    }
+
+    @Override
+    public void updateRow() throws SQLException {
+        throw SqlExceptions.unsupported("updateRow");
+    }
+
+    @Override
+    public void deleteRow() throws SQLException {
+        throw SqlExceptions.unsupported("deleteRow");
+    }
+
+    @Override
+    public void refreshRow() throws SQLException {
+        throw SqlExceptions.unsupported("refreshRow");
+    }
+
+    @Override
+    public void cancelRowUpdates() throws SQLException {
+        throw SqlExceptions.unsupported("cancelRowUpdates");
+    }
+
+    @Override
+    public void moveToInsertRow() throws SQLException {
+        throw SqlExceptions.unsupported("moveToInsertRow");
+    }
+
+    @Override
+    public void moveToCurrentRow() throws SQLException {
+        throw SqlExceptions.unsupported("moveToCurrentRow");
+    }
+
+    @Override
+    public Object getObject(final int columnIndex, final Map<String, Class<?>> map) throws SQLException {
+        throw SqlExceptions.unsupported("getObject");
+    }
+
+    @Override
+    public Ref getRef(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getRef");
+    }
+
+    @Override
+    public Blob getBlob(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getBlob");
+    }
+
+    @Override
+    public Clob getClob(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getClob");
+    }
+
+    @Override
+    public Array getArray(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getArray");
+    }
+
+    @Override
+    public Object getObject(final String columnLabel, final Map<String, Class<?>> map) throws SQLException {
+        throw SqlExceptions.unsupported("getObject");
+    }
+
+    @Override
+    public Ref getRef(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getRef");
+    }
+
+    @Override
+    public Blob getBlob(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getBlob");
+    }
+
+    @Override
+    public Clob getClob(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getClob");
+    }
+
+    @Override
+    public Array getArray(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getArray");
+    }
+
+    @Override
+    public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getDate");
+    }
+
+    @Override
+    public Date getDate(final String columnLabel, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getDate");
+    }
+
+    @Override
+    public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getTime");
+    }
+
+    @Override
+    public Time getTime(final String columnLabel, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getTime");
+    }
+
+    @Override
+    public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getTimestamp");
+    }
+
+    @Override
+    public Timestamp getTimestamp(final String columnLabel, final Calendar cal) throws SQLException {
+        throw SqlExceptions.unsupported("getTimestamp");
+    }
+
+    @Override
+    public java.net.URL getURL(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getURL");
+    }
+
+    @Override
+    public java.net.URL getURL(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getURL");
+    }
+
+    @Override
+    public void updateRef(final int columnIndex, final Ref x) throws SQLException {
+        throw SqlExceptions.unsupported("updateRef");
+    }
+
+    @Override
+    public void updateRef(final String columnLabel, final Ref x) throws SQLException {
+        throw SqlExceptions.unsupported("updateRef");
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final Blob x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final Blob x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Clob x) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Clob x) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateArray(final int columnIndex, final Array x) throws SQLException {
+        throw SqlExceptions.unsupported("updateArray");
+    }
+
+    @Override
+    public void updateArray(final String columnLabel, final Array x) throws SQLException {
+        throw SqlExceptions.unsupported("updateArray");
+    }
+
+    @Override
+    public RowId getRowId(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getRowId");
+    }
+
+    @Override
+    public RowId getRowId(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getRowId");
+    }
+
+    @Override
+    public void updateRowId(final int columnIndex, final RowId x) throws SQLException {
+        throw SqlExceptions.unsupported("updateRowId");
+    }
+
+    @Override
+    public void updateRowId(final String columnLabel, final RowId x) throws SQLException {
+        throw SqlExceptions.unsupported("updateRowId");
+    }
+
+    @Override
+    public void updateNString(final int columnIndex, final String nString) throws SQLException {
+        throw SqlExceptions.unsupported("updateNString");
+    }
+
+    @Override
+    public void updateNString(final String columnLabel, final String nString) throws SQLException {
+        throw SqlExceptions.unsupported("updateNString");
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final NClob nClob) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final NClob nClob) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+
+    @Override
+    public NClob getNClob(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getNClob");
+    }
+
+    @Override
+    public NClob getNClob(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getNClob");
+    }
+
+    @Override
+    public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getSQLXML");
+    }
+
+    @Override
+    public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getSQLXML");
+    }
+
+    @Override
+    public void updateSQLXML(final int columnIndex, final SQLXML xmlObject) throws SQLException {
+        throw SqlExceptions.unsupported("updateSQLXML");
+    }
+
+    @Override
+    public void updateSQLXML(final String columnLabel, final SQLXML xmlObject) throws SQLException {
+        throw SqlExceptions.unsupported("updateSQLXML");
+    }
+
+    @Override
+    public Reader getNCharacterStream(final int columnIndex) throws SQLException {
+        throw SqlExceptions.unsupported("getNCharacterStream");
+    }
+
+    @Override
+    public Reader getNCharacterStream(final String columnLabel) throws SQLException {
+        throw SqlExceptions.unsupported("getNCharacterStream");
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateNCharacterStream");
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateNCharacterStream");
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream x, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader, final long length) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+
+    @Override
+    public void updateNCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+        throw SqlExceptions.unsupported("updateNCharacterStream");
+    }
+
+    @Override
+    public void updateNCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateNCharacterStream");
+    }
+
+    @Override
+    public void updateAsciiStream(final int columnIndex, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final int columnIndex, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final int columnIndex, final Reader x) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateAsciiStream(final String columnLabel, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("updateAsciiStream");
+    }
+
+    @Override
+    public void updateBinaryStream(final String columnLabel, final InputStream x) throws SQLException {
+        throw SqlExceptions.unsupported("updateBinaryStream");
+    }
+
+    @Override
+    public void updateCharacterStream(final String columnLabel, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateCharacterStream");
+    }
+
+    @Override
+    public void updateBlob(final int columnIndex, final InputStream inputStream) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateBlob(final String columnLabel, final InputStream inputStream) throws SQLException {
+        throw SqlExceptions.unsupported("updateBlob");
+    }
+
+    @Override
+    public void updateClob(final int columnIndex, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateClob(final String columnLabel, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateClob");
+    }
+
+    @Override
+    public void updateNClob(final int columnIndex, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+
+    @Override
+    public void updateNClob(final String columnLabel, final Reader reader) throws SQLException {
+        throw SqlExceptions.unsupported("updateNClob");
+    }
+}
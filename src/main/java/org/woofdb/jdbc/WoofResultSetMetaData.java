@@ -0,0 +1,158 @@
+package org.woofdb.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+// the cursor of a query knows the names of its columns, not their types, every column holds objects
+final class WoofResultSetMetaData implements ResultSetMetaData {
+    private final List<String> columnNames;
+
+    WoofResultSetMetaData(final List<String> columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    private String name(final int column) throws SQLException {
+        if (column < 1 || column > columnNames.size()) {
+            throw new SQLException("Column " + column + " does not exist, the result has " + columnNames.size());
+        }
+        return columnNames.get(column - 1);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    @Override
+    public String getColumnName(final int column) throws SQLException {
+        return name(column);
+    }
+
+    @Override
+    public String getColumnLabel(final int column) throws SQLException {
+        return name(column);
+    }
+
+    @Override
+    public int getColumnType(final int column) throws SQLException {
+        name(column);
+        return Types.JAVA_OBJECT;
+    }
+
+    @Override
+    public String getColumnTypeName(final int column) throws SQLException {
+        name(column);
+        return "OBJECT";
+    }
+
+    @Override
+    public String getColumnClassName(final int column) throws SQLException {
+        name(column);
+        return Object.class.getName();
+    }
+
+    @Override
+    public int isNullable(final int column) throws SQLException {
+        name(column);
+        return columnNullableUnknown;
+    }
+
+    @Override
+    public boolean isAutoIncrement(final int column) throws SQLException {
+        name(column);
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(final int column) throws SQLException {
+        name(column);
+        return true;
+    }
+
+    @Override
+    public boolean isSearchable(final int column) throws SQLException {
+        name(column);
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency(final int column) throws SQLException {
+        name(column);
+        return false;
+    }
+
+    @Override
+    public boolean isSigned(final int column) throws SQLException {
+        name(column);
+        return false;
+    }
+
+    @Override
+    public int getColumnDisplaySize(final int column) throws SQLException {
+        name(column);
+        return 0;
+    }
+
+    @Override
+    public int getPrecision(final int column) throws SQLException {
+        name(column);
+        return 0;
+    }
+
+    @Override
+    public int getScale(final int column) throws SQLException {
+        name(column);
+        return 0;
+    }
+
+    @Override
+    public String getSchemaName(final int column) throws SQLException {
+        name(column);
+        return "";
+    }
+
+    @Override
+    public String getTableName(final int column) throws SQLException {
+        name(column);
+        return "";
+    }
+
+    @Override
+    public String getCatalogName(final int column) throws SQLException {
+        name(column);
+        return "";
+    }
+
+    @Override
+    public boolean isReadOnly(final int column) throws SQLException {
+        name(column);
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(final int column) throws SQLException {
+        name(column);
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(final int column) throws SQLException {
+        name(column);
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
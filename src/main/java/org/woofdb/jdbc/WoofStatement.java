@@ -0,0 +1,472 @@
+package org.woofdb.jdbc;
+
+import org.woofdb.core.execution.ResultCursor;
+import org.woofdb.core.models.ResourceType;
+import org.woofdb.core.models.statements.AnalyzeStatement;
+import org.woofdb.core.models.statements.CopyStatement;
+import org.woofdb.core.models.statements.CreateIndexStatement;
+import org.woofdb.core.models.statements.CreateTableStatement;
+import org.woofdb.core.models.statements.DeallocateStatement;
+import org.woofdb.core.models.statements.DeleteStatement;
+import org.woofdb.core.models.statements.DropStatement;
+import org.woofdb.core.models.statements.ExecuteStatement;
+import org.woofdb.core.models.statements.ExplainStatement;
+import org.woofdb.core.models.statements.InsertStatement;
+import org.woofdb.core.models.statements.PrepareStatement;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.models.statements.UpdateStatement;
+import org.woofdb.core.models.statements.VacuumStatement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+// runs SQL text, at most one result set of it is open at a time
+class WoofStatement implements Statement {
+    final WoofConnection connection;
+    private WoofResultSet resultSet;
+    private long updateCount = -1;
+    private long maxRows;
+    private boolean closeOnCompletion;
+    private boolean closed;
+
+    WoofStatement(final WoofConnection connection) {
+        this.connection = connection;
+    }
+
+    // runs a parsed statement, returns whether it produced rows, otherwise it produced an update count
+    boolean run(final org.woofdb.core.models.statements.Statement statement) throws SQLException {
+        checkOpen();
+        closeResultSet();
+        updateCount = -1;
+        switch (statement.getStatementType()) {
+            case STATEMENT_SELECT -> resultSet = new WoofResultSet(this,
+                    connection.execute(session -> session.query((SelectStatement) statement)), maxRows);
+            case STATEMENT_EXPLAIN -> {
+                ByteArrayOutputStream plan = new ByteArrayOutputStream();
+                connection.execute(session -> {
+                    session.explain((ExplainStatement) statement, new PrintStream(plan, true, StandardCharsets.UTF_8));
+                    return null;
+                });
+                List<Object[]> lines = plan.toString(StandardCharsets.UTF_8).lines().map(line -> new Object[] {line}).toList();
+                resultSet = new WoofResultSet(this, ResultCursor.of(List.of("QUERY PLAN"), lines), maxRows);
+            }
+            case STATEMENT_INSERT -> updateCount = connection.execute(session -> session.insert((InsertStatement) statement));
+            case STATEMENT_UPDATE -> updateCount = connection.execute(session -> session.update((UpdateStatement) statement));
+            case STATEMENT_DELETE -> updateCount = connection.execute(session -> session.delete((DeleteStatement) statement));
+            case STATEMENT_VACUUM -> {
+                connection.execute(session -> session.vacuum((VacuumStatement) statement));
+                updateCount = 0;
+            }
+            case STATEMENT_COPY -> updateCount = connection.execute(session -> session.copy((CopyStatement) statement));
+            case STATEMENT_ANALYZE -> {
+                connection.execute(session -> session.analyze((AnalyzeStatement) statement));
+                updateCount = 0;
+            }
+            case STATEMENT_CREATE -> {
+                switch (statement) {
+                    case CreateTableStatement create -> connection.execute(session -> {
+                        session.createTable(create);
+                        return null;
+                    });
+                    case CreateIndexStatement create -> connection.execute(session -> {
+                        session.createIndex(create);
+                        return null;
+                    });
+                    default -> throw SqlExceptions.unsupported("CREATE DATABASE over JDBC, connecting with create=true");
+                }
+                updateCount = 0;
+            }
+            case STATEMENT_DROP -> {
+                DropStatement drop = (DropStatement) statement;
+                if (drop.getResourceType() == ResourceType.DATABASE) {
+                    throw SqlExceptions.unsupported("DROP DATABASE over JDBC");
+                }
+                connection.execute(session -> {
+                    if (drop.getResourceType() == ResourceType.TABLE) {
+                        session.dropTable(drop);
+                    }
+                    else {
+                        session.dropIndex(drop);
+                    }
+                    return null;
+                });
+                updateCount = 0;
+            }
+            case STATEMENT_PREPARE -> {
+                connection.call(session -> {
+                    session.prepare((PrepareStatement) statement);
+                    return null;
+                });
+                updateCount = 0;
+            }
+            // the bound statement runs as if it was given itself
+            case STATEMENT_EXECUTE -> {
+                org.woofdb.core.models.statements.Statement bound = connection.call(session -> session.bind((ExecuteStatement) statement));
+                return run(bound);
+            }
+            case STATEMENT_DEALLOCATE -> {
+                connection.call(session -> {
+                    session.deallocate((DeallocateStatement) statement);
+                    return null;
+                });
+                updateCount = 0;
+            }
+            case STATEMENT_START_TRANSACTION, STATEMENT_COMMIT, STATEMENT_ROLLBACK ->
+                    throw new SQLException("Transactions are controlled with setAutoCommit, commit and rollback of the connection", "25000");
+            case STATEMENT_USE, STATEMENT_SHOW -> throw SqlExceptions.unsupported(statement.getStatementType() + " over JDBC");
+        }
+        return resultSet != null;
+    }
+
+    private boolean run(final String sql) throws SQLException {
+        checkOpen();
+        org.woofdb.core.models.statements.Statement statement;
+        try {
+            statement = connection.getParser().parse(sql);
+        }
+        catch (RuntimeException e) {
+            throw SqlExceptions.of(e);
+        }
+        return run(statement);
+    }
+
+    ResultSet query(final boolean hasRows) throws SQLException {
+        if (!hasRows) {
+            throw new SQLException("Statement produced no result set");
+        }
+        return resultSet;
+    }
+
+    long update(final boolean hasRows) throws SQLException {
+        if (hasRows) {
+            closeResultSet();
+            throw new SQLException("Statement produced a result set");
+        }
+        return updateCount;
+    }
+
+    void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement is closed");
+        }
+    }
+
+    void closeResultSet() throws SQLException {
+        if (resultSet != null) {
+            // closes the statement too when it closes on completion
+            resultSet.close();
+        }
+    }
+
+    void resultSetClosed(final WoofResultSet closedResultSet) throws SQLException {
+        if (resultSet == closedResultSet) {
+            resultSet = null;
+            if (closeOnCompletion) {
+                close();
+            }
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery(final String sql) throws SQLException {
+        return query(run(sql));
+    }
+
+    @Override
+    public int executeUpdate(final String sql) throws SQLException {
+        return (int) Math.min(update(run(sql)), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long executeLargeUpdate(final String sql) throws SQLException {
+        return update(run(sql));
+    }
+
+    @Override
+    public boolean execute(final String sql) throws SQLException {
+        return run(sql);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        checkOpen();
+        return resultSet;
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        checkOpen();
+        return (int) Math.min(updateCount, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        checkOpen();
+        return updateCount;
+    }
+
+    // every statement has a single result
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        checkOpen();
+        closeResultSet();
+        updateCount = -1;
+        return false;
+    }
+
+    @Override
+    public boolean getMoreResults(final int current) throws SQLException {
+        if (current != CLOSE_CURRENT_RESULT && current != CLOSE_ALL_RESULTS) {
+            throw SqlExceptions.unsupported("Keeping a result set open");
+        }
+        return getMoreResults();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkOpen();
+        return connection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closeOnCompletion = false;
+        try {
+            closeResultSet();
+        }
+        finally {
+            closed = true;
+            connection.forget(this);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        checkOpen();
+        closeOnCompletion = true;
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        checkOpen();
+        return closeOnCompletion;
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        checkOpen();
+        return (int) Math.min(maxRows, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void setMaxRows(final int max) throws SQLException {
+        setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        checkOpen();
+        return maxRows;
+    }
+
+    // 0 for no limit, rows past it are dropped
+    @Override
+    public void setLargeMaxRows(final long max) throws SQLException {
+        checkOpen();
+        if (max < 0) {
+            throw new SQLException("Negative row limit " + max);
+        }
+        maxRows = max;
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        checkOpen();
+        return 0;
+    }
+
+    @Override
+    public void setMaxFieldSize(final int max) throws SQLException {
+        checkOpen();
+        if (max != 0) {
+            throw SqlExceptions.unsupported("A maximum field size");
+        }
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        checkOpen();
+        return 0;
+    }
+
+    @Override
+    public void setQueryTimeout(final int seconds) throws SQLException {
+        checkOpen();
+        if (seconds != 0) {
+            throw SqlExceptions.unsupported("Query timeouts");
+        }
+    }
+
+    // SQL has no escapes to process
+    @Override
+    public void setEscapeProcessing(final boolean enable) throws SQLException {
+        checkOpen();
+    }
+
+    // rows are always read forward, a batch at a time
+    @Override
+    public void setFetchDirection(final int direction) throws SQLException {
+        checkOpen();
+        if (direction != ResultSet.FETCH_FORWARD) {
+            throw SqlExceptions.unsupported("Fetching backwards");
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        checkOpen();
+        return ResultSet.FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(final int rows) throws SQLException {
+        checkOpen();
+        if (rows < 0) {
+            throw new SQLException("Negative fetch size " + rows);
+        }
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkOpen();
+        return 0;
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        checkOpen();
+        return ResultSet.CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        checkOpen();
+        return ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        checkOpen();
+        return ResultSet.CLOSE_CURSORS_AT_COMMIT;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public void setPoolable(final boolean poolable) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        checkOpen();
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(final Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper of " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(final Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        throw SqlExceptions.unsupported("cancel");
+    }
+
+    @Override
+    public void setCursorName(final String name) throws SQLException {
+        throw SqlExceptions.unsupported("setCursorName");
+    }
+
+    @Override
+    public void addBatch(final String sql) throws SQLException {
+        throw SqlExceptions.unsupported("addBatch");
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        throw SqlExceptions.unsupported("clearBatch");
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        throw SqlExceptions.unsupported("executeBatch");
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        throw SqlExceptions.unsupported("getGeneratedKeys");
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final int autoGeneratedKeys) throws SQLException {
+        throw SqlExceptions.unsupported("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final int[] columnIndexes) throws SQLException {
+        throw SqlExceptions.unsupported("executeUpdate");
+    }
+
+    @Override
+    public int executeUpdate(final String sql, final String[] columnNames) throws SQLException {
+        throw SqlExceptions.unsupported("executeUpdate");
+    }
+
+    @Override
+    public boolean execute(final String sql, final int autoGeneratedKeys) throws SQLException {
+        throw SqlExceptions.unsupported("execute");
+    }
+
+    @Override
+    public boolean execute(final String sql, final int[] columnIndexes) throws SQLException {
+        throw SqlExceptions.unsupported("execute");
+    }
+
+    @Override
+    public boolean execute(final String sql, final String[] columnNames) throws SQLException {
+        throw SqlExceptions.unsupported("execute");
+    }
+}
@@ -1,10 +1,17 @@
 package org.woofdb.repl;
-import org.woofdb.core.exceptions.MaxTableSizeReachedException;
+import org.woofdb.core.exceptions.ConstraintViolationException;
 import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.exceptions.TransactionConflictException;
+import org.woofdb.core.execution.ParallelScan;
+import org.woofdb.core.execution.QueryCompiler;
+import org.woofdb.core.execution.SelectExecutor;
 import org.woofdb.core.models.*;
 import org.woofdb.core.models.MetaCommand;
 import org.woofdb.core.models.statements.*;
 import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.session.Session;
+import org.woofdb.core.storage.ColumnStatistics;
+import org.woofdb.core.storage.TableStatistics;
 import org.woofdb.core.tokenizer.SqlTokenizer;
 import org.woofdb.core.tokenizer.Tokenizer;
 
@@ -12,13 +19,26 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class Repl {
 
     private Database currentDatabase = null;
+    // runs the statements against the current database, null while none is selected
+    private Session session = null;
+    // set while query compilation is switched on, keeps the generated classes of earlier queries
+    private QueryCompiler queryCompiler = null;
+    // the workers of parallel scans, parallelScan is null while scans run on the calling thread
+    private ForkJoinPool scanPool;
+    private ParallelScan parallelScan = newParallelScan(Runtime.getRuntime().availableProcessors());
 
     public void loop() {
         Scanner scanner = new Scanner(System.in);
@@ -36,33 +56,102 @@ public final class Repl {
                 switch (metaCommand) {
                     case HELLO -> System.out.println("Woof!");
                     case EXIT, QUIT -> {
+                        closeCurrentDatabase();
+                        parallelScan = newParallelScan(1);
                         System.out.println("Bye!");
                         scanner.close();
                         return;
                     }
                     case HELP -> printManual();
                     case CLEAR -> clearTerminal();
+                    case COMPILE -> toggleQueryCompilation();
+                    case PARALLEL -> setParallelism(command);
                     default -> System.out.println("Unrecognized command " + command);
                 }
             }
             else {
                 try {
                     final Statement statement = sqlParser.parse(command);
-                    switch (executeStatement(statement)) {
-                        case EXECUTE_TABLE_FULL -> System.out.println("ERROR. Table Full!");
+                    switch (execute(statement)) {
                         case EXECUTE_FAILURE -> System.out.println("Failure while executing statement " + command);
                     }
                 }
                 catch (SyntaxError e) {
                     System.out.println("SyntaxError: " + e.getMessage());
                 }
+                catch (ConstraintViolationException e) {
+                    System.out.println("ConstraintViolation: " + e.getMessage());
+                }
+                catch (TransactionConflictException e) {
+                    System.out.println("TransactionConflict: " + e.getMessage());
+                }
                 catch (IOException e) {
                     System.out.println("IOException: " + e.getMessage());
-                } catch (MaxTableSizeReachedException e) {
-                    throw new RuntimeException(e);
                 }
+                catch (RuntimeException e) {
+                    // e.g. a table file that cannot be read, the statement fails and the session goes on
+                    System.out.println(e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void toggleQueryCompilation() {
+        if (queryCompiler != null) {
+            queryCompiler = null;
+            if (session != null) {
+                session.setQueryCompiler(null);
             }
+            System.out.println("Query compilation off.");
+            return;
+        }
+        QueryCompiler compiler = new QueryCompiler();
+        if (!compiler.isAvailable()) {
+            System.out.println("Query compilation needs the JDK compiler, it is not available in this runtime.");
+            return;
+        }
+        queryCompiler = compiler;
+        if (session != null) {
+            session.setQueryCompiler(queryCompiler);
+        }
+        System.out.println("Query compilation on.");
+    }
+
+    private void setParallelism(final String command) {
+        String[] arguments = command.split("\\s+");
+        if (arguments.length == 1) {
+            System.out.println("Scanning with " + (parallelScan == null ? 1 : parallelScan.getParallelism()) + " threads.");
+            return;
         }
+        int threads;
+        try {
+            threads = Integer.parseInt(arguments[1]);
+        }
+        catch (NumberFormatException e) {
+            threads = 0;
+        }
+        if (arguments.length > 2 || threads < 1 || threads > 256) {
+            System.out.println("Usage: .parallel <threads between 1 and 256>");
+            return;
+        }
+        parallelScan = newParallelScan(threads);
+        if (session != null) {
+            session.setParallelScan(parallelScan);
+        }
+        System.out.println("Scanning with " + threads + " threads.");
+    }
+
+    // replaces the scan pool, a single thread needs none
+    private ParallelScan newParallelScan(final int threads) {
+        if (scanPool != null) {
+            scanPool.shutdown();
+            scanPool = null;
+        }
+        if (threads == 1) {
+            return null;
+        }
+        scanPool = new ForkJoinPool(threads);
+        return new ParallelScan(scanPool);
     }
 
     private static void printPrompt() {
@@ -100,7 +189,25 @@ public final class Repl {
         System.out.flush();
     }
 
-    private ExecutionResult executeStatement(final Statement statement) throws IOException, MaxTableSizeReachedException {
+    // a statement that fails takes its whole transaction down, there are no savepoints
+    private ExecutionResult execute(final Statement statement) throws IOException {
+        boolean inTransaction = session != null && session.inTransaction();
+        try {
+            return executeStatement(statement);
+        }
+        catch (RuntimeException | IOException e) {
+            if (session != null) {
+                // the session rolled back already unless the rows of a query failed while printing
+                session.abort();
+            }
+            if (inTransaction) {
+                System.out.println("Transaction rolled back.");
+            }
+            throw e;
+        }
+    }
+
+    private ExecutionResult executeStatement(final Statement statement) throws IOException {
         long start = System.currentTimeMillis();
         switch (statement.getStatementType()) {
             case STATEMENT_INSERT -> {
@@ -113,25 +220,135 @@ public final class Repl {
                 if (table == null) {
                     return noSuchResourceResult(tableName, ResourceType.TABLE);
                 }
-                Object[] args = insertStatement.getValues().toArray();
-                try {
-                    table.addRow(args);
+                session.insert(insertStatement);
+            }
+            case STATEMENT_UPDATE -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
                 }
-                catch (MaxTableSizeReachedException maxTableSizeReachedException) {
-                    return ExecutionResult.EXECUTE_TABLE_FULL;
+                UpdateStatement updateStatement = (UpdateStatement) statement;
+                if (currentDatabase.getTable(updateStatement.getTableName()) == null) {
+                    return noSuchResourceResult(updateStatement.getTableName(), ResourceType.TABLE);
                 }
+                long rows = session.update(updateStatement);
+                System.out.println("Updated " + rows + " rows.");
             }
-            case STATEMENT_SELECT -> {
+            case STATEMENT_DELETE -> {
                 if (currentDatabase == null) {
                     return noDbSelectedResult();
                 }
-                SelectStatement selectStatement = (SelectStatement) statement;
+                DeleteStatement deleteStatement = (DeleteStatement) statement;
+                if (currentDatabase.getTable(deleteStatement.getTableName()) == null) {
+                    return noSuchResourceResult(deleteStatement.getTableName(), ResourceType.TABLE);
+                }
+                long rows = session.delete(deleteStatement);
+                System.out.println("Deleted " + rows + " rows.");
+            }
+            case STATEMENT_VACUUM -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                VacuumStatement vacuumStatement = (VacuumStatement) statement;
+                if (vacuumStatement.getTableName() != null && currentDatabase.getTable(vacuumStatement.getTableName()) == null) {
+                    return noSuchResourceResult(vacuumStatement.getTableName(), ResourceType.TABLE);
+                }
+                long versions = session.vacuum(vacuumStatement);
+                System.out.println("Removed " + versions + " dead row versions.");
+            }
+            case STATEMENT_COPY -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                CopyStatement copyStatement = (CopyStatement) statement;
+                Table table = currentDatabase.getTable(copyStatement.getTable());
+                if (table == null) {
+                    return noSuchResourceResult(copyStatement.getTable(), ResourceType.TABLE);
+                }
+                Path filePath = Path.of(copyStatement.getFilePath());
+                if (!Files.isRegularFile(filePath)) {
+                    System.out.println("No such file '" + filePath + "'");
+                    return ExecutionResult.EXECUTE_FAILURE;
+                }
+                long rows = session.copy(copyStatement);
+                System.out.println("Copied " + rows + " rows into " + table.getTableName() + ".");
+            }
+            case STATEMENT_SELECT, STATEMENT_EXPLAIN -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                ExplainStatement explainStatement = statement instanceof ExplainStatement explain ? explain : null;
+                SelectStatement selectStatement = explainStatement != null ? explainStatement.getSelect() : (SelectStatement) statement;
                 String tableName = selectStatement.getFrom();
                 Table table = currentDatabase.getTable(tableName);
                 if (table == null) {
                     return noSuchResourceResult(tableName, ResourceType.TABLE);
                 }
-                table.printTableData();
+                Table joinedTable = null;
+                if (selectStatement.getJoin() != null) {
+                    joinedTable = currentDatabase.getTable(selectStatement.getJoin().getTable());
+                    if (joinedTable == null) {
+                        return noSuchResourceResult(selectStatement.getJoin().getTable(), ResourceType.TABLE);
+                    }
+                }
+                if (explainStatement != null) {
+                    session.explain(explainStatement, System.out);
+                }
+                else {
+                    new SelectExecutor(System.out).print(session.query(selectStatement));
+                }
+            }
+            case STATEMENT_ANALYZE -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                AnalyzeStatement analyzeStatement = (AnalyzeStatement) statement;
+                Table table = currentDatabase.getTable(analyzeStatement.getTableName());
+                if (table == null) {
+                    return noSuchResourceResult(analyzeStatement.getTableName(), ResourceType.TABLE);
+                }
+                TableStatistics statistics = session.analyze(analyzeStatement);
+                printStatistics(table.getColumns(), statistics);
+            }
+            case STATEMENT_PREPARE -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                session.prepare((PrepareStatement) statement);
+            }
+            case STATEMENT_EXECUTE -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                // runs like the statement it binds, timed by that run
+                return executeStatement(session.bind((ExecuteStatement) statement));
+            }
+            case STATEMENT_DEALLOCATE -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                session.deallocate((DeallocateStatement) statement);
+            }
+            case STATEMENT_START_TRANSACTION -> {
+                if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                if (session.inTransaction()) {
+                    System.out.println("A transaction is already in progress.");
+                    return ExecutionResult.EXECUTE_FAILURE;
+                }
+                session.begin();
+            }
+            case STATEMENT_COMMIT -> {
+                if (session == null || !session.inTransaction()) {
+                    return noTransactionResult();
+                }
+                session.commit();
+            }
+            case STATEMENT_ROLLBACK -> {
+                if (session == null || !session.inTransaction()) {
+                    return noTransactionResult();
+                }
+                session.rollback();
             }
             case STATEMENT_USE -> {
                 UseDatabaseStatement useDatabaseStatement = (UseDatabaseStatement) statement;
@@ -139,18 +356,62 @@ public final class Repl {
                 if (!Files.exists(Path.of(getBaseDatabaseDirectoryPath() + databaseName))) {
                     return noSuchResourceResult(databaseName, ResourceType.DATABASE);
                 }
+                closeCurrentDatabase();
                 currentDatabase = new Database(getBaseDatabaseDirectoryPath() + databaseName);
+                session = new Session(currentDatabase);
+                session.setQueryCompiler(queryCompiler);
+                session.setParallelScan(parallelScan);
             }
             case STATEMENT_CREATE -> {
                 if (statement instanceof CreateDatabaseStatement createDatabaseStatement) {
                     Database database = new Database(getBaseDatabaseDirectoryPath() + createDatabaseStatement.getDatabaseName());
-                    database.loadTables();
+                    database.close();
                 }
                 else if (statement instanceof CreateTableStatement createTableStatement) {
                     if (currentDatabase == null) {
                         return noDbSelectedResult();
                     }
-                    currentDatabase.createTable(createTableStatement.getTableName(), createTableStatement.getColumns());
+                    session.createTable(createTableStatement);
+                }
+                else if (statement instanceof CreateIndexStatement createIndexStatement) {
+                    if (currentDatabase == null) {
+                        return noDbSelectedResult();
+                    }
+                    if (currentDatabase.getTable(createIndexStatement.getTableName()) == null) {
+                        return noSuchResourceResult(createIndexStatement.getTableName(), ResourceType.TABLE);
+                    }
+                    session.createIndex(createIndexStatement);
+                }
+            }
+            case STATEMENT_DROP -> {
+                DropStatement dropStatement = (DropStatement) statement;
+                if (dropStatement.getResourceType() == ResourceType.DATABASE) {
+                    Path databasePath = Path.of(getBaseDatabaseDirectoryPath() + dropStatement.getResourceName());
+                    if (!Files.isDirectory(databasePath)) {
+                        return noSuchResourceResult(dropStatement.getResourceName(), ResourceType.DATABASE);
+                    }
+                    if (currentDatabase != null && Path.of(currentDatabase.getBaseDirectory()).equals(databasePath)) {
+                        closeCurrentDatabase();
+                    }
+                    deleteDirectory(databasePath);
+                }
+                else if (currentDatabase == null) {
+                    return noDbSelectedResult();
+                }
+                else if (dropStatement.getResourceType() == ResourceType.TABLE) {
+                    if (currentDatabase.getTable(dropStatement.getResourceName()) == null) {
+                        return noSuchResourceResult(dropStatement.getResourceName(), ResourceType.TABLE);
+                    }
+                    session.dropTable(dropStatement);
+                }
+                else {
+                    Table table = dropStatement.getTableName() != null
+                            ? currentDatabase.getTable(dropStatement.getTableName())
+                            : currentDatabase.findTableWithIndex(dropStatement.getResourceName());
+                    if (table == null || !table.hasIndex(dropStatement.getResourceName())) {
+                        return noSuchResourceResult(dropStatement.getResourceName(), ResourceType.INDEX);
+                    }
+                    session.dropIndex(dropStatement);
                 }
             }
             case STATEMENT_SHOW -> {
@@ -172,7 +433,7 @@ public final class Repl {
                         return noDbSelectedResult();
                     }
 
-                    Set<String> tables = Files.list(Path.of(currentDatabase.getBaseDirectory())).map(it -> it.getFileName().toString().replace(".tbl", "")).collect(Collectors.toSet());
+                    Set<String> tables = new LinkedHashSet<>(currentDatabase.getTableNames());
                     printShowResourcesResult("      Tables    ", showStatement.getResourceType(), tables);
                 }
             }
@@ -182,6 +443,24 @@ public final class Repl {
         return ExecutionResult.EXECUTE_SUCCESS;
     }
 
+    private void closeCurrentDatabase() {
+        if (currentDatabase == null) {
+            return;
+        }
+        if (session.inTransaction()) {
+            System.out.println("Transaction rolled back.");
+        }
+        session.close();
+        session = null;
+        try {
+            currentDatabase.close();
+        }
+        catch (IOException e) {
+            System.out.println("IOException: " + e.getMessage());
+        }
+        currentDatabase = null;
+    }
+
     private static void printShowResourcesResult(final String resourceName, final ResourceType resourceType, final Set<String> resourceNames) {
         if (resourceNames.isEmpty()) {
             System.out.println("No available " + resourceType + ".");
@@ -194,6 +473,30 @@ public final class Repl {
         System.out.println("-------------------");
     }
 
+    private static void printStatistics(final List<Column> columns, final TableStatistics statistics) {
+        System.out.println("------------------");
+        System.out.println("column | type | null fraction | distinct | min | max | ");
+        System.out.println("------------------");
+        for (int i = 0; i < columns.size(); i ++) {
+            ColumnStatistics column = statistics.getColumn(i);
+            System.out.printf(Locale.ROOT, "%s | %s | %.4f | %d | %s | %s | %n", columns.get(i).getName(), column.getDataType(),
+                    statistics.getNullFraction(i), column.getDistinctValues(), column.getMin(), column.getMax());
+        }
+        System.out.println("------------------");
+        System.out.println(statistics.getRowCount() + " rows analyzed.");
+    }
+
+    // the files of a database directory, deepest first so every directory is empty when its turn comes
+    private static void deleteDirectory(final Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
     private static String getBaseDatabaseDirectoryPath() {
         return "./db/";
     }
@@ -203,6 +506,11 @@ public final class Repl {
         return ExecutionResult.EXECUTE_FAILURE;
     }
 
+    private static ExecutionResult noTransactionResult() {
+        System.out.println("No transaction in progress.");
+        return ExecutionResult.EXECUTE_FAILURE;
+    }
+
     private static ExecutionResult noSuchResourceResult(String resourceName, ResourceType resourceType) {
         System.out.println("Unknown " + resourceType + " '" + resourceName + "'");
         return ExecutionResult.EXECUTE_FAILURE;
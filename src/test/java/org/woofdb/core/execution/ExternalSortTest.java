@@ -0,0 +1,62 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSortTest {
+
+    // descending by the string, nulls last, then ascending by the number
+    private static final Comparator<Object[]> ORDER = ExternalSort.comparator(new int[] {1, 0}, new boolean[] {true, false});
+
+    @Test
+    void spilledRunsAndTopNShouldMatchAnInMemorySort() throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 30000; i ++) {
+            rows.add(new Object[] {(i * 7919) % 30000, i % 13 == 0 ? null : "v" + (i % 500), (double) i});
+        }
+        List<Object[]> expected = new ArrayList<>(rows);
+        expected.sort(ORDER);
+
+        assertSorted(expected, sort(rows, -1, ExternalSort.DEFAULT_MEMORY_BUDGET));
+        // a few hundred rows per run, more runs than a single merge reads at once
+        assertSorted(expected, sort(rows, -1, 40_000));
+        assertSorted(expected.subList(0, 25), sort(rows, 25, ExternalSort.DEFAULT_MEMORY_BUDGET));
+        assertSorted(expected.subList(0, 0), sort(rows, 0, ExternalSort.DEFAULT_MEMORY_BUDGET));
+
+        // partial sorts of halves of the input merged into one
+        try (ExternalSort sort = new ExternalSort(ORDER, 1000, 40_000); ExternalSort partial = new ExternalSort(ORDER, 1000, 40_000)) {
+            for (int i = 0; i < rows.size(); i ++) {
+                (i % 2 == 0 ? sort : partial).add(rows.get(i));
+            }
+            sort.merge(partial);
+            List<Object[]> output = new ArrayList<>();
+            sort.finish(output::add);
+            assertSorted(expected.subList(0, 1000), output);
+        }
+    }
+
+    private static List<Object[]> sort(final List<Object[]> rows, final long limit, final long memoryBudget) throws IOException {
+        List<Object[]> output = new ArrayList<>();
+        try (ExternalSort sort = new ExternalSort(ORDER, limit, memoryBudget)) {
+            for (Object[] row : rows) {
+                sort.add(row);
+            }
+            sort.finish(output::add);
+        }
+        return output;
+    }
+
+    // rows can tie on both keys, so only the keys are compared
+    private static void assertSorted(final List<Object[]> expected, final List<Object[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i ++) {
+            assertEquals(0, ORDER.compare(expected.get(i), actual.get(i)), "row " + i);
+        }
+    }
+}
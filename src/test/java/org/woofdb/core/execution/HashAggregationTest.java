@@ -0,0 +1,61 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.expression.AggregateFunction;
+import org.woofdb.core.models.vector.VectorBatch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashAggregationTest {
+
+    private static final List<Column> COLUMNS = List.of(new Column("id", DataType.INT, false),
+            new Column("region", DataType.VARCHAR, true), new Column("amount", DataType.DOUBLE, true));
+    private static final List<AggregateCall> CALLS = List.of(new AggregateCall(AggregateFunction.COUNT, -1),
+            new AggregateCall(AggregateFunction.SUM, 0), new AggregateCall(AggregateFunction.MAX, 2),
+            new AggregateCall(AggregateFunction.MIN, 1));
+
+    @Test
+    void spilledAggregationShouldMatchTheInMemoryOne() throws IOException {
+        for (int[] keys : new int[][] {{0}, {1, 2}, {}}) {
+            Set<String> inMemory = aggregate(keys, HashAggregation.DEFAULT_MEMORY_BUDGET);
+            // room for a few dozen groups, most rows go through one or more rounds of spilling
+            Set<String> spilled = aggregate(keys, 4000);
+            assertEquals(inMemory, spilled);
+        }
+        assertEquals(5000, aggregate(new int[] {0}, 4000).size());
+    }
+
+    // every group rendered as text, the order of the groups is not defined
+    private static Set<String> aggregate(final int[] keys, final long memoryBudget) throws IOException {
+        Set<String> groups = new TreeSet<>();
+        try (HashAggregation aggregation = new HashAggregation(COLUMNS, keys, CALLS, memoryBudget)) {
+            VectorBatch batch = new VectorBatch(COLUMNS, aggregation.getInputColumns(), VectorBatch.DEFAULT_CAPACITY);
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 20000; i ++) {
+                Row row = new Row(3);
+                row.setValues(new Object[] {i % 5000, i % 7 == 0 ? null : "r" + (i % 300), i % 11 == 0 ? null : (double) (i % 97)});
+                rows.add(row);
+            }
+            for (int i = 0; i < rows.size(); i ++) {
+                batch.addRow(rows.get(i));
+                if (batch.isFull() || i == rows.size() - 1) {
+                    batch.selectAll();
+                    aggregation.add(batch);
+                    batch.reset();
+                }
+            }
+            aggregation.finish(row -> groups.add(Arrays.toString(row)));
+        }
+        return groups;
+    }
+}
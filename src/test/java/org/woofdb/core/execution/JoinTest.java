@@ -0,0 +1,120 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void everyJoinShouldMatchTheNestedLoopResult() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Column id = new Column("id", DataType.INT, false);
+            id.setPrimaryKey(true);
+            Table users = database.createTable("users", List.of(id, new Column("name", DataType.VARCHAR, true)));
+            Table orders = database.createTable("orders", List.of(new Column("user_id", DataType.INT, true),
+                    new Column("amount", DataType.DOUBLE, true)));
+            Transaction transaction = database.begin();
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 3000; i ++) {
+                Row row = new Row(2);
+                row.setValues(new Object[] {i, "user" + i});
+                rows.add(row);
+            }
+            users.addRows(rows, transaction);
+            rows.clear();
+            // several orders for most users, none for some, and orders of unknown or missing users
+            for (int i = 0; i < 9000; i ++) {
+                Row row = new Row(2);
+                row.setValues(new Object[] {i % 17 == 0 ? null : (i * 7) % 3500, (double) i});
+                rows.add(row);
+            }
+            orders.addRows(rows, transaction);
+            database.createIndex("orders_user", "orders", "user_id");
+
+            JoinInput left = new JoinInput(users, null, null, new boolean[] {true, true}, 0, false, null);
+            JoinInput right = new JoinInput(orders, null, null, new boolean[] {true, true}, 0, false, null);
+            List<String> expected = nestedLoop(users, orders, transaction);
+            assertFalse(expected.isEmpty());
+
+            assertEquals(expected, run(new HashJoin(left, right, true, HashJoin.DEFAULT_MEMORY_BUDGET), transaction));
+            assertEquals(expected, run(new HashJoin(left, right, false, HashJoin.DEFAULT_MEMORY_BUDGET), transaction));
+            // room for a few dozen build rows, the partitions are partitioned again
+            assertEquals(expected, run(new HashJoin(left, right, true, 4000), transaction));
+            assertTrue(left.isSortedByKey());
+            assertEquals(expected, run(new SortMergeJoin(left, right, ExternalSort.DEFAULT_MEMORY_BUDGET), transaction));
+            assertEquals(expected, run(new SortMergeJoin(right, left, 40_000), transaction).stream().map(JoinTest::swap).sorted().toList());
+            assertEquals(expected, run(new IndexNestedLoopJoin(left, right, true), transaction));
+            assertEquals(expected, run(new IndexNestedLoopJoin(right, left, false), transaction));
+        }
+    }
+
+    // every matching pair as left values | right values, sorted
+    private static List<String> run(final Join join, final Transaction transaction) throws IOException {
+        List<String> pairs = new ArrayList<>();
+        join.run(transaction, (left, right) -> pairs.add(Arrays.toString(left) + " | " + Arrays.toString(right)));
+        return pairs.stream().sorted().toList();
+    }
+
+    private static String swap(final String pair) {
+        String[] sides = pair.split(" \\| ");
+        return sides[1] + " | " + sides[0];
+    }
+
+    private static List<String> nestedLoop(final Table users, final Table orders, final Transaction transaction) {
+        List<Object[]> userRows = new ArrayList<>();
+        users.scan(transaction).forEachRemaining(row -> userRows.add(row.getValues()));
+        List<String> pairs = new ArrayList<>();
+        orders.scan(transaction).forEachRemaining(order -> {
+            for (Object[] user : userRows) {
+                if (user[0].equals(order.getValue(0))) {
+                    pairs.add(Arrays.toString(user) + " | " + Arrays.toString(order.getValues()));
+                }
+            }
+        });
+        return pairs.stream().sorted().toList();
+    }
+
+    @Test
+    void joinRowsShouldOnlyReadWhileTheReaderWaitsForAChunk() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        JoinRows rows = new JoinRows(sink -> {
+            for (int i = 0; i < 3000; i ++) {
+                produced.incrementAndGet();
+                if (!sink.accept(new Object[] {i}, new Object[] {-i})) {
+                    return;
+                }
+            }
+        });
+        // nothing is read ahead of the reader, a writer may change the pages in between
+        Thread.sleep(50);
+        assertEquals(0, produced.get());
+        assertArrayEquals(new Object[] {0, 0}, rows.next());
+        Thread.sleep(50);
+        assertEquals(1024, produced.get());
+        for (int i = 1; i < 1024; i ++) {
+            rows.next();
+        }
+        assertEquals(1024, produced.get());
+        assertArrayEquals(new Object[] {1024, -1024}, rows.next());
+        rows.close();
+        assertEquals(2048, produced.get());
+    }
+}
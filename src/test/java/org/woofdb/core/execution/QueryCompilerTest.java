@@ -0,0 +1,68 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCompilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SQLParser parser = new SQLParser(new SqlTokenizer());
+
+    @Test
+    void compiledQueriesShouldPrintWhatTheInterpretedOnesPrint() throws IOException {
+        QueryCompiler compiler = new QueryCompiler();
+        assertTrue(compiler.isAvailable());
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("readings", List.of(new Column("id", DataType.INT, false),
+                    new Column("ratio", DataType.FLOAT, true), new Column("value", DataType.DOUBLE, true),
+                    new Column("label", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 3000; i ++) {
+                Row row = new Row(4);
+                row.setValues(new Object[] {i, i % 5 == 0 ? null : i / 7f, (double) (i % 50), i % 4 == 0 ? null : "label" + (i % 30)});
+                rows.add(row);
+            }
+            table.addRows(rows, transaction);
+
+            List<String> queries = List.of(
+                    "SELECT * FROM readings;",
+                    "SELECT label, id FROM readings WHERE (ratio > 100 AND value <= 20) OR label = 'label7';",
+                    "SELECT id, ratio FROM readings WHERE label >= 'label25' AND id <> 2999 OR 10 > value;");
+            for (String sql : queries) {
+                SelectStatement statement = (SelectStatement) parser.parse(sql);
+                ByteArrayOutputStream interpreted = new ByteArrayOutputStream();
+                ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+                long interpretedRows = new SelectExecutor(new PrintStream(interpreted)).execute(table, statement, transaction);
+                long compiledRows = new SelectExecutor(new PrintStream(compiled), compiler).execute(table, statement, transaction);
+                assertEquals(interpretedRows, compiledRows);
+                assertEquals(interpreted.toString(), compiled.toString());
+            }
+
+            // only the literals differ, the generated class is reused
+            new SelectExecutor(new PrintStream(new ByteArrayOutputStream()), compiler)
+                    .execute(table, (SelectStatement) parser.parse("SELECT label, id FROM readings WHERE (ratio > 5 AND value <= 2) OR label = 'label1';"), transaction);
+            assertEquals(queries.size(), compiler.cachedClasses());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SQLParser parser = new SQLParser(new SqlTokenizer());
+
+    @Test
+    void planScanShouldPickTheCheapestAccessPath() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table events = events(database);
+
+            // an equality keeps few rows, worth the random reads of the index
+            QueryPlanner.AccessPath path = QueryPlanner.planScan(events, filter(events, "kind = 3"), 1);
+            assertEquals(1, path.access().columnIndex());
+            assertTrue(path.node().getOperator().startsWith("Index Scan on events using events_kind (kind = 3)"));
+            // a range keeps a third of them, a full scan reads less
+            assertNull(QueryPlanner.planScan(events, filter(events, "kind > 3"), 1).access());
+            assertNull(QueryPlanner.planScan(events, filter(events, "score > 5"), 1).access());
+            // a primary key range is read in order, cheaper than the index
+            path = QueryPlanner.planScan(events, filter(events, "kind > 1 AND id >= 19990"), 1);
+            assertEquals(0, path.access().columnIndex());
+            assertEquals("Primary Key Scan on events (id >= 19990) where kind > 1", path.node().getOperator());
+            assertEquals(20_000 / 9.0, path.node().getEstimatedRows(), 1e-6);
+            assertEquals("Parallel Seq Scan on events (4 workers)", QueryPlanner.planScan(events, null, 4).node().getOperator());
+        }
+    }
+
+    @Test
+    void planScanShouldUseTheStatisticsOfAnAnalyzedTable() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table events = events(database);
+            Transaction transaction = database.begin();
+            events.analyze(transaction);
+            database.commit(transaction);
+
+            // the histogram knows kind > 190 keeps 9 kinds of 200, few enough for the index
+            QueryPlanner.AccessPath path = QueryPlanner.planScan(events, filter(events, "kind > 190"), 1);
+            assertEquals(1, path.access().columnIndex());
+            assertEquals(20_000 * 9 / 200.0, path.node().getEstimatedRows(), 20);
+            // a kind no event has
+            assertEquals(0, QueryPlanner.selectivity(events, filter(events, "kind = 500")));
+            assertEquals(200, QueryPlanner.distinctValues(events, 1), 10);
+            assertEquals(10, QueryPlanner.distinctValues(events, 2), 1);
+        }
+        // the statistics are read back with the table
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            assertEquals(20_000, database.getTable("events").getStatistics().getRowCount());
+        }
+    }
+
+    @Test
+    void planJoinShouldPickTheAlgorithmAndTheBuildSide() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table events = events(database);
+            Column kind = new Column("kind", DataType.INT, false);
+            kind.setPrimaryKey(true);
+            Table kinds = database.createTable("kinds", List.of(kind, new Column("label", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            for (int i = 0; i < 200; i ++) {
+                kinds.addRow(new Object[] {String.valueOf(i), "'kind" + i + "'"}, transaction);
+            }
+            database.commit(transaction);
+
+            // every event has its kind, fetching all of them through the index costs more than hashing the kinds
+            QueryPlanner.JoinPlan plan = QueryPlanner.planJoin(input(events, null, 1), input(kinds, null, 0), "events.kind = kinds.kind");
+            assertInstanceOf(HashJoin.class, plan.join());
+            assertEquals("Hash Join on events.kind = kinds.kind (build kinds)", plan.node().getOperator());
+            assertEquals(20_000, plan.node().getEstimatedRows(), 1e-6);
+
+            // a single outer row looks its kind up instead of scanning the kinds
+            plan = QueryPlanner.planJoin(input(events, filter(events, "id = 7"), 1), input(kinds, null, 0), "events.kind = kinds.kind");
+            assertInstanceOf(IndexNestedLoopJoin.class, plan.join());
+            assertEquals("Primary Key Lookup on kinds (kind)", plan.node().getInputs().get(1).getOperator());
+        }
+    }
+
+    @Test
+    void explainAnalyzeShouldReportWhatEveryOperatorDid() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table events = events(database);
+            Transaction transaction = database.begin();
+            SelectStatement statement = (SelectStatement) parser.parse("SELECT id, score FROM events WHERE kind = 3 ORDER BY score DESC LIMIT 5;");
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PlanNode plan = new SelectExecutor(new PrintStream(output)).explain(events, null, statement, transaction, false);
+            assertEquals(List.of("Limit 5", "-> Top-N Sort by score DESC", "  -> Index Scan on events using events_kind (kind = 3)"),
+                    output.toString().lines().map(line -> line.substring(0, line.indexOf("  ("))).toList());
+            assertEquals(0, plan.getActualRows());
+
+            output.reset();
+            plan = new SelectExecutor(new PrintStream(output)).explain(events, null, statement, transaction, true);
+            assertEquals(5, plan.getActualRows());
+            // every row of kind 3 came out of the index scan
+            assertEquals(100, plan.getInputs().getFirst().getInputs().getFirst().getActualRows());
+            assertFalse(output.toString().contains(SelectExecutor.SEPARATOR));
+            assertTrue(output.toString().contains("Execution time: "));
+        }
+    }
+
+    // 20 000 events with 200 kinds, an index on the kind
+    private static Table events(final Database database) throws IOException {
+        Column id = new Column("id", DataType.INT, false);
+        id.setPrimaryKey(true);
+        Table events = database.createTable("events", List.of(id, new Column("kind", DataType.INT, true),
+                new Column("score", DataType.DOUBLE, true)));
+        Transaction transaction = database.begin();
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 20_000; i ++) {
+            Row row = new Row(3);
+            row.setValues(new Object[] {i, i % 200, (double) (i % 10)});
+            rows.add(row);
+        }
+        events.addRows(rows, transaction);
+        database.commit(transaction);
+        database.createIndex("events_kind", "events", "kind");
+        return events;
+    }
+
+    private Filter filter(final Table table, final String condition) {
+        return table.resolve(((SelectStatement) parser.parse("SELECT * FROM " + table.getTableName() + " WHERE " + condition + ";")).getWhere());
+    }
+
+    private static JoinInput input(final Table table, final Filter filter, final int keyColumn) {
+        QueryPlanner.AccessPath path = QueryPlanner.planScan(table, filter, 1);
+        return new JoinInput(table, filter, path.access(), new boolean[table.getColumns().size()], keyColumn, false, path.node());
+    }
+}
@@ -0,0 +1,310 @@
+package org.woofdb.core.execution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+import org.woofdb.core.transaction.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectExecutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SQLParser parser = new SQLParser(new SqlTokenizer());
+
+    @Test
+    void filterShouldSpanSeveralBatchesAndSkipNulls() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("scores", List.of(new Column("id", DataType.INT, false),
+                    new Column("score", DataType.DOUBLE, true), new Column("name", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 5000; i ++) {
+                Row row = new Row(3);
+                row.setValues(new Object[] {i, i % 2 == 0 ? null : (double) i, "name" + i});
+                rows.add(row);
+            }
+            table.addRows(rows, transaction);
+
+            assertEquals(2500, execute(table, "SELECT id FROM scores WHERE score > 0;", transaction, new ByteArrayOutputStream()));
+            assertEquals(1, execute(table, "SELECT id FROM scores WHERE name = 'name4321';", transaction, new ByteArrayOutputStream()));
+            assertEquals(5000, execute(table, "SELECT * FROM scores;", transaction, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    void compoundConditionsShouldMatchTheRowByRowEvaluation() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Column id = new Column("id", DataType.INT, false);
+            id.setPrimaryKey(true);
+            Table table = database.createTable("scores", List.of(id, new Column("score", DataType.DOUBLE, true)));
+            Transaction transaction = database.begin();
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 3000; i ++) {
+                Row row = new Row(2);
+                row.setValues(new Object[] {i, i % 3 == 0 ? null : (double) (i % 100)});
+                rows.add(row);
+            }
+            table.addRows(rows, transaction);
+
+            // multiples of 3 have no score: 66 rows below 100 and 67 from 2000 on
+            String sql = "SELECT id FROM scores WHERE (id < 100 AND score >= 0) OR (id >= 2000 AND score < 10);";
+            assertEquals(66 + 67, execute(table, sql, transaction, new ByteArrayOutputStream()));
+            assertEquals(66 + 67, count(table.select(((SelectStatement) parser.parse(sql)).getWhere(), transaction)));
+            // the primary key range serves the scan, the score check stays
+            assertEquals(4, execute(table, "SELECT id FROM scores WHERE 10 > id AND score > 2;", transaction, new ByteArrayOutputStream()));
+            assertThrows(SyntaxError.class, () -> execute(table, "SELECT id FROM scores WHERE missing = 1;", transaction, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    void executeShouldPrintTheProjectedColumnsInSelectListOrder() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("users", List.of(new Column("id", DataType.INT, false),
+                    new Column("name", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            table.addRow(new Object[] {"1", "'alice'"}, transaction);
+            table.addRow(new Object[] {"2", null}, transaction);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(2, execute(table, "SELECT name, id FROM users;", transaction, output));
+            assertEquals("""
+                    ------------------
+                    name | id |\s
+                    ------------------
+                    alice | 1 |\s
+                    ------------------
+                    null | 2 |\s
+                    ------------------
+                    """, output.toString());
+        }
+    }
+
+    @Test
+    void groupByShouldAggregateEveryGroup() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("sales", List.of(new Column("region", DataType.VARCHAR, true),
+                    new Column("amount", DataType.INT, true)));
+            Transaction transaction = database.begin();
+            table.addRow(new Object[] {"'north'", "10"}, transaction);
+            table.addRow(new Object[] {"'south'", "5"}, transaction);
+            table.addRow(new Object[] {"'north'", "30"}, transaction);
+            table.addRow(new Object[] {"'north'", null}, transaction);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(2, execute(table, "SELECT region, COUNT(*), SUM(amount), AVG(amount) FROM sales GROUP BY region;", transaction, output));
+            assertEquals("""
+                    ------------------
+                    region | COUNT(*) | SUM(amount) | AVG(amount) |\s
+                    ------------------
+                    north | 3 | 40 | 20.0 |\s
+                    ------------------
+                    south | 1 | 5 | 5.0 |\s
+                    ------------------
+                    """, output.toString());
+
+            output.reset();
+            assertEquals(1, execute(table, "SELECT COUNT(amount), MIN(region) FROM sales WHERE amount > 100;", transaction, output));
+            assertTrue(output.toString().contains("0 | null | "));
+            assertThrows(SyntaxError.class, () -> execute(table, "SELECT amount, COUNT(*) FROM sales GROUP BY region;", transaction, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    void orderByAndLimitShouldSortAndCutTheOutput() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("sales", List.of(new Column("region", DataType.VARCHAR, true),
+                    new Column("amount", DataType.INT, true)));
+            Transaction transaction = database.begin();
+            table.addRow(new Object[] {"'north'", "10"}, transaction);
+            table.addRow(new Object[] {"'south'", "5"}, transaction);
+            table.addRow(new Object[] {"'north'", "30"}, transaction);
+            table.addRow(new Object[] {"'east'", null}, transaction);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(4, execute(table, "SELECT region FROM sales ORDER BY amount DESC;", transaction, output));
+            // nulls sort as the largest values
+            assertEquals(List.of("east", "north", "north", "south"), values(output));
+
+            output.reset();
+            assertEquals(2, execute(table, "SELECT region, SUM(amount) FROM sales GROUP BY region ORDER BY COUNT(*) DESC, region LIMIT 2;", transaction, output));
+            assertEquals(List.of("north | 40", "east | null"), values(output));
+
+            output.reset();
+            assertEquals(1, execute(table, "SELECT * FROM sales LIMIT 1;", transaction, output));
+            assertEquals(List.of("north | 10"), values(output));
+            assertEquals(0, execute(table, "SELECT * FROM sales LIMIT 0;", transaction, new ByteArrayOutputStream()));
+            assertThrows(SyntaxError.class, () -> execute(table, "SELECT region FROM sales ORDER BY COUNT(*);", transaction, new ByteArrayOutputStream()));
+            assertThrows(SyntaxError.class, () -> execute(table, "SELECT region FROM sales GROUP BY region ORDER BY amount;", transaction, new ByteArrayOutputStream()));
+        }
+    }
+
+    @Test
+    void joinShouldPushConditionsDownAndAggregateTheJoinedRows() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Column id = new Column("id", DataType.INT, false);
+            id.setPrimaryKey(true);
+            Table users = database.createTable("users", List.of(id, new Column("name", DataType.VARCHAR, true)));
+            Table orders = database.createTable("orders", List.of(new Column("id", DataType.INT, false),
+                    new Column("user_id", DataType.INT, true), new Column("amount", DataType.DOUBLE, true)));
+            Transaction transaction = database.begin();
+            users.addRow(new Object[] {"1", "'alice'"}, transaction);
+            users.addRow(new Object[] {"2", "'bob'"}, transaction);
+            users.addRow(new Object[] {"3", "'carol'"}, transaction);
+            orders.addRow(new Object[] {"10", "1", "5.0"}, transaction);
+            orders.addRow(new Object[] {"11", "1", "7.5"}, transaction);
+            orders.addRow(new Object[] {"12", "2", "1.0"}, transaction);
+            orders.addRow(new Object[] {"13", null, "9.0"}, transaction);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            assertEquals(3, execute(users, orders, "SELECT name, orders.id FROM users JOIN orders ON users.id = user_id ORDER BY orders.id DESC;", transaction, output));
+            assertEquals(List.of("bob | 12", "alice | 11", "alice | 10"), values(output));
+
+            output.reset();
+            String sql = "SELECT name, COUNT(*), SUM(amount) FROM users INNER JOIN orders ON user_id = users.id WHERE amount > 2 AND (name = 'alice' OR name = 'bob') GROUP BY name;";
+            assertEquals(1, execute(users, orders, sql, transaction, output));
+            assertEquals(List.of("alice | 2 | 12.5"), values(output));
+
+            assertEquals(1, execute(users, orders, "SELECT * FROM users JOIN orders ON users.id = user_id LIMIT 1;", transaction, new ByteArrayOutputStream()));
+            // id is a column of both tables
+            assertThrows(SyntaxError.class, () -> execute(users, orders, "SELECT name FROM users JOIN orders ON id = user_id;", transaction, new ByteArrayOutputStream()));
+            assertThrows(SyntaxError.class, () -> execute(users, orders, "SELECT name FROM users JOIN orders ON users.id = orders.id WHERE name = 'bob' OR amount > 1;", transaction, new ByteArrayOutputStream()));
+        }
+    }
+
+    private long execute(final Table left, final Table right, final String sql, final Transaction transaction, final ByteArrayOutputStream output) throws IOException {
+        SelectStatement statement = (SelectStatement) parser.parse(sql);
+        return new SelectExecutor(new PrintStream(output)).execute(left, right, statement, transaction);
+    }
+
+    // the printed rows without the header, values joined by " | "
+    private static List<String> values(final ByteArrayOutputStream output) {
+        return output.toString().lines().skip(3).filter(line -> !line.equals(SelectExecutor.SEPARATOR))
+                .map(line -> line.substring(0, line.length() - 3)).toList();
+    }
+
+    @Test
+    void queryShouldReturnTheRowsThroughACursor() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table users = database.createTable("users", List.of(new Column("id", DataType.INT, false), new Column("name", DataType.VARCHAR, true)));
+            Table orders = database.createTable("orders", List.of(new Column("user_id", DataType.INT, false), new Column("total", DataType.DOUBLE, true)));
+            Transaction transaction = database.begin();
+            List<Row> userRows = new ArrayList<>();
+            List<Row> orderRows = new ArrayList<>();
+            for (int i = 0; i < 5000; i ++) {
+                userRows.add(users.toRow(new Object[] {String.valueOf(i), i % 10 == 0 ? null : "'user" + i + "'"}));
+                for (int j = 0; j < 3; j ++) {
+                    orderRows.add(orders.toRow(new Object[] {String.valueOf(i), String.valueOf(i + j)}));
+                }
+            }
+            users.addRows(userRows, transaction);
+            orders.addRows(orderRows, transaction);
+            SelectExecutor executor = new SelectExecutor(new PrintStream(new ByteArrayOutputStream()));
+
+            try (ResultCursor cursor = executor.query(users, null, (SelectStatement) parser.parse("SELECT name, id FROM users WHERE id >= 10;"), transaction)) {
+                assertEquals(List.of("name", "id"), cursor.getColumnNames());
+                assertTrue(cursor.next());
+                assertNull(cursor.getValue(0));
+                assertEquals(10, cursor.getValue(1));
+                assertTrue(cursor.next());
+                assertEquals("user11", cursor.getValue(0));
+                assertEquals(2, cursor.getRowCount());
+            }
+
+            // the join stops once the cursor is closed after its first rows
+            SelectStatement join = (SelectStatement) parser.parse("SELECT name, total FROM users JOIN orders ON users.id = user_id;");
+            try (ResultCursor cursor = executor.query(users, orders, join, transaction)) {
+                for (int i = 0; i < 5; i ++) {
+                    assertTrue(cursor.next());
+                }
+            }
+            try (ResultCursor cursor = executor.query(users, orders, join, transaction)) {
+                while (cursor.next()) {
+                    assertInstanceOf(Double.class, cursor.getValue(1));
+                }
+                assertEquals(15000, cursor.getRowCount());
+            }
+
+            SelectStatement grouped = (SelectStatement) parser.parse("SELECT user_id, COUNT(*) FROM orders GROUP BY user_id ORDER BY user_id DESC LIMIT 2;");
+            try (ResultCursor cursor = executor.query(orders, null, grouped, transaction)) {
+                assertTrue(cursor.next());
+                assertEquals(4999, cursor.getValue(0));
+                assertEquals(3L, cursor.getValue(1));
+                assertTrue(cursor.next());
+                assertFalse(cursor.next());
+            }
+        }
+    }
+
+    @Test
+    void parallelScansShouldMatchTheSerialOutput() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("scores", List.of(new Column("id", DataType.INT, false),
+                    new Column("bucket", DataType.INT, true), new Column("name", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            List<Row> rows = new ArrayList<>();
+            for (int i = 0; i < 40000; i ++) {
+                Row row = new Row(3);
+                row.setValues(new Object[] {i, i % 7 == 0 ? null : i % 50, "name" + i});
+                rows.add(row);
+            }
+            table.addRows(rows, transaction);
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                ParallelScan parallelScan = new ParallelScan(pool);
+                assertTrue(table.selectBatchPartitions(null, new boolean[] {true, true, true}, transaction, parallelScan.morselCount()).size() > 1);
+                String plain = "SELECT id, name FROM scores WHERE bucket < 10 OR id > 39000;";
+                // rows come out in storage order either way
+                assertEquals(print(table, plain, transaction, null), print(table, plain, transaction, parallelScan));
+                // groups come out in the order they were first seen, which differs between workers
+                String grouped = "SELECT bucket, COUNT(*), SUM(id), MAX(name) FROM scores GROUP BY bucket;";
+                List<String> serialGroups = print(table, grouped, transaction, null).lines().sorted().toList();
+                assertEquals(serialGroups, print(table, grouped, transaction, parallelScan).lines().sorted().toList());
+                assertEquals(2 * 51 + 3, serialGroups.size());
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private String print(final Table table, final String sql, final Transaction transaction, final ParallelScan parallelScan) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new SelectExecutor(new PrintStream(output), null, parallelScan).execute(table, (SelectStatement) parser.parse(sql), transaction);
+        return output.toString();
+    }
+
+    private static int count(final Iterator<Row> rows) {
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count ++;
+        }
+        return count;
+    }
+
+    private long execute(final Table table, final String sql, final Transaction transaction, final ByteArrayOutputStream output) throws IOException {
+        SelectStatement statement = (SelectStatement) parser.parse(sql);
+        return new SelectExecutor(new PrintStream(output)).execute(table, statement, transaction);
+    }
+}
@@ -0,0 +1,248 @@
+package org.woofdb.core.parser;
+
+import org.junit.jupiter.api.Test;
+import org.woofdb.core.exceptions.SyntaxError;
+import org.woofdb.core.models.ResourceType;
+import org.woofdb.core.models.expression.AggregateExpression;
+import org.woofdb.core.models.expression.AggregateFunction;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.expression.ColumnExpression;
+import org.woofdb.core.models.expression.Operation;
+import org.woofdb.core.models.expression.StaticValueExpression;
+import org.woofdb.core.models.statements.AnalyzeStatement;
+import org.woofdb.core.models.statements.CommitStatement;
+import org.woofdb.core.models.statements.CopyStatement;
+import org.woofdb.core.models.statements.CreateIndexStatement;
+import org.woofdb.core.models.statements.CreateTableStatement;
+import org.woofdb.core.models.statements.DeallocateStatement;
+import org.woofdb.core.models.statements.DeleteStatement;
+import org.woofdb.core.models.statements.DropStatement;
+import org.woofdb.core.models.statements.ExecuteStatement;
+import org.woofdb.core.models.statements.ExplainStatement;
+import org.woofdb.core.models.statements.InsertStatement;
+import org.woofdb.core.models.statements.PrepareStatement;
+import org.woofdb.core.models.statements.RollbackStatement;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.models.statements.StartTransactionStatement;
+import org.woofdb.core.models.statements.VacuumStatement;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SQLParserTest {
+
+    private final SQLParser parser = new SQLParser(new SqlTokenizer());
+
+    @Test
+    void parseShouldMarkInlinePrimaryKeyColumn() {
+        CreateTableStatement statement = (CreateTableStatement) parser.parse("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR);");
+
+        assertEquals(2, statement.getColumns().size());
+        assertTrue(statement.getColumns().get(0).isPrimaryKey());
+        assertFalse(statement.getColumns().get(0).isNullable());
+        assertFalse(statement.getColumns().get(1).isPrimaryKey());
+    }
+
+    @Test
+    void parseShouldMarkTableLevelPrimaryKeyColumn() {
+        CreateTableStatement statement = (CreateTableStatement) parser.parse("CREATE TABLE users (id INT, name VARCHAR, PRIMARY KEY (name));");
+
+        assertEquals(2, statement.getColumns().size());
+        assertFalse(statement.getColumns().get(0).isPrimaryKey());
+        assertTrue(statement.getColumns().get(1).isPrimaryKey());
+    }
+
+    @Test
+    void parseShouldRejectCompositePrimaryKeys() {
+        assertThrows(SyntaxError.class, () -> parser.parse("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR PRIMARY KEY);"));
+    }
+
+    @Test
+    void parseShouldHandleCreateIndex() {
+        CreateIndexStatement statement = (CreateIndexStatement) parser.parse("CREATE INDEX idx_name ON users (name);");
+
+        assertEquals(ResourceType.INDEX, statement.getResourceType());
+        assertEquals("idx_name", statement.getIndexName());
+        assertEquals("users", statement.getTableName());
+        assertEquals("name", statement.getColumnName());
+    }
+
+    @Test
+    void parseShouldHandleDropIndexWithTable() {
+        DropStatement statement = (DropStatement) parser.parse("DROP INDEX idx_name ON users;");
+
+        assertEquals(ResourceType.INDEX, statement.getResourceType());
+        assertEquals("idx_name", statement.getResourceName());
+        assertEquals("users", statement.getTableName());
+    }
+
+    @Test
+    void parseShouldSplitMultiRowInsertIntoTuples() {
+        InsertStatement statement = (InsertStatement) parser.parse("INSERT INTO users (id, name) VALUES (1, 'a'), (2, 'b'), (3, 'c');");
+
+        assertEquals(3, statement.getValues().size());
+        assertEquals(List.of("2", "'b'"), statement.getValues().get(1));
+    }
+
+    @Test
+    void parseShouldRejectIncompleteInsertTuples() {
+        assertThrows(SyntaxError.class, () -> parser.parse("INSERT INTO users (id, name) VALUES (1, 'a'), (2);"));
+    }
+
+    @Test
+    void parseShouldRejectInsertTuplesOfUnequalLength() {
+        // five values divide into rows of three only when the tuple boundaries are ignored
+        SyntaxError e = assertThrows(SyntaxError.class, () -> parser.parse("INSERT INTO t (id, name, v) VALUES (10, 'x', 1.0, 11), ('y', 2.0);"));
+        assertTrue(e.getMessage().contains("row 1 has 4 values"));
+        assertThrows(SyntaxError.class, () -> parser.parse("INSERT INTO t (id, name, v) VALUES (10, 'x', 1.0), ('y', 2.0, 3.0, 4);"));
+        assertThrows(SyntaxError.class, () -> parser.parse("INSERT INTO t (id, name, v) VALUES 10, 'x', 1.0;"));
+        assertThrows(SyntaxError.class, () -> parser.parse("INSERT INTO t (id, name, v) VALUES (10, 'x', 1.0) (11, 'y', 2.0);"));
+    }
+
+    @Test
+    void parseShouldHandleCopyWithOptions() {
+        CopyStatement statement = (CopyStatement) parser.parse("COPY users FROM 'data/users.csv' DELIMITER ';' HEADER;");
+
+        assertEquals("users", statement.getTable());
+        assertEquals("data/users.csv", statement.getFilePath());
+        assertEquals(';', statement.getDelimiter());
+        assertTrue(statement.hasHeader());
+    }
+
+    @Test
+    void parseShouldKeepTheSelectListInOrder() {
+        SelectStatement statement = (SelectStatement) parser.parse("SELECT name, id FROM users WHERE id = 1;");
+
+        assertEquals(List.of("name", "id"), statement.getColumns());
+        assertEquals("users", statement.getFrom());
+        assertNotNull(statement.getWhere());
+    }
+
+    @Test
+    void parseShouldBindAndTighterThanOrAndHonourParentheses() {
+        BinaryExpression where = ((SelectStatement) parser.parse("SELECT * FROM users WHERE id >= 1 OR name = 'a' AND id <> 2;")).getWhere();
+        assertEquals(Operation.OR, where.getOperation());
+        assertEquals(Operation.GTE, ((BinaryExpression) where.getLeftSide()).getOperation());
+        assertEquals(Operation.AND, ((BinaryExpression) where.getRightSide()).getOperation());
+        assertInstanceOf(ColumnExpression.class, ((BinaryExpression) where.getLeftSide()).getLeftSide());
+
+        where = ((SelectStatement) parser.parse("SELECT * FROM users WHERE (id = 1 OR id = 2) AND name = 'a';")).getWhere();
+        assertEquals(Operation.AND, where.getOperation());
+        assertEquals(Operation.OR, ((BinaryExpression) where.getLeftSide()).getOperation());
+
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT * FROM users WHERE (id = 1 OR id = 2;"));
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT * FROM users WHERE id = 1 name = 'a';"));
+    }
+
+    @Test
+    void parseShouldHandleAggregatesAndGroupBy() {
+        SelectStatement statement = (SelectStatement) parser.parse("SELECT region, COUNT(*), avg(amount) FROM sales WHERE amount > 0 GROUP BY region;");
+
+        assertEquals(List.of("region", "COUNT(*)", "AVG(amount)"), statement.getColumns());
+        assertEquals(AggregateFunction.AVG, ((AggregateExpression) statement.getSelectList().get(2)).getFunction());
+        assertEquals(List.of("region"), statement.getGroupBy());
+        assertNotNull(statement.getWhere());
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT MEDIAN(amount) FROM sales;"));
+    }
+
+    @Test
+    void parseShouldHandleOrderByAndLimit() {
+        SelectStatement statement = (SelectStatement) parser.parse("SELECT region, COUNT(*) FROM sales GROUP BY region ORDER BY COUNT(*) DESC, region LIMIT 10;");
+
+        assertEquals(2, statement.getOrderBy().size());
+        assertInstanceOf(AggregateExpression.class, statement.getOrderBy().get(0).getExpression());
+        assertTrue(statement.getOrderBy().get(0).isDescending());
+        assertFalse(statement.getOrderBy().get(1).isDescending());
+        assertEquals(10, statement.getLimit());
+        assertFalse(((SelectStatement) parser.parse("SELECT id FROM users ORDER BY id ASC;")).hasLimit());
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT id FROM users LIMIT -1;"));
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT id FROM users LIMIT 5 ORDER BY id;"));
+    }
+
+    @Test
+    void parseShouldHandleJoins() {
+        SelectStatement statement = (SelectStatement) parser.parse("SELECT users.name, amount FROM users INNER JOIN orders ON users.id = orders.user_id WHERE amount > 1;");
+
+        assertEquals(List.of("users.name", "amount"), statement.getColumns());
+        assertEquals("orders", statement.getJoin().getTable());
+        assertEquals("users.id", statement.getJoin().getLeftColumn());
+        assertEquals("orders.user_id", statement.getJoin().getRightColumn());
+        assertNotNull(statement.getWhere());
+        assertNull(((SelectStatement) parser.parse("SELECT id FROM users;")).getJoin());
+        assertThrows(SyntaxError.class, () -> parser.parse("SELECT id FROM users JOIN orders ON users.id > orders.user_id;"));
+    }
+
+    @Test
+    void parseShouldHandleExplain() {
+        ExplainStatement explain = (ExplainStatement) parser.parse("EXPLAIN SELECT id FROM users WHERE id = 1;");
+        assertFalse(explain.isAnalyze());
+        assertEquals("users", explain.getSelect().getFrom());
+        explain = (ExplainStatement) parser.parse("EXPLAIN ANALYZE SELECT COUNT(*) FROM users JOIN orders ON users.id = user_id;");
+        assertTrue(explain.isAnalyze());
+        assertEquals("orders", explain.getSelect().getJoin().getTable());
+        assertThrows(SyntaxError.class, () -> parser.parse("EXPLAIN INSERT INTO users VALUES (1);"));
+    }
+
+    @Test
+    void parseShouldHandleAnalyze() {
+        assertEquals("users", ((AnalyzeStatement) parser.parse("ANALYZE users;")).getTableName());
+        assertThrows(SyntaxError.class, () -> parser.parse("ANALYZE users orders;"));
+    }
+
+    @Test
+    void parseShouldHandleTransactionControl() {
+        assertInstanceOf(StartTransactionStatement.class, parser.parse("BEGIN;"));
+        assertInstanceOf(StartTransactionStatement.class, parser.parse("START TRANSACTION;"));
+        assertInstanceOf(CommitStatement.class, parser.parse("COMMIT;"));
+        assertInstanceOf(RollbackStatement.class, parser.parse("ROLLBACK;"));
+        assertThrows(SyntaxError.class, () -> parser.parse("COMMIT users;"));
+    }
+
+    @Test
+    void prepareShouldBindPlaceholdersInStatementOrder() {
+        ParameterizedStatement insert = parser.prepare("INSERT INTO users (id, name) VALUES (?, 'a'), (2, ?);");
+        assertEquals(2, insert.getParameterCount());
+        insert.bind(0, "1");
+        assertThrows(SyntaxError.class, insert::getStatement);
+        insert.bind(1, "'it''s'");
+        assertEquals(List.of(List.of("1", "'a'"), List.of("2", "'it''s'")), ((InsertStatement) insert.getStatement()).getValues());
+
+        ParameterizedStatement select = parser.prepare("SELECT * FROM users WHERE id >= ? AND name = ?;");
+        select.bind(0, "5");
+        select.bind(1, null);
+        BinaryExpression where = ((SelectStatement) select.getStatement()).getWhere();
+        assertEquals("5", ((StaticValueExpression) ((BinaryExpression) where.getLeftSide()).getRightSide()).getValue());
+        assertThrows(SyntaxError.class, () -> select.bind(2, "1"));
+    }
+
+    @Test
+    void parseShouldHandlePrepareExecuteAndDeallocate() {
+        PrepareStatement prepare = (PrepareStatement) parser.parse("PREPARE find AS SELECT name FROM users WHERE id = ?;");
+        assertEquals("find", prepare.getName());
+        assertEquals("users", ((SelectStatement) prepare.getStatement()).getFrom());
+
+        ExecuteStatement execute = (ExecuteStatement) parser.parse("EXECUTE find (7, 'a', NULL);");
+        assertEquals("find", execute.getName());
+        assertEquals(Arrays.asList("7", "'a'", null), execute.getParameters());
+        assertEquals(List.of(), ((ExecuteStatement) parser.parse("EXECUTE find")).getParameters());
+
+        assertEquals("find", ((DeallocateStatement) parser.parse("DEALLOCATE PREPARE find;")).getName());
+        assertThrows(SyntaxError.class, () -> parser.parse("PREPARE again AS EXECUTE find (1);"));
+        assertThrows(SyntaxError.class, () -> parser.parse("PREPARE find SELECT name FROM users;"));
+    }
+
+    @Test
+    void parseShouldHandleDeleteAndVacuum() {
+        DeleteStatement delete = (DeleteStatement) parser.parse("DELETE FROM events WHERE id < 100 AND kind = 'old';");
+        assertEquals("events", delete.getTableName());
+        assertEquals(Operation.AND, delete.getCondition().getOperation());
+        assertNull(((DeleteStatement) parser.parse("DELETE FROM events")).getCondition());
+        assertThrows(SyntaxError.class, () -> parser.parse("DELETE events WHERE id = 1;"));
+
+        assertEquals("events", ((VacuumStatement) parser.parse("VACUUM events;")).getTableName());
+        assertNull(((VacuumStatement) parser.parse("VACUUM")).getTableName());
+    }
+}
@@ -0,0 +1,101 @@
+package org.woofdb.core.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.models.DataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BPlusTreeTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BufferPool bufferPool;
+    private PageFile pageFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bufferPool = new BufferPool(8);
+        pageFile = PageFile.open(tempDir.resolve("tree.tbl"));
+    }
+
+    @Test
+    void insertedKeysShouldBeFoundAfterSplits() throws IOException {
+        BPlusTree tree = BPlusTree.create(pageFile, bufferPool, DataType.INT, true);
+        for (int i = 0; i < 5000; i ++) {
+            tree.insert((i * 31) % 5000, value(i));
+        }
+        assertTrue(pageFile.getPageCount() > 3);
+        assertArrayEquals(value(0), tree.get(0));
+        assertArrayEquals(value(1), tree.get(31));
+        assertNull(tree.get(5000));
+    }
+
+    @Test
+    void scanShouldReturnKeysInOrderWithinBounds() throws IOException {
+        BPlusTree tree = BPlusTree.create(pageFile, bufferPool, DataType.INT, true);
+        for (int i = 999; i >= 0; i --) {
+            tree.insert(i, value(i));
+        }
+        Iterator<BPlusTree.Entry> entries = tree.scan(100, false, 200, true);
+        int expected = 101;
+        while (entries.hasNext()) {
+            assertEquals(expected++, entries.next().key());
+        }
+        assertEquals(201, expected);
+    }
+
+    @Test
+    void duplicateKeysShouldBeRejectedByUniqueTrees() throws IOException {
+        BPlusTree tree = BPlusTree.create(pageFile, bufferPool, DataType.VARCHAR, true);
+        tree.insert("woof", value(1));
+        assertThrows(ConstraintViolationException.class, () -> tree.insert("woof", value(2)));
+    }
+
+    @Test
+    void deletesShouldMergePagesBackIntoTheTree() throws IOException {
+        BPlusTree tree = BPlusTree.create(pageFile, bufferPool, DataType.INT, true);
+        for (int i = 0; i < 5000; i ++) {
+            tree.insert(i, value(i));
+        }
+        for (int i = 0; i < 5000; i ++) {
+            assertTrue(tree.delete(i, null));
+        }
+        assertFalse(tree.scan().hasNext());
+        int pageCount = pageFile.getPageCount();
+        for (int i = 0; i < 5000; i ++) {
+            tree.insert(i, value(i));
+        }
+        // freed pages are reused before the file grows
+        assertEquals(pageCount, pageFile.getPageCount());
+    }
+
+    @Test
+    void duplicateKeysShouldBeOrderedByValue() throws IOException {
+        BPlusTree tree = BPlusTree.create(pageFile, bufferPool, DataType.INT, false);
+        for (int i = 0; i < 3000; i ++) {
+            tree.insert(i % 3, value(i));
+        }
+        assertTrue(tree.delete(1, value(4)));
+        assertFalse(tree.delete(1, value(4)));
+        Iterator<BPlusTree.Entry> entries = tree.scan(1, true, 1, true);
+        int count = 0;
+        while (entries.hasNext()) {
+            assertEquals(1, entries.next().key());
+            count ++;
+        }
+        assertEquals(999, count);
+    }
+
+    private static byte[] value(final int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+}
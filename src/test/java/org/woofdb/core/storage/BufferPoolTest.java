@@ -0,0 +1,108 @@
+package org.woofdb.core.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void pagesShouldSurviveEviction() throws IOException {
+        BufferPool bufferPool = new BufferPool(2);
+        try (PageFile pageFile = PageFile.open(tempDir.resolve("pages.tbl"))) {
+            for (int i = 0; i < 10; i ++) {
+                Page page = bufferPool.newPage(pageFile);
+                page.getData().putInt(0, i * 7);
+                bufferPool.unpinPage(page, true);
+            }
+            assertEquals(10, pageFile.getPageCount());
+            for (int i = 0; i < 10; i ++) {
+                Page page = bufferPool.fetchPage(pageFile, i);
+                assertEquals(i * 7, page.getData().getInt(0));
+                bufferPool.unpinPage(page, false);
+            }
+        }
+    }
+
+    @Test
+    void framesShouldLiveOutsideTheHeapAndNewPagesShouldStartEmpty() throws IOException {
+        BufferPool bufferPool = new BufferPool(1);
+        try (PageFile pageFile = PageFile.open(tempDir.resolve("frames.tbl"))) {
+            Page page = bufferPool.newPage(pageFile);
+            assertTrue(page.getData().isDirect());
+            page.getData().putLong(Page.PAGE_SIZE - 8, -1);
+            bufferPool.unpinPage(page, true);
+            // the only frame is reused
+            page = bufferPool.newPage(pageFile);
+            assertEquals(0, page.getData().getLong(Page.PAGE_SIZE - 8));
+            bufferPool.unpinPage(page, true);
+            page = bufferPool.fetchPage(pageFile, 0);
+            assertEquals(-1, page.getData().getLong(Page.PAGE_SIZE - 8));
+            bufferPool.unpinPage(page, false);
+        }
+    }
+
+    @Test
+    void fetchShouldFailWhenEveryFrameIsPinned() throws IOException {
+        BufferPool bufferPool = new BufferPool(1);
+        try (PageFile pageFile = PageFile.open(tempDir.resolve("pinned.tbl"))) {
+            Page page = bufferPool.newPage(pageFile);
+            assertThrows(IllegalStateException.class, () -> bufferPool.newPage(pageFile));
+            bufferPool.unpinPage(page, true);
+        }
+    }
+
+    @Test
+    void mappedPagesShouldOnlyBeHandedOutWhileTheFileHoldsTheirLatestImage() throws IOException {
+        BufferPool bufferPool = new BufferPool(2);
+        try (WriteAheadLog log = WriteAheadLog.open(tempDir); PageFile pageFile = PageFile.open(tempDir.resolve("mapped.tbl"))) {
+            bufferPool.setWriteAheadLog(log);
+            for (int i = 0; i < 4; i ++) {
+                Page page = bufferPool.newPage(pageFile);
+                page.getData().putInt(0, i + 1);
+                bufferPool.unpinPage(page, true);
+            }
+            bufferPool.flushAll();
+            // cached or logged, the file is behind
+            assertNull(bufferPool.mappedPage(pageFile, 0));
+            assertNull(bufferPool.mappedPage(pageFile, 3));
+
+            bufferPool.checkpoint();
+            assertEquals(1, bufferPool.mappedPage(pageFile, 0).getInt(0));
+            assertNull(bufferPool.mappedPage(pageFile, 3));
+
+            ByteBuffer mapped = bufferPool.mappedPage(pageFile, 1);
+            Page page = bufferPool.fetchPage(pageFile, 1);
+            page.getData().putInt(0, 42);
+            bufferPool.unpinPage(page, true);
+            assertNull(bufferPool.mappedPage(pageFile, 1));
+            bufferPool.flushAll();
+            bufferPool.checkpoint();
+            // the mapping shows what reaches the file
+            assertEquals(42, mapped.getInt(0));
+            bufferPool.setWriteAheadLog(null);
+        }
+    }
+
+    @Test
+    void slottedPageShouldStoreRecordsUntilFull() {
+        Page page = new Page();
+        SlottedPage.init(page.getData());
+        byte[] record = new byte[100];
+        int inserted = 0;
+        while (SlottedPage.insert(page.getData(), record) >= 0) {
+            inserted ++;
+        }
+        assertEquals((Page.PAGE_SIZE - 8) / 104, inserted);
+        assertEquals(inserted, SlottedPage.getSlotCount(page.getData()));
+        assertEquals(100, SlottedPage.getRecordLength(page.getData(), 0));
+    }
+}
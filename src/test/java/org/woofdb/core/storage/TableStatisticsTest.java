@@ -0,0 +1,94 @@
+package org.woofdb.core.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Row;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableStatisticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final List<Column> COLUMNS = List.of(new Column("id", DataType.INT, false),
+            new Column("name", DataType.VARCHAR, true), new Column("score", DataType.DOUBLE, true));
+
+    @Test
+    void hyperLogLogShouldEstimateDistinctValues() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100_000; i ++) {
+            sketch.add("user" + (i % 50_000));
+        }
+        assertEquals(50_000, sketch.estimate(), 50_000 * 0.05);
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 10; i ++) {
+            small.add(i % 5);
+            small.add(null);
+        }
+        assertEquals(5, small.estimate());
+    }
+
+    @Test
+    void collectShouldDescribeEveryColumn() {
+        TableStatistics statistics = TableStatistics.collect(COLUMNS, rows(0, 100_000).iterator());
+        assertEquals(100_000, statistics.getRowCount());
+
+        ColumnStatistics id = statistics.getColumn(0);
+        assertEquals(0, id.getMin());
+        assertEquals(99_999, id.getMax());
+        assertEquals(100_000, id.getDistinctValues(), 100_000 * 0.05);
+        assertEquals(TableStatistics.HISTOGRAM_BUCKETS + 1, id.getHistogram().length);
+        // the histogram of a sample is close to the true fractions
+        assertEquals(0.25, id.fractionBelow(25_000, false), 0.02);
+        assertEquals(0, id.fractionBelow(-1, true));
+        assertEquals(1, id.fractionBelow(100_000, false));
+
+        // every fourth name is null
+        assertEquals(0.25, statistics.getNullFraction(1), 1e-9);
+        assertEquals(10, statistics.getColumn(1).getDistinctValues());
+        // half of the scores are 0, the histogram sees the skew
+        ColumnStatistics score = statistics.getColumn(2);
+        assertEquals(0.5, score.fractionBelow(0.0, true), 0.02);
+        assertEquals(0, score.fractionBelow(0.0, false));
+    }
+
+    @Test
+    void statisticsShouldSurviveAReadAndCountInsertedRows() throws IOException {
+        TableStatistics statistics = TableStatistics.collect(COLUMNS, rows(0, 1_000).iterator());
+        assertFalse(statistics.isDirty());
+        for (Row row : rows(1_000, 1_500)) {
+            statistics.add(row);
+        }
+        assertTrue(statistics.isDirty());
+        Path path = tempDir.resolve("t.stats");
+        statistics.writeTo(path);
+        assertFalse(statistics.isDirty());
+
+        TableStatistics read = TableStatistics.readFrom(path, COLUMNS);
+        assertEquals(1_500, read.getRowCount());
+        assertEquals(1_499, read.getColumn(0).getMax());
+        assertEquals(statistics.getColumn(0).getDistinctValues(), read.getColumn(0).getDistinctValues());
+        assertArrayEquals(statistics.getColumn(1).getHistogram(), read.getColumn(1).getHistogram());
+        assertEquals(statistics.getNullFraction(1), read.getNullFraction(1));
+        assertThrows(IOException.class, () -> TableStatistics.readFrom(path, COLUMNS.subList(0, 2)));
+    }
+
+    // ids from the first to before the last, ten names and every fourth one null, half of the scores 0
+    private static List<Row> rows(final int first, final int last) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = first; i < last; i ++) {
+            Row row = new Row(3);
+            row.setValues(new Object[] {i, i % 4 == 0 ? null : "name" + (i % 10), i % 2 == 0 ? 0.0 : (double) i});
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,76 @@
+package org.woofdb.core.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void committedPagesShouldBeReplayedAfterACrash() throws IOException {
+        BufferPool bufferPool = new BufferPool(4);
+        WriteAheadLog log = WriteAheadLog.open(tempDir);
+        bufferPool.setWriteAheadLog(log);
+        PageFile pageFile = PageFile.open(tempDir.resolve("pages.tbl"));
+        for (int i = 0; i < 3; i ++) {
+            Page page = bufferPool.newPage(pageFile);
+            page.getData().putInt(100, i + 1);
+            bufferPool.unpinPage(page, true);
+        }
+        bufferPool.flushAll();
+        assertEquals(0, Files.size(pageFile.getPath()));
+
+        // changed but never committed
+        Page page = bufferPool.fetchPage(pageFile, 0);
+        page.getData().putInt(100, 42);
+        bufferPool.unpinPage(page, true);
+        log.append(List.of(page));
+
+        // the process dies without a checkpoint
+        pageFile.close();
+        log.close();
+
+        WriteAheadLog.open(tempDir).close();
+        try (PageFile recovered = PageFile.open(tempDir.resolve("pages.tbl"))) {
+            assertEquals(3, recovered.getPageCount());
+            ByteBuffer data = ByteBuffer.allocate(Page.PAGE_SIZE);
+            for (int i = 0; i < 3; i ++) {
+                recovered.readPage(i, data);
+                assertEquals(i + 1, data.getInt(100));
+            }
+        }
+        assertEquals(0, Files.size(tempDir.resolve(WriteAheadLog.FILE_NAME)));
+    }
+
+    @Test
+    void loggedPagesShouldBeReadBackBeforeACheckpoint() throws IOException {
+        BufferPool bufferPool = new BufferPool(1);
+        try (WriteAheadLog log = WriteAheadLog.open(tempDir); PageFile pageFile = PageFile.open(tempDir.resolve("evicted.tbl"))) {
+            bufferPool.setWriteAheadLog(log);
+            for (int i = 0; i < 5; i ++) {
+                Page page = bufferPool.newPage(pageFile);
+                page.getData().putLong(Page.PAGE_SIZE - 8, i * 11L);
+                bufferPool.unpinPage(page, true);
+            }
+            for (int i = 0; i < 5; i ++) {
+                Page page = bufferPool.fetchPage(pageFile, i);
+                assertEquals(i * 11L, page.getData().getLong(Page.PAGE_SIZE - 8));
+                bufferPool.unpinPage(page, false);
+            }
+            bufferPool.flushAll();
+            bufferPool.checkpoint();
+            assertEquals(5 * Page.PAGE_SIZE, Files.size(pageFile.getPath()));
+            assertEquals(0, log.getSize());
+        }
+    }
+}
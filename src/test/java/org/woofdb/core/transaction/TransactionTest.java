@@ -0,0 +1,306 @@
+package org.woofdb.core.transaction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.exceptions.ConstraintViolationException;
+import org.woofdb.core.exceptions.TransactionConflictException;
+import org.woofdb.core.models.Column;
+import org.woofdb.core.models.DataType;
+import org.woofdb.core.models.Database;
+import org.woofdb.core.models.Row;
+import org.woofdb.core.models.Table;
+import org.woofdb.core.models.expression.BinaryExpression;
+import org.woofdb.core.models.statements.SelectStatement;
+import org.woofdb.core.parser.SQLParser;
+import org.woofdb.core.storage.BufferPool;
+import org.woofdb.core.storage.SlottedPage;
+import org.woofdb.core.tokenizer.SqlTokenizer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readersShouldKeepTheirSnapshotWhileWritersCommit() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("users", List.of(primaryKey(new Column("id", DataType.INT, false)),
+                    new Column("name", DataType.VARCHAR, true)));
+            Transaction setup = database.begin();
+            table.addRow(new Object[] {"1", "a"}, setup);
+            database.commit(setup);
+
+            Transaction reader = database.begin();
+            Transaction writer = database.begin();
+            table.addRow(new Object[] {"2", "b"}, writer);
+            Row updated = table.toRow(new Object[] {"1", "z"});
+            table.updateRow(table.scanWithLocators(writer).next().locator(), updated, writer);
+            database.commit(writer);
+
+            assertEquals(1, count(table.scan(reader)));
+            assertEquals("a", table.findByPrimaryKey(1, reader).getValue(1));
+            database.commit(reader);
+
+            Transaction later = database.begin();
+            assertEquals(2, count(table.scan(later)));
+            assertEquals("z", table.findByPrimaryKey(1, later).getValue(1));
+            assertEquals(2, table.getNumOfRows());
+        }
+    }
+
+    @Test
+    void rolledBackRowsShouldStayInvisibleAndConcurrentUpdatesShouldConflict() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("events", List.of(new Column("id", DataType.INT, true)));
+            Transaction aborted = database.begin();
+            table.addRow(new Object[] {"1"}, aborted);
+            database.rollback(aborted);
+
+            Transaction setup = database.begin();
+            assertEquals(0, count(table.scan(setup)));
+            table.addRow(new Object[] {"2"}, setup);
+            database.commit(setup);
+
+            Transaction first = database.begin();
+            Transaction second = database.begin();
+            byte[] locator = table.scanWithLocators(first).next().locator();
+            table.updateRow(locator, table.toRow(new Object[] {"3"}), first);
+            assertThrows(TransactionConflictException.class, () -> table.updateRow(locator, table.toRow(new Object[] {"4"}), second));
+            database.commit(first);
+            database.rollback(second);
+            assertEquals(1, table.getNumOfRows());
+        }
+    }
+
+    @Test
+    void updateShouldReplaceTheMatchingRowsOnlyForItsTransactionUntilCommit() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("users", List.of(new Column("id", DataType.INT, true), new Column("name", DataType.VARCHAR, true)));
+            Transaction setup = database.begin();
+            for (int i = 0; i < 1000; i ++) {
+                table.addRow(new Object[] {String.valueOf(i), "'user" + i + "'"}, setup);
+            }
+            database.commit(setup);
+            database.createIndex("users_id", "users", "id");
+
+            Transaction reader = database.begin();
+            Transaction writer = database.begin();
+            assertEquals(2, table.update(Map.of("name", "'renamed'"), where("SELECT * FROM users WHERE id >= 10 AND id < 12"), writer));
+            // the second update replaces the versions the first one created
+            assertEquals(1, table.update(Map.of("name", "'again'"), where("SELECT * FROM users WHERE id = 11"), writer));
+            assertEquals(1, table.update(Map.of("id", "5000"), where("SELECT * FROM users WHERE name = 'again'"), writer));
+            assertEquals("renamed", table.lookup(0, 10, writer).next().getValue(1));
+            assertFalse(table.lookup(0, 11, writer).hasNext());
+            assertEquals("again", table.lookup(0, 5000, writer).next().getValue(1));
+            assertEquals("user11", table.lookup(0, 11, reader).next().getValue(1));
+            database.commit(writer);
+
+            Transaction later = database.begin();
+            assertEquals(1000, count(table.scan(later)));
+            assertEquals(1, count(table.select(where("SELECT * FROM users WHERE name = 'renamed'"), later)));
+            assertEquals("again", table.lookup(0, 5000, later).next().getValue(1));
+            assertEquals(0, table.update(Map.of("name", "NULL"), where("SELECT * FROM users WHERE id = 11"), later));
+            assertEquals(1000, table.update(Map.of("name", "NULL"), null, later));
+            database.rollback(later);
+            assertEquals(1, count(table.select(where("SELECT * FROM users WHERE name = 'renamed'"), database.begin())));
+        }
+    }
+
+    @Test
+    void versionsKeptForALongRunningReaderShouldOverflowTheEntryWithoutLosingTheRow() throws IOException {
+        String directory = tempDir.resolve("db").toString();
+        try (Database database = new Database(directory)) {
+            Table table = database.createTable("counters", List.of(primaryKey(new Column("id", DataType.INT, false)),
+                    new Column("name", DataType.VARCHAR, true)));
+            Transaction setup = database.begin();
+            table.addRow(new Object[] {"1", "'start'"}, setup);
+            table.addRow(new Object[] {"2", "'other'"}, setup);
+            database.commit(setup);
+
+            Transaction reader = database.begin();
+            for (int i = 0; i < 400; i ++) {
+                Transaction writer = database.begin();
+                assertEquals(1, table.update(Map.of("name", "'value " + i + "'"), where("SELECT * FROM counters WHERE id = 1"), writer));
+                database.commit(writer);
+            }
+            assertEquals("start", table.findByPrimaryKey(1, reader).getValue(1));
+            assertEquals(2, count(table.scan(reader)));
+
+            // a row too large for the table fails before the chain is touched
+            Transaction failing = database.begin();
+            assertThrows(ConstraintViolationException.class, () -> table.update(Map.of("name", "'" + "x".repeat(2000) + "'"),
+                    where("SELECT * FROM counters WHERE id = 1"), failing));
+            database.rollback(failing);
+            assertEquals("value 399", table.findByPrimaryKey(1, database.begin()).getValue(1));
+            database.commit(reader);
+        }
+        try (Database database = new Database(directory)) {
+            Table table = database.getTable("counters");
+            Transaction transaction = database.begin();
+            assertEquals("value 399", table.findByPrimaryKey(1, transaction).getValue(1));
+            assertEquals("other", table.findByPrimaryKey(2, transaction).getValue(1));
+            database.commit(transaction);
+            Transaction vacuum = database.begin();
+            assertEquals(400, table.vacuum(vacuum));
+            database.commit(vacuum);
+            assertEquals(2, count(table.scan(database.begin())));
+        }
+    }
+
+    @Test
+    void rowsLargerThanAPageShouldBeRejectedBeforeAnyIsStored() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("notes", List.of(new Column("id", DataType.INT, true), new Column("body", DataType.VARCHAR, true)));
+            Transaction transaction = database.begin();
+            table.addRow(new Object[] {"1", "'" + "a".repeat(4000) + "'"}, transaction);
+            ConstraintViolationException e = assertThrows(ConstraintViolationException.class,
+                    () -> table.addRows(List.of(table.toRow(new Object[] {"2", "'b'"}), table.toRow(new Object[] {"3", "'" + "c".repeat(5000) + "'"})), transaction));
+            assertTrue(e.getMessage().contains("limit of " + SlottedPage.MAX_RECORD_SIZE + " bytes"));
+            database.commit(transaction);
+            assertEquals(1, count(table.scan(database.begin())));
+        }
+    }
+
+    @Test
+    void vacuumShouldRemoveDeletedRowsNoSnapshotSeesAndInsertsShouldReuseTheirSpace() throws IOException {
+        try (Database database = new Database(tempDir.resolve("db").toString())) {
+            Table table = database.createTable("events", List.of(new Column("id", DataType.INT, true), new Column("payload", DataType.VARCHAR, true)));
+            database.createIndex("events_id", "events", "id");
+            Path file = Path.of(table.getTableFilePath());
+            long size = 0;
+            for (int round = 0; round < 3; round ++) {
+                Transaction insert = database.begin();
+                for (int i = 0; i < 2000; i ++) {
+                    table.addRow(new Object[] {String.valueOf(i), "'payload of event " + i + "'"}, insert);
+                }
+                database.commit(insert);
+
+                Transaction reader = database.begin();
+                Transaction delete = database.begin();
+                assertEquals(2000, table.delete(where("SELECT * FROM events WHERE id >= 0"), delete));
+                database.commit(delete);
+                // the reader still sees the deleted rows, so they stay
+                Transaction vacuum = database.begin();
+                assertEquals(0, table.vacuum(vacuum));
+                database.commit(vacuum);
+                assertEquals(2000, count(table.scan(reader)));
+                database.commit(reader);
+
+                vacuum = database.begin();
+                assertEquals(2000, table.vacuum(vacuum));
+                database.commit(vacuum);
+                assertEquals(0, table.getNumOfRows());
+                database.getBufferPool().checkpoint();
+                if (round == 0) {
+                    size = Files.size(file);
+                }
+            }
+            // every round after the first one filled the pages the rows before it left
+            assertEquals(size, Files.size(file));
+
+            Transaction last = database.begin();
+            table.addRow(new Object[] {"7", "'x'"}, last);
+            assertEquals(1, count(table.lookup(0, 7, last)));
+        }
+    }
+
+    @Test
+    void spaceFreedByVacuumShouldBeReusedAfterTheTableIsOpenedAgain() throws IOException {
+        String directory = tempDir.resolve("db").toString();
+        try (Database database = new Database(directory)) {
+            Table table = database.createTable("events", List.of(new Column("id", DataType.INT, true), new Column("payload", DataType.VARCHAR, true)));
+            insertEvents(database, table);
+        }
+        Path file = tempDir.resolve("db").resolve("events.tbl");
+        long size = Files.size(file);
+        for (int round = 0; round < 3; round ++) {
+            try (Database database = new Database(directory)) {
+                Table table = database.getTable("events");
+                Transaction delete = database.begin();
+                assertEquals(2000, table.delete(null, delete));
+                database.commit(delete);
+                Transaction vacuum = database.begin();
+                assertEquals(2000, table.vacuum(vacuum));
+                database.commit(vacuum);
+            }
+            try (Database database = new Database(directory)) {
+                insertEvents(database, database.getTable("events"));
+            }
+            assertEquals(size, Files.size(file));
+        }
+    }
+
+    @Test
+    void tablesShouldOpenOnFirstUseAndIdleOnesShouldBeClosedBeyondTheBound() throws IOException {
+        String directory = tempDir.resolve("db").toString();
+        try (Database database = new Database(directory)) {
+            for (int i = 0; i < 10; i ++) {
+                Table table = database.createTable("t" + i, List.of(new Column("id", DataType.INT, true)));
+                Transaction transaction = database.begin();
+                table.addRow(new Object[] {String.valueOf(i)}, transaction);
+                database.commit(transaction);
+            }
+            database.createIndex("t7_id", "t7", "id");
+        }
+        try (Database database = new Database(directory, new BufferPool(), 3)) {
+            assertEquals(0, database.getOpenTableCount());
+            assertEquals(10, database.getTableNames().size());
+            assertNull(database.getTable("missing"));
+
+            for (int i = 0; i < 10; i ++) {
+                assertEquals(1, database.getTable("t" + i).getNumOfRows());
+                assertTrue(database.getOpenTableCount() <= 3);
+            }
+            // nothing is closed under a running transaction
+            Transaction transaction = database.begin();
+            Table first = database.getTable("t0");
+            for (int i = 1; i < 10; i ++) {
+                database.getTable("t" + i);
+            }
+            assertEquals(10, database.getOpenTableCount());
+            assertEquals(1, count(first.scan(transaction)));
+            database.commit(transaction);
+
+            assertEquals("t7", database.findTableWithIndex("t7_id").getTableName());
+            assertNull(database.findTableWithIndex("t7_missing"));
+            database.dropTable("t3");
+            assertFalse(database.getTableNames().contains("t3"));
+            assertNull(database.getTable("t3"));
+        }
+    }
+
+    private static void insertEvents(final Database database, final Table table) throws IOException {
+        Transaction insert = database.begin();
+        for (int i = 0; i < 2000; i ++) {
+            table.addRow(new Object[] {String.valueOf(i), "'payload of event " + i + "'"}, insert);
+        }
+        database.commit(insert);
+    }
+
+    private static BinaryExpression where(final String select) {
+        return ((SelectStatement) new SQLParser(new SqlTokenizer()).parse(select)).getWhere();
+    }
+
+    private static Column primaryKey(final Column column) {
+        column.setPrimaryKey(true);
+        return column;
+    }
+
+    private static int count(final Iterator<Row> rows) {
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count ++;
+        }
+        return count;
+    }
+}
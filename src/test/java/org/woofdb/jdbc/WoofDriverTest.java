@@ -0,0 +1,275 @@
+package org.woofdb.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.woofdb.core.storage.WriteAheadLog;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WoofDriverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void preparedStatementsShouldBindParametersIntoTheParsedStatement() throws SQLException {
+        try (Connection connection = connect()) {
+            try (Statement statement = connection.createStatement()) {
+                assertEquals(0, statement.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR, score DOUBLE);"));
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users (id, name, score) VALUES (?, ?, ?);")) {
+                for (int i = 0; i < 100; i ++) {
+                    insert.setInt(1, i);
+                    // a bound string is never tokenized, its quote stays part of the value
+                    insert.setString(2, "o'user" + i);
+                    if (i % 10 == 0) {
+                        insert.setNull(3, java.sql.Types.DOUBLE);
+                    }
+                    else {
+                        insert.setDouble(3, i / 2.0);
+                    }
+                    assertEquals(1, insert.executeUpdate());
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT id, name, score FROM users WHERE id >= ? AND id < ?")) {
+                select.setInt(1, 10);
+                select.setInt(2, 12);
+                try (ResultSet rows = select.executeQuery()) {
+                    assertEquals(3, rows.getMetaData().getColumnCount());
+                    assertTrue(rows.next());
+                    assertEquals(10, rows.getInt("id"));
+                    assertEquals("o'user10", rows.getString(2));
+                    assertEquals(0, rows.getDouble("score"));
+                    assertTrue(rows.wasNull());
+                    assertTrue(rows.next());
+                    assertEquals(5.5, rows.getDouble(3));
+                    assertFalse(rows.wasNull());
+                    assertFalse(rows.next());
+                }
+                // the same statement runs again with other values
+                select.setInt(2, 100);
+                select.setMaxRows(5);
+                assertEquals(5, count(select.executeQuery()));
+                select.clearParameters();
+                assertThrows(SQLSyntaxErrorException.class, select::executeQuery);
+            }
+        }
+    }
+
+    @Test
+    void executeShouldRunNamedPreparedStatementsUntilDeallocated() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR)");
+            statement.executeUpdate("PREPARE add AS INSERT INTO users (id, name) VALUES (?, ?)");
+            for (int i = 0; i < 10; i ++) {
+                assertEquals(1, statement.executeUpdate("EXECUTE add (" + i + ", 'user" + i + "')"));
+            }
+            statement.executeUpdate("PREPARE find AS SELECT id FROM users WHERE id >= ?");
+            assertEquals(List.of(7, 8, 9), ids(statement.executeQuery("EXECUTE find (7)")));
+            // an index makes the plan kept for the same value stale
+            statement.executeUpdate("CREATE INDEX users_name ON users (name)");
+            assertEquals(List.of(7, 8, 9), ids(statement.executeQuery("EXECUTE find (7)")));
+            assertEquals(List.of(9), ids(statement.executeQuery("EXECUTE find (9)")));
+
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeQuery("EXECUTE find (1, 2)"));
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeUpdate("PREPARE find AS SELECT id FROM users"));
+            statement.executeUpdate("DEALLOCATE find");
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeQuery("EXECUTE find (7)"));
+        }
+    }
+
+    @Test
+    void updateShouldChangeTheMatchingRowsAndReportTheirCount() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE accounts (id INT PRIMARY KEY, owner VARCHAR, balance DOUBLE)");
+            statement.executeUpdate("INSERT INTO accounts (id, owner, balance) VALUES (1, 'a', 10), (2, 'b', 20), (3, 'c', 30)");
+            assertEquals(2, statement.executeUpdate("UPDATE accounts SET balance = 0, owner = 'x' WHERE id >= 2"));
+            try (PreparedStatement update = connection.prepareStatement("UPDATE accounts SET balance = ? WHERE id = ?")) {
+                update.setDouble(1, 99.5);
+                update.setInt(2, 1);
+                assertEquals(1, update.executeUpdate());
+                update.setInt(2, 42);
+                assertEquals(0, update.executeUpdate());
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT id, owner, balance FROM accounts")) {
+                assertTrue(rows.next());
+                assertEquals("a", rows.getString(2));
+                assertEquals(99.5, rows.getDouble(3));
+                assertTrue(rows.next());
+                assertEquals("x", rows.getString(2));
+                assertEquals(0, rows.getDouble(3));
+            }
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeUpdate("UPDATE accounts SET missing = 1"));
+            assertThrows(SQLException.class, () -> statement.executeUpdate("UPDATE accounts SET id = 1 WHERE id = 2"));
+        }
+    }
+
+    @Test
+    void deleteShouldRemoveRowsAndDropShouldRemoveTheTable() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE sessions (id INT PRIMARY KEY, owner VARCHAR)");
+            statement.executeUpdate("CREATE INDEX sessions_owner ON sessions (owner)");
+            statement.executeUpdate("INSERT INTO sessions (id, owner) VALUES (1, 'a'), (2, 'b'), (3, 'a'), (4, 'c')");
+            assertEquals(2, statement.executeUpdate("DELETE FROM sessions WHERE owner = 'a'"));
+            assertEquals(List.of(2, 4), ids(statement.executeQuery("SELECT id FROM sessions")));
+            assertEquals(0, statement.executeUpdate("VACUUM sessions"));
+            // the keys are free again
+            statement.executeUpdate("INSERT INTO sessions (id, owner) VALUES (1, 'd'), (3, 'a')");
+            assertEquals(List.of(3), ids(statement.executeQuery("SELECT id FROM sessions WHERE owner = 'a'")));
+            assertEquals(4, statement.executeUpdate("DELETE FROM sessions"));
+
+            statement.executeUpdate("DROP TABLE sessions");
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeQuery("SELECT id FROM sessions"));
+            statement.executeUpdate("CREATE TABLE sessions (id INT PRIMARY KEY)");
+            assertEquals(List.of(), ids(statement.executeQuery("SELECT id FROM sessions")));
+        }
+    }
+
+    @Test
+    void resultSetsShouldStreamTheRowsOfTheirQuery() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE numbers (n INT PRIMARY KEY)");
+            StringBuilder values = new StringBuilder();
+            for (int i = 0; i < 5000; i ++) {
+                values.append(i == 0 ? "" : ", ").append('(').append(i).append(')');
+            }
+            assertEquals(5000, statement.executeUpdate("INSERT INTO numbers (n) VALUES " + values));
+
+            // the first rows of the scan arrive before the rest are read, closing early stops the query
+            ResultSet rows = statement.executeQuery("SELECT n FROM numbers");
+            assertTrue(rows.next());
+            assertEquals(0, rows.getInt(1));
+            rows.close();
+            assertTrue(rows.isClosed());
+            assertNull(statement.getResultSet());
+
+            assertTrue(statement.execute("SELECT COUNT(*) FROM numbers WHERE n < 100"));
+            try (ResultSet count = statement.getResultSet()) {
+                assertTrue(count.next());
+                assertEquals(100, count.getLong(1));
+            }
+            assertTrue(statement.execute("EXPLAIN SELECT n FROM numbers WHERE n = 7"));
+            try (ResultSet plan = statement.getResultSet()) {
+                assertTrue(plan.next());
+                assertTrue(plan.getString("QUERY PLAN").startsWith("Primary Key Scan on numbers (n = 7)"));
+            }
+            assertThrows(SQLSyntaxErrorException.class, () -> statement.executeQuery("SELECT n FROM missing"));
+        }
+    }
+
+    @Test
+    void manualCommitShouldRunStatementsInOneTransaction() throws SQLException {
+        try (Connection connection = connect(); Connection other = DriverManager.getConnection(url())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("CREATE TABLE events (id INT PRIMARY KEY)");
+            }
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement(); Statement otherStatement = other.createStatement()) {
+                statement.executeUpdate("INSERT INTO events (id) VALUES (1), (2)");
+                assertEquals(List.of(1, 2), ids(statement.executeQuery("SELECT id FROM events")));
+                // not committed yet
+                assertEquals(List.of(), ids(otherStatement.executeQuery("SELECT id FROM events")));
+                connection.rollback();
+                assertEquals(List.of(), ids(statement.executeQuery("SELECT id FROM events")));
+
+                statement.executeUpdate("INSERT INTO events (id) VALUES (3)");
+                connection.commit();
+                assertEquals(List.of(3), ids(otherStatement.executeQuery("SELECT id FROM events")));
+                assertThrows(SQLException.class, () -> statement.execute("COMMIT"));
+            }
+        }
+    }
+
+    @Test
+    void commitsOfConcurrentConnectionsShouldShareTheLogSync() throws Exception {
+        int writers = 8;
+        int commitsPerWriter = 50;
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE events (id INT PRIMARY KEY)");
+            WriteAheadLog log = ((WoofConnection) connection).getDatabase().getWriteAheadLog();
+            long syncsBefore = log.getSyncCount();
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int writer = 0; writer < writers; writer ++) {
+                    int first = writer * commitsPerWriter;
+                    futures.add(executor.submit(() -> {
+                        try (Connection own = DriverManager.getConnection(url()); Statement insert = own.createStatement()) {
+                            for (int i = first; i < first + commitsPerWriter; i ++) {
+                                insert.executeUpdate("INSERT INTO events (id) VALUES (" + i + ")");
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            finally {
+                executor.shutdown();
+            }
+            try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM events")) {
+                assertTrue(count.next());
+                assertEquals(writers * commitsPerWriter, count.getLong(1));
+            }
+            // a writer syncing outside the database lock lets the others log their commits behind the same fsync
+            assertTrue(log.getSyncCount() - syncsBefore < writers * commitsPerWriter);
+        }
+    }
+
+    @Test
+    void connectShouldOpenOnlyExistingDatabasesUnlessAskedToCreate() throws SQLException {
+        assertNull(new WoofDriver().connect("jdbc:other:db", new Properties()));
+        SQLException e = assertThrows(SQLException.class, () -> DriverManager.getConnection(url()));
+        assertEquals("3D000", e.getSQLState());
+        try (Connection connection = connect()) {
+            assertTrue(connection.isValid(0));
+        }
+        // the database exists now
+        try (Connection connection = DriverManager.getConnection(url())) {
+            assertTrue(connection.getAutoCommit());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("create", "true");
+        return DriverManager.getConnection(url(), properties);
+    }
+
+    private String url() {
+        return WoofDriver.URL_PREFIX + tempDir.resolve("db");
+    }
+
+    private static int count(final ResultSet rows) throws SQLException {
+        int count = 0;
+        while (rows.next()) {
+            count ++;
+        }
+        return count;
+    }
+
+    private static List<Integer> ids(final ResultSet rows) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        while (rows.next()) {
+            ids.add(rows.getInt(1));
+        }
+        return ids;
+    }
+}